@@ -1,4 +1,4 @@
-import mx, mx_graal_js
+import mx, mx_benchmark, mx_graal_js
 from mx_benchmark import GuestVm, java_vm_registry
 
 class GraalJsVm(GuestVm):
@@ -25,6 +25,29 @@ class GraalJsVm(GuestVm):
         dims.update({'config.name': self.config_name()})
         return code, out, dims
 
+class JMHDistGraalJsBenchmarkSuite(mx_benchmark.JMHDistBenchmarkSuite):
+    """
+    Runs the JMH micro benchmarks of the GRAALJS_BENCHMARKS distribution, e.g.:
+
+        mx benchmark js-jmh --results-file=results.json
+
+    The results file is machine-readable and records the commit of every suite, so that
+    regressions can be tracked per commit.
+    """
+    def name(self):
+        return "js-jmh"
+
+    def group(self):
+        return "Graal"
+
+    def subgroup(self):
+        return "graal-js"
+
+    def filter_distribution(self, dist):
+        return super(JMHDistGraalJsBenchmarkSuite, self).filter_distribution(dist) and dist.name == "GRAALJS_BENCHMARKS"
+
+mx_benchmark.add_bm_suite(JMHDistGraalJsBenchmarkSuite())
+
 try:
     import mx_js_benchmarks
     _suite = mx.suite('graal-js')
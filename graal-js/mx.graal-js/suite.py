@@ -308,6 +308,20 @@ suite = {
       "workingSets" : "Truffle,JavaScript",
     },
 
+    "com.oracle.truffle.js.benchmarks" : {
+      "subDir" : "src",
+      "sourceDirs" : ["src"],
+      "dependencies" : [
+        "sdk:GRAAL_SDK",
+        "mx:JMH_1_18",
+      ],
+      "annotationProcessors" : ["mx:JMH_1_18"],
+      "checkstyle" : "com.oracle.truffle.js.runtime",
+      "javaCompliance" : "1.8",
+      "workingSets" : "Truffle,JavaScript,Test",
+      "testProject" : True,
+    },
+
     "com.oracle.truffle.js.test.external" : {
       "subDir" : "src",
       "sourceDirs" : ["src"],
@@ -325,6 +339,20 @@ suite = {
       "testProject" : True,
     },
 
+    "com.oracle.truffle.js.test" : {
+      "subDir" : "src",
+      "sourceDirs" : ["src"],
+      "dependencies" : [
+        "mx:JUNIT",
+        "graaljs",
+        "com.oracle.truffle.js.shell",
+      ],
+      "checkstyle" : "com.oracle.truffle.js.runtime",
+      "javaCompliance" : "1.8",
+      "workingSets" : "Truffle,JavaScript,Test",
+      "testProject" : True,
+    },
+
     "graaljs" : {
       "dependencies" : [
         "com.oracle.truffle.js.parser",
@@ -438,7 +466,7 @@ suite = {
     },
 
     "TRUFFLE_JS_TESTS" : {
-      "dependencies" : ["com.oracle.truffle.js.test.external", "com.oracle.truffle.js.test.instrumentation"],
+      "dependencies" : ["com.oracle.truffle.js.test", "com.oracle.truffle.js.test.external", "com.oracle.truffle.js.test.instrumentation"],
       "exclude" : [
         "mx:HAMCREST",
         "mx:JUNIT",
@@ -447,7 +475,21 @@ suite = {
         "JACKSON_DATABIND",
         "NASHORN_INTERNAL_TESTS",
       ],
-      "distDependencies" : ["GRAALJS"],
+      "distDependencies" : ["GRAALJS", "GRAALJS_LAUNCHER"],
+      "maven" : False,
+    },
+
+    "GRAALJS_BENCHMARKS" : {
+      "subDir" : "src",
+      "dependencies" : ["com.oracle.truffle.js.benchmarks"],
+      "exclude" : [
+        "mx:JMH_1_18",
+      ],
+      "distDependencies" : [
+        "sdk:GRAAL_SDK",
+        "GRAALJS",
+      ],
+      "description" : "Graal.js JMH micro benchmarks",
       "maven" : False,
     },
 
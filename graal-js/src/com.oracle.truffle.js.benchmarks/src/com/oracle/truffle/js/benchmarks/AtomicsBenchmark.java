@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.benchmarks;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * {@code Atomics} operations on a {@code SharedArrayBuffer}.
+ */
+public class AtomicsBenchmark extends JSBenchmark {
+    private Value add;
+    private Value compareExchange;
+
+    @Override
+    protected Context.Builder createContextBuilder() {
+        return super.createContextBuilder().option("js.shared-array-buffer", "true").option("js.atomics", "true");
+    }
+
+    @Override
+    protected String getSource() {
+        return "var ia = new Int32Array(new SharedArrayBuffer(1024));\n" +
+                        "function add() {\n" +
+                        "  for (var i = 0; i < 256; i++) { Atomics.add(ia, i, 1); }\n" +
+                        "  return Atomics.load(ia, 0);\n" +
+                        "}\n" +
+                        "function compareExchange() {\n" +
+                        "  var swapped = 0;\n" +
+                        "  for (var i = 0; i < 256; i++) {\n" +
+                        "    var old = Atomics.load(ia, i);\n" +
+                        "    if (Atomics.compareExchange(ia, i, old, old + 1) === old) { swapped++; }\n" +
+                        "  }\n" +
+                        "  return swapped;\n" +
+                        "}\n";
+    }
+
+    @Override
+    @Setup
+    public void setup() {
+        super.setup();
+        add = function("add");
+        compareExchange = function("compareExchange");
+    }
+
+    @Benchmark
+    public Value add() {
+        return add.execute();
+    }
+
+    @Benchmark
+    public Value compareExchange() {
+        return compareExchange.execute();
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.benchmarks;
+
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Property reads through monomorphic, polymorphic and megamorphic inline caches.
+ */
+public class PropertyAccessBenchmark extends JSBenchmark {
+    private Value monomorphic;
+    private Value polymorphic;
+    private Value megamorphic;
+
+    @Override
+    protected String getSource() {
+        return "function makeObjects(shapes) {\n" +
+                        "  var objects = [];\n" +
+                        "  for (var i = 0; i < 64; i++) {\n" +
+                        "    var o = {};\n" +
+                        "    o['p' + (i % shapes)] = i;\n" +
+                        "    o.x = i;\n" +
+                        "    objects.push(o);\n" +
+                        "  }\n" +
+                        "  return objects;\n" +
+                        "}\n" +
+                        "function makeReader(objects) {\n" +
+                        "  return function() {\n" +
+                        "    var sum = 0;\n" +
+                        "    for (var i = 0; i < objects.length; i++) {\n" +
+                        "      sum += objects[i].x;\n" +
+                        "    }\n" +
+                        "    return sum;\n" +
+                        "  };\n" +
+                        "}\n" +
+                        "var monomorphic = makeReader(makeObjects(1));\n" +
+                        "var polymorphic = makeReader(makeObjects(4));\n" +
+                        "var megamorphic = makeReader(makeObjects(32));\n";
+    }
+
+    @Override
+    @Setup
+    public void setup() {
+        super.setup();
+        monomorphic = function("monomorphic");
+        polymorphic = function("polymorphic");
+        megamorphic = function("megamorphic");
+    }
+
+    @Benchmark
+    public Value monomorphic() {
+        return monomorphic.execute();
+    }
+
+    @Benchmark
+    public Value polymorphic() {
+        return polymorphic.execute();
+    }
+
+    @Benchmark
+    public Value megamorphic() {
+        return megamorphic.execute();
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.benchmarks;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Element access on heap and direct typed arrays and on {@code DataView}.
+ */
+public class TypedArrayBenchmark extends JSBenchmark {
+    @Param({"false", "true"}) public boolean directByteBuffer;
+
+    private Value int32Sum;
+    private Value float64Fill;
+    private Value dataViewRead;
+
+    @Override
+    protected Context.Builder createContextBuilder() {
+        return super.createContextBuilder().option("js.direct-byte-buffer", String.valueOf(directByteBuffer));
+    }
+
+    @Override
+    protected String getSource() {
+        return "var i32 = new Int32Array(4096);\n" +
+                        "for (var i = 0; i < i32.length; i++) { i32[i] = i; }\n" +
+                        "var f64 = new Float64Array(4096);\n" +
+                        "var view = new DataView(new ArrayBuffer(4096));\n" +
+                        "function int32Sum() {\n" +
+                        "  var sum = 0;\n" +
+                        "  for (var i = 0; i < i32.length; i++) { sum = (sum + i32[i]) | 0; }\n" +
+                        "  return sum;\n" +
+                        "}\n" +
+                        "function float64Fill() {\n" +
+                        "  for (var i = 0; i < f64.length; i++) { f64[i] = i * 0.5; }\n" +
+                        "  return f64[f64.length - 1];\n" +
+                        "}\n" +
+                        "function dataViewRead() {\n" +
+                        "  var sum = 0;\n" +
+                        "  for (var i = 0; i < view.byteLength; i += 4) { sum = (sum + view.getInt32(i, true)) | 0; }\n" +
+                        "  return sum;\n" +
+                        "}\n";
+    }
+
+    @Override
+    @Setup
+    public void setup() {
+        super.setup();
+        int32Sum = function("int32Sum");
+        float64Fill = function("float64Fill");
+        dataViewRead = function("dataViewRead");
+    }
+
+    @Benchmark
+    public Value int32Sum() {
+        return int32Sum.execute();
+    }
+
+    @Benchmark
+    public Value float64Fill() {
+        return float64Fill.execute();
+    }
+
+    @Benchmark
+    public Value dataViewRead() {
+        return dataViewRead.execute();
+    }
+}
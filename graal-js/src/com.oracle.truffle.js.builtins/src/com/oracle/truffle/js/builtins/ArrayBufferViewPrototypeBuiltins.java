@@ -45,6 +45,7 @@ import static com.oracle.truffle.js.runtime.builtins.JSArrayBufferView.typedArra
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.EnumSet;
 
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.dsl.Cached;
@@ -73,6 +74,7 @@ import com.oracle.truffle.js.builtins.ArrayPrototypeBuiltinsFactory.JSArrayFindI
 import com.oracle.truffle.js.builtins.ArrayPrototypeBuiltinsFactory.JSArrayFindNodeGen;
 import com.oracle.truffle.js.builtins.ArrayPrototypeBuiltinsFactory.JSArrayIncludesNodeGen;
 import com.oracle.truffle.js.builtins.ArrayPrototypeBuiltinsFactory.JSArrayIndexOfNodeGen;
+import com.oracle.truffle.js.builtins.ArrayPrototypeBuiltinsFactory.JSArrayIteratorNodeGen;
 import com.oracle.truffle.js.builtins.ArrayPrototypeBuiltinsFactory.JSArrayJoinNodeGen;
 import com.oracle.truffle.js.builtins.ArrayPrototypeBuiltinsFactory.JSArrayMapNodeGen;
 import com.oracle.truffle.js.builtins.ArrayPrototypeBuiltinsFactory.JSArrayReduceNodeGen;
@@ -97,6 +99,7 @@ import com.oracle.truffle.js.runtime.builtins.BuiltinEnum;
 import com.oracle.truffle.js.runtime.builtins.JSArray;
 import com.oracle.truffle.js.runtime.builtins.JSArrayBuffer;
 import com.oracle.truffle.js.runtime.builtins.JSArrayBufferView;
+import com.oracle.truffle.js.runtime.builtins.JSArrayIterator;
 import com.oracle.truffle.js.runtime.objects.JSObject;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 import com.oracle.truffle.js.runtime.util.JSClassProfile;
@@ -131,6 +134,9 @@ public final class ArrayBufferViewPrototypeBuiltins extends JSBuiltinsContainer.
         toLocaleString(0),
         join(1),
         reverse(0),
+        keys(0),
+        values(0),
+        entries(0),
 
         // ES7
         includes(1);
@@ -148,7 +154,9 @@ public final class ArrayBufferViewPrototypeBuiltins extends JSBuiltinsContainer.
 
         @Override
         public int getECMAScriptVersion() {
-            if (this == includes) {
+            if (EnumSet.of(keys, values, entries).contains(this)) {
+                return 6;
+            } else if (this == includes) {
                 return 7;
             }
             return BuiltinEnum.super.getECMAScriptVersion();
@@ -201,6 +209,12 @@ public final class ArrayBufferViewPrototypeBuiltins extends JSBuiltinsContainer.
                 return JSArrayJoinNodeGen.create(context, builtin, true, args().withThis().fixedArgs(1).createArgumentNodes(context));
             case reverse:
                 return JSArrayBufferViewReverseNodeGen.create(context, builtin, args().withThis().createArgumentNodes(context));
+            case keys:
+                return JSArrayIteratorNodeGen.create(context, builtin, true, JSArrayIterator.ITERATION_KIND_KEY, args().withThis().createArgumentNodes(context));
+            case values:
+                return JSArrayIteratorNodeGen.create(context, builtin, true, JSArrayIterator.ITERATION_KIND_VALUE, args().withThis().createArgumentNodes(context));
+            case entries:
+                return JSArrayIteratorNodeGen.create(context, builtin, true, JSArrayIterator.ITERATION_KIND_KEY_PLUS_VALUE, args().withThis().createArgumentNodes(context));
             case includes:
                 return JSArrayIncludesNodeGen.create(context, builtin, true, args().withThis().fixedArgs(2).createArgumentNodes(context));
         }
@@ -427,6 +441,9 @@ public final class ArrayBufferViewPrototypeBuiltins extends JSBuiltinsContainer.
         @SuppressWarnings("unchecked")
         private void copyTypedArrayElementsDistinctBuffers(DynamicObject targetBuffer, DynamicObject sourceBuffer, TypedArray targetType, TypedArray sourceType,
                         int targetOffset, int targetByteOffset, int sourceLength, int sourceByteIndex) {
+            if (targetType.isReadOnly()) {
+                throw Errors.createTypeErrorReadOnlyBuffer();
+            }
             Object targetBackingBuffer = isDirectProf.profile(targetType.isDirect()) ? JSArrayBuffer.getDirectByteBuffer(targetBuffer) : JSArrayBuffer.getByteArray(targetBuffer);
             Object sourceBackingBuffer = isDirectProf.profile(sourceType.isDirect()) ? JSArrayBuffer.getDirectByteBuffer(sourceBuffer) : JSArrayBuffer.getByteArray(sourceBuffer);
             int targetElementSize = targetType.bytesPerElement();
@@ -73,6 +73,7 @@ import com.oracle.truffle.js.builtins.ArrayPrototypeBuiltinsFactory.JSArrayFindN
 import com.oracle.truffle.js.builtins.ArrayPrototypeBuiltinsFactory.JSArrayForEachNodeGen;
 import com.oracle.truffle.js.builtins.ArrayPrototypeBuiltinsFactory.JSArrayIncludesNodeGen;
 import com.oracle.truffle.js.builtins.ArrayPrototypeBuiltinsFactory.JSArrayIndexOfNodeGen;
+import com.oracle.truffle.js.builtins.ArrayPrototypeBuiltinsFactory.JSArrayIteratorNodeGen;
 import com.oracle.truffle.js.builtins.ArrayPrototypeBuiltinsFactory.JSArrayJoinNodeGen;
 import com.oracle.truffle.js.builtins.ArrayPrototypeBuiltinsFactory.JSArrayMapNodeGen;
 import com.oracle.truffle.js.builtins.ArrayPrototypeBuiltinsFactory.JSArrayPopNodeGen;
@@ -143,6 +144,7 @@ import com.oracle.truffle.js.runtime.builtins.BuiltinEnum;
 import com.oracle.truffle.js.runtime.builtins.JSArray;
 import com.oracle.truffle.js.runtime.builtins.JSArrayBuffer;
 import com.oracle.truffle.js.runtime.builtins.JSArrayBufferView;
+import com.oracle.truffle.js.runtime.builtins.JSArrayIterator;
 import com.oracle.truffle.js.runtime.builtins.JSConstructor;
 import com.oracle.truffle.js.runtime.builtins.JSFunction;
 import com.oracle.truffle.js.runtime.builtins.JSProxy;
@@ -188,6 +190,9 @@ public final class ArrayPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum
         findIndex(1),
         fill(1),
         copyWithin(2),
+        keys(0),
+        values(0),
+        entries(0),
 
         // ES7
         includes(1);
@@ -205,7 +210,7 @@ public final class ArrayPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum
 
         @Override
         public int getECMAScriptVersion() {
-            if (EnumSet.of(find, findIndex, fill, copyWithin).contains(this)) {
+            if (EnumSet.of(find, findIndex, fill, copyWithin, keys, values, entries).contains(this)) {
                 return 6;
             } else if (this == includes) {
                 return 7;
@@ -268,6 +273,12 @@ public final class ArrayPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum
                 return JSArrayFillNodeGen.create(context, builtin, false, args().withThis().fixedArgs(3).createArgumentNodes(context));
             case copyWithin:
                 return JSArrayCopyWithinNodeGen.create(context, builtin, false, args().withThis().fixedArgs(3).createArgumentNodes(context));
+            case keys:
+                return JSArrayIteratorNodeGen.create(context, builtin, false, JSArrayIterator.ITERATION_KIND_KEY, args().withThis().createArgumentNodes(context));
+            case values:
+                return JSArrayIteratorNodeGen.create(context, builtin, false, JSArrayIterator.ITERATION_KIND_VALUE, args().withThis().createArgumentNodes(context));
+            case entries:
+                return JSArrayIteratorNodeGen.create(context, builtin, false, JSArrayIterator.ITERATION_KIND_KEY_PLUS_VALUE, args().withThis().createArgumentNodes(context));
             case includes:
                 return JSArrayIncludesNodeGen.create(context, builtin, false, args().withThis().fixedArgs(2).createArgumentNodes(context));
         }
@@ -2563,4 +2574,25 @@ public final class ArrayPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum
             return array;
         }
     }
+
+    public abstract static class JSArrayIteratorNode extends BasicArrayOperation {
+        private final int iterationKind;
+
+        public JSArrayIteratorNode(JSContext context, JSBuiltin builtin, boolean isTypedArrayImplementation, int iterationKind) {
+            super(context, builtin, isTypedArrayImplementation);
+            this.iterationKind = iterationKind;
+        }
+
+        @Specialization
+        protected DynamicObject doObject(Object thisObj) {
+            if (isTypedArrayImplementation) {
+                if (!JSArrayBufferView.isJSArrayBufferView(thisObj) || JSArrayBufferView.hasDetachedBuffer((DynamicObject) thisObj, getContext())) {
+                    errorBranch.enter();
+                    throw Errors.createTypeError("not an valid TypedArray");
+                }
+                return JSArrayIterator.create(getContext(), thisObj, iterationKind);
+            }
+            return JSArrayIterator.create(getContext(), toObject(thisObj), iterationKind);
+        }
+    }
 }
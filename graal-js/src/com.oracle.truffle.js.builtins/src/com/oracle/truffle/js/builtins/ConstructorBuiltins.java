@@ -51,12 +51,10 @@ import java.util.Map;
 import java.util.StringJoiner;
 import java.util.WeakHashMap;
 
-import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
-import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.ImportStatic;
@@ -149,8 +147,8 @@ import com.oracle.truffle.js.runtime.JSRuntime;
 import com.oracle.truffle.js.runtime.JSTruffleOptions;
 import com.oracle.truffle.js.runtime.Symbol;
 import com.oracle.truffle.js.runtime.array.ArrayAllocationSite;
+import com.oracle.truffle.js.runtime.array.ProfiledArrayAllocationSite;
 import com.oracle.truffle.js.runtime.array.ScriptArray;
-import com.oracle.truffle.js.runtime.array.dyn.AbstractWritableArray;
 import com.oracle.truffle.js.runtime.array.dyn.ConstantObjectArray;
 import com.oracle.truffle.js.runtime.builtins.BuiltinEnum;
 import com.oracle.truffle.js.runtime.builtins.JSAdapter;
@@ -533,7 +531,7 @@ public final class ConstructorBuiltins extends JSBuiltinsContainer.SwitchEnum<Co
             super(context, builtin, isNewTargetCase);
         }
 
-        @CompilationFinal private ConstructArrayAllocationSite arrayAllocationSite = createAllocationSite();
+        @CompilationFinal private ArrayAllocationSite arrayAllocationSite = createAllocationSite();
 
         protected static boolean isOneNumberArg(Object[] args) {
             return args.length == 1 && JSRuntime.isNumber(args[0]);
@@ -545,17 +543,13 @@ public final class ConstructorBuiltins extends JSBuiltinsContainer.SwitchEnum<Co
 
         @Specialization(guards = {"args.length == 0"})
         protected DynamicObject constructArray0(DynamicObject newTarget, @SuppressWarnings("unused") Object[] args) {
-            return swapPrototype(JSArray.createConstantEmptyArray(getContextFromNewTarget(newTarget), arrayAllocationSite), newTarget);
+            return swapPrototype(JSArray.createWithAllocationSite(getContextFromNewTarget(newTarget), arrayAllocationSite, 0), newTarget);
         }
 
         @Specialization(guards = "isOneIntegerArg(args)")
         protected DynamicObject constructArrayWithIntLength(DynamicObject newTarget, Object[] args) {
             int length = (int) args[0];
-            if (JSTruffleOptions.TrackArrayAllocationSites && arrayAllocationSite != null && arrayAllocationSite.isTyped()) {
-                return swapPrototype(JSArray.create(getContext(), arrayAllocationSite.getInitialArrayType(), ((AbstractWritableArray) arrayAllocationSite.getInitialArrayType()).allocateArray(length),
-                                length), newTarget);
-            }
-            return swapPrototype(JSArray.createConstantEmptyArray(getContextFromNewTarget(newTarget), arrayAllocationSite, length), newTarget);
+            return swapPrototype(JSArray.createWithAllocationSite(getContextFromNewTarget(newTarget), arrayAllocationSite, length), newTarget);
         }
 
         @Specialization(guards = "isOneNumberArg(args)")
@@ -607,48 +601,14 @@ public final class ConstructorBuiltins extends JSBuiltinsContainer.SwitchEnum<Co
             return copy;
         }
 
-        private static ConstructArrayAllocationSite createAllocationSite() {
-            return JSTruffleOptions.TrackArrayAllocationSites ? new ConstructArrayAllocationSite() : null;
+        private static ArrayAllocationSite createAllocationSite() {
+            return JSTruffleOptions.TrackArrayAllocationSites ? new ProfiledArrayAllocationSite() : null;
         }
 
         @Override
         protected DynamicObject getIntrinsicDefaultProto(JSRealm realm) {
             return realm.getArrayConstructor().getPrototype();
         }
-
-        private static final class ConstructArrayAllocationSite implements ArrayAllocationSite {
-            private static final ScriptArray UNINIT_ARRAY_TYPE = ScriptArray.createConstantEmptyArray();
-            @CompilationFinal private ScriptArray concreteArrayType = UNINIT_ARRAY_TYPE;
-            @CompilationFinal private Assumption assumption = Truffle.getRuntime().createAssumption("Array allocation site (untyped)");
-
-            public boolean isTyped() {
-                return assumption.isValid() && concreteArrayType != UNINIT_ARRAY_TYPE && concreteArrayType != null;
-            }
-
-            @Override
-            public void notifyArrayTransition(ScriptArray arrayType, int length) {
-                CompilerAsserts.neverPartOfCompilation("do not notify array transitions from compiled code");
-                assert JSTruffleOptions.TrackArrayAllocationSites;
-                if (arrayType instanceof AbstractWritableArray && length > 0) {
-                    if (concreteArrayType == UNINIT_ARRAY_TYPE) {
-                        concreteArrayType = arrayType;
-                        assumption.invalidate();
-                        assumption = Truffle.getRuntime().createAssumption("Array allocation site (typed)");
-                    } else if (concreteArrayType != arrayType) {
-                        concreteArrayType = null;
-                        assumption.invalidate();
-                    }
-                }
-            }
-
-            @Override
-            public ScriptArray getInitialArrayType() {
-                if (isTyped()) {
-                    return concreteArrayType;
-                }
-                return null;
-            }
-        }
     }
 
     public abstract static class CallBooleanNode extends JSBuiltinNode {
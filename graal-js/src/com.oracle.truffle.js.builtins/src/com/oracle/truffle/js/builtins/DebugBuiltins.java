@@ -351,9 +351,10 @@ public final class DebugBuiltins extends JSBuiltinsContainer.SwitchEnum<DebugBui
 
         @TruffleBoundary
         @Specialization
-        protected static Object dumpCounters() {
+        protected Object dumpCounters() {
             com.oracle.truffle.object.DebugCounter.dumpCounters();
             com.oracle.truffle.js.runtime.util.DebugCounter.dumpCounters();
+            getContext().getWriter().print(getContext().getMetrics());
             return Undefined.instance;
         }
     }
@@ -59,6 +59,7 @@ import com.oracle.truffle.js.runtime.builtins.BuiltinEnum;
 import com.oracle.truffle.js.runtime.builtins.JSFunction;
 import com.oracle.truffle.js.runtime.builtins.JSUserObject;
 import com.oracle.truffle.js.runtime.objects.Undefined;
+import com.oracle.truffle.js.runtime.util.EnumCacheIterator;
 
 /**
  * Prototype of [[Enumerate]]().
@@ -116,6 +117,14 @@ public final class EnumerateIteratorPrototypeBuiltins extends JSBuiltinsContaine
                 throw Errors.createTypeError("Enumerate iterator required");
             }
             Iterator<?> iterator = (Iterator<?>) iteratorProfile.profile(iteratorValue);
+            if (iterator instanceof EnumCacheIterator) {
+                // only re-checks keys behind a boundary if the iterated object changed
+                EnumCacheIterator enumCacheIterator = (EnumCacheIterator) iterator;
+                if (enumCacheIterator.hasNext()) {
+                    return createIterResultObject(enumCacheIterator.next(), false);
+                }
+                return createIterResultObject(Undefined.instance, true);
+            }
             if (Boundaries.iteratorHasNext(iterator)) {
                 return createIterResultObject(Boundaries.iteratorNext(iterator), false);
             }
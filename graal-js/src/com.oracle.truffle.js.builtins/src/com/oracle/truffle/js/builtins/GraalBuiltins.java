@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.builtins;
+
+import java.io.File;
+import java.util.Map;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.js.builtins.GraalBuiltinsFactory.GraalMapFileNodeGen;
+import com.oracle.truffle.js.builtins.GraalBuiltinsFactory.GraalMetricsNodeGen;
+import com.oracle.truffle.js.nodes.function.JSBuiltin;
+import com.oracle.truffle.js.nodes.function.JSBuiltinNode;
+import com.oracle.truffle.js.runtime.Errors;
+import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.JSContextOptions;
+import com.oracle.truffle.js.runtime.JSErrorType;
+import com.oracle.truffle.js.runtime.JSException;
+import com.oracle.truffle.js.runtime.JSRealm;
+import com.oracle.truffle.js.runtime.JSRuntime;
+import com.oracle.truffle.js.runtime.builtins.JSArray;
+import com.oracle.truffle.js.runtime.builtins.JSArrayBuffer;
+import com.oracle.truffle.js.runtime.builtins.JSUserObject;
+import com.oracle.truffle.js.runtime.objects.JSAttributes;
+import com.oracle.truffle.js.runtime.objects.JSObjectUtil;
+import com.oracle.truffle.js.runtime.util.JSMetrics;
+
+/**
+ * Contains builtins for the {@code Graal} object.
+ */
+public final class GraalBuiltins extends JSBuiltinsContainer.Lambda {
+
+    public GraalBuiltins() {
+        super(JSRealm.GRAAL_CLASS_NAME);
+        defineFunction("metrics", 0, (context, builtin) -> GraalMetricsNodeGen.create(context, builtin, args().fixedArgs(0).createArgumentNodes(context)));
+        defineFunction("mapFile", 2, (context, builtin) -> GraalMapFileNodeGen.create(context, builtin, args().fixedArgs(2).createArgumentNodes(context)));
+    }
+
+    /**
+     * Returns a snapshot of the context's {@link JSMetrics} as a plain object of counters, with
+     * one nested object per histogram.
+     */
+    public abstract static class GraalMetricsNode extends JSBuiltinNode {
+        public GraalMetricsNode(JSContext context, JSBuiltin builtin) {
+            super(context, builtin);
+        }
+
+        @TruffleBoundary
+        @Specialization
+        protected DynamicObject metrics() {
+            JSContext context = getContext();
+            JSMetrics metrics = context.getMetrics();
+            DynamicObject result = JSUserObject.create(context);
+            putAll(context, result, metrics.getCounters());
+            for (Map.Entry<String, Map<String, Long>> entry : metrics.getHistograms().entrySet()) {
+                DynamicObject histogram = JSUserObject.create(context);
+                putAll(context, histogram, entry.getValue());
+                JSObjectUtil.putDataProperty(context, result, entry.getKey(), histogram, JSAttributes.getDefault());
+            }
+            return result;
+        }
+
+        private static void putAll(JSContext context, DynamicObject target, Map<String, Long> values) {
+            for (Map.Entry<String, Long> entry : values.entrySet()) {
+                JSObjectUtil.putDataProperty(context, target, entry.getKey(), JSRuntime.longToIntOrDouble(entry.getValue()), JSAttributes.getDefault());
+            }
+        }
+    }
+
+    /**
+     * Maps a file into memory and returns it as an ArrayBuffer, or as an array of ArrayBuffers if
+     * the file is larger than {@link JSArrayBuffer#MAPPED_VIEW_SIZE}. Only available with the
+     * {@code js.mapped-array-buffer} option.
+     */
+    public abstract static class GraalMapFileNode extends JSBuiltinNode {
+        public GraalMapFileNode(JSContext context, JSBuiltin builtin) {
+            super(context, builtin);
+        }
+
+        @Specialization
+        @TruffleBoundary(transferToInterpreterOnException = false)
+        protected Object mapFile(Object fileParam, Object writable) {
+            JSContext context = getContext();
+            if (!context.isOptionMappedArrayBuffer()) {
+                throw Errors.createTypeError("Graal.mapFile is disabled, enable it with option " + JSContextOptions.MAPPED_ARRAY_BUFFER_NAME);
+            }
+            File file = GlobalBuiltins.getFileFromArgument(fileParam);
+            DynamicObject[] buffers;
+            try {
+                buffers = JSArrayBuffer.mapFile(context, file.toPath(), JSRuntime.toBoolean(writable));
+            } catch (Exception ex) {
+                throw JSException.create(JSErrorType.Error, ex.getMessage(), ex, this);
+            }
+            if (buffers.length == 1) {
+                return buffers[0];
+            }
+            return JSArray.createConstant(context, buffers);
+        }
+    }
+}
@@ -224,7 +224,7 @@ public abstract class JSConstructTypedArrayNode extends JSBuiltinNode {
         rangeCheck(byteOffset + byteLength <= bufferByteLength, "length exceeds buffer bounds");
 
         assert byteOffset <= Integer.MAX_VALUE && length <= Integer.MAX_VALUE;
-        TypedArray typedArray = factory.createArrayType(direct, byteOffset != 0);
+        TypedArray typedArray = factory.createArrayType(direct, byteOffset != 0, direct && JSArrayBuffer.isReadOnlyBuffer(arrayBuffer));
         return createTypedArray(arrayBuffer, typedArray, (int) byteOffset, (int) length, newTarget);
     }
 
@@ -121,6 +121,7 @@ public class JSDefaultBuiltinLookup extends JSBuiltinLookup {
             defineBuiltins(new SetPrototypeBuiltins());
             defineBuiltins(new WeakMapPrototypeBuiltins());
             defineBuiltins(new WeakSetPrototypeBuiltins());
+            defineBuiltins(new ArrayIteratorPrototypeBuiltins());
             defineBuiltins(new SymbolFunctionBuiltins());
             defineBuiltins(new SymbolPrototypeBuiltins());
             defineBuiltins(new GeneratorPrototypeBuiltins());
@@ -152,6 +153,9 @@ public class JSDefaultBuiltinLookup extends JSBuiltinLookup {
             defineBuiltins(new PolyglotInternalBuiltins());
         }
         defineBuiltins(new DebugBuiltins());
+        if (JSTruffleOptions.GraalBuiltin) {
+            defineBuiltins(new GraalBuiltins());
+        }
         if (JSTruffleOptions.Extensions) {
             defineBuiltins(new PerformanceBuiltins());
         }
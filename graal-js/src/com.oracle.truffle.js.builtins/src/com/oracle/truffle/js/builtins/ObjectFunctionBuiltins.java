@@ -54,6 +54,8 @@ import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.interop.TruffleObject;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.Property;
+import com.oracle.truffle.api.object.Shape;
 import com.oracle.truffle.api.profiles.BranchProfile;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.api.profiles.ValueProfile;
@@ -76,7 +78,15 @@ import com.oracle.truffle.js.builtins.ObjectFunctionBuiltinsFactory.ObjectTestIn
 import com.oracle.truffle.js.builtins.ObjectFunctionBuiltinsFactory.ObjectValuesOrEntriesNodeGen;
 import com.oracle.truffle.js.builtins.ObjectPrototypeBuiltins.ObjectOperation;
 import com.oracle.truffle.js.nodes.JavaScriptNode;
+import com.oracle.truffle.js.nodes.access.CopyDataPropertiesCacheNode;
 import com.oracle.truffle.js.nodes.access.CreateObjectNode;
+import com.oracle.truffle.js.nodes.access.JSProxyDefinePropertyNode;
+import com.oracle.truffle.js.nodes.access.JSProxyGetOwnPropertyNode;
+import com.oracle.truffle.js.nodes.access.JSProxyGetPrototypeOfNode;
+import com.oracle.truffle.js.nodes.access.JSProxyIsExtensibleNode;
+import com.oracle.truffle.js.nodes.access.JSProxyOwnKeysNode;
+import com.oracle.truffle.js.nodes.access.JSProxyPreventExtensionsNode;
+import com.oracle.truffle.js.nodes.access.JSProxySetPrototypeOfNode;
 import com.oracle.truffle.js.nodes.access.RequireObjectCoercibleNode;
 import com.oracle.truffle.js.nodes.access.ToPropertyDescriptorNode;
 import com.oracle.truffle.js.nodes.binary.JSIdenticalNode;
@@ -86,13 +96,17 @@ import com.oracle.truffle.js.runtime.Boundaries;
 import com.oracle.truffle.js.runtime.Errors;
 import com.oracle.truffle.js.runtime.JSContext;
 import com.oracle.truffle.js.runtime.JSRuntime;
+import com.oracle.truffle.js.runtime.JSTruffleOptions;
 import com.oracle.truffle.js.runtime.Symbol;
 import com.oracle.truffle.js.runtime.builtins.BuiltinEnum;
 import com.oracle.truffle.js.runtime.builtins.JSArray;
+import com.oracle.truffle.js.runtime.builtins.JSProxy;
 import com.oracle.truffle.js.runtime.builtins.JSUserObject;
 import com.oracle.truffle.js.runtime.objects.JSAttributes;
 import com.oracle.truffle.js.runtime.objects.JSLazyString;
 import com.oracle.truffle.js.runtime.objects.JSObject;
+import com.oracle.truffle.js.runtime.objects.JSProperty;
+import com.oracle.truffle.js.runtime.objects.JSShape;
 import com.oracle.truffle.js.runtime.objects.Null;
 import com.oracle.truffle.js.runtime.objects.PropertyDescriptor;
 import com.oracle.truffle.js.runtime.objects.Undefined;
@@ -229,10 +243,16 @@ public final class ObjectFunctionBuiltins extends JSBuiltinsContainer.SwitchEnum
             }
         }
 
-        @Specialization(guards = "isJSObject(object)")
+        @Specialization(guards = {"isJSObject(object)", "!isJSProxy(object)"})
         protected DynamicObject getPrototypeOf(DynamicObject object) {
             return JSObject.getPrototype(object);
         }
+
+        @Specialization(guards = "isJSProxy(proxy)")
+        protected DynamicObject getPrototypeOfProxy(DynamicObject proxy,
+                        @Cached("create(getContext())") JSProxyGetPrototypeOfNode proxyGetPrototypeOfNode) {
+            return proxyGetPrototypeOfNode.execute(proxy);
+        }
     }
 
     public abstract static class ObjectGetOwnPropertyDescriptorNode extends ObjectOperation {
@@ -241,19 +261,35 @@ public final class ObjectFunctionBuiltins extends JSBuiltinsContainer.SwitchEnum
         }
 
         @Child private JSToPropertyKeyNode toPropertyKeyNode = JSToPropertyKeyNode.create();
+        @Child private JSProxyGetOwnPropertyNode proxyGetOwnPropertyNode;
         private final JSClassProfile classProfile = JSClassProfile.create();
+        private final ConditionProfile isProxyProfile = ConditionProfile.createBinaryProfile();
 
         @Specialization
         protected DynamicObject getOwnPropertyDescriptor(Object thisObj, Object propertyKey) {
             TruffleObject tobject = toTruffleObject(thisObj);
             if (JSObject.isJSObject(tobject)) {
                 DynamicObject object = (DynamicObject) tobject;
-                PropertyDescriptor desc = JSObject.getOwnProperty(object, toPropertyKeyNode.execute(propertyKey), classProfile);
+                Object key = toPropertyKeyNode.execute(propertyKey);
+                PropertyDescriptor desc;
+                if (isProxyProfile.profile(JSProxy.isProxy(object))) {
+                    desc = getProxyGetOwnPropertyNode().execute(object, key);
+                } else {
+                    desc = JSObject.getOwnProperty(object, key, classProfile);
+                }
                 return JSRuntime.fromPropertyDescriptor(desc, getContext());
             } else {
                 return Undefined.instance;
             }
         }
+
+        private JSProxyGetOwnPropertyNode getProxyGetOwnPropertyNode() {
+            if (proxyGetOwnPropertyNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                proxyGetOwnPropertyNode = insert(JSProxyGetOwnPropertyNode.create(getContext()));
+            }
+            return proxyGetOwnPropertyNode;
+        }
     }
 
     public abstract static class ObjectGetOwnPropertyDescriptorsNode extends ObjectOperation {
@@ -295,11 +331,25 @@ public final class ObjectFunctionBuiltins extends JSBuiltinsContainer.SwitchEnum
             this.symbols = symbols;
         }
 
-        @Specialization(guards = "isJSObject(thisObj)")
+        @Specialization(guards = {"isJSObject(thisObj)", "!isJSProxy(thisObj)"})
         protected DynamicObject getJSObject(DynamicObject thisObj) {
             return JSRuntime.getOwnPropertyKeys(getContext(), thisObj, symbols);
         }
 
+        @Specialization(guards = "isJSProxy(proxy)")
+        protected DynamicObject getJSProxy(DynamicObject proxy,
+                        @Cached("create(getContext())") JSProxyOwnKeysNode proxyOwnKeysNode) {
+            List<Object> ownKeys = proxyOwnKeysNode.execute(proxy);
+            List<Object> names = new ArrayList<>();
+            for (int i = 0; i < Boundaries.listSize(ownKeys); i++) {
+                Object key = Boundaries.listGet(ownKeys, i);
+                if (symbols ? key instanceof Symbol : key instanceof String) {
+                    Boundaries.listAdd(names, key);
+                }
+            }
+            return JSRuntime.createArrayFromList(getContext(), names);
+        }
+
         @Specialization(guards = {"!isJSObject(thisObj)", "!isForeignObject(thisObj)"})
         protected DynamicObject getDefault(Object thisObj) {
             DynamicObject object = toOrAsObject(thisObj);
@@ -420,16 +470,34 @@ public final class ObjectFunctionBuiltins extends JSBuiltinsContainer.SwitchEnum
         }
 
         @Child private JSToPropertyKeyNode toPropertyKeyNode = JSToPropertyKeyNode.create();
+        @Child private JSProxyDefinePropertyNode proxyDefinePropertyNode;
+        private final ConditionProfile isProxyProfile = ConditionProfile.createBinaryProfile();
 
         @Specialization
         protected DynamicObject defineProperty(Object thisObj, Object property, Object attributes) {
             DynamicObject object = asObject(thisObj);
             PropertyDescriptor desc = toPropertyDescriptor(attributes);
             Object propertyKey = toPropertyKeyNode.execute(property);
-            JSRuntime.definePropertyOrThrow(object, propertyKey, desc, getContext());
+            if (isProxyProfile.profile(JSProxy.isProxy(object))) {
+                definePropertyOrThrowProxy(object, propertyKey, desc);
+            } else {
+                JSRuntime.definePropertyOrThrow(object, propertyKey, desc, getContext());
+            }
             return object;
         }
 
+        private void definePropertyOrThrowProxy(DynamicObject proxy, Object propertyKey, PropertyDescriptor desc) {
+            if (proxyDefinePropertyNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                proxyDefinePropertyNode = insert(JSProxyDefinePropertyNode.create(getContext()));
+            }
+            if (getContext().isOptionV8CompatibilityMode()) {
+                proxyDefinePropertyNode.execute(proxy, propertyKey, desc, true);
+            } else if (!proxyDefinePropertyNode.execute(proxy, propertyKey, desc, false)) {
+                throw Errors.createTypeError("Cannot DefineOwnProperty");
+            }
+        }
+
         @Override
         protected JavaScriptNode copyUninitialized() {
             return ObjectDefinePropertyNodeGen.create(getContext(), getBuiltin(), cloneUninitialized(getArguments()));
@@ -454,12 +522,18 @@ public final class ObjectFunctionBuiltins extends JSBuiltinsContainer.SwitchEnum
             super(context, builtin);
         }
 
-        @Specialization(guards = "isJSObject(thisObj)")
+        @Specialization(guards = {"isJSObject(thisObj)", "!isJSProxy(thisObj)"})
         protected boolean isExtensible(DynamicObject thisObj,
                         @Cached("create()") JSClassProfile classProfile) {
             return JSObject.isExtensible(thisObj, classProfile);
         }
 
+        @Specialization(guards = "isJSProxy(proxy)")
+        protected boolean isExtensibleProxy(DynamicObject proxy,
+                        @Cached("create(getContext())") JSProxyIsExtensibleNode proxyIsExtensibleNode) {
+            return proxyIsExtensibleNode.execute(proxy);
+        }
+
         @Specialization(guards = "!isJSObject(thisObj)")
         protected boolean isExtensible(Object thisObj) {
             if (getContext().getEcmaScriptVersion() < 6) {
@@ -474,12 +548,19 @@ public final class ObjectFunctionBuiltins extends JSBuiltinsContainer.SwitchEnum
             super(context, builtin);
         }
 
-        @Specialization(guards = "isJSObject(thisObj)")
+        @Specialization(guards = {"isJSObject(thisObj)", "!isJSProxy(thisObj)"})
         protected DynamicObject preventExtensions(DynamicObject thisObj) {
             JSObject.preventExtensions(thisObj);
             return thisObj;
         }
 
+        @Specialization(guards = "isJSProxy(proxy)")
+        protected DynamicObject preventExtensionsProxy(DynamicObject proxy,
+                        @Cached("create(getContext())") JSProxyPreventExtensionsNode proxyPreventExtensionsNode) {
+            proxyPreventExtensionsNode.execute(proxy);
+            return proxy;
+        }
+
         @Specialization(guards = "!isJSObject(thisObj)")
         protected Object preventExtensions(Object thisObj) {
             if (getContext().getEcmaScriptVersion() < 6) {
@@ -546,6 +627,10 @@ public final class ObjectFunctionBuiltins extends JSBuiltinsContainer.SwitchEnum
         private final ConditionProfile hasElements = ConditionProfile.createBinaryProfile();
         private final ConditionProfile oneElement = ConditionProfile.createBinaryProfile();
         private final ValueProfile listClassProfile = ValueProfile.createClassProfile();
+        private final ConditionProfile onlyShapePropertiesProfile = ConditionProfile.createBinaryProfile();
+        private final ConditionProfile isProxyProfile = ConditionProfile.createBinaryProfile();
+        @Child private JSProxyOwnKeysNode proxyOwnKeysNode;
+        @Child private JSProxyGetOwnPropertyNode proxyGetOwnPropertyNode;
 
         public ObjectKeysNode(JSContext context, JSBuiltin builtin) {
             super(context, builtin);
@@ -553,7 +638,19 @@ public final class ObjectFunctionBuiltins extends JSBuiltinsContainer.SwitchEnum
 
         @Specialization
         protected DynamicObject keysDynamicObject(DynamicObject thisObj) {
-            List<? extends Object> propertyList = listClassProfile.profile(JSObject.enumerableOwnNames(toOrAsObject(thisObj)));
+            DynamicObject obj = toOrAsObject(thisObj);
+            if (isProxyProfile.profile(JSProxy.isProxy(obj))) {
+                return keysIntl(enumerableOwnNamesProxy(obj));
+            }
+            if (onlyShapePropertiesProfile.profile(JSTruffleOptions.FastOwnKeys && JSObject.getJSClass(obj).hasOnlyShapeProperties(obj))) {
+                // copy the enumerable property names cached in the shape
+                Object[] names = JSShape.copyEnumerablePropertyNames(obj.getShape());
+                if (hasElements.profile(names.length > 0)) {
+                    return JSArray.createConstant(getContext(), names);
+                }
+                return JSArray.createEmptyChecked(getContext(), 0);
+            }
+            List<? extends Object> propertyList = listClassProfile.profile(JSObject.enumerableOwnNames(obj));
             return keysIntl(propertyList);
         }
 
@@ -581,6 +678,26 @@ public final class ObjectFunctionBuiltins extends JSBuiltinsContainer.SwitchEnum
             return keysIntl(propertyList);
         }
 
+        private List<Object> enumerableOwnNamesProxy(DynamicObject proxy) {
+            if (proxyOwnKeysNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                proxyOwnKeysNode = insert(JSProxyOwnKeysNode.create(getContext()));
+                proxyGetOwnPropertyNode = insert(JSProxyGetOwnPropertyNode.create(getContext()));
+            }
+            List<Object> ownKeys = proxyOwnKeysNode.execute(proxy);
+            List<Object> names = new ArrayList<>();
+            for (int i = 0; i < Boundaries.listSize(ownKeys); i++) {
+                Object key = Boundaries.listGet(ownKeys, i);
+                if (key instanceof String) {
+                    PropertyDescriptor desc = proxyGetOwnPropertyNode.execute(proxy, key);
+                    if (desc != null && desc.getEnumerable()) {
+                        Boundaries.listAdd(names, key);
+                    }
+                }
+            }
+            return names;
+        }
+
         private DynamicObject keysIntl(List<? extends Object> propertyList) {
             int len = Boundaries.listSize(propertyList);
             if (hasElements.profile(len > 0)) {
@@ -606,7 +723,9 @@ public final class ObjectFunctionBuiltins extends JSBuiltinsContainer.SwitchEnum
 
     public abstract static class ObjectSetPrototypeOfNode extends ObjectOperation {
         @Child private RequireObjectCoercibleNode objectCoercibleNode;
+        @Child private JSProxySetPrototypeOfNode proxySetPrototypeOfNode;
         private final ConditionProfile isObjectProfile = ConditionProfile.createBinaryProfile();
+        private final ConditionProfile isProxyProfile = ConditionProfile.createBinaryProfile();
         private final BranchProfile errorBranch = BranchProfile.create();
         private final JSClassProfile classProfile = JSClassProfile.create();
 
@@ -628,7 +747,13 @@ public final class ObjectFunctionBuiltins extends JSBuiltinsContainer.SwitchEnum
             requireObjectCoercible(thisObj);
             if (isObjectProfile.profile(JSObject.isDynamicObject(thisObj))) {
                 DynamicObject object = asObject(thisObj);
-                if (!JSObject.setPrototype(object, newProto, classProfile)) {
+                boolean success;
+                if (isProxyProfile.profile(JSProxy.isProxy(object))) {
+                    success = getProxySetPrototypeOfNode().execute(object, newProto);
+                } else {
+                    success = JSObject.setPrototype(object, newProto, classProfile);
+                }
+                if (!success) {
                     errorBranch.enter();
                     throw Errors.createTypeError("setPrototype failed");
                 }
@@ -652,6 +777,14 @@ public final class ObjectFunctionBuiltins extends JSBuiltinsContainer.SwitchEnum
             }
             return objectCoercibleNode.execute(target);
         }
+
+        private JSProxySetPrototypeOfNode getProxySetPrototypeOfNode() {
+            if (proxySetPrototypeOfNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                proxySetPrototypeOfNode = insert(JSProxySetPrototypeOfNode.create(getContext()));
+            }
+            return proxySetPrototypeOfNode;
+        }
     }
 
     public abstract static class ObjectIsNode extends ObjectOperation {
@@ -698,6 +831,8 @@ public final class ObjectFunctionBuiltins extends JSBuiltinsContainer.SwitchEnum
         private final BranchProfile elementProfile = BranchProfile.create();
         private final JSClassProfile classProfile = JSClassProfile.create();
         private final BranchProfile notAJSObjectBranch = BranchProfile.create();
+        private final ConditionProfile isJSObjectTarget = ConditionProfile.createBinaryProfile();
+        @Child private CopyDataPropertiesCacheNode copyDataPropertiesNode;
 
         public ObjectAssignNode(JSContext context, JSBuiltin builtin) {
             super(context, builtin);
@@ -713,6 +848,10 @@ public final class ObjectFunctionBuiltins extends JSBuiltinsContainer.SwitchEnum
                 if (o != Undefined.instance && o != Null.instance) {
                     listProfile.enter();
                     DynamicObject from = JSRuntime.expectJSObject(toObject(o), notAJSObjectBranch);
+                    if (isJSObjectTarget.profile(JSObject.isJSObject(to))) {
+                        getCopyDataPropertiesNode().execute((DynamicObject) to, from);
+                        continue;
+                    }
                     for (Iterator<Object> iterator = Boundaries.iterator(JSObject.ownPropertyKeys(from, classProfile)); Boundaries.iteratorHasNext(iterator);) {
                         Object nextKey = Boundaries.iteratorNext(iterator);
                         PropertyDescriptor desc = JSObject.getOwnProperty(from, nextKey, classProfile);
@@ -726,6 +865,14 @@ public final class ObjectFunctionBuiltins extends JSBuiltinsContainer.SwitchEnum
             }
             return to;
         }
+
+        private CopyDataPropertiesCacheNode getCopyDataPropertiesNode() {
+            if (copyDataPropertiesNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                copyDataPropertiesNode = insert(CopyDataPropertiesCacheNode.create(false));
+            }
+            return copyDataPropertiesNode;
+        }
     }
 
     public abstract static class ObjectValuesOrEntriesNode extends ObjectOperation {
@@ -745,6 +892,9 @@ public final class ObjectFunctionBuiltins extends JSBuiltinsContainer.SwitchEnum
 
         @TruffleBoundary
         protected List<Object> enumerableOwnProperties(DynamicObject thisObj) {
+            if (JSTruffleOptions.FastOwnKeys && JSObject.getJSClass(thisObj).hasOnlyShapeProperties(thisObj)) {
+                return enumerableOwnShapeProperties(thisObj);
+            }
             List<Object> properties = new ArrayList<>();
             for (Object key : JSObject.ownPropertyKeys(thisObj)) {
                 if (key instanceof String) {
@@ -763,6 +913,35 @@ public final class ObjectFunctionBuiltins extends JSBuiltinsContainer.SwitchEnum
             }
             return properties;
         }
+
+        /**
+         * Walks the enumerable properties cached in the object's shape. Only if the shape changes
+         * (e.g., due to a getter) are the remaining properties looked up again.
+         */
+        private List<Object> enumerableOwnShapeProperties(DynamicObject thisObj) {
+            Shape shape = thisObj.getShape();
+            List<Property> enumerableProperties = JSShape.getEnumerableProperties(shape);
+            List<Object> properties = new ArrayList<>(enumerableProperties.size());
+            for (Property property : enumerableProperties) {
+                String propertyKey = (String) property.getKey();
+                Object value;
+                if (thisObj.getShape() == shape) {
+                    value = JSProperty.getValue(property, thisObj, thisObj, false);
+                } else {
+                    PropertyDescriptor desc = JSObject.getOwnProperty(thisObj, propertyKey);
+                    if (desc == null || !desc.getEnumerable()) {
+                        continue;
+                    }
+                    value = JSObject.get(thisObj, propertyKey);
+                }
+                if (entries) {
+                    properties.add(JSArray.createConstant(getContext(), new Object[]{propertyKey, value}));
+                } else {
+                    properties.add(value);
+                }
+            }
+            return properties;
+        }
     }
 
 }
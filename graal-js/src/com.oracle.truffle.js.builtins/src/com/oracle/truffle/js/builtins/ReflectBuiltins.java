@@ -60,6 +60,15 @@ import com.oracle.truffle.js.builtins.ReflectBuiltinsFactory.ReflectOwnKeysNodeG
 import com.oracle.truffle.js.builtins.ReflectBuiltinsFactory.ReflectPreventExtensionsNodeGen;
 import com.oracle.truffle.js.builtins.ReflectBuiltinsFactory.ReflectSetNodeGen;
 import com.oracle.truffle.js.builtins.ReflectBuiltinsFactory.ReflectSetPrototypeOfNodeGen;
+import com.oracle.truffle.js.nodes.access.JSProxyDefinePropertyNode;
+import com.oracle.truffle.js.nodes.access.JSProxyDeletePropertyNode;
+import com.oracle.truffle.js.nodes.access.JSProxyGetOwnPropertyNode;
+import com.oracle.truffle.js.nodes.access.JSProxyGetPrototypeOfNode;
+import com.oracle.truffle.js.nodes.access.JSProxyHasPropertyNode;
+import com.oracle.truffle.js.nodes.access.JSProxyIsExtensibleNode;
+import com.oracle.truffle.js.nodes.access.JSProxyOwnKeysNode;
+import com.oracle.truffle.js.nodes.access.JSProxyPreventExtensionsNode;
+import com.oracle.truffle.js.nodes.access.JSProxySetPrototypeOfNode;
 import com.oracle.truffle.js.nodes.access.ToPropertyDescriptorNode;
 import com.oracle.truffle.js.nodes.cast.JSToBooleanNode;
 import com.oracle.truffle.js.nodes.cast.JSToObjectArrayNode;
@@ -239,7 +248,7 @@ public class ReflectBuiltins extends JSBuiltinsContainer.SwitchEnum<ReflectBuilt
             super(context, builtin);
         }
 
-        @Specialization
+        @Specialization(guards = "!isJSProxy(target)")
         protected boolean reflectDefineProperty(Object target, Object propertyKey, Object attributes,
                         @Cached("create()") JSToPropertyKeyNode toPropertyKeyNode,
                         @Cached("create(getContext())") ToPropertyDescriptorNode toPropertyDescriptorNode) {
@@ -248,6 +257,16 @@ public class ReflectBuiltins extends JSBuiltinsContainer.SwitchEnum<ReflectBuilt
             PropertyDescriptor descriptor = (PropertyDescriptor) toPropertyDescriptorNode.execute(attributes);
             return JSObject.defineOwnProperty((DynamicObject) target, key, descriptor);
         }
+
+        @Specialization(guards = "isJSProxy(proxy)")
+        protected boolean reflectDefinePropertyProxy(DynamicObject proxy, Object propertyKey, Object attributes,
+                        @Cached("create()") JSToPropertyKeyNode toPropertyKeyNode,
+                        @Cached("create(getContext())") ToPropertyDescriptorNode toPropertyDescriptorNode,
+                        @Cached("create(getContext())") JSProxyDefinePropertyNode proxyDefinePropertyNode) {
+            Object key = toPropertyKeyNode.execute(propertyKey);
+            PropertyDescriptor descriptor = (PropertyDescriptor) toPropertyDescriptorNode.execute(attributes);
+            return proxyDefinePropertyNode.execute(proxy, key, descriptor, false);
+        }
     }
 
     public abstract static class ReflectDeletePropertyNode extends ReflectOperation {
@@ -256,13 +275,19 @@ public class ReflectBuiltins extends JSBuiltinsContainer.SwitchEnum<ReflectBuilt
             super(context, builtin);
         }
 
-        @Specialization
+        @Specialization(guards = "!isJSProxy(target)")
         protected boolean reflectDeleteProperty(Object target, Object propertyKey,
                         @Cached("create()") JSToPropertyKeyNode toPropertyKeyNode) {
             ensureObject(target);
             Object key = toPropertyKeyNode.execute(propertyKey);
             return JSObject.delete((DynamicObject) target, key);
         }
+
+        @Specialization(guards = "isJSProxy(proxy)")
+        protected boolean reflectDeletePropertyProxy(DynamicObject proxy, Object propertyKey,
+                        @Cached("create(getContext(), false)") JSProxyDeletePropertyNode proxyDeletePropertyNode) {
+            return proxyDeletePropertyNode.executeWithTargetAndKeyBoolean(proxy, propertyKey);
+        }
     }
 
     public abstract static class ReflectGetNode extends ReflectOperation {
@@ -289,7 +314,7 @@ public class ReflectBuiltins extends JSBuiltinsContainer.SwitchEnum<ReflectBuilt
             super(context, builtin);
         }
 
-        @Specialization
+        @Specialization(guards = "!isJSProxy(target)")
         protected DynamicObject reflectGetOwnPropertyDescriptor(Object target, Object key,
                         @Cached("create()") JSToPropertyKeyNode toPropertyKeyNode) {
             ensureObject(target);
@@ -297,6 +322,15 @@ public class ReflectBuiltins extends JSBuiltinsContainer.SwitchEnum<ReflectBuilt
             PropertyDescriptor desc = JSObject.getOwnProperty((DynamicObject) target, propertyKey);
             return JSRuntime.fromPropertyDescriptor(desc, getContext());
         }
+
+        @Specialization(guards = "isJSProxy(proxy)")
+        protected DynamicObject reflectGetOwnPropertyDescriptorProxy(DynamicObject proxy, Object key,
+                        @Cached("create()") JSToPropertyKeyNode toPropertyKeyNode,
+                        @Cached("create(getContext())") JSProxyGetOwnPropertyNode proxyGetOwnPropertyNode) {
+            Object propertyKey = toPropertyKeyNode.execute(key);
+            PropertyDescriptor desc = proxyGetOwnPropertyNode.execute(proxy, propertyKey);
+            return JSRuntime.fromPropertyDescriptor(desc, getContext());
+        }
     }
 
     public abstract static class ReflectGetPrototypeOfNode extends ReflectOperation {
@@ -305,11 +339,17 @@ public class ReflectBuiltins extends JSBuiltinsContainer.SwitchEnum<ReflectBuilt
             super(context, builtin);
         }
 
-        @Specialization
+        @Specialization(guards = "!isJSProxy(target)")
         protected Object reflectGetPrototypeOf(Object target) {
             ensureObject(target);
             return JSObject.getPrototype((DynamicObject) target);
         }
+
+        @Specialization(guards = "isJSProxy(proxy)")
+        protected Object reflectGetPrototypeOfProxy(DynamicObject proxy,
+                        @Cached("create(getContext())") JSProxyGetPrototypeOfNode proxyGetPrototypeOfNode) {
+            return proxyGetPrototypeOfNode.execute(proxy);
+        }
     }
 
     public abstract static class ReflectHasNode extends ReflectOperation {
@@ -318,13 +358,19 @@ public class ReflectBuiltins extends JSBuiltinsContainer.SwitchEnum<ReflectBuilt
             super(context, builtin);
         }
 
-        @Specialization
+        @Specialization(guards = "!isJSProxy(target)")
         protected boolean reflectHas(Object target, Object propertyKey,
                         @Cached("create()") JSToPropertyKeyNode toPropertyKeyNode) {
             ensureObject(target);
             Object key = toPropertyKeyNode.execute(propertyKey);
             return JSObject.hasProperty((DynamicObject) target, key);
         }
+
+        @Specialization(guards = "isJSProxy(proxy)")
+        protected boolean reflectHasProxy(DynamicObject proxy, Object propertyKey,
+                        @Cached("create(getContext())") JSProxyHasPropertyNode proxyHasPropertyNode) {
+            return proxyHasPropertyNode.executeWithTargetAndKeyBoolean(proxy, propertyKey);
+        }
     }
 
     public abstract static class ReflectIsExtensibleNode extends ReflectOperation {
@@ -333,11 +379,17 @@ public class ReflectBuiltins extends JSBuiltinsContainer.SwitchEnum<ReflectBuilt
             super(context, builtin);
         }
 
-        @Specialization
+        @Specialization(guards = "!isJSProxy(target)")
         protected boolean reflectIsExtensible(Object target) {
             ensureObject(target);
             return JSObject.isExtensible((DynamicObject) target);
         }
+
+        @Specialization(guards = "isJSProxy(proxy)")
+        protected boolean reflectIsExtensibleProxy(DynamicObject proxy,
+                        @Cached("create(getContext())") JSProxyIsExtensibleNode proxyIsExtensibleNode) {
+            return proxyIsExtensibleNode.execute(proxy);
+        }
     }
 
     public abstract static class ReflectOwnKeysNode extends ReflectOperation {
@@ -346,12 +398,19 @@ public class ReflectBuiltins extends JSBuiltinsContainer.SwitchEnum<ReflectBuilt
             super(context, builtin);
         }
 
-        @Specialization
+        @Specialization(guards = "!isJSProxy(target)")
         protected DynamicObject reflectOwnKeys(Object target) {
             ensureObject(target);
             List<Object> list = JSObject.ownPropertyKeysList((DynamicObject) target);
             return JSArray.createConstant(getContext(), Boundaries.listToArray(list));
         }
+
+        @Specialization(guards = "isJSProxy(proxy)")
+        protected DynamicObject reflectOwnKeysProxy(DynamicObject proxy,
+                        @Cached("create(getContext())") JSProxyOwnKeysNode proxyOwnKeysNode) {
+            List<Object> list = proxyOwnKeysNode.execute(proxy);
+            return JSArray.createConstant(getContext(), Boundaries.listToArray(list));
+        }
     }
 
     public abstract static class ReflectPreventExtensionsNode extends ReflectOperation {
@@ -360,11 +419,17 @@ public class ReflectBuiltins extends JSBuiltinsContainer.SwitchEnum<ReflectBuilt
             super(context, builtin);
         }
 
-        @Specialization
+        @Specialization(guards = "!isJSProxy(target)")
         protected boolean reflectPreventExtensions(Object target) {
             ensureObject(target);
             return JSObject.preventExtensions((DynamicObject) target);
         }
+
+        @Specialization(guards = "isJSProxy(proxy)")
+        protected boolean reflectPreventExtensionsProxy(DynamicObject proxy,
+                        @Cached("create(getContext())") JSProxyPreventExtensionsNode proxyPreventExtensionsNode) {
+            return proxyPreventExtensionsNode.execute(proxy);
+        }
     }
 
     public abstract static class ReflectSetNode extends ReflectOperation {
@@ -420,13 +485,24 @@ public class ReflectBuiltins extends JSBuiltinsContainer.SwitchEnum<ReflectBuilt
             super(context, builtin);
         }
 
-        @Specialization
+        @Specialization(guards = "!isJSProxy(target)")
         protected boolean reflectSetPrototypeOf(Object target, Object proto) {
             ensureObject(target);
+            checkPrototype(proto);
+            return JSObject.setPrototype((DynamicObject) target, (DynamicObject) proto);
+        }
+
+        @Specialization(guards = "isJSProxy(proxy)")
+        protected boolean reflectSetPrototypeOfProxy(DynamicObject proxy, Object proto,
+                        @Cached("create(getContext())") JSProxySetPrototypeOfNode proxySetPrototypeOfNode) {
+            checkPrototype(proto);
+            return proxySetPrototypeOfNode.execute(proxy, (DynamicObject) proto);
+        }
+
+        private static void checkPrototype(Object proto) {
             if (!(JSObject.isJSObject(proto) || proto == Null.instance) || proto == Undefined.instance) {
                 throw Errors.createTypeErrorInvalidPrototype(proto);
             }
-            return JSObject.setPrototype((DynamicObject) target, (DynamicObject) proto);
         }
     }
 }
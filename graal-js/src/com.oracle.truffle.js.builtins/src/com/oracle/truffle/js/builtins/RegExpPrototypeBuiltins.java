@@ -51,6 +51,7 @@ import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.interop.TruffleObject;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.Property;
 import com.oracle.truffle.api.profiles.BranchProfile;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.js.builtins.ArrayPrototypeBuiltins.ArraySpeciesConstructorNode;
@@ -67,6 +68,7 @@ import com.oracle.truffle.js.builtins.helper.JSRegExpExecIntlNode;
 import com.oracle.truffle.js.builtins.helper.JSRegExpExecIntlNode.JSRegExpExecBuiltinNode;
 import com.oracle.truffle.js.nodes.CompileRegexNode;
 import com.oracle.truffle.js.nodes.NodeFactory;
+import com.oracle.truffle.js.nodes.access.HasPropertyCacheNode;
 import com.oracle.truffle.js.nodes.access.PropertyGetNode;
 import com.oracle.truffle.js.nodes.access.PropertySetNode;
 import com.oracle.truffle.js.nodes.access.ReadElementNode;
@@ -91,6 +93,8 @@ import com.oracle.truffle.js.runtime.builtins.BuiltinEnum;
 import com.oracle.truffle.js.runtime.builtins.JSAbstractArray;
 import com.oracle.truffle.js.runtime.builtins.JSArray;
 import com.oracle.truffle.js.runtime.builtins.JSRegExp;
+import com.oracle.truffle.js.runtime.objects.JSObject;
+import com.oracle.truffle.js.runtime.objects.JSProperty;
 import com.oracle.truffle.js.runtime.objects.Null;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 import com.oracle.truffle.js.runtime.util.DelimitedStringBuilder;
@@ -399,6 +403,11 @@ public final class RegExpPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
         @Child private WriteElementNode writeNode;
         @Child private ReadElementNode readNode;
         @Child private ArraySpeciesConstructorNode arraySpeciesCreateNode;
+        @Child private PropertyGetNode getExecNode;
+        @Child private HasPropertyCacheNode hasOwnExecNode;
+        @Child private TRegexUtil.TRegexCompiledRegexAccessor compiledRegexAccessor;
+        @Child private TRegexUtil.TRegexFlagsAccessor flagsAccessor;
+        @Child private TRegexUtil.TRegexResultAccessor resultAccessor;
         private final ConditionProfile advanceIndexLengthProfile = ConditionProfile.createBinaryProfile();
         private final ConditionProfile advanceIndexFirstProfile = ConditionProfile.createBinaryProfile();
         private final ConditionProfile advanceIndexSecondProfile = ConditionProfile.createBinaryProfile();
@@ -469,6 +478,89 @@ public final class RegExpPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
             }
             return regexExecIntlNode;
         }
+
+        /**
+         * Returns whether {@code exec} of the given object is an own data property holding the
+         * original %RegExpPrototype%.exec, i.e., whether RegExpExec on a RegExp with this
+         * prototype is not observable. An accessor is rejected without calling its getter.
+         */
+        protected final boolean hasBuiltinExec(DynamicObject obj) {
+            if (getExecNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                getExecNode = insert(PropertyGetNode.create("exec", false, getContext()));
+            }
+            return isOwnDataProperty(obj, "exec") && getExecNode.getValue(obj) == getContext().getRealm().getRegExpExecFunction();
+        }
+
+        @TruffleBoundary
+        private static boolean isOwnDataProperty(DynamicObject obj, Object key) {
+            Property property = obj.getShape().getProperty(key);
+            return property != null && JSProperty.isData(property);
+        }
+
+        protected final TRegexUtil.TRegexCompiledRegexAccessor getCompiledRegexAccessor() {
+            if (compiledRegexAccessor == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                compiledRegexAccessor = insert(TRegexUtil.TRegexCompiledRegexAccessor.create());
+            }
+            return compiledRegexAccessor;
+        }
+
+        protected final TRegexUtil.TRegexFlagsAccessor getFlagsAccessor() {
+            if (flagsAccessor == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                flagsAccessor = insert(TRegexUtil.TRegexFlagsAccessor.create());
+            }
+            return flagsAccessor;
+        }
+
+        protected final TRegexUtil.TRegexResultAccessor getResultAccessor() {
+            if (resultAccessor == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                resultAccessor = insert(TRegexUtil.TRegexResultAccessor.create());
+            }
+            return resultAccessor;
+        }
+
+        /**
+         * Returns whether global matching with {@code rx} can iterate over the raw TRegex results
+         * instead of calling RegExpExec, i.e., whether {@code rx} is a global, non-sticky RegExp
+         * that uses the original exec.
+         *
+         * The spec performs {@code Get(rx, "exec")} once per match, whereas the fast path only
+         * looks {@code exec} up once per call. This is only unobservable if none of these reads can
+         * run user code and all of them yield the same function. Therefore {@code rx} must inherit
+         * {@code exec} directly from %RegExpPrototype% as a data property (as for split), and no
+         * user code may run between the matches, which holds because the replacement string is
+         * converted before the loop and replace functions are only called after it.
+         */
+        protected final boolean isUnobservableGlobalExec(DynamicObject rx) {
+            if (!JSRegExp.isJSRegExp(rx)) {
+                return false;
+            }
+            if (hasOwnExecNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                hasOwnExecNode = insert(HasPropertyCacheNode.create("exec", getContext(), true));
+            }
+            DynamicObject regExpPrototype = getContext().getRealm().getRegExpConstructor().getPrototype();
+            if (JSObject.getPrototype(rx) != regExpPrototype || hasOwnExecNode.hasProperty(rx) || !hasBuiltinExec(regExpPrototype)) {
+                return false;
+            }
+            TruffleObject flags = getCompiledRegexAccessor().flags(JSRegExp.getCompiledRegex(rx));
+            return getFlagsAccessor().global(flags) && !getFlagsAccessor().sticky(flags);
+        }
+
+        /**
+         * Returns the index at which global matching continues after a match.
+         */
+        protected final int nextGlobalIndex(TruffleObject result, String s, boolean fullUnicode, ConditionProfile unicodeProfile) {
+            int start = getResultAccessor().captureGroupStart(result, 0);
+            int end = getResultAccessor().captureGroupEnd(result, 0);
+            if (end != start) {
+                return end;
+            }
+            return unicodeProfile.profile(fullUnicode) ? advanceStringIndexUnicode(s, end) : end + 1;
+        }
     }
 
     /**
@@ -479,6 +571,9 @@ public final class RegExpPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
         @Child private PropertyGetNode getLengthNode;
         @Child private JSToUInt32Node toUInt32Node;
         @Child private JSToLengthNode toLengthNode;
+        @Child private HasPropertyCacheNode hasOwnMatchNode;
+        @Child private PropertyGetNode getMatchNode;
+        private final ConditionProfile fastPathProfile = ConditionProfile.createBinaryProfile();
 
         protected JSRegExpSplitNode(JSContext context, JSBuiltin builtin) {
             super(context, builtin);
@@ -502,18 +597,20 @@ public final class RegExpPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
             DynamicObject c = getArraySpeciesConstructorNode().speciesConstructor(rx, regexpConstructor);
             String flags = toString2Node.executeString(getFlagsNode.getValue(rx));
             boolean unicodeMatching = Boundaries.stringIndexOf(flags, 'u') >= 0;
-            DynamicObject splitter = (DynamicObject) getArraySpeciesConstructorNode().construct(c, rx, ensureSticky(flags));
-            DynamicObject a = JSArray.createEmptyZeroLength(getContext());
-            long lim;
-            if (limitProfile.profile(limit == Undefined.instance)) {
-                lim = (long) JSRuntime.MAX_SAFE_INTEGER;
-            } else {
-                // NOT ToLength()v https://github.com/tc39/ecma262/issues/92
-                lim = getToUInt32Node().executeLong(limit);
+            if (fastPathProfile.profile(c == regexpConstructor && isUnobservableSplit(rx, flags))) {
+                long lim = toLimit(limit, limitProfile);
                 if (lim == 0) {
                     prematureReturnBranch.enter();
-                    return a;
+                    return JSArray.createEmptyZeroLength(getContext());
                 }
+                return splitFast(JSRegExp.getCompiledRegex(rx), s, lim, unicodeMatching, sizeZeroProfile, eIsP, isUnicode, prematureReturnBranch);
+            }
+            DynamicObject splitter = (DynamicObject) getArraySpeciesConstructorNode().construct(c, rx, ensureSticky(flags));
+            DynamicObject a = JSArray.createEmptyZeroLength(getContext());
+            long lim = toLimit(limit, limitProfile);
+            if (lim == 0) {
+                prematureReturnBranch.enter();
+                return a;
             }
             int size = s.length();
             if (sizeZeroProfile.profile(size == 0)) {
@@ -563,6 +660,122 @@ public final class RegExpPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
             return a;
         }
 
+        private long toLimit(Object limit, ConditionProfile limitProfile) {
+            if (limitProfile.profile(limit == Undefined.instance)) {
+                return (long) JSRuntime.MAX_SAFE_INTEGER;
+            } else {
+                // NOT ToLength()v https://github.com/tc39/ecma262/issues/92
+                return getToUInt32Node().executeLong(limit);
+            }
+        }
+
+        /**
+         * Splitting is unobservable if the sticky splitter would be a plain copy of {@code rx}
+         * whose {@code exec} is the original built-in. In that case, the splitter's sticky
+         * matches at consecutive indices are equivalent to searching with the original compiled
+         * regex, so we can skip creating the splitter and read match bounds directly from the
+         * TRegex results. Constructing the splitter also calls IsRegExp on {@code rx}, so its
+         * {@code @@match} must be the original one, too.
+         */
+        private boolean isUnobservableSplit(DynamicObject rx, String flags) {
+            if (!JSRegExp.isJSRegExp(rx)) {
+                return false;
+            }
+            DynamicObject regExpPrototype = getContext().getRealm().getRegExpConstructor().getPrototype();
+            if (!hasBuiltinExec(regExpPrototype) || !hasBuiltinMatch(rx, regExpPrototype)) {
+                return false;
+            }
+            TruffleObject compiledFlags = getCompiledRegexAccessor().flags(JSRegExp.getCompiledRegex(rx));
+            return !getFlagsAccessor().sticky(compiledFlags) && isSameFlags(flags, getFlagsAccessor().source(compiledFlags));
+        }
+
+        /**
+         * Returns whether {@code rx} has no own {@code @@match} and inherits the original
+         * %RegExpPrototype%[@@match] directly from %RegExpPrototype%.
+         */
+        private boolean hasBuiltinMatch(DynamicObject rx, DynamicObject regExpPrototype) {
+            if (hasOwnMatchNode == null || getMatchNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                hasOwnMatchNode = insert(HasPropertyCacheNode.create(Symbol.SYMBOL_MATCH, getContext(), true));
+                getMatchNode = insert(PropertyGetNode.create(Symbol.SYMBOL_MATCH, false, getContext()));
+            }
+            if (JSObject.getPrototype(rx) != regExpPrototype || hasOwnMatchNode.hasProperty(rx)) {
+                return false;
+            }
+            return getMatchNode.getValue(regExpPrototype) == getContext().getRealm().getRegExpMatchFunction();
+        }
+
+        @TruffleBoundary
+        private static boolean isSameFlags(String flags, String compiledFlags) {
+            if (flags.length() != compiledFlags.length()) {
+                return false;
+            }
+            for (int i = 0; i < compiledFlags.length(); i++) {
+                if (flags.indexOf(compiledFlags.charAt(i)) < 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private DynamicObject splitFast(TruffleObject compiledRegex, String s, long lim, boolean unicodeMatching, ConditionProfile sizeZeroProfile, ConditionProfile eIsP,
+                        ConditionProfile isUnicode, BranchProfile prematureReturnBranch) {
+            TRegexUtil.TRegexCompiledRegexAccessor compiledRegexAccessor = getCompiledRegexAccessor();
+            TRegexUtil.TRegexResultAccessor resultAccessor = getResultAccessor();
+            int size = s.length();
+            if (sizeZeroProfile.profile(size == 0)) {
+                TruffleObject result = compiledRegexAccessor.exec(compiledRegex, s, 0);
+                if (resultAccessor.isMatch(result)) {
+                    getContext().setRegexResult(result);
+                    return JSArray.createEmptyZeroLength(getContext());
+                }
+                return JSArray.createConstant(getContext(), new Object[]{s});
+            }
+
+            List<Object> splits = new ArrayList<>();
+            int p = 0;
+            int q = 0;
+            while (q < size) {
+                TruffleObject result = compiledRegexAccessor.exec(compiledRegex, s, q);
+                if (!resultAccessor.isMatch(result)) {
+                    break;
+                }
+                // the sticky splitter fails at every index before the match start
+                q = resultAccessor.captureGroupStart(result, 0);
+                if (q >= size) {
+                    break;
+                }
+                getContext().setRegexResult(result);
+                int e = resultAccessor.captureGroupEnd(result, 0);
+                if (eIsP.profile(e == p)) {
+                    q = movePosition(isUnicode, s, unicodeMatching, q);
+                    continue;
+                }
+                Boundaries.listAdd(splits, Boundaries.substring(s, p, q));
+                if (Boundaries.listSize(splits) == lim) {
+                    prematureReturnBranch.enter();
+                    return JSArray.createConstant(getContext(), Boundaries.listToArray(splits));
+                }
+                p = e;
+                int groupCount = resultAccessor.groupCount(result);
+                for (int i = 1; i < groupCount; i++) {
+                    int groupStart = resultAccessor.captureGroupStart(result, i);
+                    if (groupStart == TRegexUtil.Constants.CAPTURE_GROUP_NO_MATCH) {
+                        Boundaries.listAdd(splits, Undefined.instance);
+                    } else {
+                        Boundaries.listAdd(splits, Boundaries.substring(s, groupStart, resultAccessor.captureGroupEnd(result, i)));
+                    }
+                    if (Boundaries.listSize(splits) == lim) {
+                        prematureReturnBranch.enter();
+                        return JSArray.createConstant(getContext(), Boundaries.listToArray(splits));
+                    }
+                }
+                q = p;
+            }
+            Boundaries.listAdd(splits, Boundaries.substring(s, p, size));
+            return JSArray.createConstant(getContext(), Boundaries.listToArray(splits));
+        }
+
         /**
          * Ensure sticky ("y") is part of the flags.
          */
@@ -635,6 +848,7 @@ public final class RegExpPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
         private final ConditionProfile replaceRawProfile = ConditionProfile.createBinaryProfile();
         private final ConditionProfile noMatchProfile = ConditionProfile.createBinaryProfile();
         private final ConditionProfile validPositionProfile = ConditionProfile.createBinaryProfile();
+        private final ConditionProfile fastPathProfile = ConditionProfile.createBinaryProfile();
 
         protected JSRegExpReplaceNode(JSContext context, JSBuiltin builtin) {
             super(context, builtin);
@@ -670,10 +884,14 @@ public final class RegExpPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
                 fullUnicode = getToBoolean2Node().executeBoolean(getGetUnicodeNode().getValue(rx));
                 getSetLastIndexNode().setValue(rx, 0);
             }
+            if (fastPathProfile.profile(global && isUnobservableGlobalExec(rx))) {
+                return replaceAllFast(rx, s, replaceString, replaceFunction, fullUnicode, replaceEmpty, replaceRaw);
+            }
             List<DynamicObject> results = null;
             if (functionalReplaceProfile.profile(functionalReplace)) {
                 results = new ArrayList<>();
             }
+            ReplacementTemplate template = null;
             DelimitedStringBuilder accumulatedResult = new DelimitedStringBuilder(s.length() + 16);
             int nextSourcePosition = 0;
             while (true) {
@@ -690,7 +908,14 @@ public final class RegExpPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
                 if (functionalReplaceProfile.profile(functionalReplace)) {
                     results.add(result);
                 } else {
-                    nextSourcePosition = processResult(accumulatedResult, result, s, replaceString, nextSourcePosition, matchLength, replaceEmpty, replaceRaw);
+                    if (!replaceEmpty && !replaceRaw) {
+                        // the number of captures may differ between results of a user-defined exec
+                        int groupCount = (int) toLength(getLength(result));
+                        if (template == null || template.groupCount != groupCount) {
+                            template = ReplacementTemplate.parse(replaceString, groupCount);
+                        }
+                    }
+                    nextSourcePosition = processResult(accumulatedResult, result, s, replaceString, template, nextSourcePosition, matchLength, replaceEmpty, replaceRaw);
                 }
                 if (globalProfile.profile(global)) {
                     if (matchLength == 0) {
@@ -712,6 +937,213 @@ public final class RegExpPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
             return accumulatedResult.toString();
         }
 
+        /**
+         * Global replace that iterates over the raw TRegex results instead of materializing a
+         * result array per match. Only used if RegExpExec is not observable.
+         */
+        private String replaceAllFast(DynamicObject rx, String s, String replaceString, DynamicObject replaceFunction, boolean fullUnicode, boolean replaceEmpty, boolean replaceRaw) {
+            TruffleObject compiledRegex = JSRegExp.getCompiledRegex(rx);
+            TRegexUtil.TRegexResultAccessor resultAccessor = getResultAccessor();
+            boolean functionalReplace = replaceFunction != null;
+            List<TruffleObject> results = null;
+            if (functionalReplaceProfile.profile(functionalReplace)) {
+                results = new ArrayList<>();
+            }
+            ReplacementTemplate template = null;
+            DelimitedStringBuilder accumulatedResult = new DelimitedStringBuilder(s.length() + 16);
+            int nextSourcePosition = 0;
+            int lastIndex = 0;
+            while (lastIndex <= s.length()) {
+                TruffleObject result = getCompiledRegexAccessor().exec(compiledRegex, s, lastIndex);
+                if (noMatchProfile.profile(!resultAccessor.isMatch(result))) {
+                    break;
+                }
+                getContext().setRegexResult(result);
+                if (functionalReplaceProfile.profile(functionalReplace)) {
+                    Boundaries.listAdd(results, result);
+                } else {
+                    int matchStart = resultAccessor.captureGroupStart(result, 0);
+                    int matchEnd = resultAccessor.captureGroupEnd(result, 0);
+                    accumulatedResult.append(s, nextSourcePosition, matchStart);
+                    if (!replaceEmpty) {
+                        if (replaceRawProfile.profile(replaceRaw)) {
+                            accumulatedResult.append(replaceString);
+                        } else {
+                            if (template == null) {
+                                template = ReplacementTemplate.parse(replaceString, resultAccessor.groupCount(result));
+                            }
+                            appendSubstitution(accumulatedResult, template, s, matchStart, matchEnd, result, true);
+                        }
+                    }
+                    nextSourcePosition = matchEnd;
+                }
+                lastIndex = nextGlobalIndex(result, s, fullUnicode, unicodeProfile);
+            }
+            // the failing RegExpBuiltinExec would have reset lastIndex
+            getSetLastIndexNode().setValue(rx, 0);
+            if (functionalReplaceProfile.profile(functionalReplace)) {
+                for (int i = 0; i < Boundaries.listSize(results); i++) {
+                    nextSourcePosition = processRawResultFunctional(accumulatedResult, Boundaries.listGet(results, i), s, replaceFunction, nextSourcePosition);
+                }
+            }
+            if (nextSourcePosition < s.length()) {
+                accumulatedResult.append(s, nextSourcePosition, s.length());
+            }
+            return accumulatedResult.toString();
+        }
+
+        private int processRawResultFunctional(DelimitedStringBuilder accumulatedResult, TruffleObject result, String s, DynamicObject replaceFunction, int nextSourcePosition) {
+            TRegexUtil.TRegexResultAccessor resultAccessor = getResultAccessor();
+            int position = resultAccessor.captureGroupStart(result, 0);
+            int groupCount = resultAccessor.groupCount(result);
+            Object[] arguments = new Object[groupCount + 4];
+            arguments[0] = Undefined.instance;
+            arguments[1] = replaceFunction;
+            for (int i = 0; i < groupCount; i++) {
+                int groupStart = resultAccessor.captureGroupStart(result, i);
+                arguments[i + 2] = groupStart == TRegexUtil.Constants.CAPTURE_GROUP_NO_MATCH ? Undefined.instance : Boundaries.substring(s, groupStart, resultAccessor.captureGroupEnd(result, i));
+            }
+            arguments[groupCount + 2] = position;
+            arguments[groupCount + 3] = s;
+            Object callResult = getFunctionCallNode().executeCall(arguments);
+
+            String replacement = getToString2Node().executeString(callResult);
+            if (validPositionProfile.profile(position >= nextSourcePosition)) {
+                accumulatedResult.append(s, nextSourcePosition, position);
+                accumulatedResult.append(replacement);
+                return resultAccessor.captureGroupEnd(result, 0);
+            }
+            return nextSourcePosition;
+        }
+
+        /**
+         * A replacement string whose {@code $} patterns have been resolved for a fixed number of
+         * capture groups, so that it can be expanded for each match without re-parsing it.
+         */
+        static final class ReplacementTemplate {
+            private static final int LITERAL = -1;
+            private static final int PREFIX = -2;
+            private static final int SUFFIX = -3;
+
+            /** Number of captures including the whole match, the template was parsed for. */
+            final int groupCount;
+            /** Either a capture group index, or one of LITERAL, PREFIX and SUFFIX. */
+            private final int[] kinds;
+            private final String[] literals;
+
+            private ReplacementTemplate(int groupCount, int[] kinds, String[] literals) {
+                this.groupCount = groupCount;
+                this.kinds = kinds;
+                this.literals = literals;
+            }
+
+            /**
+             * Parses the replacement string following GetSubstitution: {@code $$}, {@code $&},
+             * {@code $`}, {@code $'}, {@code $n} and {@code $nn} for captures less than
+             * {@code groupCount}, falling back to {@code $n} if {@code $nn} is out of range. Any
+             * other {@code $} is kept literally.
+             */
+            @TruffleBoundary
+            static ReplacementTemplate parse(String replacement, int groupCount) {
+                List<Integer> kinds = new ArrayList<>();
+                List<String> literals = new ArrayList<>();
+                StringBuilder literal = new StringBuilder();
+                int len = replacement.length();
+                int pos = 0;
+                while (pos < len) {
+                    char c = replacement.charAt(pos);
+                    if (c != '$' || pos + 1 == len) {
+                        literal.append(c);
+                        pos++;
+                        continue;
+                    }
+                    char ch = replacement.charAt(pos + 1);
+                    int kind = LITERAL;
+                    int next = pos + 2;
+                    if (ch == '$') {
+                        literal.append('$');
+                    } else if (ch == '&') {
+                        kind = 0;
+                    } else if (ch == '`') {
+                        kind = PREFIX;
+                    } else if (ch == '\'') {
+                        kind = SUFFIX;
+                    } else if (isDigit(ch)) {
+                        int firstDigit = ch - '0';
+                        boolean nextIsDigit = next < len && isDigit(replacement.charAt(next));
+                        int n = nextIsDigit ? firstDigit * 10 + (replacement.charAt(next) - '0') : firstDigit;
+                        if (0 < n && n < groupCount) {
+                            kind = n;
+                            next += nextIsDigit ? 1 : 0;
+                        } else if (nextIsDigit && 0 < firstDigit && firstDigit < groupCount) {
+                            // $nn does not fit, but $n does and is >0
+                            kind = firstDigit;
+                        } else {
+                            literal.append('$').append(ch);
+                            if (nextIsDigit) {
+                                literal.append(replacement.charAt(next));
+                                next++;
+                            }
+                        }
+                    } else {
+                        literal.append('$');
+                        next = pos + 1;
+                    }
+                    if (kind != LITERAL) {
+                        addLiteral(kinds, literals, literal);
+                        kinds.add(kind);
+                        literals.add(null);
+                    }
+                    pos = next;
+                }
+                addLiteral(kinds, literals, literal);
+                int[] kindsArray = new int[kinds.size()];
+                for (int i = 0; i < kindsArray.length; i++) {
+                    kindsArray[i] = kinds.get(i);
+                }
+                return new ReplacementTemplate(groupCount, kindsArray, literals.toArray(new String[literals.size()]));
+            }
+
+            private static void addLiteral(List<Integer> kinds, List<String> literals, StringBuilder literal) {
+                if (literal.length() > 0) {
+                    kinds.add(LITERAL);
+                    literals.add(literal.toString());
+                    literal.setLength(0);
+                }
+            }
+        }
+
+        /**
+         * Appends the expansion of {@code template} for one match. Captures are read from the raw
+         * TRegex result if {@code raw} is {@code true}, otherwise from the result array.
+         */
+        private void appendSubstitution(DelimitedStringBuilder sb, ReplacementTemplate template, String s, int matchStart, int matchEnd, Object result, boolean raw) {
+            int[] kinds = template.kinds;
+            for (int i = 0; i < kinds.length; i++) {
+                int kind = kinds[i];
+                if (kind == ReplacementTemplate.LITERAL) {
+                    sb.append(template.literals[i]);
+                } else if (kind == ReplacementTemplate.PREFIX) {
+                    sb.append(s, 0, matchStart);
+                } else if (kind == ReplacementTemplate.SUFFIX) {
+                    if (matchEnd < s.length()) {
+                        sb.append(s, matchEnd, s.length());
+                    }
+                } else if (raw) {
+                    TRegexUtil.TRegexResultAccessor resultAccessor = getResultAccessor();
+                    int groupStart = resultAccessor.captureGroupStart((TruffleObject) result, kind);
+                    if (groupStart != TRegexUtil.Constants.CAPTURE_GROUP_NO_MATCH) {
+                        sb.append(s, groupStart, resultAccessor.captureGroupEnd((TruffleObject) result, kind));
+                    }
+                } else {
+                    Object capture = read(result, kind);
+                    if (capture != Undefined.instance) {
+                        sb.append((String) capture);
+                    }
+                }
+            }
+        }
+
         private int processNonLazy(DynamicObject result) {
             int resultLength = (int) toLength(getLength(result));
             String result0Str = getToString3Node().executeString(read(result, 0));
@@ -734,8 +1166,8 @@ public final class RegExpPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
             throw createNoRegExpError(thisObj);
         }
 
-        protected int processResult(DelimitedStringBuilder accumulatedResult, DynamicObject result, String s, String replaceString, int nextSourcePosition, int matchLength, boolean replaceEmpty,
-                        boolean replaceRaw) {
+        protected int processResult(DelimitedStringBuilder accumulatedResult, DynamicObject result, String s, String replaceString, ReplacementTemplate template, int nextSourcePosition,
+                        int matchLength, boolean replaceEmpty, boolean replaceRaw) {
             int position = Math.max(Math.min(toIntegerNode.executeInt(getIndexNode.getValue(result)), s.length()), 0);
             if (validPositionProfile.profile(position >= nextSourcePosition)) {
                 accumulatedResult.append(s, nextSourcePosition, position);
@@ -743,7 +1175,7 @@ public final class RegExpPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
                     if (replaceRawProfile.profile(replaceRaw)) {
                         accumulatedResult.append(replaceString);
                     } else {
-                        appendSubstitution(accumulatedResult, result, matchLength, s, position, replaceString);
+                        appendSubstitution(accumulatedResult, template, s, position, position + matchLength, result, false);
                     }
                 }
                 return position + matchLength;
@@ -778,86 +1210,6 @@ public final class RegExpPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
             return nextSourcePosition;
         }
 
-        private void appendSubstitution(DelimitedStringBuilder accumulatedResult, DynamicObject result, int matchLength, String str, int position, String replacement) {
-            int dollarPos = Boundaries.stringIndexOf(replacement, '$');
-            int tailPos = position + matchLength;
-            accumulatedResult.append(replacement, 0, dollarPos);
-            int pos = dollarPos;
-            while (pos != -1) {
-                pos = appendSubstitutionIntl(accumulatedResult, str, pos + 1, position, tailPos, replacement, result);
-                pos = nextDollar(accumulatedResult, pos, replacement);
-            }
-        }
-
-        private static int nextDollar(DelimitedStringBuilder sb, int start, String replacement) {
-            int pos = Boundaries.stringIndexOf(replacement, '$', start);
-            int end = (pos <= -1) ? replacement.length() : pos;
-            sb.append(replacement, start, end);
-            return pos;
-        }
-
-        private int appendSubstitutionIntl(DelimitedStringBuilder sb, String input, int pos, int startPos, int endPos, String replaceStr, DynamicObject result) {
-            if (pos == replaceStr.length()) {
-                sb.append('$');
-                return pos;
-            }
-            char ch = replaceStr.charAt(pos);
-            int retPos = pos + 1;
-            switch (ch) {
-                case '$':
-                    sb.append('$');
-                    break;
-                case '&':
-                    sb.append((String) read(result, 0));
-                    break;
-                case '`':
-                    sb.append(input, 0, startPos);
-                    break;
-                case '\'':
-                    if (endPos < input.length()) {
-                        sb.append(input, endPos, input.length());
-                    }
-                    break;
-                default:
-                    if (isDigit(ch)) {
-                        int firstDigit = (ch - '0');
-                        boolean nextIsDigit = replaceStr.length() > (pos + 1) && isDigit(replaceStr.charAt(pos + 1));
-                        int n = 0;
-                        if (nextIsDigit) {
-                            char nextDigit = (char) (replaceStr.charAt(pos + 1) - '0');
-                            n = firstDigit * 10 + nextDigit;
-                            retPos += 1;
-                        } else {
-                            n = firstDigit;
-                        }
-                        Object nCapture;
-                        int resultLength = (int) toLength(getLength(result));
-                        if (0 < n && n < resultLength) {
-                            nCapture = read(result, n);
-                            sb.append(nCapture == Undefined.instance ? "" : (String) nCapture);
-                        } else if (nextIsDigit && firstDigit < resultLength && firstDigit > 0) {
-                            // $nn does not fit, but $n does and is >0
-                            nCapture = read(result, firstDigit);
-                            if (nCapture != Undefined.instance) {
-                                sb.append((String) nCapture);
-                            }
-                            retPos--;
-                        } else {
-                            sb.append('$');
-                            sb.append(ch);
-                            if (nextIsDigit) {
-                                sb.append(replaceStr.charAt(pos + 1));
-                            }
-                        }
-                    } else {
-                        sb.append('$');
-                        retPos--;
-                    }
-                    break;
-            }
-            return retPos;
-        }
-
         private static boolean isDigit(char ch) {
             return '0' <= ch && ch <= '9';
         }
@@ -937,6 +1289,7 @@ public final class RegExpPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
 
         private final ConditionProfile isGlobalProfile = ConditionProfile.createBinaryProfile();
         private final ConditionProfile unicodeProfile = ConditionProfile.createBinaryProfile();
+        private final ConditionProfile fastPathProfile = ConditionProfile.createBinaryProfile();
 
         protected JSRegExpMatchNode(JSContext context, JSBuiltin builtin) {
             super(context, builtin);
@@ -957,6 +1310,9 @@ public final class RegExpPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
             } else {
                 boolean fullUnicode = toBoolean2Node.executeBoolean(getUnicodeNode.getValue(rx));
                 getSetLastIndexNode().setValue(rx, 0);
+                if (fastPathProfile.profile(isUnobservableGlobalExec(rx))) {
+                    return matchAllFast(rx, s, fullUnicode);
+                }
                 DynamicObject a = JSArray.createEmptyZeroLength(getContext());
                 int n = 0;
                 DynamicObject result;
@@ -977,6 +1333,32 @@ public final class RegExpPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
             }
         }
 
+        /**
+         * Global match that collects the matched substrings directly from the raw TRegex results.
+         * Only used if RegExpExec is not observable.
+         */
+        private Object matchAllFast(DynamicObject rx, String s, boolean fullUnicode) {
+            TruffleObject compiledRegex = JSRegExp.getCompiledRegex(rx);
+            TRegexUtil.TRegexResultAccessor resultAccessor = getResultAccessor();
+            List<Object> matches = null;
+            int lastIndex = 0;
+            while (lastIndex <= s.length()) {
+                TruffleObject result = getCompiledRegexAccessor().exec(compiledRegex, s, lastIndex);
+                if (!resultAccessor.isMatch(result)) {
+                    break;
+                }
+                getContext().setRegexResult(result);
+                if (matches == null) {
+                    matches = new ArrayList<>();
+                }
+                Boundaries.listAdd(matches, Boundaries.substring(s, resultAccessor.captureGroupStart(result, 0), resultAccessor.captureGroupEnd(result, 0)));
+                lastIndex = nextGlobalIndex(result, s, fullUnicode, unicodeProfile);
+            }
+            // the failing RegExpBuiltinExec would have reset lastIndex
+            getSetLastIndexNode().setValue(rx, 0);
+            return matches == null ? Null.instance : JSArray.createConstant(getContext(), Boundaries.listToArray(matches));
+        }
+
         @Specialization(guards = "!isJSObject(thisObj)")
         protected Object match(Object thisObj, @SuppressWarnings("unused") Object string) {
             throw createNoRegExpError(thisObj);
@@ -123,6 +123,7 @@ import com.oracle.truffle.js.runtime.builtins.JSCollator;
 import com.oracle.truffle.js.runtime.builtins.JSFunction;
 import com.oracle.truffle.js.runtime.builtins.JSRegExp;
 import com.oracle.truffle.js.runtime.builtins.JSString;
+import com.oracle.truffle.js.runtime.objects.JSLazyString;
 import com.oracle.truffle.js.runtime.objects.Null;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 import com.oracle.truffle.js.runtime.util.DelimitedStringBuilder;
@@ -314,6 +315,25 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
         }
 
         @Child private RequireObjectCoercibleNode requireObjectCoercibleNode;
+        private final ConditionProfile lazyStringProfile = ConditionProfile.createBinaryProfile();
+
+        /**
+         * Like {@link #toString(Object)}, but keeps lazy strings as they are, so that they are not
+         * flattened just to read some of their characters.
+         */
+        protected final CharSequence toCharSequence(Object target) {
+            if (lazyStringProfile.profile(target instanceof JSLazyString)) {
+                return (JSLazyString) target;
+            }
+            return toString(target);
+        }
+
+        protected static char charAt(CharSequence str, int index) {
+            if (str instanceof JSLazyString) {
+                return ((JSLazyString) str).charAt(index);
+            }
+            return ((String) str).charAt(index);
+        }
 
         protected static int within(int value, int min, int max) {
             assert min <= max;
@@ -421,17 +441,21 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
 
         @Specialization
         protected String stringCharAt(String thisStr, int pos) {
-            if (indexOutOfBounds.profile(pos < 0 || pos >= thisStr.length())) {
-                return "";
-            } else {
-                return String.valueOf(thisStr.charAt(pos));
-            }
+            return charAtIntl(thisStr, pos);
         }
 
         @Specialization
         protected String charAt(Object thisObj, Object index) {
             requireObjectCoercible(thisObj);
-            return stringCharAt(toString(thisObj), toInteger(index));
+            return charAtIntl(toCharSequence(thisObj), toInteger(index));
+        }
+
+        private String charAtIntl(CharSequence thisStr, int pos) {
+            if (indexOutOfBounds.profile(pos < 0 || pos >= thisStr.length())) {
+                return "";
+            } else {
+                return String.valueOf(charAt(thisStr, pos));
+            }
         }
 
         @Override
@@ -491,13 +515,13 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
         @Specialization
         protected Object charCodeAtGeneric(Object thisObj, Object indexObj) {
             requireObjectCoercible(thisObj);
-            String s = toString(thisObj);
+            CharSequence s = toCharSequence(thisObj);
             Number index = toNumber(indexObj);
             long lIndex = JSRuntime.toInteger(index);
             if (indexOutOfBounds.profile(0 > lIndex || lIndex >= s.length())) {
                 return Double.NaN;
             } else {
-                return Integer.valueOf(s.charAt((int) lIndex));
+                return Integer.valueOf(charAt(s, (int) lIndex));
             }
         }
 
@@ -541,7 +565,7 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
         }
 
         @Specialization
-        protected String substring(String thisStr, int start, int end) {
+        protected CharSequence substring(String thisStr, int start, int end) {
             int len = thisStr.length();
             int finalStart = within(start, 0, len);
             int finalEnd = within(end, 0, len);
@@ -549,28 +573,28 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
         }
 
         @Specialization(guards = "isUndefined(end)")
-        protected String substringStart(String thisStr, int start, @SuppressWarnings("unused") Object end) {
+        protected CharSequence substringStart(String thisStr, int start, @SuppressWarnings("unused") Object end) {
             int len = thisStr.length();
             int finalStart = within(start, 0, len);
             int finalEnd = len;
             return substringIntl(thisStr, finalStart, finalEnd);
         }
 
-        private String substringIntl(String thisStr, int start, int end) {
+        private CharSequence substringIntl(CharSequence thisStr, int start, int end) {
             if (startLowerEnd.profile(start <= end)) {
-                return Boundaries.substring(thisStr, start, end);
+                return JSLazyString.substring(thisStr, start, end);
             } else {
-                return Boundaries.substring(thisStr, end, start);
+                return JSLazyString.substring(thisStr, end, start);
             }
         }
 
         @Specialization(replaces = "substringStart")
-        protected String substringGeneric(Object thisObj, Object start, Object end,
+        protected CharSequence substringGeneric(Object thisObj, Object start, Object end,
                         @Cached("create()") JSToNumberNode toNumber2Node,
                         @Cached("createBinaryProfile()") ConditionProfile startUndefined,
                         @Cached("createBinaryProfile()") ConditionProfile endUndefined) {
             requireObjectCoercible(thisObj);
-            String thisStr = toString(thisObj);
+            CharSequence thisStr = toCharSequence(thisObj);
             int len = thisStr.length();
             int intStart;
             int intEnd;
@@ -599,7 +623,7 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
 
             @Override
             @Specialization
-            protected String substringGeneric(Object thisObj, Object start, Object end,
+            protected CharSequence substringGeneric(Object thisObj, Object start, Object end,
                             @Cached("create()") JSToNumberNode toNumber2Node,
                             @Cached("createBinaryProfile()") ConditionProfile startUndefined,
                             @Cached("createBinaryProfile()") ConditionProfile endUndefined) {
@@ -1642,7 +1666,20 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
         }
 
         @Specialization
-        protected String substr(String thisStr, int start, int length) {
+        protected CharSequence substr(String thisStr, int start, int length) {
+            return substrIntl(thisStr, start, length);
+        }
+
+        @Specialization
+        protected CharSequence substr(Object thisObj, Object start, Object length) {
+            requireObjectCoercible(thisObj);
+            CharSequence thisStr = toCharSequence(thisObj);
+            int startInt = toInteger(start);
+            int len = (length == Undefined.instance) ? thisStr.length() : toInteger(length);
+            return substrIntl(thisStr, startInt, len);
+        }
+
+        private static CharSequence substrIntl(CharSequence thisStr, int start, int length) {
             int startInt = start;
             if (startInt < 0) {
                 startInt = Math.max(startInt + thisStr.length(), 0);
@@ -1651,16 +1688,7 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
             if (finalLen <= 0) {
                 return "";
             }
-            return Boundaries.substring(thisStr, startInt, startInt + finalLen);
-        }
-
-        @Specialization
-        protected String substr(Object thisObj, Object start, Object length) {
-            requireObjectCoercible(thisObj);
-            String thisStr = toString(thisObj);
-            int startInt = toInteger(start);
-            int len = (length == Undefined.instance) ? thisStr.length() : toInteger(length);
-            return substr(thisStr, startInt, len);
+            return JSLazyString.substring(thisStr, startInt, startInt + finalLen);
         }
     }
 
@@ -1924,15 +1952,15 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
         }
 
         @Specialization
-        protected String slice(Object thisObj, Object start, Object end) {
+        protected CharSequence slice(Object thisObj, Object start, Object end) {
             requireObjectCoercible(thisObj);
-            String s = toString(thisObj);
+            CharSequence s = toCharSequence(thisObj);
 
             long len = s.length();
             long istart = JSRuntime.getOffset(toInteger(start), len, offsetProfile1);
             long iend = isUndefined.profile(end == Undefined.instance) ? len : JSRuntime.getOffset(toInteger(end), len, offsetProfile2);
             if (canReturnEmpty.profile(iend > istart)) {
-                return Boundaries.substring(s, (int) istart, (int) iend);
+                return JSLazyString.substring(s, (int) istart, (int) iend);
             } else {
                 return "";
             }
@@ -74,6 +74,7 @@ import com.oracle.truffle.js.nodes.access.IteratorCompleteUnaryNode;
 import com.oracle.truffle.js.nodes.access.IteratorNextUnaryNode;
 import com.oracle.truffle.js.nodes.access.IteratorStepNode;
 import com.oracle.truffle.js.nodes.access.IteratorStepSpecialNode;
+import com.oracle.truffle.js.nodes.access.IteratorStepValueNode;
 import com.oracle.truffle.js.nodes.access.IteratorToArrayNode;
 import com.oracle.truffle.js.nodes.access.IteratorValueNode;
 import com.oracle.truffle.js.nodes.access.JSConstantNode;
@@ -861,6 +862,10 @@ public class NodeFactory {
         return IteratorValueNode.create(context, iterator);
     }
 
+    public JavaScriptNode createIteratorStepValue(JSContext context, JavaScriptNode iterator, WriteNode writeValue) {
+        return IteratorStepValueNode.create(context, iterator, writeValue);
+    }
+
     public JavaScriptNode createAsyncIteratorCloseWrapper(JSContext context, JavaScriptNode loopNode, JavaScriptNode iterator, JSReadFrameSlotNode asyncContextNode,
                     JSReadFrameSlotNode asyncResultNode, JavaScriptNode doneNode) {
         return AsyncIteratorCloseWrapperNode.create(context, loopNode, iterator, asyncContextNode, asyncResultNode, doneNode);
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.nodes.access;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.interop.TruffleObject;
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.profiles.BranchProfile;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+import com.oracle.truffle.js.nodes.JavaScriptBaseNode;
+import com.oracle.truffle.js.runtime.Errors;
+import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.JSRuntime;
+import com.oracle.truffle.js.runtime.builtins.JSArray;
+import com.oracle.truffle.js.runtime.builtins.JSArrayBufferView;
+import com.oracle.truffle.js.runtime.builtins.JSArrayIterator;
+import com.oracle.truffle.js.runtime.objects.Undefined;
+
+/**
+ * ES6 22.1.5.2.1 %ArrayIteratorPrototype%.next() without the iterator result object: returns the
+ * next value, or {@code null} if the iterator is done.
+ *
+ * Also used to step array iterators directly (e.g. in for-of, spread and destructuring) if the
+ * iterator's {@code next} method is the original %ArrayIteratorPrototype%.next.
+ */
+public final class ArrayIteratorStepNode extends JavaScriptBaseNode {
+    private final JSContext context;
+    @Child private JSGetLengthNode getLengthNode;
+    @Child private ReadElementNode readElementNode;
+    private final ConditionProfile isTypedArrayProfile = ConditionProfile.createBinaryProfile();
+    private final BranchProfile errorBranch = BranchProfile.create();
+    private final BranchProfile entriesBranch = BranchProfile.create();
+
+    private ArrayIteratorStepNode(JSContext context) {
+        this.context = context;
+        this.readElementNode = ReadElementNode.create(context);
+    }
+
+    public static ArrayIteratorStepNode create(JSContext context) {
+        return new ArrayIteratorStepNode(context);
+    }
+
+    /**
+     * Returns {@code true} if the iterator is an array iterator of this realm without own
+     * properties, and %ArrayIteratorPrototype%.next is unmodified, i.e. stepping it directly is not
+     * observable. The initial array iterator shape implies the prototype, so {@code next} does not
+     * have to be looked up.
+     */
+    public static boolean isUnmodifiedArrayIterator(JSContext context, Object iterator) {
+        return iterator instanceof DynamicObject && ((DynamicObject) iterator).getShape() == context.getArrayIteratorFactory().getShape() &&
+                        context.getRealm().getArrayIteratorNextUnmodifiedAssumption().isValid();
+    }
+
+    public Object execute(DynamicObject iterator) {
+        assert JSArrayIterator.isJSArrayIterator(iterator);
+        Object array = JSArrayIterator.getIteratedObject(iterator, true);
+        if (array == Undefined.instance) {
+            return null;
+        }
+        TruffleObject arrayObject = (TruffleObject) array;
+        long index = JSArrayIterator.getNextIndex(iterator, true);
+        int iterationKind = JSArrayIterator.getIterationKind(iterator, true);
+        long length;
+        if (isTypedArrayProfile.profile(JSArrayBufferView.isJSArrayBufferView(arrayObject))) {
+            DynamicObject typedArray = (DynamicObject) arrayObject;
+            if (JSArrayBufferView.hasDetachedBuffer(typedArray, context)) {
+                errorBranch.enter();
+                throw Errors.createTypeError("Cannot perform Array Iterator.prototype.next on a detached ArrayBuffer");
+            }
+            length = JSArrayBufferView.typedArrayGetLength(typedArray);
+        } else {
+            length = getLengthNode().executeLong(arrayObject);
+        }
+        if (index >= length) {
+            JSArrayIterator.setExhausted(iterator);
+            return null;
+        }
+        JSArrayIterator.setNextIndex(iterator, index + 1);
+        Object indexNumber = JSRuntime.positiveLongToIntOrDouble(index);
+        if (iterationKind == JSArrayIterator.ITERATION_KIND_KEY) {
+            return indexNumber;
+        }
+        Object elementValue = readElementNode.executeWithTargetAndIndex(arrayObject, indexNumber);
+        if (iterationKind == JSArrayIterator.ITERATION_KIND_VALUE) {
+            return elementValue;
+        }
+        entriesBranch.enter();
+        assert iterationKind == JSArrayIterator.ITERATION_KIND_KEY_PLUS_VALUE;
+        return JSArray.createConstant(context, new Object[]{indexNumber, elementValue});
+    }
+
+    private JSGetLengthNode getLengthNode() {
+        if (getLengthNode == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            getLengthNode = insert(JSGetLengthNode.create(context));
+        }
+        return getLengthNode;
+    }
+}
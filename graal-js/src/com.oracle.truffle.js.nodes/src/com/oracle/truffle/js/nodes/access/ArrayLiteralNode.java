@@ -62,6 +62,9 @@ import com.oracle.truffle.js.nodes.instrumentation.JSTags.LiteralExpressionTag;
 import com.oracle.truffle.js.runtime.Boundaries;
 import com.oracle.truffle.js.runtime.Errors;
 import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.JSTruffleOptions;
+import com.oracle.truffle.js.runtime.array.ArrayAllocationSite;
+import com.oracle.truffle.js.runtime.array.ProfiledArrayAllocationSite;
 import com.oracle.truffle.js.runtime.array.ScriptArray;
 import com.oracle.truffle.js.runtime.array.dyn.AbstractConstantArray;
 import com.oracle.truffle.js.runtime.array.dyn.ConstantByteArray;
@@ -529,18 +532,21 @@ public abstract class ArrayLiteralNode extends JavaScriptNode {
 
     private static final class ConstantEmptyArrayLiteralNode extends ArrayLiteralNode {
 
+        @CompilationFinal private ArrayAllocationSite allocationSite;
+
         ConstantEmptyArrayLiteralNode(JSContext context) {
             super(context);
+            this.allocationSite = JSTruffleOptions.TrackArrayAllocationSites ? new ProfiledArrayAllocationSite() : null;
         }
 
         @Override
         public DynamicObject executeDynamicObject(VirtualFrame frame) {
-            return JSArray.createConstantEmptyArray(context);
+            return JSArray.createWithAllocationSite(context, allocationSite, 0);
         }
 
         @Override
         protected JavaScriptNode copyUninitialized() {
-            return copy();
+            return new ConstantEmptyArrayLiteralNode(context);
         }
     }
 
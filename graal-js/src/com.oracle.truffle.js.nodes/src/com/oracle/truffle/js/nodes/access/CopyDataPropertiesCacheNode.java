@@ -0,0 +1,310 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.nodes.access;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.oracle.truffle.api.Assumption;
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.FinalLocationException;
+import com.oracle.truffle.api.object.IncompatibleLocationException;
+import com.oracle.truffle.api.object.Property;
+import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.js.nodes.JavaScriptBaseNode;
+import com.oracle.truffle.js.runtime.JSRuntime;
+import com.oracle.truffle.js.runtime.JSTruffleOptions;
+import com.oracle.truffle.js.runtime.builtins.JSProxy;
+import com.oracle.truffle.js.runtime.builtins.JSUserObject;
+import com.oracle.truffle.js.runtime.objects.JSObject;
+import com.oracle.truffle.js.runtime.objects.JSProperty;
+import com.oracle.truffle.js.runtime.objects.JSShape;
+import com.oracle.truffle.js.runtime.objects.Null;
+import com.oracle.truffle.js.runtime.objects.PropertyDescriptor;
+
+/**
+ * Copies the enumerable own properties of a source object to a target object, either with
+ * CreateDataProperty (object spread, rest patterns) or with [[Set]] ({@code Object.assign}).
+ *
+ * The first copy between a pair of ordinary objects is performed generically and the resulting
+ * transition is recorded as a plan: the source properties to read and the final target shape with
+ * the properties to write. Subsequent copies between objects of the same shapes read all values
+ * directly from the source and store them into the target after a single shape change. Plans are
+ * only learned if all enumerable source properties are plain data properties that were added to
+ * the target as new data properties. For [[Set]], the target's prototype chain is guarded by
+ * property assumptions, so a setter or read-only property added to a prototype later on
+ * invalidates the plan.
+ */
+public final class CopyDataPropertiesCacheNode extends JavaScriptBaseNode {
+
+    private static final int MAX_PLAN_PROPERTIES = 64;
+    private static final int RELEARN_LIMIT = 4;
+    private static final CopyPlan[] EMPTY_PLANS = new CopyPlan[0];
+
+    private final boolean isDefine;
+    @CompilationFinal(dimensions = 1) private CopyPlan[] plans = EMPTY_PLANS;
+    @CompilationFinal private int relearnCount;
+
+    private CopyDataPropertiesCacheNode(boolean isDefine) {
+        this.isDefine = isDefine;
+    }
+
+    /**
+     * @param isDefine {@code true} to define the properties on the target (CopyDataProperties),
+     *            {@code false} to set them ({@code Object.assign}).
+     */
+    public static CopyDataPropertiesCacheNode create(boolean isDefine) {
+        return new CopyDataPropertiesCacheNode(isDefine);
+    }
+
+    @ExplodeLoop
+    public void execute(DynamicObject target, DynamicObject source) {
+        CopyPlan[] currentPlans = plans;
+        for (int i = 0; i < currentPlans.length; i++) {
+            CopyPlan plan = currentPlans[i];
+            if (plan.sourceShape.check(source) && plan.targetShape.check(target)) {
+                Object[] values = plan.readAll(source);
+                if (plan.isValid() && plan.canStoreAll(values)) {
+                    if (plan.storeAll(target, values)) {
+                        return;
+                    }
+                    // the target already has the final shape; redo the whole copy generically
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    removePlan(plan);
+                    copyGeneric(target, source, isDefine);
+                    return;
+                }
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                removePlan(plan);
+                break;
+            }
+        }
+        if (relearnCount <= RELEARN_LIMIT && plans.length < JSTruffleOptions.PropertyCacheLimit) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            copyAndLearn(target, source);
+        } else {
+            copyGeneric(target, source, isDefine);
+        }
+    }
+
+    private void copyAndLearn(DynamicObject target, DynamicObject source) {
+        CompilerAsserts.neverPartOfCompilation();
+        Shape sourceShape = source.getShape();
+        Shape targetShape = target.getShape();
+        copyGeneric(target, source, isDefine);
+        CopyPlan plan = CopyPlan.learn(target, targetShape, source, sourceShape, isDefine);
+        if (plan != null) {
+            CopyPlan[] newPlans = Arrays.copyOf(plans, plans.length + 1);
+            newPlans[plans.length] = plan;
+            plans = newPlans;
+        } else {
+            relearnCount++;
+        }
+    }
+
+    private void removePlan(CopyPlan plan) {
+        CompilerAsserts.neverPartOfCompilation();
+        List<CopyPlan> remaining = new ArrayList<>(Arrays.asList(plans));
+        remaining.remove(plan);
+        plans = remaining.toArray(EMPTY_PLANS);
+        relearnCount++;
+    }
+
+    @TruffleBoundary
+    private static void copyGeneric(DynamicObject target, DynamicObject source, boolean isDefine) {
+        for (Object key : JSObject.ownPropertyKeys(source)) {
+            PropertyDescriptor desc = JSObject.getOwnProperty(source, key);
+            if (desc != null && desc.getEnumerable()) {
+                Object value = JSObject.get(source, key);
+                if (isDefine) {
+                    JSRuntime.createDataProperty(target, key, value);
+                } else {
+                    JSObject.set(target, key, value, true);
+                }
+            }
+        }
+    }
+
+    private static final class CopyPlan {
+        final Shape sourceShape;
+        final Shape targetShape;
+        final Shape finalShape;
+        @CompilationFinal(dimensions = 1) final Property[] sourceProperties;
+        @CompilationFinal(dimensions = 1) final Property[] targetProperties;
+        @CompilationFinal(dimensions = 1) final Assumption[] assumptions;
+
+        CopyPlan(Shape sourceShape, Shape targetShape, Shape finalShape, Property[] sourceProperties, Property[] targetProperties, Assumption[] assumptions) {
+            this.sourceShape = sourceShape;
+            this.targetShape = targetShape;
+            this.finalShape = finalShape;
+            this.sourceProperties = sourceProperties;
+            this.targetProperties = targetProperties;
+            this.assumptions = assumptions;
+        }
+
+        @ExplodeLoop
+        Object[] readAll(DynamicObject source) {
+            Object[] values = new Object[sourceProperties.length];
+            for (int i = 0; i < sourceProperties.length; i++) {
+                values[i] = sourceProperties[i].get(source, sourceShape);
+            }
+            return values;
+        }
+
+        @ExplodeLoop
+        boolean isValid() {
+            for (int i = 0; i < assumptions.length; i++) {
+                if (!assumptions[i].isValid()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @ExplodeLoop
+        boolean canStoreAll(Object[] values) {
+            for (int i = 0; i < targetProperties.length; i++) {
+                if (!targetProperties[i].getLocation().canStore(values[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Stores all values after switching the target to the final shape. Returns {@code false}
+         * if a location rejected its value; the target then has the final shape, but not all
+         * values were stored.
+         */
+        @ExplodeLoop
+        boolean storeAll(DynamicObject target, Object[] values) {
+            target.setShapeAndGrow(targetShape, finalShape);
+            try {
+                for (int i = 0; i < targetProperties.length; i++) {
+                    targetProperties[i].set(target, values[i], finalShape);
+                }
+            } catch (IncompatibleLocationException | FinalLocationException e) {
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * Derives a plan from a completed generic copy, or returns {@code null} if the copy cannot
+         * be replayed by shape alone.
+         */
+        static CopyPlan learn(DynamicObject target, Shape targetShape, DynamicObject source, Shape sourceShape, boolean isDefine) {
+            CompilerAsserts.neverPartOfCompilation();
+            Shape finalShape = target.getShape();
+            if (target == source || source.getShape() != sourceShape || !sourceShape.isValid() || !finalShape.isValid() ||
+                            JSShape.getJSClass(sourceShape) != JSUserObject.INSTANCE || JSShape.getJSClass(targetShape) != JSUserObject.INSTANCE ||
+                            finalShape.getObjectType() != targetShape.getObjectType()) {
+                return null;
+            }
+            List<Object> keys = new ArrayList<>();
+            List<Property> sourceProperties = new ArrayList<>();
+            List<Property> targetProperties = new ArrayList<>();
+            for (Object key : JSObject.ownPropertyKeys(source)) {
+                Property sourceProperty = sourceShape.getProperty(key);
+                if (sourceProperty == null) {
+                    return null;
+                } else if (!JSProperty.isEnumerable(sourceProperty)) {
+                    continue;
+                }
+                Property targetProperty = finalShape.getProperty(key);
+                if (!isPlainData(sourceProperty) || targetProperty == null || !isPlainData(targetProperty) || targetShape.hasProperty(key)) {
+                    return null;
+                }
+                keys.add(key);
+                sourceProperties.add(sourceProperty);
+                targetProperties.add(targetProperty);
+            }
+            if (keys.size() > MAX_PLAN_PROPERTIES || finalShape.getPropertyCount() != targetShape.getPropertyCount() + keys.size()) {
+                return null;
+            }
+            List<Assumption> assumptions = new ArrayList<>();
+            assumptions.add(sourceShape.getValidAssumption());
+            assumptions.add(finalShape.getValidAssumption());
+            if (!isDefine && !addPrototypeChainAssumptions(target, targetShape, keys, assumptions)) {
+                return null;
+            }
+            return new CopyPlan(sourceShape, targetShape, finalShape, sourceProperties.toArray(new Property[0]), targetProperties.toArray(new Property[0]),
+                            assumptions.toArray(new Assumption[0]));
+        }
+
+        private static boolean isPlainData(Property property) {
+            return JSProperty.isData(property) && !JSProperty.isProxy(property);
+        }
+
+        /**
+         * [[Set]] consults the prototype chain for setters and read-only properties, so the plan
+         * must be invalidated if any of the copied keys is later defined on a prototype.
+         */
+        private static boolean addPrototypeChainAssumptions(DynamicObject target, Shape targetShape, List<Object> keys, List<Assumption> assumptions) {
+            if (!JSShape.isPrototypeInShape(targetShape)) {
+                return false;
+            }
+            DynamicObject proto = JSObject.getPrototype(target);
+            while (proto != Null.instance) {
+                Shape protoShape = proto.getShape();
+                if (JSProxy.isProxy(proto) || !JSObject.getJSClass(proto).hasOnlyShapeProperties(proto) || !JSShape.isPrototypeInShape(protoShape)) {
+                    return false;
+                }
+                assumptions.add(protoShape.getValidAssumption());
+                for (Object key : keys) {
+                    Assumption unchanged = JSShape.getPropertyAssumption(protoShape, key);
+                    if (!unchanged.isValid()) {
+                        return false;
+                    }
+                    assumptions.add(unchanged);
+                }
+                proto = JSObject.getPrototype(proto);
+            }
+            return true;
+        }
+    }
+}
@@ -41,6 +41,7 @@
 package com.oracle.truffle.js.nodes.access;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Executed;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.VirtualFrame;
@@ -74,8 +75,9 @@ public abstract class CopyDataPropertiesNode extends JavaScriptNode {
     }
 
     @Specialization(guards = {"isJSObject(value)", "excludedNode == null"})
-    protected static DynamicObject doObject(DynamicObject restObj, DynamicObject value) {
-        copyDataProperties(restObj, value, null);
+    protected static DynamicObject doObject(DynamicObject restObj, DynamicObject value,
+                    @Cached("create(true)") CopyDataPropertiesCacheNode copyDataPropertiesNode) {
+        copyDataPropertiesNode.execute(restObj, value);
         return restObj;
     }
 
@@ -58,6 +58,7 @@ import com.oracle.truffle.api.interop.UnsupportedMessageException;
 import com.oracle.truffle.api.interop.java.JavaInterop;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.Shape;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.js.nodes.JavaScriptNode;
 import com.oracle.truffle.js.nodes.cast.JSToLengthNode;
@@ -67,19 +68,23 @@ import com.oracle.truffle.js.runtime.Boundaries;
 import com.oracle.truffle.js.runtime.JSArguments;
 import com.oracle.truffle.js.runtime.JSContext;
 import com.oracle.truffle.js.runtime.JSRuntime;
+import com.oracle.truffle.js.runtime.JSTruffleOptions;
 import com.oracle.truffle.js.runtime.builtins.JSAdapter;
 import com.oracle.truffle.js.runtime.builtins.JSArray;
 import com.oracle.truffle.js.runtime.builtins.JSFunction;
 import com.oracle.truffle.js.runtime.interop.JSJavaWrapper;
 import com.oracle.truffle.js.runtime.objects.JSObject;
+import com.oracle.truffle.js.runtime.objects.JSShape;
+import com.oracle.truffle.js.runtime.objects.JSShapeData.EnumCache;
 import com.oracle.truffle.js.runtime.truffleinterop.JSInteropUtil;
+import com.oracle.truffle.js.runtime.util.EnumCacheIterator;
 import com.oracle.truffle.js.runtime.util.EnumerateIterator;
 import com.oracle.truffle.js.runtime.util.IteratorUtil;
 
 /**
  * ES6 [[Enumerate]]().
  */
-@ImportStatic(JSInteropUtil.class)
+@ImportStatic({JSInteropUtil.class, JSTruffleOptions.class})
 public abstract class EnumerateNode extends JavaScriptNode {
     /** Enumerate values instead of keys (used by for-each-in loop). */
     private final boolean values;
@@ -114,6 +119,28 @@ public abstract class EnumerateNode extends JavaScriptNode {
         return EnumerateNodeGen.create(context, values, cloneUninitialized(targetNode));
     }
 
+    /**
+     * for-in over objects of a known shape whose keys are in the shape's enum cache: no lookup of
+     * the cache and no boundary call per loop.
+     */
+    @Specialization(guards = {"!isValues()", "cachedShape.check(iteratedObject)", "enumCache != null", "enumCache.isValid(iteratedObject)"}, limit = "PropertyCacheLimit")
+    protected DynamicObject doEnumerateCached(DynamicObject iteratedObject,
+                    @Cached("iteratedObject.getShape()") @SuppressWarnings("unused") Shape cachedShape,
+                    @Cached("getEnumCache(iteratedObject)") EnumCache enumCache) {
+        return JSObject.create(context, context.getEnumerateIteratorFactory(), new EnumCacheIterator(iteratedObject, enumCache));
+    }
+
+    protected final boolean isValues() {
+        return values;
+    }
+
+    protected static EnumCache getEnumCache(DynamicObject iteratedObject) {
+        if (JSTruffleOptions.FastOwnKeys && JSRuntime.isObject(iteratedObject) && !JSAdapter.isJSAdapter(iteratedObject) && !JSJavaWrapper.isJSJavaWrapper(iteratedObject)) {
+            return JSShape.getEnumCache(iteratedObject);
+        }
+        return null;
+    }
+
     @Specialization(guards = {"isJSType(iteratedObject)", "!isJSAdapter(iteratedObject)", "!isJSJavaWrapper(iteratedObject)"})
     protected DynamicObject doEnumerateObject(DynamicObject iteratedObject,
                     @Cached("createBinaryProfile()") ConditionProfile isObject) {
@@ -129,7 +156,13 @@ public abstract class EnumerateNode extends JavaScriptNode {
 
     @TruffleBoundary
     private Iterator<?> createEnumerateIterator(DynamicObject iteratedObject) {
-        Iterator<?> iterator = new EnumerateIterator(iteratedObject);
+        Iterator<?> iterator;
+        EnumCache enumCache = JSTruffleOptions.FastOwnKeys ? JSShape.getEnumCache(iteratedObject) : null;
+        if (enumCache != null) {
+            iterator = new EnumCacheIterator(iteratedObject, enumCache);
+        } else {
+            iterator = new EnumerateIterator(iteratedObject);
+        }
         if (values) {
             iterator = IteratorUtil.convertIterator(iterator, key -> {
                 Object value = JSObject.get(iteratedObject, Boundaries.javaToString(key));
@@ -50,6 +50,7 @@ import com.oracle.truffle.api.interop.ForeignAccess;
 import com.oracle.truffle.api.interop.TruffleObject;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.js.nodes.JavaScriptBaseNode;
 import com.oracle.truffle.js.nodes.JavaScriptNode;
 import com.oracle.truffle.js.nodes.function.JSFunctionCallNode;
@@ -57,7 +58,11 @@ import com.oracle.truffle.js.nodes.interop.JSUnboxOrGetNode;
 import com.oracle.truffle.js.runtime.Errors;
 import com.oracle.truffle.js.runtime.JSArguments;
 import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.JSRealm;
 import com.oracle.truffle.js.runtime.Symbol;
+import com.oracle.truffle.js.runtime.builtins.JSArrayBufferView;
+import com.oracle.truffle.js.runtime.builtins.JSArrayIterator;
+import com.oracle.truffle.js.runtime.objects.JSObject;
 import com.oracle.truffle.js.runtime.truffleinterop.JSInteropUtil;
 
 /**
@@ -67,6 +72,7 @@ import com.oracle.truffle.js.runtime.truffleinterop.JSInteropUtil;
 public abstract class GetIteratorNode extends JavaScriptNode {
     @Child @Executed protected JavaScriptNode objectNode;
     @Child private GetMethodNode getIteratorMethodNode;
+    private final ConditionProfile arrayValuesProfile = ConditionProfile.createBinaryProfile();
 
     protected final JSContext context;
 
@@ -96,9 +102,25 @@ public abstract class GetIteratorNode extends JavaScriptNode {
                     @Cached("createCall()") JSFunctionCallNode methodCallNode,
                     @Cached("create()") IsObjectNode isObjectNode) {
         Object method = getIteratorMethodNode().executeWithTarget(iteratedObject);
+        if (arrayValuesProfile.profile(isUnmodifiedArrayValues(iteratedObject, method))) {
+            // %ArrayPrototype%.values / %TypedArray%.prototype.values: create the iterator directly
+            return JSArrayIterator.create(context, iteratedObject, JSArrayIterator.ITERATION_KIND_VALUE);
+        }
         return getIterator(iteratedObject, method, methodCallNode, isObjectNode, this);
     }
 
+    private boolean isUnmodifiedArrayValues(Object iteratedObject, Object method) {
+        if (!JSObject.isJSObject(iteratedObject)) {
+            return false;
+        }
+        JSRealm realm = context.getRealm();
+        if (method == realm.getArrayProtoValuesIterator()) {
+            return true;
+        }
+        return method == realm.getTypedArrayProtoValuesIterator() && JSArrayBufferView.isJSArrayBufferView(iteratedObject) &&
+                        !JSArrayBufferView.hasDetachedBuffer((DynamicObject) iteratedObject, context);
+    }
+
     public static DynamicObject getIterator(Object iteratedObject, Object method, JSFunctionCallNode methodCallNode, IsObjectNode isObjectNode, JavaScriptBaseNode origin) {
         Object iterator = methodCallNode.executeCall(JSArguments.createZeroArg(iteratedObject, method));
         if (isObjectNode.executeBoolean(iterator)) {
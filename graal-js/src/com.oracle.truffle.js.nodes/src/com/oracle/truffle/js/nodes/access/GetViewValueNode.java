@@ -114,7 +114,14 @@ public abstract class GetViewValueNode extends JavaScriptNode {
         assert getIndex + viewOffset <= Integer.MAX_VALUE;
         int bufferIndex = (int) (getIndex + viewOffset);
         TypedArray strategy = typeProfile.profile(factory.createArrayType(JSArrayBuffer.isJSDirectOrSharedArrayBuffer(buffer), true));
-        return strategy.getBufferElement(buffer, bufferIndex, isLittleEndian, JSDataView.isJSDataView(view));
+        boolean condition = JSDataView.isJSDataView(view);
+        if (strategy instanceof TypedArray.AbstractUint32Array) {
+            return strategy.getBufferElement(buffer, bufferIndex, isLittleEndian, condition);
+        } else if (strategy instanceof TypedArray.TypedIntArray) {
+            return ((TypedArray.TypedIntArray<?>) strategy).getBufferElementInt(buffer, bufferIndex, isLittleEndian, condition);
+        } else {
+            return ((TypedArray.TypedFloatArray<?>) strategy).getBufferElementDouble(buffer, bufferIndex, isLittleEndian, condition);
+        }
     }
 
     public static GetViewValueNode create(JSContext context, String type, JavaScriptNode view, JavaScriptNode requestIndex, JavaScriptNode isLittleEndian) {
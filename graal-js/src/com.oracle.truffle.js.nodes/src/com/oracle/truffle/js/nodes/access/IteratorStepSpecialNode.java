@@ -40,10 +40,12 @@
  */
 package com.oracle.truffle.js.nodes.access;
 
+import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.dsl.Executed;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.js.nodes.JavaScriptNode;
 import com.oracle.truffle.js.nodes.cast.JSToBooleanNode;
 import com.oracle.truffle.js.nodes.function.JSFunctionCallNode;
@@ -67,6 +69,8 @@ public abstract class IteratorStepSpecialNode extends JavaScriptNode {
     @Child private IsObjectNode isObjectNode;
     @Child private JavaScriptNode doneNode;
     @Child private JSToBooleanNode toBooleanNode;
+    @Child private ArrayIteratorStepNode arrayIteratorStepNode;
+    private final ConditionProfile arrayIteratorProfile = ConditionProfile.createBinaryProfile();
     private final boolean setDoneOnError;
 
     protected IteratorStepSpecialNode(JSContext context, JavaScriptNode iteratorNode, JavaScriptNode doneNode, boolean setDoneOnError) {
@@ -90,6 +94,11 @@ public abstract class IteratorStepSpecialNode extends JavaScriptNode {
         Object next;
         Object result;
         try {
+            if (arrayIteratorProfile.profile(ArrayIteratorStepNode.isUnmodifiedArrayIterator(getNextNode.getContext(), iterator))) {
+                // unmodified array iterator: step directly without creating a result object
+                Object value = getArrayIteratorStepNode().execute(iterator);
+                return value != null ? value : doneNode.execute(frame);
+            }
             next = getNextNode.getValue(iterator);
             result = methodCallNode.executeCall(JSArguments.createZeroArg(iterator, next));
             if (!isObjectNode.executeBoolean(result)) {
@@ -107,6 +116,14 @@ public abstract class IteratorStepSpecialNode extends JavaScriptNode {
         return done == Boolean.FALSE ? value : doneNode.execute(frame);
     }
 
+    private ArrayIteratorStepNode getArrayIteratorStepNode() {
+        if (arrayIteratorStepNode == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            arrayIteratorStepNode = insert(ArrayIteratorStepNode.create(getNextNode.getContext()));
+        }
+        return arrayIteratorStepNode;
+    }
+
     public abstract Object execute(VirtualFrame frame, DynamicObject iterator);
 
     @Override
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.nodes.access;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+import com.oracle.truffle.js.nodes.JavaScriptNode;
+import com.oracle.truffle.js.nodes.cast.JSToBooleanNode;
+import com.oracle.truffle.js.nodes.function.JSFunctionCallNode;
+import com.oracle.truffle.js.runtime.Errors;
+import com.oracle.truffle.js.runtime.JSArguments;
+import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.JSRuntime;
+
+/**
+ * Combines IteratorNext(iterator), IteratorComplete(iterResult) and IteratorValue(iterResult) for
+ * for-of loops. Evaluates to the done flag and writes the iterator value to a local variable.
+ *
+ * If the iterator is an array iterator with the original %ArrayIteratorPrototype%.next, the
+ * iterator is stepped directly without looking up {@code next} or allocating iterator result
+ * objects.
+ */
+public class IteratorStepValueNode extends JavaScriptNode {
+    private final JSContext context;
+    @Child private JavaScriptNode iteratorNode;
+    @Child private WriteNode writeValueNode;
+    @Child private PropertyGetNode getNextNode;
+    @Child private PropertyGetNode getValueNode;
+    @Child private PropertyGetNode getDoneNode;
+    @Child private JSFunctionCallNode methodCallNode;
+    @Child private IsObjectNode isObjectNode;
+    @Child private JSToBooleanNode toBooleanNode;
+    @Child private ArrayIteratorStepNode arrayIteratorStepNode;
+    private final ConditionProfile arrayIteratorProfile = ConditionProfile.createBinaryProfile();
+
+    protected IteratorStepValueNode(JSContext context, JavaScriptNode iteratorNode, WriteNode writeValueNode) {
+        this.context = context;
+        this.iteratorNode = iteratorNode;
+        this.writeValueNode = writeValueNode;
+        this.getNextNode = PropertyGetNode.create(JSRuntime.NEXT, false, context);
+        this.getValueNode = PropertyGetNode.create(JSRuntime.VALUE, false, context);
+        this.getDoneNode = PropertyGetNode.create(JSRuntime.DONE, false, context);
+        this.methodCallNode = JSFunctionCallNode.createCall();
+        this.isObjectNode = IsObjectNode.create();
+        this.toBooleanNode = JSToBooleanNode.create();
+    }
+
+    public static JavaScriptNode create(JSContext context, JavaScriptNode iteratorNode, WriteNode writeValueNode) {
+        return new IteratorStepValueNode(context, iteratorNode, writeValueNode);
+    }
+
+    @Override
+    public Object execute(VirtualFrame frame) {
+        return executeBoolean(frame);
+    }
+
+    @Override
+    public boolean executeBoolean(VirtualFrame frame) {
+        Object iterator = iteratorNode.execute(frame);
+        if (arrayIteratorProfile.profile(ArrayIteratorStepNode.isUnmodifiedArrayIterator(context, iterator))) {
+            Object value = getArrayIteratorStepNode().execute((DynamicObject) iterator);
+            if (value == null) {
+                return true;
+            }
+            writeValueNode.executeWrite(frame, value);
+            return false;
+        }
+        Object next = getNextNode.getValue(iterator);
+        Object nextResult = methodCallNode.executeCall(JSArguments.createZeroArg(iterator, next));
+        if (!isObjectNode.executeBoolean(nextResult)) {
+            throw Errors.createTypeErrorIterResultNotAnObject(nextResult, this);
+        }
+        if (toBooleanNode.executeBoolean(getDoneNode.getValue(nextResult))) {
+            return true;
+        }
+        writeValueNode.executeWrite(frame, getValueNode.getValue(nextResult));
+        return false;
+    }
+
+    private ArrayIteratorStepNode getArrayIteratorStepNode() {
+        if (arrayIteratorStepNode == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            arrayIteratorStepNode = insert(ArrayIteratorStepNode.create(context));
+        }
+        return arrayIteratorStepNode;
+    }
+
+    @Override
+    public final boolean isResultAlwaysOfType(Class<?> clazz) {
+        return clazz == boolean.class;
+    }
+
+    @Override
+    protected JavaScriptNode copyUninitialized() {
+        return create(context, cloneUninitialized(iteratorNode), (WriteNode) cloneUninitialized((JavaScriptNode) writeValueNode));
+    }
+}
@@ -60,6 +60,12 @@ import com.oracle.truffle.js.runtime.objects.JSObject;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 import com.oracle.truffle.js.runtime.truffleinterop.JSInteropNodeUtil;
 
+/**
+ * Implements the [[HasProperty]] internal method ("has" trap) for Proxy.
+ *
+ * A trap result of true is always valid. A result of false is valid without consulting the target
+ * if the target shape rules out non-configurable properties and non-extensibility.
+ */
 @NodeInfo(cost = NodeCost.NONE)
 @ImportStatic({JSProxy.class})
 public abstract class JSProxyHasPropertyNode extends JavaScriptBaseNode {
@@ -68,12 +74,14 @@ public abstract class JSProxyHasPropertyNode extends JavaScriptBaseNode {
     @Child private JSFunctionCallNode callNode;
     @Child private JSToBooleanNode toBooleanNode;
     @Child private JSToPropertyKeyNode toPropertyKeyNode;
+    @Child private JSProxyTargetShapeCheckNode targetShapeCheckNode;
 
     public JSProxyHasPropertyNode(JSContext context) {
         this.callNode = JSFunctionCallNode.createCall();
         this.trapGetter = GetMethodNode.create(context, null, JSProxy.HAS);
         this.toPropertyKeyNode = JSToPropertyKeyNode.create();
         this.toBooleanNode = JSToBooleanNode.create();
+        this.targetShapeCheckNode = JSProxyTargetShapeCheckNode.create();
     }
 
     public static JSProxyHasPropertyNode create(JSContext context) {
@@ -90,7 +98,8 @@ public abstract class JSProxyHasPropertyNode extends JavaScriptBaseNode {
 
     @Specialization
     protected boolean doGeneric(DynamicObject proxy, Object key,
-                    @Cached("createBinaryProfile()") ConditionProfile trapFunProfile) {
+                    @Cached("createBinaryProfile()") ConditionProfile trapFunProfile,
+                    @Cached("createBinaryProfile()") ConditionProfile checkInvariantsProfile) {
         assert JSProxy.isProxy(proxy);
         Object propertyKey = toPropertyKeyNode.execute(key);
         TruffleObject target = JSProxy.getTarget(proxy);
@@ -105,8 +114,10 @@ public abstract class JSProxyHasPropertyNode extends JavaScriptBaseNode {
         } else {
             Object callResult = callNode.executeCall(JSArguments.create(handler, trapFun, target, propertyKey));
             boolean trapResult = toBooleanNode.executeBoolean(callResult);
-            boolean accessible = JSProxy.checkPropertyIsSettable(target, propertyKey);
-            checkTrapResult(accessible, trapResult);
+            if (checkInvariantsProfile.profile(!trapResult && !targetShapeCheckNode.execute(target))) {
+                boolean accessible = JSProxy.checkPropertyIsSettable(target, propertyKey);
+                checkTrapResult(accessible, trapResult);
+            }
             return trapResult;
         }
     }
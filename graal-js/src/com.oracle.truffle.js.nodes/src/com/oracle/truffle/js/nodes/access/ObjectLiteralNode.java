@@ -46,7 +46,6 @@ import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
-import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.TruffleOptions;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.instrumentation.Tag;
@@ -54,6 +53,8 @@ import com.oracle.truffle.api.nodes.ExplodeLoop;
 import com.oracle.truffle.api.nodes.ExplodeLoop.LoopExplosionKind;
 import com.oracle.truffle.api.nodes.InvalidAssumptionException;
 import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.FinalLocationException;
+import com.oracle.truffle.api.object.IncompatibleLocationException;
 import com.oracle.truffle.api.object.Property;
 import com.oracle.truffle.api.object.Shape;
 import com.oracle.truffle.js.nodes.JSGuards;
@@ -485,10 +486,12 @@ public class ObjectLiteralNode extends JavaScriptNode {
     private static class ObjectLiteralSpreadMemberNode extends ObjectLiteralMemberNode {
         @Child private JavaScriptNode valueNode;
         @Child private JSToObjectNode toObjectNode;
+        @Child private CopyDataPropertiesCacheNode copyDataPropertiesNode;
 
         ObjectLiteralSpreadMemberNode(boolean isStatic, boolean enumerable, JavaScriptNode valueNode) {
             super(isStatic, enumerable);
             this.valueNode = valueNode;
+            this.copyDataPropertiesNode = CopyDataPropertiesCacheNode.create(true);
         }
 
         @Override
@@ -502,19 +505,7 @@ public class ObjectLiteralNode extends JavaScriptNode {
                 toObjectNode = insert(JSToObjectNode.createToObjectNoCheckNoForeign(context));
             }
             DynamicObject from = (DynamicObject) toObjectNode.executeTruffleObject(sourceValue);
-            copyDataProperties(target, from);
-        }
-
-        @TruffleBoundary
-        private static void copyDataProperties(DynamicObject target, DynamicObject from) {
-            Iterable<Object> ownPropertyKeys = JSObject.ownPropertyKeys(from);
-            for (Object nextKey : ownPropertyKeys) {
-                PropertyDescriptor desc = JSObject.getOwnProperty(from, nextKey);
-                if (desc != null && desc.getEnumerable()) {
-                    Object propValue = JSObject.get(from, nextKey);
-                    JSRuntime.createDataProperty(target, nextKey, propValue);
-                }
-            }
+            copyDataPropertiesNode.execute(target, from);
         }
 
         @Override
@@ -571,10 +562,11 @@ public class ObjectLiteralNode extends JavaScriptNode {
         return new ObjectLiteralSpreadMemberNode(isStatic, enumerable, valueNode);
     }
 
-    @Children private final ObjectLiteralMemberNode[] members;
-    @Child private CreateObjectNode objectCreateNode;
+    @Children protected final ObjectLiteralMemberNode[] members;
+    @Child protected CreateObjectNode objectCreateNode;
 
     private static final int DICTIONARY_OBJECT_THRESHOLD = 400;
+    private static final int FINAL_SHAPE_RELEARN_LIMIT = 4;
 
     public ObjectLiteralNode(ObjectLiteralMemberNode[] members, CreateObjectNode objectCreateNode) {
         this.members = members;
@@ -583,15 +575,41 @@ public class ObjectLiteralNode extends JavaScriptNode {
 
     public static ObjectLiteralNode create(JSContext context, ObjectLiteralMemberNode[] members) {
         if (members.length > 0 && members[0] instanceof ObjectLiteralProtoMemberNode) {
-            return new ObjectLiteralNode(Arrays.copyOfRange(members, 1, members.length),
-                            CreateObjectNode.createWithCachedPrototype(context, ((ObjectLiteralProtoMemberNode) members[0]).valueNode));
+            ObjectLiteralMemberNode[] otherMembers = Arrays.copyOfRange(members, 1, members.length);
+            CreateObjectNode createObjectNode = CreateObjectNode.createWithCachedPrototype(context, ((ObjectLiteralProtoMemberNode) members[0]).valueNode);
+            if (isFinalShapeCandidate(otherMembers)) {
+                return new FinalShapeObjectLiteralNode(otherMembers, createObjectNode);
+            }
+            return new ObjectLiteralNode(otherMembers, createObjectNode);
         } else if (JSTruffleOptions.DictionaryObject && members.length > DICTIONARY_OBJECT_THRESHOLD && onlyDataMembers(members)) {
             return createDictionaryObject(context, members);
+        } else if (isFinalShapeCandidate(members)) {
+            return new FinalShapeObjectLiteralNode(members, CreateObjectNode.create(context));
         } else {
             return new ObjectLiteralNode(members, CreateObjectNode.create(context));
         }
     }
 
+    /**
+     * Only literals with non-computed data members with distinct names can be allocated directly
+     * in their final shape; computed keys, accessors, spread and duplicate keys take the generic
+     * member-by-member path.
+     */
+    private static boolean isFinalShapeCandidate(ObjectLiteralMemberNode[] members) {
+        if (!JSTruffleOptions.ObjectLiteralFinalShape || members.length == 0 || members.length > DICTIONARY_OBJECT_THRESHOLD || !onlyDataMembers(members)) {
+            return false;
+        }
+        for (int i = 0; i < members.length; i++) {
+            String name = ((ObjectLiteralDataMemberNode) members[i]).name;
+            for (int j = 0; j < i; j++) {
+                if (name.equals(((ObjectLiteralDataMemberNode) members[j]).name)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
     private static boolean onlyDataMembers(ObjectLiteralMemberNode[] members) {
         for (ObjectLiteralMemberNode member : members) {
             if (!(member instanceof ObjectLiteralDataMemberNode)) {
@@ -630,6 +648,133 @@ public class ObjectLiteralNode extends JavaScriptNode {
         return clazz == DynamicObject.class;
     }
 
+    /**
+     * Object literal consisting only of data members with constant, distinct names. The shape of
+     * the fully initialized object is learned on the first execution; afterwards, all member values
+     * are evaluated first and then stored at once, guarded by a single check of the initial shape,
+     * instead of performing one shape transition per member. Falls back to the member nodes (and
+     * relearns) if the guard fails, and stays generic after repeated failures.
+     */
+    private static final class FinalShapeObjectLiteralNode extends ObjectLiteralNode {
+        @CompilationFinal private Shape initialShape;
+        @CompilationFinal private Shape finalShape;
+        @CompilationFinal private Assumption finalShapeValidAssumption;
+        @CompilationFinal(dimensions = 1) private Property[] finalProperties;
+        @CompilationFinal private int relearnCount;
+
+        FinalShapeObjectLiteralNode(ObjectLiteralMemberNode[] members, CreateObjectNode objectCreateNode) {
+            super(members, objectCreateNode);
+            assert isFinalShapeCandidate(members);
+        }
+
+        @ExplodeLoop
+        @Override
+        public DynamicObject executeWithObject(VirtualFrame frame, DynamicObject ret) {
+            Object[] values = new Object[members.length];
+            for (int i = 0; i < members.length; i++) {
+                values[i] = ObjectLiteralMemberNode.executeWithObject(((ObjectLiteralDataMemberNode) members[i]).valueNode, frame, ret);
+            }
+            if (finalShape != null) {
+                if (initialShape.check(ret) && finalShapeValidAssumption.isValid() && canStoreAll(values)) {
+                    storeAll(ret, values);
+                    return ret;
+                }
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                invalidateFinalShape();
+            }
+            Shape startShape = ret.getShape();
+            executeMembers(ret, values);
+            if (finalShape == null && relearnCount <= FINAL_SHAPE_RELEARN_LIMIT) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                if (!learnFinalShape(startShape, ret.getShape())) {
+                    // count failed attempts, too, so that the site eventually stays generic
+                    relearnCount++;
+                }
+            }
+            return ret;
+        }
+
+        @ExplodeLoop
+        private boolean canStoreAll(Object[] values) {
+            for (int i = 0; i < finalProperties.length; i++) {
+                if (!finalProperties[i].getLocation().canStore(values[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @ExplodeLoop
+        private void storeAll(DynamicObject obj, Object[] values) {
+            Property[] properties = finalProperties;
+            obj.setShapeAndGrow(initialShape, finalShape);
+            for (int i = 0; i < properties.length; i++) {
+                try {
+                    properties[i].set(obj, values[i], finalShape);
+                } catch (IncompatibleLocationException | FinalLocationException e) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    invalidateFinalShape();
+                    storeRemaining(obj, values, properties, i);
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Completes an object whose shape has already been switched to the final shape, but whose
+         * location for member {@code start} rejected the value. The remaining members are
+         * redefined generically, which moves them to a suitable location.
+         */
+        private static void storeRemaining(DynamicObject obj, Object[] values, Property[] properties, int start) {
+            CompilerAsserts.neverPartOfCompilation();
+            for (int i = start; i < properties.length; i++) {
+                obj.define(properties[i].getKey(), values[i], properties[i].getFlags());
+            }
+        }
+
+        @ExplodeLoop
+        private void executeMembers(DynamicObject obj, Object[] values) {
+            JSContext context = objectCreateNode.getContext();
+            for (int i = 0; i < members.length; i++) {
+                ((ObjectLiteralDataMemberNode) members[i]).execute(obj, values[i], context);
+            }
+        }
+
+        private boolean learnFinalShape(Shape startShape, Shape endShape) {
+            CompilerAsserts.neverPartOfCompilation();
+            if (!endShape.isValid() || endShape.getObjectType() != startShape.getObjectType() || endShape.getPropertyCount() != startShape.getPropertyCount() + members.length) {
+                return false;
+            }
+            Property[] properties = new Property[members.length];
+            for (int i = 0; i < members.length; i++) {
+                Property property = endShape.getProperty(((ObjectLiteralDataMemberNode) members[i]).name);
+                if (property == null || !JSProperty.isData(property) || JSProperty.isProxy(property) || startShape.hasProperty(property.getKey())) {
+                    return false;
+                }
+                properties[i] = property;
+            }
+            this.initialShape = startShape;
+            this.finalProperties = properties;
+            this.finalShapeValidAssumption = endShape.getValidAssumption();
+            this.finalShape = endShape;
+            return true;
+        }
+
+        private void invalidateFinalShape() {
+            CompilerAsserts.neverPartOfCompilation();
+            this.finalShape = null;
+            this.finalProperties = null;
+            this.finalShapeValidAssumption = null;
+            this.initialShape = null;
+            this.relearnCount++;
+        }
+
+        @Override
+        protected JavaScriptNode copyUninitialized() {
+            return new FinalShapeObjectLiteralNode(ObjectLiteralMemberNode.cloneUninitialized(members), objectCreateNode.copyUninitialized());
+        }
+    }
+
     static CharSequence reasonResolved(Object key) {
         CompilerAsserts.neverPartOfCompilation();
         if (TruffleOptions.TraceRewrites) {
@@ -76,6 +76,7 @@ import com.oracle.truffle.js.runtime.objects.JSObject;
 import com.oracle.truffle.js.runtime.objects.JSProperty;
 import com.oracle.truffle.js.runtime.objects.JSShape;
 import com.oracle.truffle.js.runtime.util.DebugCounter;
+import com.oracle.truffle.js.runtime.util.JSMetrics;
 
 /**
  * Common base class for {@link PropertyGetNode} and {@link PropertySetNode}. Unifies handling of
@@ -858,6 +859,15 @@ public abstract class PropertyCacheNode<T extends PropertyCacheNode<T>> extends
 
     protected abstract T createTruffleObjectPropertyNode(TruffleObject thisObj, JSContext context);
 
+    /**
+     * Creates a node that accesses own properties of dictionary objects, or {@code null} if the
+     * generic case should be used instead.
+     */
+    @SuppressWarnings("unused")
+    protected T createDictionaryObjectPropertyNode(Object thisObj, JSContext context) {
+        return null;
+    }
+
     /**
      * Rewrite this, presumably to a cached version, with the given target.
      *
@@ -910,7 +920,13 @@ public abstract class PropertyCacheNode<T extends PropertyCacheNode<T>> extends
                 Shape cacheShape = store.getShape();
 
                 if (JSTruffleOptions.DictionaryObject && JSDictionaryObject.isJSDictionaryObject(store)) {
-                    // TODO: could probably specialize on shape as well.
+                    if (depth == 0) {
+                        // look up own properties directly in the dictionary
+                        specialized = createDictionaryObjectPropertyNode(thisObject, context);
+                        if (specialized != null) {
+                            break;
+                        }
+                    }
                     // replace the entire cache with the generic case
                     T top = getTopCache();
                     invalidateCache();
@@ -992,6 +1008,7 @@ public abstract class PropertyCacheNode<T extends PropertyCacheNode<T>> extends
 
     private T rewriteToGeneric(JSContext context) {
         megamorphicCount.inc();
+        context.getMetrics().increment(JSMetrics.Counter.MegamorphicPropertyAccess);
         if (JSTruffleOptions.TraceMegamorphicPropertyAccess) {
             System.out.printf("MEGAMORPHIC PROPERTY ACCESS %s\n%s\n---\n", getEncapsulatingSourceSection(), getTopCache().debugString());
         }
@@ -92,6 +92,7 @@ import com.oracle.truffle.js.runtime.builtins.JSAbstractArray;
 import com.oracle.truffle.js.runtime.builtins.JSAdapter;
 import com.oracle.truffle.js.runtime.builtins.JSArray;
 import com.oracle.truffle.js.runtime.builtins.JSClass;
+import com.oracle.truffle.js.runtime.builtins.JSDictionaryObject;
 import com.oracle.truffle.js.runtime.builtins.JSFunction;
 import com.oracle.truffle.js.runtime.builtins.JSModuleNamespace;
 import com.oracle.truffle.js.runtime.builtins.JSProxy;
@@ -112,6 +113,7 @@ import com.oracle.truffle.js.runtime.objects.JSShape;
 import com.oracle.truffle.js.runtime.objects.Null;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 import com.oracle.truffle.js.runtime.util.JSClassProfile;
+import com.oracle.truffle.js.runtime.util.PropertyDictionary;
 import com.oracle.truffle.js.runtime.util.TRegexUtil;
 
 /**
@@ -1522,6 +1524,46 @@ public abstract class PropertyGetNode extends PropertyCacheNode<PropertyGetNode>
         }
     }
 
+    public static final class DictionaryObjectPropertyGetNode extends LinkedPropertyGetNode {
+        private final int keyHash;
+        @CompilationFinal private Property dictionaryProperty;
+        @Child private PropertyGetNode genericGet;
+        private final ConditionProfile foundProfile = ConditionProfile.createBinaryProfile();
+
+        public DictionaryObjectPropertyGetNode(Object key, ReceiverCheckNode receiverCheck) {
+            super(key, receiverCheck);
+            this.keyHash = PropertyDictionary.hash(key);
+        }
+
+        @Override
+        public Object getValueUnchecked(Object thisObj, Object receiver, boolean floatingCondition) {
+            DynamicObject store = receiverCheck.getStore(thisObj);
+            PropertyDictionary dictionary = getDictionary(store);
+            int entry = dictionary.find(key, keyHash);
+            if (foundProfile.profile(entry != PropertyDictionary.NOT_FOUND && !JSDictionaryObject.isAccessor(dictionary.getFlags(entry)))) {
+                return dictionary.getValue(entry);
+            }
+            // accessor or inherited property
+            return getGenericGet().getValue(thisObj, receiver);
+        }
+
+        private PropertyGetNode getGenericGet() {
+            if (genericGet == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                genericGet = insert(createGeneric(key, false, isMethod(), getContext()));
+            }
+            return genericGet;
+        }
+
+        private PropertyDictionary getDictionary(DynamicObject store) {
+            if (dictionaryProperty == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                dictionaryProperty = JSDictionaryObject.getDictionaryProperty(store);
+            }
+            return JSDictionaryObject.getDictionary(store, dictionaryProperty);
+        }
+    }
+
     /**
      * Make a cache for a JSObject with this property map and requested property.
      *
@@ -1805,6 +1847,14 @@ public abstract class PropertyGetNode extends PropertyCacheNode<PropertyGetNode>
         return javaClass.getMember((String) key, JavaClass.INSTANCE, getJavaMemberTypes(isMethod()), JSJavaWrapper.isClassFilterPresent(context));
     }
 
+    @Override
+    protected PropertyGetNode createDictionaryObjectPropertyNode(Object thisObj, JSContext context) {
+        if (isRequired() || key instanceof HiddenKey) {
+            return null;
+        }
+        return new DictionaryObjectPropertyGetNode(key, new JSClassCheckNode(JSDictionaryObject.INSTANCE));
+    }
+
     /**
      * Make a generic-case createNode, for when polymorphism becomes too high.
      */
@@ -86,6 +86,7 @@ import com.oracle.truffle.js.runtime.JSTruffleOptions;
 import com.oracle.truffle.js.runtime.Symbol;
 import com.oracle.truffle.js.runtime.builtins.JSAdapter;
 import com.oracle.truffle.js.runtime.builtins.JSArray;
+import com.oracle.truffle.js.runtime.builtins.JSDictionaryObject;
 import com.oracle.truffle.js.runtime.builtins.JSProxy;
 import com.oracle.truffle.js.runtime.interop.Converters;
 import com.oracle.truffle.js.runtime.interop.JSJavaWrapper;
@@ -101,6 +102,7 @@ import com.oracle.truffle.js.runtime.objects.JSShape;
 import com.oracle.truffle.js.runtime.objects.Null;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 import com.oracle.truffle.js.runtime.util.JSClassProfile;
+import com.oracle.truffle.js.runtime.util.PropertyDictionary;
 
 /**
  * @see WritePropertyNode
@@ -1114,6 +1116,48 @@ public abstract class PropertySetNode extends PropertyCacheNode<PropertySetNode>
         }
     }
 
+    public static final class DictionaryObjectPropertySetNode extends LinkedPropertySetNode {
+        private final int keyHash;
+        @CompilerDirectives.CompilationFinal private Property dictionaryProperty;
+        @Child private PropertySetNode genericSet;
+        private final ConditionProfile foundProfile = ConditionProfile.createBinaryProfile();
+
+        public DictionaryObjectPropertySetNode(Object key, ReceiverCheckNode receiverCheck) {
+            super(key, receiverCheck);
+            this.keyHash = PropertyDictionary.hash(key);
+        }
+
+        @Override
+        public void setValueUnchecked(Object thisObj, Object value, Object receiver, boolean condition) {
+            DynamicObject store = receiverCheck.getStore(thisObj);
+            PropertyDictionary dictionary = getDictionary(store);
+            int entry = dictionary.find(key, keyHash);
+            if (foundProfile.profile(entry != PropertyDictionary.NOT_FOUND && JSDictionaryObject.isWritableData(dictionary.getFlags(entry)) && receiver == thisObj)) {
+                dictionary.setValue(entry, value);
+                JSDictionaryObject.recordWrite(store, dictionary);
+            } else {
+                // new, accessor, or read-only property
+                getGenericSet().setValue(thisObj, value, receiver);
+            }
+        }
+
+        private PropertySetNode getGenericSet() {
+            if (genericSet == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                genericSet = insert(new GenericPropertySetNode(key, false, isStrict(), getContext()));
+            }
+            return genericSet;
+        }
+
+        private PropertyDictionary getDictionary(DynamicObject store) {
+            if (dictionaryProperty == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                dictionaryProperty = JSDictionaryObject.getDictionaryProperty(store);
+            }
+            return JSDictionaryObject.getDictionary(store, dictionaryProperty);
+        }
+    }
+
     public static final class JSJavaWrapperPropertySetNode extends LinkedPropertySetNode {
         @Child private PropertySetNode nested;
 
@@ -1340,6 +1384,14 @@ public abstract class PropertySetNode extends PropertyCacheNode<PropertySetNode>
         return (JavaSetter) member;
     }
 
+    @Override
+    protected PropertySetNode createDictionaryObjectPropertyNode(Object thisObj, JSContext context) {
+        if (isGlobal() || key instanceof HiddenKey) {
+            return null;
+        }
+        return new DictionaryObjectPropertySetNode(key, new JSClassCheckNode(JSDictionaryObject.INSTANCE));
+    }
+
     @Override
     protected PropertySetNode createGenericPropertyNode(JSContext context) {
         return new GenericPropertySetNode(key, isGlobal(), isStrict(), context);
@@ -59,7 +59,7 @@ import com.oracle.truffle.js.runtime.objects.Undefined;
 public abstract class ScopeFrameNode extends JavaScriptBaseNode {
     public static final FrameDescriptor SCOPE_FRAME_DESCRIPTOR;
     public static final FrameSlot PARENT_SCOPE_SLOT;
-    public static final Object PARENT_SCOPE_IDENTIFIER = "<parent>";
+    public static final Object PARENT_SCOPE_IDENTIFIER = JSFrameUtil.PARENT_SCOPE_IDENTIFIER;
     static {
         SCOPE_FRAME_DESCRIPTOR = new FrameDescriptor(Undefined.instance);
         PARENT_SCOPE_SLOT = SCOPE_FRAME_DESCRIPTOR.addFrameSlot(PARENT_SCOPE_IDENTIFIER, FrameSlotKind.Object);
@@ -51,6 +51,7 @@ import com.oracle.truffle.js.nodes.cast.JSToIndexNode;
 import com.oracle.truffle.js.nodes.cast.JSToNumberNode;
 import com.oracle.truffle.js.runtime.Errors;
 import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.JSRuntime;
 import com.oracle.truffle.js.runtime.array.TypedArray;
 import com.oracle.truffle.js.runtime.array.TypedArrayFactory;
 import com.oracle.truffle.js.runtime.builtins.JSArrayBuffer;
@@ -109,8 +110,15 @@ public abstract class SetViewValueNode extends JavaScriptNode {
 
         assert getIndex + viewOffset <= Integer.MAX_VALUE;
         int bufferIndex = (int) (getIndex + viewOffset);
-        TypedArray strategy = typeProfile.profile(factory.createArrayType(JSArrayBuffer.isJSDirectOrSharedArrayBuffer(buffer), true));
-        strategy.setBufferElement(buffer, bufferIndex, isLittleEndian, JSDataView.isJSDataView(view), numberValue);
+        boolean direct = JSArrayBuffer.isJSDirectOrSharedArrayBuffer(buffer);
+        // stores through the read-only array type throw
+        TypedArray strategy = typeProfile.profile(factory.createArrayType(direct, true, direct && JSArrayBuffer.isReadOnlyBuffer(buffer)));
+        boolean condition = JSDataView.isJSDataView(view);
+        if (strategy instanceof TypedArray.TypedIntArray) {
+            ((TypedArray.TypedIntArray<?>) strategy).setBufferElementInt(buffer, bufferIndex, isLittleEndian, condition, JSRuntime.toInt32(numberValue));
+        } else {
+            ((TypedArray.TypedFloatArray<?>) strategy).setBufferElementDouble(buffer, bufferIndex, isLittleEndian, condition, JSRuntime.doubleValue(numberValue));
+        }
         return Undefined.instance;
     }
 
@@ -62,10 +62,12 @@ import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.api.profiles.ValueProfile;
 import com.oracle.truffle.js.nodes.JavaScriptNode;
 import com.oracle.truffle.js.nodes.access.IsArrayNode;
+import com.oracle.truffle.js.nodes.access.JSProxyDeletePropertyNode;
 import com.oracle.truffle.js.nodes.access.JSTargetableNode;
 import com.oracle.truffle.js.nodes.cast.JSToPropertyKeyNode;
 import com.oracle.truffle.js.nodes.cast.ToArrayIndexNode;
 import com.oracle.truffle.js.nodes.interop.ExportValueNode;
+import com.oracle.truffle.js.runtime.JSContext;
 import com.oracle.truffle.js.runtime.Symbol;
 import com.oracle.truffle.js.runtime.array.ScriptArray;
 import com.oracle.truffle.js.runtime.builtins.JSString;
@@ -80,7 +82,7 @@ import com.oracle.truffle.js.runtime.util.JSClassProfile;
 @NodeInfo(shortName = "delete")
 @ImportStatic(value = JSInteropUtil.class)
 public abstract class DeletePropertyNode extends JSTargetableNode {
-    private final boolean strict;
+    protected final boolean strict;
     @Child @Executed protected JavaScriptNode targetNode;
     @Child @Executed protected JavaScriptNode propertyNode;
 
@@ -119,7 +121,7 @@ public abstract class DeletePropertyNode extends JSTargetableNode {
 
     public abstract boolean executeEvaluated(TruffleObject objectResult, Object propertyResult);
 
-    @Specialization(guards = "isJSType(targetObject)")
+    @Specialization(guards = {"isJSType(targetObject)", "!isJSProxy(targetObject)"})
     protected final boolean doJSObject(DynamicObject targetObject, Object key,
                     @Cached("createIsFastArray()") IsArrayNode isArrayNode,
                     @Cached("createBinaryProfile()") ConditionProfile arrayProfile,
@@ -146,6 +148,16 @@ public abstract class DeletePropertyNode extends JSTargetableNode {
         return JSObject.delete(targetObject, propertyKey, strict, jsclassProfile);
     }
 
+    @Specialization(guards = "isJSProxy(target)")
+    protected static boolean doProxy(DynamicObject target, Object property,
+                    @Cached("create(getJSContext(target), strict)") JSProxyDeletePropertyNode proxyDeleteNode) {
+        return proxyDeleteNode.executeWithTargetAndKeyBoolean(target, property);
+    }
+
+    protected static JSContext getJSContext(DynamicObject object) {
+        return JSObject.getJSContext(object);
+    }
+
     @SuppressWarnings("unused")
     @Specialization
     protected static boolean doSymbol(Symbol target, Object property) {
@@ -109,12 +109,14 @@ import com.oracle.truffle.js.runtime.interop.Converters.Converter;
 import com.oracle.truffle.js.runtime.interop.JavaClass;
 import com.oracle.truffle.js.runtime.interop.JavaMethod;
 import com.oracle.truffle.js.runtime.interop.JavaMethod.AbstractJavaMethod;
+import com.oracle.truffle.js.runtime.interop.JavaMethod.ResolvedCall;
 import com.oracle.truffle.js.runtime.interop.JavaPackage;
 import com.oracle.truffle.js.runtime.objects.JSShape;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 import com.oracle.truffle.js.runtime.truffleinterop.JSInteropNodeUtil;
 import com.oracle.truffle.js.runtime.truffleinterop.JSInteropUtil;
 import com.oracle.truffle.js.runtime.util.DebugCounter;
+import com.oracle.truffle.js.runtime.util.JSMetrics;
 import com.oracle.truffle.js.runtime.util.Pair;
 
 public abstract class JSFunctionCallNode extends JavaScriptNode implements JavaScriptFunctionCallNode {
@@ -714,7 +716,7 @@ public abstract class JSFunctionCallNode extends JavaScriptNode implements JavaS
                 }
             }
             if (JSFunction.isJSFunction(function)) {
-                return specializeGenericFunction();
+                return specializeGenericFunction((DynamicObject) function);
             } else if (JSProxy.isProxy(function)) {
                 return replace(new JSProxyCacheNode(createUninitialized(), JSFunctionCallNode.isNew(flags), JSFunctionCallNode.isNewTarget(flags)));
             } else if (JSGuards.isForeignObject(function)) {
@@ -735,7 +737,8 @@ public abstract class JSFunctionCallNode extends JavaScriptNode implements JavaS
             return replace(new JavaCacheNode(pkg, new JavaPackageCallNode(pkg), createUninitialized()));
         }
 
-        private AbstractCacheNode specializeGenericFunction() {
+        private AbstractCacheNode specializeGenericFunction(DynamicObject function) {
+            JSFunction.getFunctionData(function).getContext().getMetrics().increment(JSMetrics.Counter.MegamorphicCall);
             return atomic(new Callable<AbstractCacheNode>() {
                 @Override
                 public AbstractCacheNode call() {
@@ -1116,7 +1119,7 @@ public abstract class JSFunctionCallNode extends JavaScriptNode implements JavaS
         }
 
         public static JavaMethodCallNode create(Object method) {
-            return JSTruffleOptions.JavaConvertersAsMethodHandles ? new MHChainJavaMethodCallNode(method) : new UninitializedJavaMethodCallNode(method);
+            return JSTruffleOptions.JavaConvertersAsMethodHandles ? new MHChainJavaMethodCallNode(method) : new UninitializedJavaMethodCallNode(method, 0);
         }
 
         @TruffleBoundary(allowInlining = true)
@@ -1133,62 +1136,57 @@ public abstract class JSFunctionCallNode extends JavaScriptNode implements JavaS
     }
 
     private static final class UninitializedJavaMethodCallNode extends JavaMethodCallNode {
-        UninitializedJavaMethodCallNode(Object method) {
+        private final int depth;
+
+        UninitializedJavaMethodCallNode(Object method, int depth) {
             super(method);
+            this.depth = depth;
         }
 
         @Override
         public Object executeCall(Object[] arguments) {
             CompilerDirectives.transferToInterpreterAndInvalidate();
-            return this.replace(makeMethodHandleCallNode(JSArguments.extractUserArguments(arguments))).executeCall(arguments);
-        }
-
-        private JavaMethodCallNode makeMethodHandleCallNode(Object[] arguments) {
-            boolean isStatic;
-            Pair<AbstractJavaMethod, Converter> bestMethod;
-            if (method instanceof JavaMethod) {
-                JavaMethod javaMethod = (JavaMethod) method;
-                bestMethod = javaMethod.getBestMethod(arguments);
-                isStatic = javaMethod.isStatic() || javaMethod.isConstructor();
+            JSDirectCallNode specialized;
+            if (depth < JSTruffleOptions.JavaCallCacheLimit) {
+                specialized = makeMethodHandleCallNode(JSArguments.extractUserArguments(arguments));
             } else {
-                assert method instanceof JavaClass;
-                bestMethod = ((JavaClass) method).getBestConstructor(arguments);
-                isStatic = true;
+                // megamorphic: resolve through the per-method resolution cache
+                specialized = new GenericJavaMethodCallNode(method);
             }
-            MethodHandle adaptedHandle = bestMethod.getFirst().getMethodHandle();
-            Class<?>[] parameterTypes = bestMethod.getFirst().getParameterTypes();
-            Converter converter = bestMethod.getSecond();
-
-            // adapt this parameter and return type
-            adaptedHandle = adaptSignature(adaptedHandle, isStatic);
-            // spread arguments array to parameters
-            adaptedHandle = adaptedHandle.asSpreader(Object[].class, parameterTypes.length);
-
-            return new MHJavaMethodCallNode(method, adaptedHandle, converter);
+            return this.replace(specialized).executeCall(arguments);
         }
 
-        private static MethodHandle adaptSignature(MethodHandle originalHandle, boolean isStatic) {
-            MethodHandle adaptedHandle = originalHandle;
-            if (isStatic) {
-                adaptedHandle = MethodHandles.dropArguments(adaptedHandle, 0, Object.class);
+        private JSDirectCallNode makeMethodHandleCallNode(Object[] arguments) {
+            MethodHandle adaptedHandle;
+            Converter converter;
+            if (method instanceof JavaMethod) {
+                ResolvedCall resolved = ((JavaMethod) method).resolve(arguments);
+                adaptedHandle = resolved.getInvokeHandle();
+                converter = resolved.getConverter();
+                if (adaptedHandle == null) {
+                    // no method handles available, always use the resolution cache
+                    return new GenericJavaMethodCallNode(method);
+                }
             } else {
-                adaptedHandle = adaptedHandle.asType(adaptedHandle.type().changeParameterType(0, Object.class));
+                assert method instanceof JavaClass;
+                Pair<AbstractJavaMethod, Converter> bestMethod = ((JavaClass) method).getBestConstructor(arguments);
+                adaptedHandle = JavaMethod.makeInvokeHandle(bestMethod.getFirst(), true);
+                converter = bestMethod.getSecond();
             }
-            adaptedHandle = adaptedHandle.asType(adaptedHandle.type().changeReturnType(Object.class));
-            return adaptedHandle;
+            return new MHJavaMethodCallNode(method, adaptedHandle, converter, depth + 1);
         }
     }
 
     private static final class MHJavaMethodCallNode extends JavaMethodCallNode {
         private final MethodHandle methodHandle;
         private final Converter converter;
-        @Child private JavaMethodCallNode next;
+        @Child private JSDirectCallNode next;
 
-        MHJavaMethodCallNode(Object method, MethodHandle methodHandle, Converter converter) {
+        MHJavaMethodCallNode(Object method, MethodHandle methodHandle, Converter converter, int depth) {
             super(method);
             this.methodHandle = methodHandle;
             this.converter = converter;
-            this.next = new UninitializedJavaMethodCallNode(method);
+            this.next = new UninitializedJavaMethodCallNode(method, depth);
         }
 
         @Override
@@ -1202,6 +1200,24 @@ public abstract class JSFunctionCallNode extends JavaScriptNode implements JavaS
         }
     }
 
+    private static final class GenericJavaMethodCallNode extends JSDirectCallNode {
+        private final Object method;
+
+        GenericJavaMethodCallNode(Object method) {
+            super();
+            this.method = method;
+        }
+
+        @Override
+        public Object executeCall(Object[] arguments) {
+            if (method instanceof JavaMethod) {
+                return ((JavaMethod) method).invoke(JSArguments.getThisObject(arguments), JSArguments.extractUserArguments(arguments));
+            } else {
+                return ((JavaClass) method).newInstance(JSArguments.extractUserArguments(arguments));
+            }
+        }
+    }
+
     private static class JavaClassCallNode extends JSDirectCallNode {
         private final JavaClass clazz;
 
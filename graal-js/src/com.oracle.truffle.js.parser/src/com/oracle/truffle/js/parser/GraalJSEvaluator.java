@@ -63,6 +63,10 @@ import com.oracle.js.parser.ir.Module.ImportEntry;
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.Frame;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.FrameSlot;
+import com.oracle.truffle.api.frame.FrameUtil;
 import com.oracle.truffle.api.frame.MaterializedFrame;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.Node;
@@ -76,9 +80,13 @@ import com.oracle.truffle.js.nodes.ScriptNode;
 import com.oracle.truffle.js.nodes.function.EvalNode;
 import com.oracle.truffle.js.nodes.function.FunctionRootNode;
 import com.oracle.truffle.js.nodes.function.JSBuiltin;
+import com.oracle.truffle.js.nodes.function.JSFunctionExpressionNode;
 import com.oracle.truffle.js.parser.date.DateParser;
+import com.oracle.truffle.js.parser.env.BlockEnvironment;
 import com.oracle.truffle.js.parser.env.Environment;
 import com.oracle.truffle.js.parser.env.EvalEnvironment;
+import com.oracle.truffle.js.parser.env.FunctionEnvironment;
+import com.oracle.truffle.js.parser.env.GlobalEnvironment;
 import com.oracle.truffle.js.runtime.Errors;
 import com.oracle.truffle.js.runtime.Evaluator;
 import com.oracle.truffle.js.runtime.JSArguments;
@@ -96,6 +104,7 @@ import com.oracle.truffle.js.runtime.objects.ExportResolution;
 import com.oracle.truffle.js.runtime.objects.JSModuleLoader;
 import com.oracle.truffle.js.runtime.objects.JSModuleRecord;
 import com.oracle.truffle.js.runtime.objects.Undefined;
+import com.oracle.truffle.js.runtime.util.JSMetrics;
 import com.oracle.truffle.js.runtime.util.Pair;
 
 /**
@@ -177,6 +186,50 @@ public final class GraalJSEvaluator implements JSParser {
         return JavaScriptTranslator.translateExpression(NodeFactory.getInstance(context), context, env, source, isStrict, expression);
     }
 
+    @Override
+    public FrameDescriptor createScopeFrameDescriptor(JSContext context, boolean isBlock) {
+        NodeFactory factory = NodeFactory.getInstance(context);
+        return isBlock ? factory.createBlockFrameDescriptor() : factory.createFrameDescriptor();
+    }
+
+    /**
+     * Parses a function expression in an environment that mirrors the chain of function and block
+     * scope frames ending in {@code scope}, so that its variable accesses resolve to the slots of
+     * these frames exactly as if the function had been parsed together with its enclosing code.
+     */
+    @TruffleBoundary
+    @Override
+    public JSFunctionData parseFunctionInScope(JSContext context, Source source, MaterializedFrame scope, boolean isStrict) {
+        NodeFactory factory = NodeFactory.getInstance(context);
+        List<FrameDescriptor> frameDescriptors = new ArrayList<>();
+        Frame frame = scope;
+        while (frame != null && frame != JSFrameUtil.NULL_MATERIALIZED_FRAME) {
+            frameDescriptors.add(frame.getFrameDescriptor());
+            FrameSlot parentSlot = frame.getFrameDescriptor().findFrameSlot(JSFrameUtil.PARENT_SCOPE_IDENTIFIER);
+            frame = parentSlot != null ? (Frame) FrameUtil.getObjectSafe(frame, parentSlot) : JSFrameUtil.getParentFrame(frame);
+        }
+        Environment env = new FunctionEnvironment(null, factory, context, false, false, false, false, false, false, false);
+        env = new GlobalEnvironment(env, factory, context);
+        for (int i = frameDescriptors.size() - 1; i >= 0; i--) {
+            FrameDescriptor frameDescriptor = frameDescriptors.get(i);
+            if (frameDescriptor.findFrameSlot(JSFrameUtil.PARENT_SCOPE_IDENTIFIER) != null) {
+                env = new BlockEnvironment(env, factory, context, frameDescriptor);
+            } else {
+                env = new FunctionEnvironment(env, factory, context, frameDescriptor, false);
+            }
+        }
+        JavaScriptNode expression;
+        try {
+            expression = parseInlineExpression(context, source, env, isStrict);
+        } catch (com.oracle.js.parser.ParserException e) {
+            throw parserToJSError(null, e);
+        }
+        if (!(expression instanceof JSFunctionExpressionNode)) {
+            throw Errors.createTypeError("not a function expression: " + source.getName());
+        }
+        return ((JSFunctionExpressionNode) expression).getFunctionData();
+    }
+
     @TruffleBoundary
     private static Object doEvaluate(JSRealm realm, Node lastNode, Environment env, Object thisObj, MaterializedFrame materializedFrame, Source source, boolean isStrict) {
         JSContext context = realm.getContext();
@@ -190,11 +243,16 @@ public final class GraalJSEvaluator implements JSParser {
     }
 
     private static ScriptNode parseEval(JSContext context, Node lastNode, Environment env, Source source, boolean isStrict) {
+        long startTime = System.nanoTime();
         try {
             EvalEnvironment evalEnv = new EvalEnvironment(env, NodeFactory.getInstance(context), context, env != null);
             return JavaScriptTranslator.translateEvalScript(NodeFactory.getInstance(context), context, evalEnv, source, isStrict);
         } catch (com.oracle.js.parser.ParserException e) {
             throw parserToJSError(lastNode, e);
+        } finally {
+            JSMetrics metrics = context.getMetrics();
+            metrics.increment(JSMetrics.Counter.EvalCompilation);
+            metrics.record(JSMetrics.Histogram.EvalCompilationNanos, System.nanoTime() - startTime);
         }
     }
 
@@ -1820,30 +1820,37 @@ abstract class GraalJSTranslator extends com.oracle.js.parser.ir.visitor.Transla
             assert forNode.isForIn() && !forNode.isForEach() && !forNode.isForOf();
             createIteratorNode = factory.createEnumerate(context, modify, false);
         }
-        return desugarForInOrOfBody(forNode, createIteratorNode, jumpTarget);
+        return desugarForInOrOfBody(forNode, createIteratorNode, jumpTarget, false);
     }
 
     private JavaScriptNode desugarForOf(ForNode forNode, JavaScriptNode modify, JumpTargetCloseable<ContinueTarget> jumpTarget) {
         assert forNode.isForOf();
         JavaScriptNode getIterator = factory.createGetIterator(context, modify);
-        return desugarForInOrOfBody(forNode, getIterator, jumpTarget);
+        return desugarForInOrOfBody(forNode, getIterator, jumpTarget, true);
     }
 
-    private JavaScriptNode desugarForInOrOfBody(ForNode forNode, JavaScriptNode iterator, JumpTargetCloseable<ContinueTarget> jumpTarget) {
+    private JavaScriptNode desugarForInOrOfBody(ForNode forNode, JavaScriptNode iterator, JumpTargetCloseable<ContinueTarget> jumpTarget, boolean stepValue) {
         VarRef iteratorVar = environment.createTempVar();
         JavaScriptNode iteratorInit = iteratorVar.createWriteNode(iterator);
         VarRef nextResultVar = environment.createTempVar();
         VarRef doneVar = environment.createTempVar();
-        JavaScriptNode iteratorNext = factory.createIteratorNext(context, iteratorVar.createReadNode());
-        // nextResult = IteratorNext(iterator)
-        // while(!(done = IteratorComplete(nextResult)))
-        JavaScriptNode condition = factory.createUnary(UnaryOperation.NOT, doneVar.createWriteNode(factory.createIteratorComplete(context, nextResultVar.createWriteNode(iteratorNext))));
+        JavaScriptNode condition;
+        if (stepValue) {
+            // while(!(done = IteratorStepValue(iterator, nextValue)))
+            JavaScriptNode iteratorStep = factory.createIteratorStepValue(context, iteratorVar.createReadNode(), (WriteNode) nextResultVar.createWriteNode(null));
+            condition = factory.createUnary(UnaryOperation.NOT, doneVar.createWriteNode(iteratorStep));
+        } else {
+            JavaScriptNode iteratorNext = factory.createIteratorNext(context, iteratorVar.createReadNode());
+            // nextResult = IteratorNext(iterator)
+            // while(!(done = IteratorComplete(nextResult)))
+            condition = factory.createUnary(UnaryOperation.NOT, doneVar.createWriteNode(factory.createIteratorComplete(context, nextResultVar.createWriteNode(iteratorNext))));
+        }
         JavaScriptNode wrappedBody;
         try (EnvironmentCloseable blockEnv = forNode.hasPerIterationScope() ? enterBlockEnvironment(lc.getCurrentBlock()) : new EnvironmentCloseable(environment)) {
             // var nextValue = IteratorValue(nextResult);
             VarRef nextResultVar2 = environment.findTempVar(nextResultVar.getFrameSlot());
             JavaScriptNode nextResult = nextResultVar2.createReadNode();
-            JavaScriptNode nextValue = factory.createIteratorValue(context, nextResult);
+            JavaScriptNode nextValue = stepValue ? nextResult : factory.createIteratorValue(context, nextResult);
             JavaScriptNode writeNext = tagWithHaltTag(desugarForHeadAssignment(forNode, nextValue));
             JavaScriptNode body = transform(forNode.getBody());
             wrappedBody = blockEnv.wrapBlockScope(createBlock(writeNext, body));
@@ -128,6 +128,7 @@ import com.oracle.truffle.js.runtime.objects.Null;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 import com.oracle.truffle.js.runtime.truffleinterop.InteropBoundFunction;
 import com.oracle.truffle.js.runtime.truffleinterop.JSInteropNodeUtil;
+import com.oracle.truffle.js.runtime.util.RealmSnapshot;
 
 @ProvidedTags({StandardTags.CallTag.class,
                 StandardTags.StatementTag.class,
@@ -160,6 +161,8 @@ public class JavaScriptLanguage extends AbstractJavaScriptLanguage {
     private static final HiddenKey META_OBJECT_KEY = new HiddenKey("meta object");
 
     private CallTarget getJSContextCallTarget;
+    /** Decoded realm snapshot, shared by all contexts of this engine. */
+    private volatile RealmSnapshot.Image realmSnapshot;
 
     public static final OptionDescriptors OPTION_DESCRIPTORS;
     static {
@@ -494,6 +497,26 @@ public class JavaScriptLanguage extends AbstractJavaScriptLanguage {
         if (((GraalJSParserOptions) context.getParserOptions()).isScripting()) {
             realm.addScriptingOptionsObject();
         }
+
+        if (JSTruffleOptions.RealmSnapshotFileName != null) {
+            RealmSnapshot.restore(realm, getRealmSnapshot());
+        }
+        if (context.isOptionMetricsJMX()) {
+            context.getMetrics().registerMBean();
+        }
+    }
+
+    private RealmSnapshot.Image getRealmSnapshot() {
+        RealmSnapshot.Image image = realmSnapshot;
+        if (image == null) {
+            synchronized (this) {
+                image = realmSnapshot;
+                if (image == null) {
+                    realmSnapshot = image = RealmSnapshot.Image.load(JSTruffleOptions.RealmSnapshotFileName);
+                }
+            }
+        }
+        return image;
     }
 
     @Override
@@ -526,6 +549,11 @@ public class JavaScriptLanguage extends AbstractJavaScriptLanguage {
         return true;
     }
 
+    @Override
+    protected void disposeContext(JSRealm realm) {
+        realm.getContext().getMetrics().unregisterMBean();
+    }
+
     @Override
     protected OptionDescriptors getOptionDescriptors() {
         return OPTION_DESCRIPTORS;
@@ -52,9 +52,17 @@ public class BlockEnvironment extends Environment {
     private final int scopeLevel;
 
     public BlockEnvironment(Environment parent, NodeFactory factory, JSContext context) {
+        this(parent, factory, context, factory.createBlockFrameDescriptor());
+    }
+
+    /**
+     * Environment of a block whose frame descriptor already exists. The descriptor must have been
+     * created by {@link NodeFactory#createBlockFrameDescriptor()}.
+     */
+    public BlockEnvironment(Environment parent, NodeFactory factory, JSContext context, FrameDescriptor blockFrameDescriptor) {
         super(parent, factory, context);
         this.functionEnvironment = parent.function();
-        this.blockFrameDescriptor = factory.createBlockFrameDescriptor();
+        this.blockFrameDescriptor = blockFrameDescriptor;
         this.parentSlot = ScopeFrameNode.PARENT_SCOPE_SLOT;
         this.scopeLevel = parent.getScopeLevel() + 1;
     }
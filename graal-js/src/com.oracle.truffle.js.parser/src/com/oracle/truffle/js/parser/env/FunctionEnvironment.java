@@ -112,6 +112,19 @@ public class FunctionEnvironment extends Environment {
 
     public FunctionEnvironment(Environment parent, NodeFactory factory, JSContext context,
                     boolean isStrictMode, boolean isEval, boolean isDirectEval, boolean isArrowFunction, boolean isGeneratorFunction, boolean isDerivedConstructor, boolean isAsyncFunction) {
+        this(parent, factory, context, factory.createFrameDescriptor(), isStrictMode, isEval, isDirectEval, isArrowFunction, isGeneratorFunction, isDerivedConstructor, isAsyncFunction);
+    }
+
+    /**
+     * Environment of a function whose frame descriptor already exists, e.g. the scope of a closure
+     * restored from a realm snapshot.
+     */
+    public FunctionEnvironment(Environment parent, NodeFactory factory, JSContext context, FrameDescriptor frameDescriptor, boolean isStrictMode) {
+        this(parent, factory, context, frameDescriptor, isStrictMode, false, false, false, false, false, false);
+    }
+
+    private FunctionEnvironment(Environment parent, NodeFactory factory, JSContext context, FrameDescriptor frameDescriptor,
+                    boolean isStrictMode, boolean isEval, boolean isDirectEval, boolean isArrowFunction, boolean isGeneratorFunction, boolean isDerivedConstructor, boolean isAsyncFunction) {
         super(parent, factory, context);
         this.isDirectEval = isDirectEval;
         this.isAsyncFunction = isAsyncFunction;
@@ -122,7 +135,7 @@ public class FunctionEnvironment extends Environment {
         this.isDerivedConstructor = isDerivedConstructor;
         this.parent = parent == null ? null : parent.function();
 
-        this.frameDescriptor = factory.createFrameDescriptor();
+        this.frameDescriptor = frameDescriptor;
         this.parameters = new ArrayList<>();
         this.isGlobal = parent == null || isDirectEval && (!isStrictMode && parent.function().isGlobal());
         this.inDirectEval = isDirectEval || (parent != null && parent.function() != null && parent.function().inDirectEval());
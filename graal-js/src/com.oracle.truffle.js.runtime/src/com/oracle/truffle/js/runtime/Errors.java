@@ -322,6 +322,11 @@ public final class Errors {
         return Errors.createTypeError("Detached buffer");
     }
 
+    @TruffleBoundary
+    public static JSException createTypeErrorReadOnlyBuffer() {
+        return Errors.createTypeError("Cannot write to a read-only ArrayBuffer");
+    }
+
     @TruffleBoundary
     public static JSException createTypeErrorArrayBufferExpected() {
         return Errors.createTypeError("ArrayBuffer expected");
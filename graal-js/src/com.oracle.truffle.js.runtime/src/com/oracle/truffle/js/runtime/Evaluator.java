@@ -40,9 +40,11 @@
  */
 package com.oracle.truffle.js.runtime;
 
+import com.oracle.truffle.api.frame.FrameDescriptor;
 import com.oracle.truffle.api.frame.MaterializedFrame;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.js.runtime.builtins.JSFunctionData;
 import com.oracle.truffle.js.runtime.objects.JSModuleLoader;
 import com.oracle.truffle.js.runtime.objects.JSModuleRecord;
 
@@ -68,6 +70,18 @@ public interface Evaluator {
      */
     Object evaluate(JSRealm realm, Node lastNode, Source source, Object currEnv, MaterializedFrame frame, Object thisObj);
 
+    /**
+     * Creates an empty frame descriptor for a function scope or, if {@code isBlock}, a block scope.
+     * Frames of such descriptors can be used as scopes for {@link #parseFunctionInScope}.
+     */
+    FrameDescriptor createScopeFrameDescriptor(JSContext context, boolean isBlock);
+
+    /**
+     * Parses a function expression as if it appeared in the scope represented by {@code scope}. The
+     * returned function data is meant to be instantiated with {@code scope} as enclosing frame.
+     */
+    JSFunctionData parseFunctionInScope(JSContext context, Source source, MaterializedFrame scope, boolean isStrict);
+
     Object parseJSON(JSContext context, String jsonString);
 
     Integer[] parseDate(JSRealm realm, String date);
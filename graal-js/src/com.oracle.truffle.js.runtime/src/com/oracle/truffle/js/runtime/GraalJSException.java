@@ -41,6 +41,7 @@
 package com.oracle.truffle.js.runtime;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import com.oracle.truffle.api.CallTarget;
@@ -72,6 +73,11 @@ public abstract class GraalJSException extends RuntimeException implements Truff
     private static final long serialVersionUID = -6624166672101791072L;
     private static final JSStackTraceElement[] EMPTY_STACK_TRACE = new JSStackTraceElement[0];
     private JSStackTraceElement[] jsStackTrace;
+    /**
+     * Frames captured eagerly but not yet resolved to {@link JSStackTraceElement}s, see
+     * {@link CapturedStackTrace}.
+     */
+    private CapturedStackTrace capturedStackTrace;
     private Node originatingNode;
     private int stackTraceLimit;
 
@@ -79,25 +85,23 @@ public abstract class GraalJSException extends RuntimeException implements Truff
         super(message, cause);
         this.originatingNode = node;
         this.stackTraceLimit = stackTraceLimit;
-        this.jsStackTrace = initStackTrace(node, stackTraceLimit, skipFramesUpTo, capture);
+        initStackTrace(node, stackTraceLimit, skipFramesUpTo, capture);
     }
 
     protected GraalJSException(String message, Node node, int stackTraceLimit, DynamicObject skipFramesUpTo, boolean capture) {
         super(message);
         this.originatingNode = node;
         this.stackTraceLimit = stackTraceLimit;
-        this.jsStackTrace = initStackTrace(node, stackTraceLimit, skipFramesUpTo, capture);
+        initStackTrace(node, stackTraceLimit, skipFramesUpTo, capture);
     }
 
-    private static JSStackTraceElement[] initStackTrace(Node node, int stackTraceLimit, DynamicObject skipFramesUpTo, boolean capture) {
+    private void initStackTrace(Node node, int stackTraceLimit, DynamicObject skipFramesUpTo, boolean capture) {
         // We can only skip frames when capturing eagerly.
         assert capture || skipFramesUpTo == Undefined.instance;
         if (stackTraceLimit == 0) {
-            return EMPTY_STACK_TRACE;
+            this.jsStackTrace = EMPTY_STACK_TRACE;
         } else if (capture || JSTruffleOptions.EagerStackTrace) {
-            return getJSStackTrace(node, stackTraceLimit, skipFramesUpTo);
-        } else {
-            return null;
+            this.capturedStackTrace = captureStackTrace(node, stackTraceLimit, skipFramesUpTo);
         }
     }
 
@@ -149,6 +153,11 @@ public abstract class GraalJSException extends RuntimeException implements Truff
 
     @TruffleBoundary
     private JSStackTraceElement[] materializeJSStackTrace() {
+        if (capturedStackTrace != null) {
+            JSStackTraceElement[] stackTrace = capturedStackTrace.materialize();
+            capturedStackTrace = null;
+            return stackTrace;
+        }
         List<TruffleStackTraceElement> stackTrace = TruffleStackTraceElement.getStackTrace(this);
         if (stackTrace != null) {
             FrameVisitorImpl visitor = new FrameVisitorImpl(originatingNode, stackTraceLimit, Undefined.instance);
@@ -157,27 +166,33 @@ public abstract class GraalJSException extends RuntimeException implements Truff
                     break;
                 }
             }
-            return visitor.getStackTrace().toArray(EMPTY_STACK_TRACE);
+            return visitor.getStackTrace().materialize();
         } else {
             return EMPTY_STACK_TRACE;
         }
     }
 
     @TruffleBoundary
-    private static JSStackTraceElement[] getJSStackTrace(Node originatingNode, int stackTraceLimit, DynamicObject skipUpTo) {
+    private static CapturedStackTrace captureStackTrace(Node originatingNode, int stackTraceLimit, DynamicObject skipUpTo) {
         if (stackTraceLimit > 0) {
             // Nashorn does not support skipping of frames
             DynamicObject skipFramesUpTo = JSTruffleOptions.NashornCompatibilityMode ? Undefined.instance : skipUpTo;
             FrameVisitorImpl visitor = new FrameVisitorImpl(originatingNode, stackTraceLimit, skipFramesUpTo);
             Truffle.getRuntime().iterateFrames(visitor);
-            return visitor.getStackTrace().toArray(EMPTY_STACK_TRACE);
+            return visitor.getStackTrace();
         }
+        return null;
+    }
 
-        return EMPTY_STACK_TRACE;
+    @TruffleBoundary
+    private static JSStackTraceElement[] getJSStackTrace(Node originatingNode, int stackTraceLimit, DynamicObject skipUpTo) {
+        CapturedStackTrace stackTrace = captureStackTrace(originatingNode, stackTraceLimit, skipUpTo);
+        return stackTrace == null ? EMPTY_STACK_TRACE : stackTrace.materialize();
     }
 
     public void setJSStackTrace(JSStackTraceElement[] jsStackTrace) {
         this.jsStackTrace = jsStackTrace;
+        this.capturedStackTrace = null;
     }
 
     @TruffleBoundary
@@ -185,12 +200,68 @@ public abstract class GraalJSException extends RuntimeException implements Truff
         return getJSStackTrace(originatingNode, JSTruffleOptions.StackTraceLimit, Undefined.instance);
     }
 
-    private static final class FrameVisitorImpl implements FrameInstanceVisitor<List<JSStackTraceElement>> {
+    /**
+     * Compact representation of a captured stack trace: per frame, only the root node, the call
+     * node, and (for JavaScript frames) the {@code this} and function objects are recorded. File
+     * names, function names, source positions etc. are only resolved when the stack trace is
+     * accessed (e.g. via {@code stack}, {@code Error.prepareStackTrace} or the polyglot API).
+     */
+    private static final class CapturedStackTrace {
+        private static final int FRAME_SIZE = 4;
+
+        /** {rootNode, callNode, thisObj, functionObj} per frame; functionObj is null for foreign frames. */
+        private Object[] frames = new Object[FRAME_SIZE * 8];
+        private int frameCount;
+        /** Index of the first frame in strict mode; all later frames are in strict mode, too. */
+        private int firstStrictFrame = Integer.MAX_VALUE;
+
+        void add(RootNode rootNode, Node callNode, Object thisObj, DynamicObject functionObj, boolean inStrictMode) {
+            int index = frameCount * FRAME_SIZE;
+            if (index + FRAME_SIZE > frames.length) {
+                frames = Arrays.copyOf(frames, frames.length * 2);
+            }
+            frames[index] = rootNode;
+            frames[index + 1] = callNode;
+            frames[index + 2] = thisObj;
+            frames[index + 3] = functionObj;
+            if (inStrictMode && firstStrictFrame > frameCount) {
+                firstStrictFrame = frameCount;
+            }
+            frameCount++;
+        }
+
+        int size() {
+            return frameCount;
+        }
+
+        JSStackTraceElement[] materialize() {
+            CompilerAsserts.neverPartOfCompilation();
+            List<JSStackTraceElement> stackTrace = new ArrayList<>(frameCount);
+            for (int i = 0; i < frameCount; i++) {
+                int index = i * FRAME_SIZE;
+                RootNode rootNode = (RootNode) frames[index];
+                Node callNode = (Node) frames[index + 1];
+                boolean inStrictMode = i >= firstStrictFrame;
+                DynamicObject functionObj = (DynamicObject) frames[index + 3];
+                if (functionObj != null) {
+                    stackTrace.add(processJSFrame(rootNode, callNode, frames[index + 2], functionObj, inStrictMode));
+                } else {
+                    JSStackTraceElement elem = processForeignFrame(rootNode, inStrictMode);
+                    if (elem != null) {
+                        stackTrace.add(elem);
+                    }
+                }
+            }
+            return stackTrace.toArray(EMPTY_STACK_TRACE);
+        }
+    }
+
+    private static final class FrameVisitorImpl implements FrameInstanceVisitor<CapturedStackTrace> {
         private static final int STACK_FRAME_SKIP = 0;
         private static final int STACK_FRAME_JS = 1;
         private static final int STACK_FRAME_FOREIGN = 2;
 
-        private final List<JSStackTraceElement> stackTrace = new ArrayList<>();
+        private final CapturedStackTrace stackTrace = new CapturedStackTrace();
         private final Node originatingNode;
         private final int stackTraceLimit;
         private final DynamicObject skipFramesUpTo;
@@ -233,7 +304,7 @@ public abstract class GraalJSException extends RuntimeException implements Truff
         }
 
         @Override
-        public List<JSStackTraceElement> visitFrame(FrameInstance frameInstance) {
+        public CapturedStackTrace visitFrame(FrameInstance frameInstance) {
             Node callNode = frameInstance.getCallNode();
             if (first) {
                 first = false;
@@ -247,7 +318,8 @@ public abstract class GraalJSException extends RuntimeException implements Truff
             }
             switch (stackFrameType(callNode)) {
                 case STACK_FRAME_JS:
-                    if (JSRuntime.isJSFunctionRootNode(callNode.getRootNode())) {
+                    RootNode rootNode = callNode.getRootNode();
+                    if (JSRuntime.isJSFunctionRootNode(rootNode)) {
                         Frame frame = frameInstance.getFrame(FrameAccess.READ_ONLY);
                         Object thisObj = JSArguments.getThisObject(frame.getArguments());
                         Object functionObj = JSArguments.getFunctionObject(frame.getArguments());
@@ -268,16 +340,14 @@ public abstract class GraalJSException extends RuntimeException implements Truff
                             }
                         }
                         if (!skippingFrames) {
-                            stackTrace.add(processJSFrame(callNode, thisObj, (DynamicObject) functionObj, inStrictMode));
+                            stackTrace.add(rootNode, sourceCallNode(callNode), thisObj, (DynamicObject) functionObj, inStrictMode);
                         }
                     }
                     break;
                 case STACK_FRAME_FOREIGN:
-                    if (!skippingFrames) {
-                        JSStackTraceElement elem = processForeignFrame(callNode, inStrictMode);
-                        if (elem != null) {
-                            stackTrace.add(elem);
-                        }
+                    // foreign root nodes without source section are not part of the stack trace
+                    if (!skippingFrames && callNode.getRootNode().getSourceSection() != null) {
+                        stackTrace.add(callNode.getRootNode(), callNode, null, null, inStrictMode);
                     }
                     break;
             }
@@ -288,7 +358,7 @@ public abstract class GraalJSException extends RuntimeException implements Truff
             }
         }
 
-        public List<JSStackTraceElement> visitFrame(TruffleStackTraceElement element) {
+        public CapturedStackTrace visitFrame(TruffleStackTraceElement element) {
             return visitFrame(new FrameInstance() {
                 @Override
                 public CallTarget getCallTarget() {
@@ -312,17 +382,23 @@ public abstract class GraalJSException extends RuntimeException implements Truff
             });
         }
 
-        public List<JSStackTraceElement> getStackTrace() {
+        public CapturedStackTrace getStackTrace() {
             return stackTrace;
         }
     }
 
-    private static JSStackTraceElement processJSFrame(Node node, Object thisObj, DynamicObject functionObj, boolean inStrictMode) {
-        RootNode rootNode = node.getRootNode();
+    /**
+     * Returns the closest node with a source section, which is known to exist for JS frames.
+     */
+    private static Node sourceCallNode(Node node) {
         Node callNode = node;
         while (callNode.getSourceSection() == null) {
             callNode = callNode.getParent();
         }
+        return callNode;
+    }
+
+    private static JSStackTraceElement processJSFrame(RootNode rootNode, Node callNode, Object thisObj, DynamicObject functionObj, boolean inStrictMode) {
         SourceSection callNodeSourceSection = callNode.getSourceSection();
         Source source = callNodeSourceSection.getSource();
 
@@ -358,8 +434,7 @@ public abstract class GraalJSException extends RuntimeException implements Truff
         return JSObject.isJSObject(object) && (realm != null) && (realm.getGlobalObject() == object);
     }
 
-    private static JSStackTraceElement processForeignFrame(Node node, boolean strict) {
-        RootNode rootNode = node.getRootNode();
+    private static JSStackTraceElement processForeignFrame(RootNode rootNode, boolean strict) {
         SourceSection sourceSection = rootNode.getSourceSection();
         if (sourceSection == null) {
             // can happen around FastR root nodes, see GR-6604
@@ -429,7 +504,7 @@ public abstract class GraalJSException extends RuntimeException implements Truff
 
     public void printJSStackTrace() {
         System.err.println(getMessage());
-        for (JSStackTraceElement jsste : jsStackTrace) {
+        for (JSStackTraceElement jsste : getJSStackTrace()) {
             System.err.println(jsste);
         }
     }
@@ -105,6 +105,7 @@ import com.oracle.truffle.js.runtime.objects.JSShape;
 import com.oracle.truffle.js.runtime.objects.JSShapeData;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 import com.oracle.truffle.js.runtime.util.DebugJSAgent;
+import com.oracle.truffle.js.runtime.util.JSMetrics;
 import com.oracle.truffle.js.runtime.util.TRegexUtil;
 import com.oracle.truffle.js.runtime.util.TimeProfiler;
 import com.oracle.truffle.regex.RegexCompiler;
@@ -167,6 +168,7 @@ public class JSContext implements ShapeContext {
     private JSInteropRuntime interopRuntime;
     private TruffleLanguage.Env truffleLanguageEnv;
     private final TimeProfiler timeProfiler;
+    private final JSMetrics metrics;
 
     private final DynamicObjectFactory moduleNamespaceFactory;
     private final DynamicObjectFactory javaWrapperFactory;
@@ -298,6 +300,7 @@ public class JSContext implements ShapeContext {
         this.builtinFunctionDataCache = new JSFunctionData[BuiltinFunctionKey.values().length];
 
         this.timeProfiler = JSTruffleOptions.ProfileTime ? new TimeProfiler() : null;
+        this.metrics = new JSMetrics(contextOptions.isMetrics());
         this.javaWrapperFactory = JSTruffleOptions.NashornJavaInterop ? JSJavaWrapper.makeShape(this).createFactory() : null;
 
         this.dictionaryShapeNullPrototype = JSTruffleOptions.DictionaryObject ? JSDictionaryObject.makeDictionaryShape(this, null) : null;
@@ -513,13 +516,19 @@ public class JSContext implements ShapeContext {
     private boolean processAllPromises() {
         boolean queueContainsJobs = false;
         Object thisArg = Undefined.instance;
+        long jobCount = 0;
         while (promiseJobsQueue.size() > 0) {
             DynamicObject nextJob = promiseJobsQueue.pollLast();
             if (JSFunction.isJSFunction(nextJob)) {
                 JSFunction.call(nextJob, thisArg, JSArguments.EMPTY_ARGUMENTS_ARRAY);
                 queueContainsJobs = true;
+                jobCount++;
             }
         }
+        if (jobCount > 0) {
+            metrics.add(JSMetrics.Counter.PromiseJob, jobCount);
+            metrics.record(JSMetrics.Histogram.PromiseJobsPerDrain, jobCount);
+        }
 
         // In node.js-mode, tasks are processed by the uv loop.
         if (shouldProcessJavaInteropAsyncTasks) {
@@ -559,6 +568,7 @@ public class JSContext implements ShapeContext {
         truffleLanguageEnv = env;
         activateAllocationReporter();
         this.contextOptions.setEnv(env);
+        this.metrics.setEnabled(contextOptions.isMetrics());
     }
 
     public void activateAllocationReporter() {
@@ -569,6 +579,10 @@ public class JSContext implements ShapeContext {
         return timeProfiler;
     }
 
+    public JSMetrics getMetrics() {
+        return metrics;
+    }
+
     public JSRealm getRealm() {
         if (isChildContext || (CompilerDirectives.inInterpreter() && !isRealmInitialized) || JSTruffleOptions.NashornCompatibilityMode) {
             return realm; // childContext Realm cannot be shared among Engines (GR-8695)
@@ -665,6 +679,11 @@ public class JSContext implements ShapeContext {
         return shapeContext.getEnumerateIteratorFactory();
     }
 
+    @Override
+    public final DynamicObjectFactory getArrayIteratorFactory() {
+        return shapeContext.getArrayIteratorFactory();
+    }
+
     @Override
     public final DynamicObjectFactory getMapFactory() {
         return shapeContext.getMapFactory();
@@ -776,12 +795,24 @@ public class JSContext implements ShapeContext {
             }
             options.append("RegressionTestMode=true");
         }
+        if (!JSTruffleOptions.RegexMemoization) {
+            if (options.length() > 0) {
+                options.append(",");
+            }
+            options.append("Memoization=false");
+        }
+        if (JSTruffleOptions.RegexStepLimit != 0) {
+            if (options.length() > 0) {
+                options.append(",");
+            }
+            options.append("StepLimit=").append(JSTruffleOptions.RegexStepLimit);
+        }
         return options.toString();
     }
 
     public TruffleObject getRegexEngine() {
         if (regexEngine == null) {
-            RegexCompiler joniCompiler = new JoniRegexCompiler(null);
+            RegexCompiler joniCompiler = new JoniRegexCompiler(null, metrics, JSTruffleOptions.UseTRegex);
             if (JSTruffleOptions.UseTRegex) {
                 TruffleObject regexEngineBuilder = (TruffleObject) getEnv().parse(Source.newBuilder("").name("TRegex Engine Builder Request").language(RegexLanguage.ID).build()).call();
                 String regexOptions = createRegexEngineOptions();
@@ -1169,6 +1200,14 @@ public class JSContext implements ShapeContext {
         return contextOptions.isParseOnly();
     }
 
+    public boolean isOptionMetricsJMX() {
+        return contextOptions.isMetricsJMX();
+    }
+
+    public boolean isOptionMappedArrayBuffer() {
+        return contextOptions.isMappedArrayBuffer();
+    }
+
     public boolean isOptionPreciseTime() {
         return contextOptions.isPreciseTime();
     }
@@ -1307,7 +1346,7 @@ public class JSContext implements ShapeContext {
     public EcmaAgent getMainWorker() {
         if (mainWorker == null) {
             CompilerDirectives.transferToInterpreterAndInvalidate();
-            mainWorker = new DefaultMainWorker();
+            mainWorker = new DefaultMainWorker(metrics);
         }
         return mainWorker;
     }
@@ -120,6 +120,21 @@ public final class JSContextOptions {
     private static final OptionKey<Boolean> PRECISE_TIME = new OptionKey<>(false);
     @CompilationFinal private boolean preciseTime;
 
+    public static final String METRICS_NAME = JS_OPTION_PREFIX + "metrics";
+    private static final String METRICS_HELP = "Collect runtime metrics (megamorphic accesses, array transitions, eval compilations, ...).";
+    private static final OptionKey<Boolean> METRICS = new OptionKey<>(true);
+    @CompilationFinal private boolean metrics;
+
+    public static final String METRICS_JMX_NAME = JS_OPTION_PREFIX + "metrics-jmx";
+    private static final String METRICS_JMX_HELP = "Expose runtime metrics of the context as a JMX MBean.";
+    private static final OptionKey<Boolean> METRICS_JMX = new OptionKey<>(false);
+    @CompilationFinal private boolean metricsJMX;
+
+    public static final String MAPPED_ARRAY_BUFFER_NAME = JS_OPTION_PREFIX + "mapped-array-buffer";
+    private static final String MAPPED_ARRAY_BUFFER_HELP = "Allow Graal.mapFile() to map files into ArrayBuffers.";
+    private static final OptionKey<Boolean> MAPPED_ARRAY_BUFFER = new OptionKey<>(false);
+    @CompilationFinal private boolean mappedArrayBuffer;
+
     private static final OptionKey<?>[] PREINIT_CONTEXT_OPTION_KEYS = {
                     ECMASCRIPT_VERSION,
                     ANNEX_B,
@@ -169,6 +184,9 @@ public final class JSContextOptions {
         this.parseOnly = readBooleanOption(PARSE_ONLY, PARSE_ONLY_NAME);
         this.debug = readBooleanOption(DEBUG_BUILTIN, DEBUG_BUILTIN_NAME);
         this.preciseTime = readBooleanOption(PRECISE_TIME, PRECISE_TIME_NAME);
+        this.metrics = readBooleanOption(METRICS, METRICS_NAME);
+        this.metricsJMX = readBooleanOption(METRICS_JMX, METRICS_JMX_NAME);
+        this.mappedArrayBuffer = readBooleanOption(MAPPED_ARRAY_BUFFER, MAPPED_ARRAY_BUFFER_NAME);
     }
 
     private boolean readBooleanOption(OptionKey<Boolean> key, String name) {
@@ -213,6 +231,9 @@ public final class JSContextOptions {
         options.add(OptionDescriptor.newBuilder(PARSE_ONLY, PARSE_ONLY_NAME).category(OptionCategory.USER).help(PARSE_ONLY_HELP).build());
         options.add(OptionDescriptor.newBuilder(TIME_ZONE, TIME_ZONE_NAME).category(OptionCategory.USER).help(TIME_ZONE_HELP).build());
         options.add(OptionDescriptor.newBuilder(PRECISE_TIME, PRECISE_TIME_NAME).category(OptionCategory.USER).help(PRECISE_TIME_HELP).build());
+        options.add(OptionDescriptor.newBuilder(METRICS, METRICS_NAME).category(OptionCategory.USER).help(METRICS_HELP).build());
+        options.add(OptionDescriptor.newBuilder(METRICS_JMX, METRICS_JMX_NAME).category(OptionCategory.USER).help(METRICS_JMX_HELP).build());
+        options.add(OptionDescriptor.newBuilder(MAPPED_ARRAY_BUFFER, MAPPED_ARRAY_BUFFER_NAME).category(OptionCategory.USER).help(MAPPED_ARRAY_BUFFER_HELP).build());
     }
 
     // check for options that are not on their default value.
@@ -279,4 +300,16 @@ public final class JSContextOptions {
     public boolean isPreciseTime() {
         return preciseTime;
     }
+
+    public boolean isMetrics() {
+        return metrics;
+    }
+
+    public boolean isMetricsJMX() {
+        return metricsJMX;
+    }
+
+    public boolean isMappedArrayBuffer() {
+        return mappedArrayBuffer;
+    }
 }
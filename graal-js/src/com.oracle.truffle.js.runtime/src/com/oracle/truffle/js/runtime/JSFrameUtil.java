@@ -51,6 +51,8 @@ import com.oracle.truffle.js.runtime.objects.Undefined;
 public final class JSFrameUtil {
     public static final MaterializedFrame NULL_MATERIALIZED_FRAME = Truffle.getRuntime().createMaterializedFrame(JSArguments.createNullArguments());
     public static final Object DEFAULT_VALUE = Undefined.instance;
+    /** Identifier of the slot of a block scope frame that holds the enclosing scope frame. */
+    public static final String PARENT_SCOPE_IDENTIFIER = "<parent>";
 
     private static final Class<? extends MaterializedFrame> MATERIALIZED_FRAME_CLASS = NULL_MATERIALIZED_FRAME.getClass();
     private static final int IS_LET = 1 << 4;
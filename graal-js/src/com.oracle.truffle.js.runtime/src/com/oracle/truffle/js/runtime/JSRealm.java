@@ -44,9 +44,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.Supplier;
 
+import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.Truffle;
@@ -56,6 +59,7 @@ import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.object.DynamicObjectFactory;
 import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.api.utilities.NeverValidAssumption;
 import com.oracle.truffle.js.runtime.array.TypedArray;
 import com.oracle.truffle.js.runtime.array.TypedArrayFactory;
 import com.oracle.truffle.js.runtime.builtins.Builtin;
@@ -64,6 +68,7 @@ import com.oracle.truffle.js.runtime.builtins.JSArgumentsObject;
 import com.oracle.truffle.js.runtime.builtins.JSArray;
 import com.oracle.truffle.js.runtime.builtins.JSArrayBuffer;
 import com.oracle.truffle.js.runtime.builtins.JSArrayBufferView;
+import com.oracle.truffle.js.runtime.builtins.JSArrayIterator;
 import com.oracle.truffle.js.runtime.builtins.JSBoolean;
 import com.oracle.truffle.js.runtime.builtins.JSCollator;
 import com.oracle.truffle.js.runtime.builtins.JSConstructor;
@@ -109,6 +114,8 @@ import com.oracle.truffle.js.runtime.objects.Dead;
 import com.oracle.truffle.js.runtime.objects.JSAttributes;
 import com.oracle.truffle.js.runtime.objects.JSObject;
 import com.oracle.truffle.js.runtime.objects.JSObjectUtil;
+import com.oracle.truffle.js.runtime.objects.JSShape;
+import com.oracle.truffle.js.runtime.objects.PropertyProxy;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 
 /**
@@ -120,6 +127,7 @@ public class JSRealm implements ShapeContext {
     public static final String POLYGLOT_CLASS_NAME = "Polyglot";
     // used for non-public properties of Polyglot
     public static final String POLYGLOT_INTERNAL_CLASS_NAME = "PolyglotInternal";
+    public static final String GRAAL_CLASS_NAME = "Graal";
     public static final String REFLECT_CLASS_NAME = "Reflect";
     public static final String SHARED_ARRAY_BUFFER_CLASS_NAME = "SharedArrayBuffer";
     public static final String ATOMICS_CLASS_NAME = "Atomics";
@@ -176,14 +184,14 @@ public class JSRealm implements ShapeContext {
     private final DynamicObjectFactory stringFactory;
     private final JSConstructor regExpConstructor;
     private final DynamicObjectFactory regExpFactory;
-    private final JSConstructor collatorConstructor;
-    private final DynamicObjectFactory collatorFactory;
-    private final JSConstructor numberFormatConstructor;
-    private final DynamicObjectFactory numberFormatFactory;
-    private final JSConstructor pluralRulesConstructor;
-    private final DynamicObjectFactory pluralRulesFactory;
-    private final JSConstructor dateTimeFormatConstructor;
-    private final DynamicObjectFactory dateTimeFormatFactory;
+    @CompilationFinal private JSConstructor collatorConstructor;
+    @CompilationFinal private DynamicObjectFactory collatorFactory;
+    @CompilationFinal private JSConstructor numberFormatConstructor;
+    @CompilationFinal private DynamicObjectFactory numberFormatFactory;
+    @CompilationFinal private JSConstructor pluralRulesConstructor;
+    @CompilationFinal private DynamicObjectFactory pluralRulesFactory;
+    @CompilationFinal private JSConstructor dateTimeFormatConstructor;
+    @CompilationFinal private DynamicObjectFactory dateTimeFormatFactory;
     private final JSConstructor dateConstructor;
     private final DynamicObjectFactory dateFactory;
 
@@ -225,48 +233,55 @@ public class JSRealm implements ShapeContext {
     @CompilationFinal(dimensions = 1) private final DynamicObjectFactory[] directTypedArrayFactories;
     private final JSConstructor dataViewConstructor;
     private final DynamicObjectFactory dataViewFactory;
-    private final JSConstructor jsAdapterConstructor;
-    private final DynamicObjectFactory jsAdapterFactory;
+    @CompilationFinal private JSConstructor jsAdapterConstructor;
+    @CompilationFinal private DynamicObjectFactory jsAdapterFactory;
     private final JSConstructor javaImporterConstructor;
     private final DynamicObjectFactory javaImportFactory;
-    private final JSConstructor proxyConstructor;
-    private final DynamicObjectFactory proxyFactory;
+    @CompilationFinal private JSConstructor proxyConstructor;
+    @CompilationFinal private DynamicObjectFactory proxyFactory;
     private final DynamicObject iteratorPrototype;
-
-    @CompilationFinal(dimensions = 1) private final JSConstructor[] simdTypeConstructors;
-    @CompilationFinal(dimensions = 1) private final DynamicObjectFactory[] simdTypeFactories;
-
-    private final JSConstructor generatorFunctionConstructor;
-    private final DynamicObjectFactory initialGeneratorFactory;
-    private final DynamicObjectFactory initialAnonymousGeneratorFactory;
-    private final Shape initialGeneratorObjectShape;
+    private final DynamicObject arrayIteratorPrototype;
+    private final DynamicObjectFactory initialArrayIteratorFactory;
+    private final DynamicObject arrayIteratorNextFunction;
+    private final DynamicObject regExpExecFunction;
+    private final DynamicObject regExpMatchFunction;
+
+    @CompilationFinal(dimensions = 1) private JSConstructor[] simdTypeConstructors;
+    @CompilationFinal(dimensions = 1) private DynamicObjectFactory[] simdTypeFactories;
+
+    @CompilationFinal private JSConstructor generatorFunctionConstructor;
+    @CompilationFinal private DynamicObjectFactory initialGeneratorFactory;
+    @CompilationFinal private DynamicObjectFactory initialAnonymousGeneratorFactory;
+    @CompilationFinal private Shape initialGeneratorObjectShape;
     private final DynamicObjectFactory initialEnumerateIteratorFactory;
     private final DynamicObjectFactory initialBoundFunctionFactory;
     private final DynamicObjectFactory initialAnonymousBoundFunctionFactory;
     private final DynamicObjectFactory promiseFactory;
 
-    private final JSConstructor asyncFunctionConstructor;
-    private final DynamicObjectFactory initialAsyncFunctionFactory;
-    private final DynamicObjectFactory initialAnonymousAsyncFunctionFactory;
+    @CompilationFinal private JSConstructor asyncFunctionConstructor;
+    @CompilationFinal private DynamicObjectFactory initialAsyncFunctionFactory;
+    @CompilationFinal private DynamicObjectFactory initialAnonymousAsyncFunctionFactory;
 
-    private final DynamicObject asyncIteratorPrototype;
-    private final DynamicObject asyncFromSyncIteratorPrototype;
-    private final JSConstructor asyncGeneratorFunctionConstructor;
-    private final DynamicObjectFactory initialAsyncGeneratorFunctionFactory;
-    private final DynamicObjectFactory initialAnonymousAsyncGeneratorFunctionFactory;
-    private final Shape initialAsyncGeneratorObjectShape;
+    @CompilationFinal private DynamicObject asyncIteratorPrototype;
+    @CompilationFinal private DynamicObject asyncFromSyncIteratorPrototype;
+    @CompilationFinal private JSConstructor asyncGeneratorFunctionConstructor;
+    @CompilationFinal private DynamicObjectFactory initialAsyncGeneratorFunctionFactory;
+    @CompilationFinal private DynamicObjectFactory initialAnonymousAsyncGeneratorFunctionFactory;
+    @CompilationFinal private Shape initialAsyncGeneratorObjectShape;
 
     private final DynamicObject throwerFunction;
 
     private final DynamicObjectFactory initialJavaPackageFactory;
     private DynamicObject javaPackageToPrimitiveFunction;
 
-    private final JSConstructor javaInteropWorkerConstructor;
-    private final DynamicObjectFactory javaInteropWorkerFactory;
+    @CompilationFinal private JSConstructor javaInteropWorkerConstructor;
+    @CompilationFinal private DynamicObjectFactory javaInteropWorkerFactory;
 
     private boolean allowLoadInternal;
 
     @CompilationFinal private DynamicObject arrayProtoValuesIterator;
+    @CompilationFinal private Object typedArrayProtoValuesIterator;
+    @CompilationFinal private Assumption arrayIteratorNextUnmodifiedAssumption = NeverValidAssumption.INSTANCE;
     @CompilationFinal private DynamicObject typedArrayConstructor;
     @CompilationFinal private DynamicObject typedArrayPrototype;
     @CompilationFinal private DynamicObject promiseConstructor;
@@ -330,6 +345,8 @@ public class JSRealm implements ShapeContext {
         this.stringFactory = JSString.makeInitialShape(context, stringConstructor.getPrototype()).createFactory();
         this.regExpConstructor = JSRegExp.createConstructor(this);
         this.regExpFactory = JSRegExp.makeInitialShape(context, regExpConstructor.getPrototype()).createFactory();
+        this.regExpExecFunction = (DynamicObject) regExpConstructor.getPrototype().get("exec");
+        this.regExpMatchFunction = (DynamicObject) regExpConstructor.getPrototype().get(Symbol.SYMBOL_MATCH);
         this.dateConstructor = JSDate.createConstructor(this);
         this.dateFactory = JSDate.makeInitialShape(context, dateConstructor.getPrototype()).createFactory();
         boolean es6 = JSTruffleOptions.MaxECMAScriptVersion >= 6;
@@ -344,8 +361,6 @@ public class JSRealm implements ShapeContext {
             this.weakMapFactory = JSWeakMap.makeInitialShape(context, weakMapConstructor.getPrototype()).createFactory();
             this.weakSetConstructor = JSWeakSet.createConstructor(this);
             this.weakSetFactory = JSWeakSet.makeInitialShape(context, weakSetConstructor.getPrototype()).createFactory();
-            this.proxyConstructor = JSProxy.createConstructor(this);
-            this.proxyFactory = JSProxy.makeInitialShape(context, proxyConstructor.getPrototype()).createFactory();
             this.promiseFactory = JSPromise.makeInitialShape(this).createFactory();
         } else {
             this.symbolConstructor = null;
@@ -358,8 +373,6 @@ public class JSRealm implements ShapeContext {
             this.weakMapFactory = null;
             this.weakSetConstructor = null;
             this.weakSetFactory = null;
-            this.proxyConstructor = null;
-            this.proxyFactory = null;
             this.promiseFactory = null;
         }
 
@@ -386,46 +399,22 @@ public class JSRealm implements ShapeContext {
         this.dataViewConstructor = JSDataView.createConstructor(this);
         this.dataViewFactory = JSDataView.makeInitialArrayBufferViewShape(context, dataViewConstructor.getPrototype()).createFactory();
 
-        if (JSTruffleOptions.SIMDJS) {
-            this.simdTypeFactories = new DynamicObjectFactory[SIMDType.FACTORIES.length];
-            this.simdTypeConstructors = new JSConstructor[SIMDType.FACTORIES.length];
-            initializeSIMDTypeConstructors();
-        } else {
-            this.simdTypeFactories = null;
-            this.simdTypeConstructors = null;
-        }
-
-        if (context.isOptionIntl402()) {
-            this.collatorConstructor = JSCollator.createConstructor(this);
-            this.collatorFactory = JSCollator.makeInitialShape(context, collatorConstructor.getPrototype()).createFactory();
-            this.numberFormatConstructor = JSNumberFormat.createConstructor(this);
-            this.numberFormatFactory = JSNumberFormat.makeInitialShape(context, numberFormatConstructor.getPrototype()).createFactory();
-            this.dateTimeFormatConstructor = JSDateTimeFormat.createConstructor(this);
-            this.dateTimeFormatFactory = JSDateTimeFormat.makeInitialShape(context, dateTimeFormatConstructor.getPrototype()).createFactory();
-            this.pluralRulesConstructor = JSPluralRules.createConstructor(this);
-            this.pluralRulesFactory = JSPluralRules.makeInitialShape(context, pluralRulesConstructor.getPrototype()).createFactory();
-        } else {
-            this.collatorConstructor = null;
-            this.collatorFactory = null;
-            this.numberFormatConstructor = null;
-            this.numberFormatFactory = null;
-            this.dateTimeFormatConstructor = null;
-            this.dateTimeFormatFactory = null;
-            this.pluralRulesConstructor = null;
-            this.pluralRulesFactory = null;
-        }
-
-        this.jsAdapterConstructor = JSTruffleOptions.NashornExtensions ? JSAdapter.createConstructor(this) : null;
-        this.jsAdapterFactory = JSTruffleOptions.NashornExtensions ? JSAdapter.makeInitialShape(context, jsAdapterConstructor.getPrototype()).createFactory() : null;
+        /*
+         * SIMD, Intl, JSAdapter, Proxy, the generator and async function intrinsics and the Java
+         * interop worker are created on first use. Typed arrays, DataView and the error
+         * constructors stay eager: the internal typedarray.js script and the cached iterator
+         * functions use them while the realm is set up, and errors can be thrown at any time,
+         * including from compiled code that cannot deoptimize to create them. Promise is defined
+         * by an internal script, so it is created whenever internal scripts are loaded.
+         */
         this.javaImporterConstructor = JSTruffleOptions.NashornJavaInterop ? JavaImporter.createConstructor(this) : null;
         this.javaImportFactory = JSTruffleOptions.NashornJavaInterop ? JavaImporter.makeInitialShape(context, javaImporterConstructor.getPrototype()).createFactory() : null;
         this.initialJavaPackageFactory = isJavaInteropAvailable() ? JavaPackage.createInitialShape(this).createFactory() : null;
 
         this.iteratorPrototype = es6 ? createIteratorPrototype() : null;
-        this.generatorFunctionConstructor = es6 ? JSFunction.createGeneratorFunctionConstructor(this) : null;
-        this.initialGeneratorFactory = es6 ? JSFunction.makeInitialGeneratorFunctionConstructorShape(this, generatorFunctionConstructor.getPrototype(), false).createFactory() : null;
-        this.initialAnonymousGeneratorFactory = es6 ? JSFunction.makeInitialGeneratorFunctionConstructorShape(this, generatorFunctionConstructor.getPrototype(), true).createFactory() : null;
-        this.initialGeneratorObjectShape = es6 ? JSFunction.makeInitialGeneratorObjectShape(this) : null;
+        this.arrayIteratorPrototype = es6 ? JSArrayIterator.createPrototype(this) : null;
+        this.initialArrayIteratorFactory = es6 ? JSArrayIterator.makeInitialShape(context, arrayIteratorPrototype).createFactory() : null;
+        this.arrayIteratorNextFunction = es6 ? (DynamicObject) arrayIteratorPrototype.get(JSRuntime.NEXT) : null;
         this.initialEnumerateIteratorFactory = JSFunction.makeInitialEnumerateIteratorShape(this).createFactory();
         this.initialBoundFunctionFactory = JSFunction.makeInitialBoundFunctionShape(this, functionPrototype, false).createFactory();
         this.initialAnonymousBoundFunctionFactory = JSFunction.makeInitialBoundFunctionShape(this, functionPrototype, true).createFactory();
@@ -447,23 +436,6 @@ public class JSRealm implements ShapeContext {
         this.globalScope = Truffle.getRuntime().createMaterializedFrame(JSArguments.createZeroArg(globalObject, null), new FrameDescriptor(Dead.instance()));
 
         this.dictionaryShapeObjectPrototype = JSTruffleOptions.DictionaryObject ? JSDictionaryObject.makeDictionaryShape(context, objectPrototype) : null;
-
-        boolean es8 = JSTruffleOptions.MaxECMAScriptVersion >= 8;
-        this.asyncFunctionConstructor = es8 ? JSFunction.createAsyncFunctionConstructor(this) : null;
-        this.initialAsyncFunctionFactory = es8 ? JSFunction.makeInitialAsyncFunctionShape(this, asyncFunctionConstructor.getPrototype(), false).createFactory() : null;
-        this.initialAnonymousAsyncFunctionFactory = es8 ? JSFunction.makeInitialAsyncFunctionShape(this, asyncFunctionConstructor.getPrototype(), true).createFactory() : null;
-
-        boolean es9 = JSTruffleOptions.MaxECMAScriptVersion >= 9;
-        this.asyncIteratorPrototype = es9 ? JSFunction.createAsyncIteratorPrototype(this) : null;
-        this.asyncFromSyncIteratorPrototype = es9 ? JSFunction.createAsyncFromSyncIteratorPrototype(this) : null;
-        this.asyncGeneratorFunctionConstructor = es9 ? JSFunction.createAsyncGeneratorFunctionConstructor(this) : null;
-        this.initialAsyncGeneratorFunctionFactory = es9 ? JSFunction.makeInitialGeneratorFunctionConstructorShape(this, asyncGeneratorFunctionConstructor.getPrototype(), false).createFactory() : null;
-        this.initialAnonymousAsyncGeneratorFunctionFactory = es9 ? JSFunction.makeInitialGeneratorFunctionConstructorShape(this, asyncGeneratorFunctionConstructor.getPrototype(), true).createFactory()
-                        : null;
-        this.initialAsyncGeneratorObjectShape = es9 ? JSFunction.makeInitialAsyncGeneratorObjectShape(this) : null;
-
-        this.javaInteropWorkerConstructor = isJavaInteropAvailable() ? JSJavaWorkerBuiltin.createWorkerConstructor(this) : null;
-        this.javaInteropWorkerFactory = isJavaInteropAvailable() ? JSJavaWorkerBuiltin.makeInitialShape(context, javaInteropWorkerConstructor.getPrototype()).createFactory() : null;
     }
 
     private void initializeTypedArrayConstructors() {
@@ -479,16 +451,121 @@ public class JSRealm implements ShapeContext {
         }
     }
 
+    private void ensureSIMDTypeConstructorsInitialized() {
+        if (simdTypeConstructors == null && JSTruffleOptions.SIMDJS) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            initializeSIMDTypeConstructors();
+        }
+    }
+
     private void initializeSIMDTypeConstructors() {
         assert JSTruffleOptions.SIMDJS;
+        DynamicObjectFactory[] factories = new DynamicObjectFactory[SIMDType.FACTORIES.length];
+        JSConstructor[] constructors = new JSConstructor[SIMDType.FACTORIES.length];
         JSConstructor taConst = JSSIMD.createSIMDTypeConstructor(this);
         simdTypeConstructor = taConst.getFunctionObject();
         simdTypePrototype = taConst.getPrototype();
 
         for (SIMDTypeFactory<? extends SIMDType> factory : SIMDType.FACTORIES) {
             JSConstructor constructor = JSSIMD.createConstructor(this, factory, taConst);
-            simdTypeConstructors[factory.getFactoryIndex()] = constructor;
-            simdTypeFactories[factory.getFactoryIndex()] = JSSIMD.makeInitialSIMDShape(context, constructor.getPrototype()).createFactory();
+            constructors[factory.getFactoryIndex()] = constructor;
+            factories[factory.getFactoryIndex()] = JSSIMD.makeInitialSIMDShape(context, constructor.getPrototype()).createFactory();
+        }
+        simdTypeFactories = factories;
+        simdTypeConstructors = constructors;
+    }
+
+    private void ensureIntlConstructorsInitialized() {
+        if (collatorConstructor == null && context.isOptionIntl402()) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            initializeIntlConstructors();
+        }
+    }
+
+    private void initializeIntlConstructors() {
+        assert context.isOptionIntl402();
+        JSConstructor collator = JSCollator.createConstructor(this);
+        collatorFactory = JSCollator.makeInitialShape(context, collator.getPrototype()).createFactory();
+        numberFormatConstructor = JSNumberFormat.createConstructor(this);
+        numberFormatFactory = JSNumberFormat.makeInitialShape(context, numberFormatConstructor.getPrototype()).createFactory();
+        dateTimeFormatConstructor = JSDateTimeFormat.createConstructor(this);
+        dateTimeFormatFactory = JSDateTimeFormat.makeInitialShape(context, dateTimeFormatConstructor.getPrototype()).createFactory();
+        pluralRulesConstructor = JSPluralRules.createConstructor(this);
+        pluralRulesFactory = JSPluralRules.makeInitialShape(context, pluralRulesConstructor.getPrototype()).createFactory();
+        // assigned last, since ensureIntlConstructorsInitialized checks it
+        collatorConstructor = collator;
+    }
+
+    private void ensureJSAdapterConstructorInitialized() {
+        if (jsAdapterConstructor == null && JSTruffleOptions.NashornExtensions) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            JSConstructor constructor = JSAdapter.createConstructor(this);
+            jsAdapterFactory = JSAdapter.makeInitialShape(context, constructor.getPrototype()).createFactory();
+            jsAdapterConstructor = constructor;
+        }
+    }
+
+    private void ensureProxyConstructorInitialized() {
+        if (proxyConstructor == null && JSTruffleOptions.MaxECMAScriptVersion >= 6) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            JSConstructor constructor = JSProxy.createConstructor(this);
+            proxyFactory = JSProxy.makeInitialShape(context, constructor.getPrototype()).createFactory();
+            proxyConstructor = constructor;
+        }
+    }
+
+    /**
+     * The constructor is assigned first, since creating the generator object shape reads it back
+     * through {@link #getGeneratorFunctionConstructor()}.
+     */
+    private void ensureGeneratorIntrinsicsInitialized() {
+        if (generatorFunctionConstructor == null && JSTruffleOptions.MaxECMAScriptVersion >= 6) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            generatorFunctionConstructor = JSFunction.createGeneratorFunctionConstructor(this);
+            initialGeneratorFactory = JSFunction.makeInitialGeneratorFunctionConstructorShape(this, generatorFunctionConstructor.getPrototype(), false).createFactory();
+            initialAnonymousGeneratorFactory = JSFunction.makeInitialGeneratorFunctionConstructorShape(this, generatorFunctionConstructor.getPrototype(), true).createFactory();
+            initialGeneratorObjectShape = JSFunction.makeInitialGeneratorObjectShape(this);
+        }
+    }
+
+    private void ensureAsyncFunctionIntrinsicsInitialized() {
+        if (asyncFunctionConstructor == null && JSTruffleOptions.MaxECMAScriptVersion >= 8) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            JSConstructor constructor = JSFunction.createAsyncFunctionConstructor(this);
+            initialAsyncFunctionFactory = JSFunction.makeInitialAsyncFunctionShape(this, constructor.getPrototype(), false).createFactory();
+            initialAnonymousAsyncFunctionFactory = JSFunction.makeInitialAsyncFunctionShape(this, constructor.getPrototype(), true).createFactory();
+            asyncFunctionConstructor = constructor;
+        }
+    }
+
+    private void ensureAsyncIteratorPrototypesInitialized() {
+        if (asyncIteratorPrototype == null && JSTruffleOptions.MaxECMAScriptVersion >= 9) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            asyncFromSyncIteratorPrototype = JSFunction.createAsyncFromSyncIteratorPrototype(this);
+            asyncIteratorPrototype = JSFunction.createAsyncIteratorPrototype(this);
+        }
+    }
+
+    /**
+     * The constructor is assigned first, since creating the async generator object shape reads it
+     * back through {@link #getAsyncGeneratorFunctionConstructor()}.
+     */
+    private void ensureAsyncGeneratorIntrinsicsInitialized() {
+        if (asyncGeneratorFunctionConstructor == null && JSTruffleOptions.MaxECMAScriptVersion >= 9) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            asyncGeneratorFunctionConstructor = JSFunction.createAsyncGeneratorFunctionConstructor(this);
+            initialAsyncGeneratorFunctionFactory = JSFunction.makeInitialGeneratorFunctionConstructorShape(this, asyncGeneratorFunctionConstructor.getPrototype(), false).createFactory();
+            initialAnonymousAsyncGeneratorFunctionFactory = JSFunction.makeInitialGeneratorFunctionConstructorShape(this, asyncGeneratorFunctionConstructor.getPrototype(), true).createFactory();
+            initialAsyncGeneratorObjectShape = JSFunction.makeInitialAsyncGeneratorObjectShape(this);
+        }
+    }
+
+    private void ensureJavaInteropWorkerConstructorInitialized() {
+        if (javaInteropWorkerConstructor == null && isJavaInteropAvailable()) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            JSConstructor constructor = JSJavaWorkerBuiltin.createWorkerConstructor(this);
+            javaInteropWorkerFactory = JSJavaWorkerBuiltin.makeInitialShape(context, constructor.getPrototype()).createFactory();
+            javaInteropWorkerConstructor = constructor;
         }
     }
 
@@ -582,11 +659,14 @@ public class JSRealm implements ShapeContext {
         assert !isBuiltin || (!isGenerator && !isAsync) : "built-in functions are never generator or async functions!";
         if (isAsync) {
             if (isGenerator) {
+                ensureAsyncGeneratorIntrinsicsInitialized();
                 return isAnonymous ? initialAnonymousAsyncGeneratorFunctionFactory : initialAsyncGeneratorFunctionFactory;
             } else {
+                ensureAsyncFunctionIntrinsicsInitialized();
                 return isAnonymous ? initialAnonymousAsyncFunctionFactory : initialAsyncFunctionFactory;
             }
         } else if (isGenerator) {
+            ensureGeneratorIntrinsicsInitialized();
             return isAnonymous ? initialAnonymousGeneratorFactory : initialGeneratorFactory;
         } else if (isConstructor && !isBuiltin) {
             if (strictFunctionProperties) {
@@ -625,18 +705,22 @@ public class JSRealm implements ShapeContext {
     }
 
     public final JSConstructor getCollatorConstructor() {
+        ensureIntlConstructorsInitialized();
         return collatorConstructor;
     }
 
     public final JSConstructor getNumberFormatConstructor() {
+        ensureIntlConstructorsInitialized();
         return numberFormatConstructor;
     }
 
     public final JSConstructor getPluralRulesConstructor() {
+        ensureIntlConstructorsInitialized();
         return pluralRulesConstructor;
     }
 
     public final JSConstructor getDateTimeFormatConstructor() {
+        ensureIntlConstructorsInitialized();
         return dateTimeFormatConstructor;
     }
 
@@ -670,10 +754,12 @@ public class JSRealm implements ShapeContext {
     }
 
     public final Shape getInitialGeneratorObjectShape() {
+        ensureGeneratorIntrinsicsInitialized();
         return initialGeneratorObjectShape;
     }
 
     public final Shape getInitialAsyncGeneratorObjectShape() {
+        ensureAsyncGeneratorIntrinsicsInitialized();
         return initialAsyncGeneratorObjectShape;
     }
 
@@ -747,22 +833,27 @@ public class JSRealm implements ShapeContext {
     }
 
     public final JSConstructor getJSAdapterConstructor() {
+        ensureJSAdapterConstructorInitialized();
         return jsAdapterConstructor;
     }
 
     public final JSConstructor getProxyConstructor() {
+        ensureProxyConstructorInitialized();
         return proxyConstructor;
     }
 
     public final JSConstructor getGeneratorFunctionConstructor() {
+        ensureGeneratorIntrinsicsInitialized();
         return generatorFunctionConstructor;
     }
 
     public JSConstructor getAsyncFunctionConstructor() {
+        ensureAsyncFunctionIntrinsicsInitialized();
         return asyncFunctionConstructor;
     }
 
     public JSConstructor getAsyncGeneratorFunctionConstructor() {
+        ensureAsyncGeneratorIntrinsicsInitialized();
         return asyncGeneratorFunctionConstructor;
     }
 
@@ -771,6 +862,11 @@ public class JSRealm implements ShapeContext {
         return initialEnumerateIteratorFactory;
     }
 
+    @Override
+    public DynamicObjectFactory getArrayIteratorFactory() {
+        return initialArrayIteratorFactory;
+    }
+
     public final JSConstructor getJavaImporterConstructor() {
         return javaImporterConstructor;
     }
@@ -871,11 +967,46 @@ public class JSRealm implements ShapeContext {
         return iteratorPrototype;
     }
 
+    public DynamicObject getArrayIteratorPrototype() {
+        return arrayIteratorPrototype;
+    }
+
+    /**
+     * The original %ArrayIteratorPrototype%.next function.
+     */
+    public DynamicObject getArrayIteratorNextFunction() {
+        return arrayIteratorNextFunction;
+    }
+
+    /**
+     * Valid as long as %ArrayIteratorPrototype%.next is the {@linkplain #getArrayIteratorNextFunction()
+     * original function}, so that array iterators without own properties can be stepped directly.
+     */
+    public Assumption getArrayIteratorNextUnmodifiedAssumption() {
+        return arrayIteratorNextUnmodifiedAssumption;
+    }
+
+    /**
+     * The original %RegExpPrototype%.exec function.
+     */
+    public DynamicObject getRegExpExecFunction() {
+        return regExpExecFunction;
+    }
+
+    /**
+     * The original %RegExpPrototype%[@@match] function.
+     */
+    public DynamicObject getRegExpMatchFunction() {
+        return regExpMatchFunction;
+    }
+
     public DynamicObject getAsyncIteratorPrototype() {
+        ensureAsyncIteratorPrototypesInitialized();
         return asyncIteratorPrototype;
     }
 
     public DynamicObject getAsyncFromSyncIteratorPrototype() {
+        ensureAsyncIteratorPrototypesInitialized();
         return asyncFromSyncIteratorPrototype;
     }
 
@@ -928,16 +1059,7 @@ public class JSRealm implements ShapeContext {
         putGlobalProperty(global, JSON.CLASS_NAME, JSON.create(this));
 
         if (context.isOptionIntl402()) {
-            DynamicObject intlObject = JSIntl.create(this);
-            DynamicObject collatorFn = getCollatorConstructor().getFunctionObject();
-            DynamicObject numberFormatFn = getNumberFormatConstructor().getFunctionObject();
-            DynamicObject dateTimeFormatFn = getDateTimeFormatConstructor().getFunctionObject();
-            DynamicObject pluralRulesFn = getPluralRulesConstructor().getFunctionObject();
-            JSObjectUtil.putDataProperty(context, intlObject, JSFunction.getName(collatorFn), collatorFn, JSAttributes.getDefaultNotEnumerable());
-            JSObjectUtil.putDataProperty(context, intlObject, JSFunction.getName(numberFormatFn), numberFormatFn, JSAttributes.getDefaultNotEnumerable());
-            JSObjectUtil.putDataProperty(context, intlObject, JSFunction.getName(dateTimeFormatFn), dateTimeFormatFn, JSAttributes.getDefaultNotEnumerable());
-            JSObjectUtil.putDataProperty(context, intlObject, JSFunction.getName(pluralRulesFn), pluralRulesFn, JSAttributes.getDefaultNotEnumerable());
-            putGlobalProperty(global, JSIntl.CLASS_NAME, intlObject);
+            putLazyGlobalProperty(global, JSIntl.CLASS_NAME, this::createIntlObject);
         }
 
         JSObjectUtil.putDataProperty(context, global, JSRuntime.NAN_STRING, Double.NaN);
@@ -960,15 +1082,11 @@ public class JSRealm implements ShapeContext {
         putGlobalProperty(global, JSDataView.CLASS_NAME, getDataViewConstructor().getFunctionObject());
 
         if (JSTruffleOptions.SIMDJS) {
-            DynamicObject simdObject = JSObject.create(this, this.getObjectPrototype(), JSUserObject.INSTANCE);
-            for (SIMDTypeFactory<? extends SIMDType> factory : SIMDType.FACTORIES) {
-                JSObjectUtil.putDataProperty(context, simdObject, factory.getName(), getSIMDTypeConstructor(factory).getFunctionObject(), JSAttributes.getDefaultNotEnumerable());
-            }
-            putGlobalProperty(global, JSSIMD.SIMD_OBJECT_NAME, simdObject);
+            putLazyGlobalProperty(global, JSSIMD.SIMD_OBJECT_NAME, this::createSIMDObject);
         }
 
         if (JSTruffleOptions.NashornExtensions) {
-            putGlobalProperty(global, JSAdapter.CLASS_NAME, getJSAdapterConstructor().getFunctionObject());
+            putLazyGlobalProperty(global, JSAdapter.CLASS_NAME, () -> getJSAdapterConstructor().getFunctionObject());
         }
         if (JSTruffleOptions.TruffleInterop) {
             setupPolyglot(global);
@@ -1001,7 +1119,7 @@ public class JSRealm implements ShapeContext {
             putGlobalProperty(global, JSSymbol.CLASS_NAME, getSymbolConstructor().getFunctionObject());
             setupPredefinedSymbols(getSymbolConstructor().getFunctionObject());
             putGlobalProperty(global, REFLECT_CLASS_NAME, createReflect());
-            putGlobalProperty(global, JSProxy.CLASS_NAME, getProxyConstructor().getFunctionObject());
+            putLazyGlobalProperty(global, JSProxy.CLASS_NAME, () -> getProxyConstructor().getFunctionObject());
         }
 
         if (context.isOptionSharedArrayBuffer()) {
@@ -1025,6 +1143,45 @@ public class JSRealm implements ShapeContext {
         }
 
         arrayProtoValuesIterator = (DynamicObject) getArrayConstructor().getPrototype().get(Symbol.SYMBOL_ITERATOR, Undefined.instance);
+        typedArrayProtoValuesIterator = getTypedArrayPrototype().get(Symbol.SYMBOL_ITERATOR, Undefined.instance);
+        if (arrayIteratorPrototype != null) {
+            arrayIteratorNextUnmodifiedAssumption = createUnmodifiedAssumption(arrayIteratorPrototype, JSRuntime.NEXT, arrayIteratorNextFunction);
+        }
+    }
+
+    /**
+     * Returns an assumption that the declared property {@code key} of {@code prototype} keeps its
+     * original {@code value}. Objects used as prototypes have a shape tree of their own, so only
+     * changes to the property itself invalidate it.
+     */
+    private static Assumption createUnmodifiedAssumption(DynamicObject prototype, Object key, Object value) {
+        Assumption assumption = JSShape.getPropertyAssumption(JSObjectUtil.makeUnique(prototype), key);
+        if (prototype.get(key) != value) {
+            // modified before the assumption was created, e.g. by an internal script
+            assumption.invalidate();
+        }
+        return assumption;
+    }
+
+    private DynamicObject createIntlObject() {
+        DynamicObject intlObject = JSIntl.create(this);
+        DynamicObject collatorFn = getCollatorConstructor().getFunctionObject();
+        DynamicObject numberFormatFn = getNumberFormatConstructor().getFunctionObject();
+        DynamicObject dateTimeFormatFn = getDateTimeFormatConstructor().getFunctionObject();
+        DynamicObject pluralRulesFn = getPluralRulesConstructor().getFunctionObject();
+        JSObjectUtil.putDataProperty(context, intlObject, JSFunction.getName(collatorFn), collatorFn, JSAttributes.getDefaultNotEnumerable());
+        JSObjectUtil.putDataProperty(context, intlObject, JSFunction.getName(numberFormatFn), numberFormatFn, JSAttributes.getDefaultNotEnumerable());
+        JSObjectUtil.putDataProperty(context, intlObject, JSFunction.getName(dateTimeFormatFn), dateTimeFormatFn, JSAttributes.getDefaultNotEnumerable());
+        JSObjectUtil.putDataProperty(context, intlObject, JSFunction.getName(pluralRulesFn), pluralRulesFn, JSAttributes.getDefaultNotEnumerable());
+        return intlObject;
+    }
+
+    private DynamicObject createSIMDObject() {
+        DynamicObject simdObject = JSObject.create(this, this.getObjectPrototype(), JSUserObject.INSTANCE);
+        for (SIMDTypeFactory<? extends SIMDType> factory : SIMDType.FACTORIES) {
+            JSObjectUtil.putDataProperty(context, simdObject, factory.getName(), getSIMDTypeConstructor(factory).getFunctionObject(), JSAttributes.getDefaultNotEnumerable());
+        }
+        return simdObject;
     }
 
     private void putGraalObject(DynamicObject global) {
@@ -1040,7 +1197,8 @@ public class JSRealm implements ShapeContext {
             JSObjectUtil.putDataProperty(context, graalObject, "versionGraalVM", graalVMVersion);
         }
         JSObjectUtil.putDataProperty(context, graalObject, "isGraalRuntime", isGraalRuntime());
-        putGlobalProperty(global, "Graal", graalObject);
+        JSObjectUtil.putFunctionsFromContainer(this, graalObject, GRAAL_CLASS_NAME);
+        putGlobalProperty(global, GRAAL_CLASS_NAME, graalObject);
     }
 
     private static Object isGraalRuntime() {
@@ -1048,11 +1206,13 @@ public class JSRealm implements ShapeContext {
     }
 
     private JSConstructor getSIMDTypeConstructor(SIMDTypeFactory<? extends SIMDType> factory) {
+        ensureSIMDTypeConstructorsInitialized();
         return simdTypeConstructors[factory.getFactoryIndex()];
     }
 
     @Override
     public DynamicObjectFactory getSIMDTypeFactory(SIMDTypeFactory<? extends SIMDType> factory) {
+        ensureSIMDTypeConstructorsInitialized();
         return simdTypeFactories[factory.getFactoryIndex()];
     }
 
@@ -1102,6 +1262,45 @@ public class JSRealm implements ShapeContext {
         JSObjectUtil.putDataProperty(context, global, name, value, JSAttributes.getDefaultNotEnumerable());
     }
 
+    /**
+     * Defines a global data property with default attributes whose value is only created when the
+     * property is first read. Used for rarely used globals that are expensive to set up.
+     */
+    private static void putLazyGlobalProperty(DynamicObject global, String name, Supplier<Object> valueSupplier) {
+        JSObjectUtil.defineProxyProperty(global, name, new LazyGlobalPropertyProxy(valueSupplier), JSAttributes.getDefaultNotEnumerable());
+    }
+
+    private static final class LazyGlobalPropertyProxy implements PropertyProxy {
+
+        private Supplier<Object> valueSupplier;
+        private Object value;
+
+        LazyGlobalPropertyProxy(Supplier<Object> valueSupplier) {
+            this.valueSupplier = valueSupplier;
+        }
+
+        @Override
+        public Object get(DynamicObject store) {
+            if (valueSupplier != null) {
+                materialize();
+            }
+            return value;
+        }
+
+        @TruffleBoundary
+        private void materialize() {
+            value = valueSupplier.get();
+            valueSupplier = null;
+        }
+
+        @Override
+        public boolean set(DynamicObject store, Object newValue) {
+            value = newValue;
+            valueSupplier = null;
+            return true;
+        }
+    }
+
     private static void setupPredefinedSymbols(DynamicObject symbolFunction) {
         putSymbolProperty(symbolFunction, "hasInstance", Symbol.SYMBOL_HAS_INSTANCE);
         putSymbolProperty(symbolFunction, "isConcatSpreadable", Symbol.SYMBOL_IS_CONCAT_SPREADABLE);
@@ -1129,9 +1328,11 @@ public class JSRealm implements ShapeContext {
         if (!isJavaInteropAvailable()) {
             return;
         }
-        DynamicObject java = JSJava.create(this);
-        JSObjectUtil.putFunctionsFromContainer(this, java, JSJava.CLASS_NAME);
-        putGlobalProperty(global, JSJava.CLASS_NAME, java);
+        putLazyGlobalProperty(global, JSJava.CLASS_NAME, () -> {
+            DynamicObject java = JSJava.create(this);
+            JSObjectUtil.putFunctionsFromContainer(this, java, JSJava.CLASS_NAME);
+            return java;
+        });
 
         if (context.getEnv() != null && context.getEnv().isHostLookupAllowed()) {
             putGlobalProperty(global, "Packages", JavaPackage.create(this, ""));
@@ -1148,13 +1349,28 @@ public class JSRealm implements ShapeContext {
     }
 
     private void setupPolyglot(DynamicObject global) {
+        Supplier<Object> polyglot = new Supplier<Object>() {
+            private DynamicObject obj;
+
+            @Override
+            public Object get() {
+                if (obj == null) {
+                    obj = createPolyglotObject();
+                }
+                return obj;
+            }
+        };
+        putLazyGlobalProperty(global, POLYGLOT_CLASS_NAME, polyglot);
+        putLazyGlobalProperty(global, "Interop", polyglot); // temporary workaround to fix gates
+    }
+
+    private DynamicObject createPolyglotObject() {
         DynamicObject obj = JSObject.create(this, this.getObjectPrototype(), JSUserObject.INSTANCE);
         JSObjectUtil.putFunctionsFromContainer(this, obj, POLYGLOT_CLASS_NAME);
         if (getContext().isOptionDebugBuiltin()) {
             JSObjectUtil.putFunctionsFromContainer(this, obj, POLYGLOT_INTERNAL_CLASS_NAME);
         }
-        putGlobalProperty(global, POLYGLOT_CLASS_NAME, obj);
-        putGlobalProperty(global, "Interop", obj); // temporary workaround to fix gates
+        return obj;
     }
 
     private void putConsoleObject(DynamicObject global) {
@@ -1175,6 +1391,13 @@ public class JSRealm implements ShapeContext {
         return arrayProtoValuesIterator;
     }
 
+    /**
+     * The original %TypedArray%.prototype[@@iterator] function, or {@code undefined} before ES6.
+     */
+    public Object getTypedArrayProtoValuesIterator() {
+        return typedArrayProtoValuesIterator;
+    }
+
     private DynamicObject createReflect() {
         DynamicObject obj = JSObject.create(this, this.getObjectPrototype(), JSUserObject.INSTANCE);
         JSObjectUtil.putDataProperty(context, obj, Symbol.SYMBOL_TO_STRING_TAG, REFLECT_CLASS_NAME, JSAttributes.configurableNotEnumerableNotWritable());
@@ -1235,21 +1458,25 @@ public class JSRealm implements ShapeContext {
 
     @Override
     public final DynamicObjectFactory getCollatorFactory() {
+        ensureIntlConstructorsInitialized();
         return collatorFactory;
     }
 
     @Override
     public final DynamicObjectFactory getNumberFormatFactory() {
+        ensureIntlConstructorsInitialized();
         return numberFormatFactory;
     }
 
     @Override
     public final DynamicObjectFactory getPluralRulesFactory() {
+        ensureIntlConstructorsInitialized();
         return pluralRulesFactory;
     }
 
     @Override
     public final DynamicObjectFactory getDateTimeFormatFactory() {
+        ensureIntlConstructorsInitialized();
         return dateTimeFormatFactory;
     }
 
@@ -1285,6 +1512,7 @@ public class JSRealm implements ShapeContext {
 
     @Override
     public final DynamicObjectFactory getProxyFactory() {
+        ensureProxyConstructorInitialized();
         return proxyFactory;
     }
 
@@ -1301,6 +1529,7 @@ public class JSRealm implements ShapeContext {
 
     @Override
     public DynamicObjectFactory getJSAdapterFactory() {
+        ensureJSAdapterConstructorInitialized();
         return jsAdapterFactory;
     }
 
@@ -1395,10 +1624,12 @@ public class JSRealm implements ShapeContext {
     }
 
     public DynamicObjectFactory getJavaInteropWorkerFactory() {
+        ensureJavaInteropWorkerConstructorInitialized();
         return javaInteropWorkerFactory;
     }
 
     public JSConstructor getJavaInteropWorkerConstructor() {
+        ensureJavaInteropWorkerConstructorInitialized();
         return javaInteropWorkerConstructor;
     }
 
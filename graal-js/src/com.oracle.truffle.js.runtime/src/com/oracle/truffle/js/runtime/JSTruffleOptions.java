@@ -93,6 +93,12 @@ public class JSTruffleOptions {
     public static final boolean FunctionCacheOnInstance = booleanOption("FunctionCacheOnInstance", true, 0);
     public static final boolean DictionaryObject = booleanOption("DictionaryObject", true, OPTION_PERFORMANCE);
     public static final boolean TraceDictionaryObject = booleanOption("TraceDictionaryObject", false, 0);
+    /** Convert dictionary objects back to ordinary objects after this many writes to existing properties without a key set change (0 = never). */
+    public static final int DictionaryObjectNormalizeThreshold = integerOption("DictionaryObjectNormalizeThreshold", 10000, OPTION_PERFORMANCE | OPTION_LIMIT);
+    /** Maximum number of times a dictionary object is converted back to an ordinary object. */
+    public static final int DictionaryObjectMaxNormalizations = integerOption("DictionaryObjectMaxNormalizations", 2, OPTION_PERFORMANCE | OPTION_LIMIT);
+    /** Allocate object literals with only constant data members directly in their final shape. */
+    public static final boolean ObjectLiteralFinalShape = booleanOption("ObjectLiteralFinalShape", true, OPTION_PERFORMANCE);
     public static final boolean MergeShapes = booleanOption("MergeShapes", true, 0);
 
     // Shape check elision
@@ -103,6 +109,8 @@ public class JSTruffleOptions {
     // Runtime options
     public static final boolean LazyStrings = booleanOption("LazyStrings", true, OPTION_PERFORMANCE);
     public static final int MinLazyStringLength = integerOption("MinLazyStringLength", 20, OPTION_LIMIT);
+    /** Minimum length of substrings that share the characters of their parent string. */
+    public static final int MinLazySubstringLength = integerOption("MinLazySubstringLength", 64, OPTION_LIMIT);
     public static final int MaxLoadCacheLength = integerOption("MaxLoadCacheLength", 0, OPTION_LIMIT);
     public static final int MaxCompiledRegexCacheLength = integerOption("MaxCompiledRegexCacheLength", 4, OPTION_LIMIT);
     public static final boolean TrimLoadCache = booleanOption("TrimLoadCache", false, 0);
@@ -128,7 +136,11 @@ public class JSTruffleOptions {
     public static final int InitialArraySize = integerOption("array.InitialArraySize", 8, OPTION_LIMIT);
     public static final int MaxArrayHoleSize = integerOption("array.MaxArrayHoleSize", 5000, OPTION_LIMIT);
     public static final int MaxFlatArraySize = integerOption("array.MaxFlatArraySize", 1000000, OPTION_LIMIT);
-    public static final boolean TrackArrayAllocationSites = booleanOption("array.TrackAllocationSites", false, OPTION_PERFORMANCE);
+    public static final boolean TrackArrayAllocationSites = booleanOption("array.TrackAllocationSites", true, OPTION_PERFORMANCE);
+    /** Upper bound for the backing store capacity learned by an array allocation site. */
+    public static final int MaxArrayAllocationSiteCapacity = integerOption("array.MaxAllocationSiteCapacity", 1 << 16, OPTION_LIMIT);
+    /** Maximum number of backing store capacity changes of an array allocation site. */
+    public static final int MaxArrayAllocationSiteCapacityUpdates = integerOption("array.MaxAllocationSiteCapacityUpdates", 8, OPTION_LIMIT);
     public static final int BigArrayThreshold = integerOption("array.BigArrayThreshold", 10000, OPTION_LIMIT);
     public static final boolean MarkElementsNonNull = booleanOption("array.MarkElementsNonNull", true, OPTION_PERFORMANCE);
     /** Use DirectByteBuffer for typed arrays by default. */
@@ -181,12 +193,19 @@ public class JSTruffleOptions {
     // Engine options
     public static final boolean DumpHeapOnExit = booleanOption("DumpHeapOnExit", false, OPTION_SETUP);
     public static final String HeapDumpFileName = stringOption("HeapDumpFileName", null, OPTION_SETUP);
+    /** Realm snapshot written by RealmSnapshotTool that is applied to the main realm of every context. */
+    public static final String RealmSnapshotFileName = stringOption("RealmSnapshotFileName", null, OPTION_SETUP);
 
     // Java Interop options
     public static final boolean NashornJavaInterop = !SubstrateVM && booleanOption("NashornJavaInterop", false, OPTION_LANGUAGE_FEATURE);
     public static final boolean JavaCallCache = booleanOption("JavaCallCache", true, OPTION_PERFORMANCE);
+    public static final int JavaCallCacheLimit = integerOption("JavaCallCacheLimit", 4, OPTION_PERFORMANCE | OPTION_LIMIT);
+    /** Number of overload resolutions remembered per Java method. */
+    public static final int JavaResolutionCacheLimit = integerOption("JavaResolutionCacheLimit", 8, OPTION_PERFORMANCE | OPTION_LIMIT);
     public static final boolean SingleThreaded = booleanOption("SingleThreaded", false, OPTION_SETUP);
     public static final boolean JavaConvertersAsMethodHandles = booleanOption("JavaConvertersAsMethodHandles", false, OPTION_PERFORMANCE);
+    /** Maximum number of tasks waiting for a Java interop worker thread. */
+    public static final int JavaInteropWorkerQueueSize = integerOption("JavaInteropWorkerQueueSize", 1024, OPTION_LIMIT);
 
     // Tracing
     public static final boolean TracePolymorphicPropertyAccess = booleanOption("TracePolymorphicPropertyAccess", false, OPTION_SETUP);
@@ -226,6 +245,10 @@ public class JSTruffleOptions {
 
     public static final boolean UseTRegex = booleanOption("UseTRegex", true, OPTION_SETUP | OPTION_PERFORMANCE);
     public static final boolean RegexRegressionTestMode = booleanOption("RegexRegressionTestMode", false, OPTION_SETUP);
+    /** Max. backtracking steps of a single Joni or TRegex backtracker search before a RangeError is thrown, 0 = unlimited. */
+    public static final int RegexStepLimit = integerOption("RegexStepLimit", 0, OPTION_LIMIT);
+    /** Memoize failed states in Joni and the TRegex backtracker for patterns without back-references and look-arounds. */
+    public static final boolean RegexMemoization = booleanOption("RegexMemoization", true, OPTION_PERFORMANCE);
 
     public static final boolean GraalBuiltin = booleanOption("GraalBuiltin", true, OPTION_SETUP);
 
@@ -82,6 +82,8 @@ public interface ShapeContext {
 
     DynamicObjectFactory getEnumerateIteratorFactory();
 
+    DynamicObjectFactory getArrayIteratorFactory();
+
     DynamicObjectFactory getMapFactory();
 
     DynamicObjectFactory getWeakMapFactory();
@@ -41,10 +41,31 @@
 package com.oracle.truffle.js.runtime.array;
 
 public interface ArrayAllocationSite {
+    /**
+     * Called whenever an array is allocated at this site.
+     */
+    default void notifyArrayAllocation() {
+    }
+
     default void notifyArrayTransition(@SuppressWarnings("unused") ScriptArray arrayType, @SuppressWarnings("unused") int length) {
     }
 
+    /**
+     * Called when the backing store of an array allocated at this site had to be grown to
+     * {@code newCapacity}.
+     */
+    default void notifyArrayGrowth(@SuppressWarnings("unused") int newCapacity) {
+    }
+
     default ScriptArray getInitialArrayType() {
         return null;
     }
+
+    /**
+     * Capacity of the backing store new arrays of {@link #getInitialArrayType()} should be
+     * allocated with, or 0 if unknown.
+     */
+    default int getInitialCapacity() {
+        return 0;
+    }
 }
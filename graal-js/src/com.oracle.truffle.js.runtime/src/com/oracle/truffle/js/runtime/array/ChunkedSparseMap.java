@@ -0,0 +1,492 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.runtime.array;
+
+import java.util.Arrays;
+
+/**
+ * Ordered map from non-negative {@code long} indices to non-null values, used as the storage of
+ * {@link SparseArray}.
+ *
+ * Indices are split into a chunk key (upper bits) and an offset (lower {@value #CHUNK_BITS} bits).
+ * Each chunk has a bitmap of its present slots and stores their values in offset order, so a value
+ * is found at the bit count of the bitmap below its offset; the value array grows with the chunk,
+ * so isolated elements do not pay for {@value #CHUNK_SIZE} slots. The chunks are kept sorted by
+ * chunk key in a two-level directory: pages of up to {@value #PAGE_SIZE} chunks, found by binary
+ * search over the first key of each page, then within the page (with a cache of the last chunk hit
+ * for sequential access). Inserting a chunk only shifts the chunks of one page, and pages are
+ * split when full. No keys are boxed, and ordered iteration just scans the bitmaps.
+ */
+public final class ChunkedSparseMap {
+
+    static final int CHUNK_BITS = 6;
+    static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    /** Maximum number of chunks per page. */
+    static final int PAGE_SIZE = 64;
+    private static final int INITIAL_PAGE_CAPACITY = 4;
+    private static final int INITIAL_PAGES = 4;
+
+    private static final class Page {
+        /** Sorted chunk keys ({@code index >> CHUNK_BITS}). */
+        long[] keys;
+        /** Bitmaps of present slots; never 0 for chunks in use. */
+        long[] masks;
+        /** Values of the present slots, in offset order. */
+        Object[][] values;
+        int count;
+
+        Page(int capacity) {
+            this.keys = new long[capacity];
+            this.masks = new long[capacity];
+            this.values = new Object[capacity][];
+        }
+
+        void ensureCapacity() {
+            if (count == keys.length) {
+                int newLength = keys.length * 2;
+                keys = Arrays.copyOf(keys, newLength);
+                masks = Arrays.copyOf(masks, newLength);
+                values = Arrays.copyOf(values, newLength);
+            }
+        }
+
+        void insert(int pos, long chunkKey) {
+            ensureCapacity();
+            int tail = count - pos;
+            System.arraycopy(keys, pos, keys, pos + 1, tail);
+            System.arraycopy(masks, pos, masks, pos + 1, tail);
+            System.arraycopy(values, pos, values, pos + 1, tail);
+            keys[pos] = chunkKey;
+            masks[pos] = 0;
+            values[pos] = null;
+            count++;
+        }
+
+        void remove(int from, int to) {
+            System.arraycopy(keys, to, keys, from, count - to);
+            System.arraycopy(masks, to, masks, from, count - to);
+            System.arraycopy(values, to, values, from, count - to);
+            int newCount = count - (to - from);
+            Arrays.fill(values, newCount, count, null);
+            count = newCount;
+        }
+
+        /** Moves the chunks from {@code from} on into a new page. */
+        Page split(int from) {
+            Page upper = new Page(PAGE_SIZE);
+            int moved = count - from;
+            System.arraycopy(keys, from, upper.keys, 0, moved);
+            System.arraycopy(masks, from, upper.masks, 0, moved);
+            System.arraycopy(values, from, upper.values, 0, moved);
+            upper.count = moved;
+            Arrays.fill(values, from, count, null);
+            count = from;
+            return upper;
+        }
+
+        int countEntries(int from) {
+            int entries = 0;
+            for (int i = from; i < count; i++) {
+                entries += Long.bitCount(masks[i]);
+            }
+            return entries;
+        }
+    }
+
+    private Page[] pages;
+    private int pageCount;
+    private int size;
+    /** Page of the chunk found or of the insertion point of the last {@link #findChunk} call. */
+    private int foundPage;
+    private int lastPage;
+    private int lastChunk;
+
+    public ChunkedSparseMap() {
+        this.pages = new Page[INITIAL_PAGES];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the index of the last page whose first chunk key is not greater than
+     * {@code chunkKey}, or 0 if there is none. The directory must not be empty.
+     */
+    private int findPage(long chunkKey) {
+        int low = 0;
+        int high = pageCount - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (pages[mid].keys[0] <= chunkKey) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the position of the chunk in page {@link #foundPage}, or
+     * {@code -(insertionPoint + 1)}.
+     */
+    private int findChunk(long chunkKey) {
+        if (lastPage < pageCount) {
+            Page page = pages[lastPage];
+            if (lastChunk < page.count && page.keys[lastChunk] == chunkKey) {
+                foundPage = lastPage;
+                return lastChunk;
+            }
+        }
+        if (pageCount == 0) {
+            foundPage = 0;
+            return -1;
+        }
+        int pageIndex = findPage(chunkKey);
+        Page page = pages[pageIndex];
+        int pos = Arrays.binarySearch(page.keys, 0, page.count, chunkKey);
+        foundPage = pageIndex;
+        if (pos >= 0) {
+            lastPage = pageIndex;
+            lastChunk = pos;
+        }
+        return pos;
+    }
+
+    private static long chunkKey(long index) {
+        return index >> CHUNK_BITS;
+    }
+
+    private static int offset(long index) {
+        return (int) (index & CHUNK_MASK);
+    }
+
+    /** Position of the value of {@code offset} in the values of a chunk. */
+    private static int rank(long mask, int offset) {
+        return Long.bitCount(mask & ((1L << offset) - 1));
+    }
+
+    private static long firstIndex(long chunkKey, long mask) {
+        return (chunkKey << CHUNK_BITS) + Long.numberOfTrailingZeros(mask);
+    }
+
+    private static long lastIndex(long chunkKey, long mask) {
+        return (chunkKey << CHUNK_BITS) + (CHUNK_MASK - Long.numberOfLeadingZeros(mask));
+    }
+
+    /**
+     * Returns the value at the index, or {@code null} if there is none.
+     */
+    public Object get(long index) {
+        int pos = findChunk(chunkKey(index));
+        if (pos >= 0) {
+            Page page = pages[foundPage];
+            long mask = page.masks[pos];
+            int offset = offset(index);
+            if ((mask & (1L << offset)) != 0) {
+                return page.values[pos][rank(mask, offset)];
+            }
+        }
+        return null;
+    }
+
+    public boolean containsKey(long index) {
+        int pos = findChunk(chunkKey(index));
+        return pos >= 0 && (pages[foundPage].masks[pos] & (1L << offset(index))) != 0;
+    }
+
+    /**
+     * Associates the value with the index.
+     *
+     * @return {@code true} if the index was not present before.
+     */
+    public boolean put(long index, Object value) {
+        assert index >= 0 && value != null;
+        long chunkKey = chunkKey(index);
+        int pos = findChunk(chunkKey);
+        if (pos < 0) {
+            pos = insertChunk(-(pos + 1), chunkKey);
+        }
+        Page page = pages[foundPage];
+        long mask = page.masks[pos];
+        int offset = offset(index);
+        long bit = 1L << offset;
+        int rank = rank(mask, offset);
+        if ((mask & bit) != 0) {
+            page.values[pos][rank] = value;
+            return false;
+        }
+        Object[] chunkValues = page.values[pos];
+        int count = Long.bitCount(mask);
+        if (chunkValues == null) {
+            chunkValues = new Object[1];
+        } else if (count == chunkValues.length) {
+            chunkValues = Arrays.copyOf(chunkValues, Math.min(CHUNK_SIZE, count * 2));
+        }
+        System.arraycopy(chunkValues, rank, chunkValues, rank + 1, count - rank);
+        chunkValues[rank] = value;
+        page.values[pos] = chunkValues;
+        page.masks[pos] = mask | bit;
+        size++;
+        return true;
+    }
+
+    /**
+     * Inserts an empty chunk at position {@code pos} of page {@link #foundPage}, splitting the page
+     * if it is full, and returns its position ({@link #foundPage} is updated).
+     */
+    private int insertChunk(int pos, long chunkKey) {
+        if (pageCount == 0) {
+            pages[0] = new Page(INITIAL_PAGE_CAPACITY);
+            pageCount = 1;
+            foundPage = 0;
+        }
+        int pageIndex = foundPage;
+        Page page = pages[pageIndex];
+        if (page.count == PAGE_SIZE) {
+            Page upper = page.split(PAGE_SIZE / 2);
+            insertPage(pageIndex + 1, upper);
+            if (pos > page.count) {
+                pos -= page.count;
+                pageIndex++;
+                page = upper;
+            }
+        }
+        page.insert(pos, chunkKey);
+        foundPage = pageIndex;
+        lastPage = pageIndex;
+        lastChunk = pos;
+        return pos;
+    }
+
+    private void insertPage(int pageIndex, Page page) {
+        if (pageCount == pages.length) {
+            pages = Arrays.copyOf(pages, pages.length * 2);
+        }
+        System.arraycopy(pages, pageIndex, pages, pageIndex + 1, pageCount - pageIndex);
+        pages[pageIndex] = page;
+        pageCount++;
+    }
+
+    private void removePages(int from, int to) {
+        System.arraycopy(pages, to, pages, from, pageCount - to);
+        int newCount = pageCount - (to - from);
+        Arrays.fill(pages, newCount, pageCount, null);
+        pageCount = newCount;
+    }
+
+    private void removeChunk(int pageIndex, int pos) {
+        Page page = pages[pageIndex];
+        page.remove(pos, pos + 1);
+        if (page.count == 0) {
+            removePages(pageIndex, pageIndex + 1);
+        }
+    }
+
+    public void remove(long index) {
+        int pos = findChunk(chunkKey(index));
+        if (pos < 0) {
+            return;
+        }
+        Page page = pages[foundPage];
+        long mask = page.masks[pos];
+        int offset = offset(index);
+        long bit = 1L << offset;
+        if ((mask & bit) != 0) {
+            Object[] chunkValues = page.values[pos];
+            int count = Long.bitCount(mask);
+            int rank = rank(mask, offset);
+            System.arraycopy(chunkValues, rank + 1, chunkValues, rank, count - rank - 1);
+            chunkValues[count - 1] = null;
+            page.masks[pos] = mask & ~bit;
+            size--;
+            if (page.masks[pos] == 0) {
+                removeChunk(foundPage, pos);
+            }
+        }
+    }
+
+    /**
+     * Removes all entries with an index greater than or equal to {@code fromIndex}.
+     */
+    public void removeFrom(long fromIndex) {
+        if (size == 0) {
+            return;
+        }
+        long from = Math.max(fromIndex, 0);
+        int pos = findChunk(chunkKey(from));
+        int pageIndex = foundPage;
+        Page page = pages[pageIndex];
+        if (pos >= 0) {
+            long mask = page.masks[pos];
+            int offset = offset(from);
+            long kept = mask & ((1L << offset) - 1);
+            int keptCount = Long.bitCount(kept);
+            size -= Long.bitCount(mask) - keptCount;
+            Arrays.fill(page.values[pos], keptCount, page.values[pos].length, null);
+            page.masks[pos] = kept;
+            if (kept != 0) {
+                pos++;
+            }
+        } else {
+            pos = -(pos + 1);
+        }
+        size -= page.countEntries(pos);
+        page.remove(pos, page.count);
+        int firstRemovedPage = page.count == 0 ? pageIndex : pageIndex + 1;
+        for (int i = pageIndex + 1; i < pageCount; i++) {
+            size -= pages[i].countEntries(0);
+        }
+        removePages(firstRemovedPage, pageCount);
+    }
+
+    /**
+     * Returns the lowest index, or -1 if empty.
+     */
+    public long firstKey() {
+        if (pageCount == 0) {
+            return -1;
+        }
+        Page page = pages[0];
+        return firstIndex(page.keys[0], page.masks[0]);
+    }
+
+    /**
+     * Returns the highest index, or -1 if empty.
+     */
+    public long lastKey() {
+        if (pageCount == 0) {
+            return -1;
+        }
+        Page page = pages[pageCount - 1];
+        return lastIndex(page.keys[page.count - 1], page.masks[page.count - 1]);
+    }
+
+    /**
+     * Returns the lowest index strictly greater than {@code index}, or -1 if there is none.
+     */
+    public long higherKey(long index) {
+        if (index < 0) {
+            return firstKey();
+        } else if (index == Long.MAX_VALUE || pageCount == 0) {
+            return -1;
+        }
+        long next = index + 1;
+        long chunkKey = chunkKey(next);
+        int pos = findChunk(chunkKey);
+        int pageIndex = foundPage;
+        Page page = pages[pageIndex];
+        if (pos >= 0) {
+            long mask = page.masks[pos] & (-1L << offset(next));
+            if (mask != 0) {
+                return firstIndex(chunkKey, mask);
+            }
+            pos++;
+        } else {
+            pos = -(pos + 1);
+        }
+        if (pos == page.count) {
+            if (++pageIndex == pageCount) {
+                return -1;
+            }
+            page = pages[pageIndex];
+            pos = 0;
+        }
+        return firstIndex(page.keys[pos], page.masks[pos]);
+    }
+
+    /**
+     * Returns the highest index strictly less than {@code index}, or -1 if there is none.
+     */
+    public long lowerKey(long index) {
+        if (index <= 0 || pageCount == 0) {
+            return -1;
+        }
+        long prev = index - 1;
+        long chunkKey = chunkKey(prev);
+        int pos = findChunk(chunkKey);
+        int pageIndex = foundPage;
+        Page page = pages[pageIndex];
+        if (pos >= 0) {
+            long mask = page.masks[pos] & (-1L >>> (CHUNK_MASK - offset(prev)));
+            if (mask != 0) {
+                return lastIndex(chunkKey, mask);
+            }
+            pos--;
+        } else {
+            pos = -(pos + 1) - 1;
+        }
+        if (pos < 0) {
+            if (--pageIndex < 0) {
+                return -1;
+            }
+            page = pages[pageIndex];
+            pos = page.count - 1;
+        }
+        return lastIndex(page.keys[pos], page.masks[pos]);
+    }
+
+    /**
+     * Copies all values into {@code target}, at position {@code index - indexOffset}.
+     */
+    public void copyTo(Object[] target, long indexOffset) {
+        for (int p = 0; p < pageCount; p++) {
+            Page page = pages[p];
+            for (int i = 0; i < page.count; i++) {
+                long base = (page.keys[i] << CHUNK_BITS) - indexOffset;
+                long mask = page.masks[i];
+                Object[] chunkValues = page.values[i];
+                int rank = 0;
+                while (mask != 0) {
+                    int offset = Long.numberOfTrailingZeros(mask);
+                    target[(int) (base + offset)] = chunkValues[rank++];
+                    mask &= mask - 1;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.runtime.array;
+
+import com.oracle.truffle.api.Assumption;
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.js.runtime.JSTruffleOptions;
+import com.oracle.truffle.js.runtime.array.dyn.AbstractDoubleArray;
+import com.oracle.truffle.js.runtime.array.dyn.AbstractIntArray;
+import com.oracle.truffle.js.runtime.array.dyn.AbstractJSObjectArray;
+import com.oracle.truffle.js.runtime.array.dyn.AbstractObjectArray;
+import com.oracle.truffle.js.runtime.array.dyn.AbstractWritableArray;
+
+/**
+ * Allocation site feedback for array literals and the Array constructor.
+ *
+ * Records the most general elements kind (int, double, JS object, object) and the backing store
+ * capacity needed by arrays allocated at this site, so that new arrays can be created with the
+ * final array type and a right-sized backing store instead of going through the constant empty
+ * array, repeated reallocations and int to double to object transitions.
+ *
+ * The capacity is re-evaluated once per window of {@link #WINDOW_SIZE} allocations from a
+ * histogram of the capacities arrays grew to: the site picks the smallest power of two that is
+ * enough for {@link #PERCENTILE} percent of the arrays of the window. Arrays that did not grow are
+ * counted at the current capacity. If no array grew at all, the capacity decays to half, so that
+ * the site shrinks when later arrays stay small; a decay that makes arrays grow again is not
+ * repeated. Every capacity change invalidates compiled code, so the number of changes is bounded by
+ * {@link JSTruffleOptions#MaxArrayAllocationSiteCapacityUpdates}, after which the capacity stays
+ * fixed.
+ *
+ * The feedback is de-tuned (the site becomes untyped for good) if arrays transition to holes or
+ * sparse arrays, to an unrelated elements kind, or change their elements kind too often.
+ */
+public final class ProfiledArrayAllocationSite implements ArrayAllocationSite {
+    private static final ScriptArray UNINIT_ARRAY_TYPE = ScriptArray.createConstantEmptyArray();
+    /** int to double to object. */
+    private static final int MAX_GENERALIZATIONS = 2;
+
+    private static final int KIND_NONE = 0;
+    private static final int KIND_INT = 1;
+    private static final int KIND_DOUBLE = 2;
+    private static final int KIND_JSOBJECT = 3;
+    private static final int KIND_OBJECT = 4;
+
+    private static final int WINDOW_SIZE = 64;
+    private static final int PERCENTILE = 90;
+
+    @CompilationFinal private ScriptArray concreteArrayType = UNINIT_ARRAY_TYPE;
+    @CompilationFinal private int initialCapacity;
+    @CompilationFinal private Assumption assumption = Truffle.getRuntime().createAssumption("Array allocation site (untyped)");
+    private int generalizations;
+
+    /** Number of arrays allocated in the current window. */
+    private int allocations;
+    /** Growth events of the current window by log2 of the new capacity. */
+    private final int[] capacityHistogram = new int[Integer.SIZE];
+    private int capacityUpdates;
+    private boolean decayed;
+    private boolean decayRefuted;
+
+    public ProfiledArrayAllocationSite() {
+        assert JSTruffleOptions.TrackArrayAllocationSites;
+    }
+
+    public boolean isTyped() {
+        return assumption.isValid() && concreteArrayType != UNINIT_ARRAY_TYPE && concreteArrayType != null;
+    }
+
+    @Override
+    public void notifyArrayTransition(ScriptArray arrayType, int length) {
+        CompilerAsserts.neverPartOfCompilation("do not notify array transitions from compiled code");
+        if (concreteArrayType == null) {
+            return;
+        }
+        int newKind = elementsKind(arrayType);
+        if (newKind == KIND_NONE) {
+            detune();
+        } else if (concreteArrayType == UNINIT_ARRAY_TYPE) {
+            update(arrayType, Math.max(initialCapacity, length));
+        } else {
+            int currentKind = elementsKind(concreteArrayType);
+            if (newKind == currentKind) {
+                return;
+            } else if (isMoreGeneral(newKind, currentKind) && generalizations++ < MAX_GENERALIZATIONS) {
+                update(arrayType, initialCapacity);
+            } else {
+                detune();
+            }
+        }
+    }
+
+    @Override
+    public void notifyArrayAllocation() {
+        if (++allocations >= WINDOW_SIZE) {
+            endWindow();
+        }
+    }
+
+    @Override
+    public void notifyArrayGrowth(int newCapacity) {
+        CompilerAsserts.neverPartOfCompilation();
+        if (concreteArrayType == null) {
+            return;
+        }
+        int capacity = Math.min(newCapacity, JSTruffleOptions.MaxArrayAllocationSiteCapacity);
+        capacityHistogram[ceilLog2(capacity)]++;
+        if (concreteArrayType == UNINIT_ARRAY_TYPE) {
+            // not typed yet, so no compiled code depends on the capacity
+            initialCapacity = Math.max(initialCapacity, capacity);
+        } else if (initialCapacity == 0 && capacityUpdates < JSTruffleOptions.MaxArrayAllocationSiteCapacityUpdates) {
+            // nothing learned yet, adopt the first capacity right away
+            capacityUpdates++;
+            update(concreteArrayType, capacity);
+        }
+    }
+
+    @TruffleBoundary
+    private void endWindow() {
+        int grown = 0;
+        for (int count : capacityHistogram) {
+            grown += count;
+        }
+        int windowAllocations = Math.max(allocations, grown);
+        allocations = 0;
+        if (concreteArrayType == null || concreteArrayType == UNINIT_ARRAY_TYPE) {
+            clearHistogram();
+            return;
+        }
+        int newCapacity;
+        if (grown == 0) {
+            newCapacity = decayRefuted ? initialCapacity : Math.max(initialCapacity / 2, Math.min(initialCapacity, JSTruffleOptions.InitialArraySize));
+            decayed = newCapacity != initialCapacity;
+        } else {
+            if (decayed) {
+                // arrays needed the capacity we decayed from
+                decayRefuted = true;
+                decayed = false;
+            }
+            newCapacity = percentileCapacity(windowAllocations - grown, windowAllocations);
+        }
+        clearHistogram();
+        if (newCapacity != initialCapacity && capacityUpdates < JSTruffleOptions.MaxArrayAllocationSiteCapacityUpdates) {
+            capacityUpdates++;
+            update(concreteArrayType, newCapacity);
+        }
+    }
+
+    /**
+     * Returns the smallest power of two (or the current capacity) that is large enough for
+     * {@link #PERCENTILE} percent of the arrays of the window.
+     */
+    private int percentileCapacity(int notGrown, int total) {
+        int needed = (total * PERCENTILE + 99) / 100;
+        int covered = notGrown;
+        if (covered >= needed) {
+            return initialCapacity;
+        }
+        for (int log2 = 0; log2 < capacityHistogram.length; log2++) {
+            covered += capacityHistogram[log2];
+            if (covered >= needed) {
+                return Math.max(initialCapacity, Math.min(1 << log2, JSTruffleOptions.MaxArrayAllocationSiteCapacity));
+            }
+        }
+        return initialCapacity;
+    }
+
+    private void clearHistogram() {
+        for (int i = 0; i < capacityHistogram.length; i++) {
+            capacityHistogram[i] = 0;
+        }
+    }
+
+    private static int ceilLog2(int value) {
+        return value <= 1 ? 0 : Integer.SIZE - Integer.numberOfLeadingZeros(value - 1);
+    }
+
+    @Override
+    public ScriptArray getInitialArrayType() {
+        if (isTyped()) {
+            return concreteArrayType;
+        }
+        return null;
+    }
+
+    @Override
+    public int getInitialCapacity() {
+        return initialCapacity;
+    }
+
+    private void update(ScriptArray arrayType, int capacity) {
+        concreteArrayType = arrayType;
+        initialCapacity = capacity;
+        assumption.invalidate();
+        assumption = Truffle.getRuntime().createAssumption("Array allocation site (typed)");
+    }
+
+    private void detune() {
+        concreteArrayType = null;
+        initialCapacity = 0;
+        assumption.invalidate();
+    }
+
+    private static int elementsKind(ScriptArray arrayType) {
+        if (!(arrayType instanceof AbstractWritableArray) || arrayType.isHolesType()) {
+            return KIND_NONE;
+        } else if (arrayType instanceof AbstractIntArray) {
+            return KIND_INT;
+        } else if (arrayType instanceof AbstractDoubleArray) {
+            return KIND_DOUBLE;
+        } else if (arrayType instanceof AbstractJSObjectArray) {
+            return KIND_JSOBJECT;
+        } else if (arrayType instanceof AbstractObjectArray) {
+            return KIND_OBJECT;
+        }
+        return KIND_NONE;
+    }
+
+    private static boolean isMoreGeneral(int newKind, int currentKind) {
+        return newKind == KIND_OBJECT || (newKind == KIND_DOUBLE && currentKind == KIND_INT);
+    }
+
+    @Override
+    public String toString() {
+        return "ArrayAllocationSite[type=" + concreteArrayType + ", capacity=" + initialCapacity + "]";
+    }
+}
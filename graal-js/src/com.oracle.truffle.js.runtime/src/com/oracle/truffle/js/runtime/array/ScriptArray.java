@@ -63,8 +63,12 @@ import com.oracle.truffle.js.runtime.JSTruffleOptions;
 import com.oracle.truffle.js.runtime.array.dyn.AbstractConstantArray;
 import com.oracle.truffle.js.runtime.array.dyn.ConstantEmptyArray;
 import com.oracle.truffle.js.runtime.array.dyn.ConstantObjectArray;
+import com.oracle.truffle.js.runtime.builtins.JSAbstractArray;
+import com.oracle.truffle.js.runtime.builtins.JSArray;
+import com.oracle.truffle.js.runtime.objects.JSObject;
 import com.oracle.truffle.js.runtime.objects.Null;
 import com.oracle.truffle.js.runtime.objects.Undefined;
+import com.oracle.truffle.js.runtime.util.JSMetrics;
 
 public abstract class ScriptArray {
 
@@ -360,6 +364,23 @@ public abstract class ScriptArray {
         return sb.toString();
     }
 
+    /**
+     * Records a transition between dynamic array types in the context's metrics and the array's
+     * allocation site, and optionally traces it.
+     */
+    protected static final void reportArrayTransition(DynamicObject object, ScriptArray oldArray, ScriptArray newArray, long index, Object value) {
+        JSObject.getJSContext(object).getMetrics().increment(JSMetrics.Counter.ArrayTransition);
+        if (JSTruffleOptions.TrackArrayAllocationSites && CompilerDirectives.inInterpreter() && JSArray.isJSArray(object)) {
+            ArrayAllocationSite site = JSAbstractArray.arrayGetAllocationSite(object);
+            if (site != null) {
+                site.notifyArrayTransition(newArray, newArray.lengthInt(object));
+            }
+        }
+        if (JSTruffleOptions.TraceArrayTransitions) {
+            traceArrayTransition(oldArray, newArray, index, value);
+        }
+    }
+
     @TruffleBoundary
     protected static final void traceArrayTransition(ScriptArray oldArray, ScriptArray newArray, long index, Object value) {
         String access = oldArray.getClass().getSimpleName() + " -> " + newArray.getClass().getSimpleName();
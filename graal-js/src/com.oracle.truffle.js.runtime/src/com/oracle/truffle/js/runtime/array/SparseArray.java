@@ -46,23 +46,27 @@ import static com.oracle.truffle.js.runtime.builtins.JSAbstractArray.arraySetArr
 import static com.oracle.truffle.js.runtime.builtins.JSAbstractArray.arraySetLength;
 
 import java.util.Arrays;
-import java.util.Map;
-import java.util.NoSuchElementException;
-import java.util.TreeMap;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.object.DynamicObject;
-import com.oracle.truffle.js.runtime.Boundaries;
 import com.oracle.truffle.js.runtime.JSRuntime;
+import com.oracle.truffle.js.runtime.array.dyn.HolesObjectArray;
+import com.oracle.truffle.js.runtime.builtins.JSArray;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 
 /**
- * Array that stores its elements in a HashMap-like structure, e.g. in a TreeMap.
+ * Array that stores its elements in a {@link ChunkedSparseMap}.
+ *
+ * Once the elements of a fast array become dense again (at least half of the range between the
+ * first and the last element is populated), it is converted back to a {@link HolesObjectArray}.
  */
 public final class SparseArray extends DynamicArray {
 
     private static final SparseArray SPARSE_ARRAY = new SparseArray(INTEGRITY_LEVEL_NONE, createCache());
 
+    /** Minimum number of elements before converting back to a contiguous array. */
+    private static final int MIN_DENSE_ELEMENTS = ChunkedSparseMap.CHUNK_SIZE;
+
     private SparseArray(int integrityLevel, DynamicArrayCache cache) {
         super(integrityLevel, cache);
     }
@@ -72,7 +76,7 @@ public final class SparseArray extends DynamicArray {
     }
 
     public static SparseArray makeSparseArray(DynamicObject object, long length) {
-        TreeMap<Long, Object> arrayMap = createArrayMap();
+        ChunkedSparseMap arrayMap = createArrayMap();
         arraySetLength(object, length);
         arraySetArray(object, arrayMap);
         return createSparseArray();
@@ -82,7 +86,7 @@ public final class SparseArray extends DynamicArray {
         if (fromArray instanceof SparseArray) {
             return (SparseArray) fromArray;
         }
-        TreeMap<Long, Object> arrayMap = createArrayMap();
+        ChunkedSparseMap arrayMap = createArrayMap();
         copyArrayToMap(object, fromArray, arrayMap);
         arraySetLength(object, fromArray.length(object));
         arraySetArray(object, arrayMap);
@@ -90,20 +94,19 @@ public final class SparseArray extends DynamicArray {
     }
 
     @TruffleBoundary
-    public static TreeMap<Long, Object> createArrayMap() {
-        return new TreeMap<>();
+    public static ChunkedSparseMap createArrayMap() {
+        return new ChunkedSparseMap();
     }
 
-    protected static void copyArrayToMap(DynamicObject object, ScriptArray fromArray, Map<Long, Object> toMap) {
+    protected static void copyArrayToMap(DynamicObject object, ScriptArray fromArray, ChunkedSparseMap toMap) {
         for (long index = fromArray.firstElementIndex(object); index <= fromArray.lastElementIndex(object); index = fromArray.nextElementIndex(object, index)) {
             assert fromArray.hasElement(object, index);
-            Boundaries.mapPut(toMap, index, fromArray.getElement(object, index));
+            toMap.put(index, fromArray.getElement(object, index));
         }
     }
 
-    @SuppressWarnings("unchecked")
-    private static TreeMap<Long, Object> arrayMap(DynamicObject object, boolean condition) {
-        return (TreeMap<Long, Object>) arrayGetArray(object, condition);
+    private static ChunkedSparseMap arrayMap(DynamicObject object, boolean condition) {
+        return (ChunkedSparseMap) arrayGetArray(object, condition);
     }
 
     @TruffleBoundary
@@ -124,13 +127,37 @@ public final class SparseArray extends DynamicArray {
     @TruffleBoundary
     @Override
     public ScriptArray setElementImpl(DynamicObject object, long index, Object value, boolean strict, boolean condition) {
-        arrayMap(object, condition).put(index, value);
+        ChunkedSparseMap arrayMap = arrayMap(object, condition);
+        boolean added = arrayMap.put(index, value);
         if (index >= length(object, condition)) {
             arraySetLength(object, index + 1);
         }
+        if (added && isDense(object, arrayMap, condition)) {
+            return toHoles(object, arrayMap, index, value, condition);
+        }
         return this;
     }
 
+    private boolean isDense(DynamicObject object, ChunkedSparseMap arrayMap, boolean condition) {
+        int count = arrayMap.size();
+        if (count < MIN_DENSE_ELEMENTS || integrityLevel != INTEGRITY_LEVEL_NONE || !JSArray.isJSFastArray(object)) {
+            return false;
+        }
+        long span = arrayMap.lastKey() - arrayMap.firstKey() + 1;
+        return span <= 2L * count && length(object, condition) <= Integer.MAX_VALUE;
+    }
+
+    private ScriptArray toHoles(DynamicObject object, ChunkedSparseMap arrayMap, long index, Object value, boolean condition) {
+        long firstIndex = arrayMap.firstKey();
+        int usedLength = (int) (arrayMap.lastKey() - firstIndex + 1);
+        Object[] array = new Object[usedLength];
+        arrayMap.copyTo(array, firstIndex);
+        int holeCount = usedLength - arrayMap.size();
+        ScriptArray newArray = HolesObjectArray.makeHolesObjectArray(object, lengthInt(object, condition), array, firstIndex, 0, usedLength, holeCount, integrityLevel);
+        reportArrayTransition(object, this, newArray, index, value);
+        return newArray;
+    }
+
     @Override
     public long length(DynamicObject object, boolean condition) {
         return arrayGetLength(object, condition);
@@ -149,42 +176,34 @@ public final class SparseArray extends DynamicArray {
     @Override
     public SparseArray setLengthImpl(DynamicObject object, long len, boolean condition, ProfileHolder profile) {
         arraySetLength(object, len);
-        arrayMap(object, condition).tailMap(len).clear();
+        arrayMap(object, condition).removeFrom(len);
         return this;
     }
 
     @TruffleBoundary
     @Override
     public long firstElementIndex(DynamicObject object, boolean condition) {
-        try {
-            return arrayMap(object, condition).firstKey();
-        } catch (NoSuchElementException ex) {
-            return 0;
-        }
+        ChunkedSparseMap arrayMap = arrayMap(object, condition);
+        return arrayMap.isEmpty() ? 0 : arrayMap.firstKey();
     }
 
     @TruffleBoundary
     @Override
     public long lastElementIndex(DynamicObject object, boolean condition) {
-        try {
-            return arrayMap(object, condition).lastKey();
-        } catch (NoSuchElementException ex) {
-            return -1;
-        }
+        return arrayMap(object, condition).lastKey();
     }
 
     @TruffleBoundary
     @Override
     public long nextElementIndex(DynamicObject object, long index, boolean condition) {
-        Long nextIndex = arrayMap(object, condition).higherKey(index);
-        return nextIndex != null ? nextIndex.longValue() : JSRuntime.MAX_SAFE_INTEGER_LONG;
+        long nextIndex = arrayMap(object, condition).higherKey(index);
+        return nextIndex >= 0 ? nextIndex : JSRuntime.MAX_SAFE_INTEGER_LONG;
     }
 
     @TruffleBoundary
     @Override
     public long previousElementIndex(DynamicObject object, long index, boolean condition) {
-        Long nextIndex = arrayMap(object, condition).lowerKey(index);
-        return nextIndex != null ? nextIndex.longValue() : -1;
+        return arrayMap(object, condition).lowerKey(index);
     }
 
     @Override
@@ -192,11 +211,7 @@ public final class SparseArray extends DynamicArray {
         assert length(object) <= Integer.MAX_VALUE;
         Object[] newArray = new Object[(int) length(object)];
         Arrays.fill(newArray, Undefined.instance);
-        for (long i = firstElementIndex(object); i <= lastElementIndex(object); i = nextElementIndex(object, i)) {
-            if (i >= 0) {
-                newArray[(int) i] = this.getElement(object, i);
-            }
-        }
+        arrayMap(object, arrayCondition()).copyTo(newArray, 0);
         return newArray;
     }
 
@@ -210,10 +225,7 @@ public final class SparseArray extends DynamicArray {
     @TruffleBoundary
     @Override
     public boolean hasElement(DynamicObject object, long index, boolean condition) {
-        if (arrayMap(object, condition).containsKey(index)) {
-            return true;
-        }
-        return false;
+        return arrayMap(object, condition).containsKey(index);
     }
 
     @Override
@@ -226,48 +238,52 @@ public final class SparseArray extends DynamicArray {
         return true;
     }
 
+    @TruffleBoundary
     @Override
     public ScriptArray removeRangeImpl(DynamicObject object, long start, long end) {
         assert start <= end;
         assert start >= 0;
         assert end < length(object);
 
+        ChunkedSparseMap arrayMap = arrayMap(object, arrayCondition());
         long delta = end - start + 1;
-        long pos = start;
-        if (!hasElement(object, pos)) {
-            pos = nextElementIndex(object, pos, arrayCondition());
-        }
+        long pos = arrayMap.higherKey(start - 1);
         // delete the elements in the removed range
-        while (pos <= end) {
-            deleteElementImpl(object, pos, false, arrayCondition());
-            pos = nextElementIndex(object, pos, arrayCondition());
+        while (pos >= 0 && pos <= end) {
+            arrayMap.remove(pos);
+            pos = arrayMap.higherKey(pos);
         }
         // move all element higher downwards
-        while (pos < length(object)) {
-            setElement(object, pos - delta, getElement(object, pos), false);
-            deleteElementImpl(object, pos, false, arrayCondition());
-            pos = nextElementIndex(object, pos, arrayCondition());
+        while (pos >= 0) {
+            moveElement(object, arrayMap, pos, pos - delta);
+            pos = arrayMap.higherKey(pos);
         }
         return this;
     }
 
+    @TruffleBoundary
     @Override
     public ScriptArray addRangeImpl(DynamicObject object, long offset, int size) {
         assert offset < length(object);
 
-        long pos = length(object);
-        if (!hasElement(object, pos)) {
-            pos = previousElementIndex(object, pos, arrayCondition());
-        }
-        // move all element higher upwardswards
+        ChunkedSparseMap arrayMap = arrayMap(object, arrayCondition());
+        long pos = arrayMap.lastKey();
+        // move all element higher upwards
         while (pos >= offset) {
-            setElement(object, pos + size, getElement(object, pos), false);
-            deleteElementImpl(object, pos, false, arrayCondition());
-            pos = previousElementIndex(object, pos, arrayCondition());
+            moveElement(object, arrayMap, pos, pos + size);
+            pos = arrayMap.lowerKey(pos);
         }
         return this;
     }
 
+    private static void moveElement(DynamicObject object, ChunkedSparseMap arrayMap, long from, long to) {
+        arrayMap.put(to, arrayMap.get(from));
+        arrayMap.remove(from);
+        if (to >= arrayGetLength(object)) {
+            arraySetLength(object, to + 1);
+        }
+    }
+
     @Override
     protected DynamicArray withIntegrityLevel(int newIntegrityLevel) {
         return new SparseArray(newIntegrityLevel, cache);
@@ -42,15 +42,18 @@ package com.oracle.truffle.js.runtime.array;
 
 import static com.oracle.truffle.js.runtime.builtins.JSArrayBufferView.typedArrayGetByteArray;
 import static com.oracle.truffle.js.runtime.builtins.JSArrayBufferView.typedArrayGetByteBuffer;
+import static com.oracle.truffle.js.runtime.builtins.JSArrayBufferView.typedArrayGetReadOnlyByteBuffer;
 import static com.oracle.truffle.js.runtime.builtins.JSArrayBufferView.typedArrayGetLength;
 import static com.oracle.truffle.js.runtime.builtins.JSArrayBufferView.typedArrayGetOffset;
 
 import java.lang.reflect.Field;
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 
+import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.js.runtime.Errors;
 import com.oracle.truffle.js.runtime.JSRuntime;
@@ -65,12 +68,18 @@ public abstract class TypedArray extends ScriptArray {
     // protected final byte[] buffer;
 
     private final boolean offset;
+    private final boolean readOnly;
     private final int bytesPerElement;
     private final String name;
     private final TypedArrayFactory factory;
 
     protected TypedArray(TypedArrayFactory factory, boolean offset) {
+        this(factory, offset, false);
+    }
+
+    protected TypedArray(TypedArrayFactory factory, boolean offset, boolean readOnly) {
         this.offset = offset;
+        this.readOnly = readOnly;
         this.bytesPerElement = factory.bytesPerElement();
         this.name = factory.getName();
         this.factory = factory;
@@ -142,15 +151,22 @@ public abstract class TypedArray extends ScriptArray {
         return typedArrayGetByteBuffer(object, condition);
     }
 
-    /**
-     * Use when native byte order is required.
-     */
-    protected static ByteBuffer withNativeOrder(ByteBuffer buffer) {
-        return buffer.duplicate().order(ByteOrder.nativeOrder());
+    public final Object getBufferFromTypedArray(DynamicObject object, boolean condition) {
+        if (isDirect()) {
+            return readOnly ? typedArrayGetReadOnlyByteBuffer(object, condition) : getByteBuffer(object, condition);
+        } else {
+            return getByteArray(object, condition);
+        }
     }
 
-    public final Object getBufferFromTypedArray(DynamicObject object, boolean condition) {
-        return isDirect() ? getByteBuffer(object, condition) : getByteArray(object, condition);
+    /**
+     * Typed arrays over read-only buffers use separate array types, so for all other arrays this
+     * check folds away in compiled code.
+     */
+    protected final void checkWritable() {
+        if (readOnly) {
+            throw Errors.createTypeErrorReadOnlyBuffer();
+        }
     }
 
     protected final int getOffset(DynamicObject object, boolean condition) {
@@ -236,14 +252,19 @@ public abstract class TypedArray extends ScriptArray {
         return offset;
     }
 
+    /**
+     * Returns {@code true} if this array type is used for views of a read-only direct buffer.
+     */
+    public final boolean isReadOnly() {
+        return readOnly;
+    }
+
     protected static BufferAccess getBufferAccess(boolean littleEndian) {
         return littleEndian ? TypedArray.LITTLE_ENDIAN_ORDER : TypedArray.BIG_ENDIAN_ORDER;
     }
 
-    protected static ByteBuffer getByteBufferFromBuffer(DynamicObject buffer, boolean littleEndian, boolean condition) {
-        ByteBuffer byteBuffer = JSArrayBuffer.getDirectByteBuffer(buffer, condition);
-        ByteOrder byteOrder = littleEndian ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
-        return byteBuffer.duplicate().order(byteOrder);
+    protected static ByteBufferAccess getByteBufferAccess(boolean littleEndian) {
+        return littleEndian ? TypedArray.LITTLE_ENDIAN_BYTE_BUFFER : TypedArray.BIG_ENDIAN_BYTE_BUFFER;
     }
 
     public abstract Number getBufferElement(DynamicObject buffer, int index, boolean littleEndian, boolean condition);
@@ -259,6 +280,10 @@ public abstract class TypedArray extends ScriptArray {
             super(factory, offset);
         }
 
+        protected TypedIntArray(TypedArrayFactory factory, boolean offset, boolean readOnly) {
+            super(factory, offset, readOnly);
+        }
+
         @Override
         public Object getElement(DynamicObject object, long index, boolean condition) {
             if (hasElement(object, index, condition)) {
@@ -287,6 +312,7 @@ public abstract class TypedArray extends ScriptArray {
         }
 
         public final void setInt(DynamicObject object, int index, int value, boolean condition) {
+            checkWritable();
             setIntImpl(getBufferFromTypedArrayT(object, condition), getOffset(object, condition), index, value);
         }
 
@@ -298,6 +324,24 @@ public abstract class TypedArray extends ScriptArray {
         public abstract int getIntImpl(T buffer, int offset, int index);
 
         public abstract void setIntImpl(T buffer, int offset, int index, int value);
+
+        @Override
+        public Number getBufferElement(DynamicObject buffer, int index, boolean littleEndian, boolean condition) {
+            return getBufferElementInt(buffer, index, littleEndian, condition);
+        }
+
+        @Override
+        public void setBufferElement(DynamicObject buffer, int index, boolean littleEndian, boolean condition, Number value) {
+            setBufferElementInt(buffer, index, littleEndian, condition, JSRuntime.toInt32(value));
+        }
+
+        /**
+         * Reads the element at the given byte index of the array buffer. Uint32 values are
+         * returned as their (signed) int bit pattern.
+         */
+        public abstract int getBufferElementInt(DynamicObject buffer, int index, boolean littleEndian, boolean condition);
+
+        public abstract void setBufferElementInt(DynamicObject buffer, int index, boolean littleEndian, boolean condition, int value);
     }
 
     static final int INT8_BYTES_PER_ELEMENT = 1;
@@ -318,19 +362,19 @@ public abstract class TypedArray extends ScriptArray {
         }
 
         @Override
-        public Number getBufferElement(DynamicObject buffer, int index, boolean littleEndian, boolean condition) {
+        public int getBufferElementInt(DynamicObject buffer, int index, boolean littleEndian, boolean condition) {
             return getBufferAccess(littleEndian).getInt8(JSArrayBuffer.getByteArray(buffer, condition), 0, index, 1);
         }
 
         @Override
-        public void setBufferElement(DynamicObject buffer, int index, boolean littleEndian, boolean condition, Number value) {
-            getBufferAccess(littleEndian).putInt8(JSArrayBuffer.getByteArray(buffer, condition), 0, index, 1, JSRuntime.toInt32(value));
+        public void setBufferElementInt(DynamicObject buffer, int index, boolean littleEndian, boolean condition, int value) {
+            getBufferAccess(littleEndian).putInt8(JSArrayBuffer.getByteArray(buffer, condition), 0, index, 1, value);
         }
     }
 
     public static final class DirectInt8Array extends TypedIntArray<ByteBuffer> {
-        DirectInt8Array(TypedArrayFactory factory, boolean offset) {
-            super(factory, offset);
+        DirectInt8Array(TypedArrayFactory factory, boolean offset, boolean readOnly) {
+            super(factory, offset, readOnly);
         }
 
         @Override
@@ -349,13 +393,14 @@ public abstract class TypedArray extends ScriptArray {
         }
 
         @Override
-        public Number getBufferElement(DynamicObject buffer, int index, boolean littleEndian, boolean condition) {
-            return (int) getByteBufferFromBuffer(buffer, littleEndian, condition).get(index);
+        public int getBufferElementInt(DynamicObject buffer, int index, boolean littleEndian, boolean condition) {
+            return JSArrayBuffer.getDirectByteBuffer(buffer, condition).get(index);
         }
 
         @Override
-        public void setBufferElement(DynamicObject buffer, int index, boolean littleEndian, boolean condition, Number value) {
-            getByteBufferFromBuffer(buffer, littleEndian, condition).put(index, (byte) JSRuntime.toInt32(value));
+        public void setBufferElementInt(DynamicObject buffer, int index, boolean littleEndian, boolean condition, int value) {
+            checkWritable();
+            JSArrayBuffer.getDirectByteBuffer(buffer, condition).put(index, (byte) value);
         }
     }
 
@@ -377,19 +422,19 @@ public abstract class TypedArray extends ScriptArray {
         }
 
         @Override
-        public Number getBufferElement(DynamicObject buffer, int index, boolean littleEndian, boolean condition) {
+        public int getBufferElementInt(DynamicObject buffer, int index, boolean littleEndian, boolean condition) {
             return getBufferAccess(littleEndian).getUint8(JSArrayBuffer.getByteArray(buffer, condition), 0, index, 1);
         }
 
         @Override
-        public void setBufferElement(DynamicObject buffer, int index, boolean littleEndian, boolean condition, Number value) {
-            getBufferAccess(littleEndian).putInt8(JSArrayBuffer.getByteArray(buffer, condition), 0, index, 1, JSRuntime.toInt32(value));
+        public void setBufferElementInt(DynamicObject buffer, int index, boolean littleEndian, boolean condition, int value) {
+            getBufferAccess(littleEndian).putInt8(JSArrayBuffer.getByteArray(buffer, condition), 0, index, 1, value);
         }
     }
 
     public static final class DirectUint8Array extends TypedIntArray<ByteBuffer> {
-        DirectUint8Array(TypedArrayFactory factory, boolean offset) {
-            super(factory, offset);
+        DirectUint8Array(TypedArrayFactory factory, boolean offset, boolean readOnly) {
+            super(factory, offset, readOnly);
         }
 
         @Override
@@ -408,13 +453,14 @@ public abstract class TypedArray extends ScriptArray {
         }
 
         @Override
-        public Number getBufferElement(DynamicObject buffer, int index, boolean littleEndian, boolean condition) {
-            return getByteBufferFromBuffer(buffer, littleEndian, condition).get(index) & 0xff;
+        public int getBufferElementInt(DynamicObject buffer, int index, boolean littleEndian, boolean condition) {
+            return JSArrayBuffer.getDirectByteBuffer(buffer, condition).get(index) & 0xff;
         }
 
         @Override
-        public void setBufferElement(DynamicObject buffer, int index, boolean littleEndian, boolean condition, Number value) {
-            getByteBufferFromBuffer(buffer, littleEndian, condition).put(index, (byte) JSRuntime.toInt32(value));
+        public void setBufferElementInt(DynamicObject buffer, int index, boolean littleEndian, boolean condition, int value) {
+            checkWritable();
+            JSArrayBuffer.getDirectByteBuffer(buffer, condition).put(index, (byte) value);
         }
     }
 
@@ -423,6 +469,10 @@ public abstract class TypedArray extends ScriptArray {
             super(factory, offset);
         }
 
+        private AbstractUint8ClampedArray(TypedArrayFactory factory, boolean offset, boolean readOnly) {
+            super(factory, offset, readOnly);
+        }
+
         @Override
         public TypedIntArray<T> setElementImpl(DynamicObject object, long index, Object value, boolean strict, boolean condition) {
             if (hasElement(object, index, condition)) {
@@ -431,6 +481,11 @@ public abstract class TypedArray extends ScriptArray {
             return this;
         }
 
+        @Override
+        public void setBufferElement(DynamicObject buffer, int index, boolean littleEndian, boolean condition, Number value) {
+            setBufferElementInt(buffer, index, littleEndian, condition, toInt(JSRuntime.toDouble(value)));
+        }
+
         protected static int uint8Clamp(int value) {
             return value < 0 ? 0 : (value > 0xff ? 0xff : value);
         }
@@ -456,19 +511,19 @@ public abstract class TypedArray extends ScriptArray {
         }
 
         @Override
-        public Number getBufferElement(DynamicObject buffer, int index, boolean littleEndian, boolean condition) {
+        public int getBufferElementInt(DynamicObject buffer, int index, boolean littleEndian, boolean condition) {
             return getBufferAccess(littleEndian).getUint8(JSArrayBuffer.getByteArray(buffer, condition), 0, index, 1);
         }
 
         @Override
-        public void setBufferElement(DynamicObject buffer, int index, boolean littleEndian, boolean condition, Number value) {
-            getBufferAccess(littleEndian).putInt8(JSArrayBuffer.getByteArray(buffer, condition), 0, index, 1, uint8Clamp(toInt(JSRuntime.toDouble(value))));
+        public void setBufferElementInt(DynamicObject buffer, int index, boolean littleEndian, boolean condition, int value) {
+            getBufferAccess(littleEndian).putInt8(JSArrayBuffer.getByteArray(buffer, condition), 0, index, 1, uint8Clamp(value));
         }
     }
 
     public static final class DirectUint8ClampedArray extends AbstractUint8ClampedArray<ByteBuffer> {
-        DirectUint8ClampedArray(TypedArrayFactory factory, boolean offset) {
-            super(factory, offset);
+        DirectUint8ClampedArray(TypedArrayFactory factory, boolean offset, boolean readOnly) {
+            super(factory, offset, readOnly);
         }
 
         @Override
@@ -487,13 +542,14 @@ public abstract class TypedArray extends ScriptArray {
         }
 
         @Override
-        public Number getBufferElement(DynamicObject buffer, int index, boolean littleEndian, boolean condition) {
-            return getByteBufferFromBuffer(buffer, littleEndian, condition).get(index) & 0xff;
+        public int getBufferElementInt(DynamicObject buffer, int index, boolean littleEndian, boolean condition) {
+            return JSArrayBuffer.getDirectByteBuffer(buffer, condition).get(index) & 0xff;
         }
 
         @Override
-        public void setBufferElement(DynamicObject buffer, int index, boolean littleEndian, boolean condition, Number value) {
-            getByteBufferFromBuffer(buffer, littleEndian, condition).put(index, (byte) uint8Clamp(toInt(JSRuntime.toDouble(value))));
+        public void setBufferElementInt(DynamicObject buffer, int index, boolean littleEndian, boolean condition, int value) {
+            checkWritable();
+            JSArrayBuffer.getDirectByteBuffer(buffer, condition).put(index, (byte) uint8Clamp(value));
         }
     }
 
@@ -515,29 +571,29 @@ public abstract class TypedArray extends ScriptArray {
         }
 
         @Override
-        public Number getBufferElement(DynamicObject buffer, int index, boolean littleEndian, boolean condition) {
+        public int getBufferElementInt(DynamicObject buffer, int index, boolean littleEndian, boolean condition) {
             return getBufferAccess(littleEndian).getInt16(JSArrayBuffer.getByteArray(buffer, condition), 0, index, 1);
         }
 
         @Override
-        public void setBufferElement(DynamicObject buffer, int index, boolean littleEndian, boolean condition, Number value) {
-            getBufferAccess(littleEndian).putInt16(JSArrayBuffer.getByteArray(buffer, condition), 0, index, 1, JSRuntime.toInt32(value));
+        public void setBufferElementInt(DynamicObject buffer, int index, boolean littleEndian, boolean condition, int value) {
+            getBufferAccess(littleEndian).putInt16(JSArrayBuffer.getByteArray(buffer, condition), 0, index, 1, value);
         }
     }
 
     public static final class DirectInt16Array extends TypedIntArray<ByteBuffer> {
-        DirectInt16Array(TypedArrayFactory factory, boolean offset) {
-            super(factory, offset);
+        DirectInt16Array(TypedArrayFactory factory, boolean offset, boolean readOnly) {
+            super(factory, offset, readOnly);
         }
 
         @Override
         public int getIntImpl(ByteBuffer buffer, int offset, int index) {
-            return withNativeOrder(buffer).getShort(offset + index * INT16_BYTES_PER_ELEMENT);
+            return NATIVE_ORDER.getInt16(buffer, offset + index * INT16_BYTES_PER_ELEMENT);
         }
 
         @Override
         public void setIntImpl(ByteBuffer buffer, int offset, int index, int value) {
-            withNativeOrder(buffer).putShort(offset + index * INT16_BYTES_PER_ELEMENT, (short) value);
+            NATIVE_ORDER.putInt16(buffer, offset + index * INT16_BYTES_PER_ELEMENT, value);
         }
 
         @Override
@@ -546,13 +602,14 @@ public abstract class TypedArray extends ScriptArray {
         }
 
         @Override
-        public Number getBufferElement(DynamicObject buffer, int index, boolean littleEndian, boolean condition) {
-            return (int) getByteBufferFromBuffer(buffer, littleEndian, condition).getShort(index);
+        public int getBufferElementInt(DynamicObject buffer, int index, boolean littleEndian, boolean condition) {
+            return getByteBufferAccess(littleEndian).getInt16(JSArrayBuffer.getDirectByteBuffer(buffer, condition), index);
         }
 
         @Override
-        public void setBufferElement(DynamicObject buffer, int index, boolean littleEndian, boolean condition, Number value) {
-            getByteBufferFromBuffer(buffer, littleEndian, condition).putShort(index, (short) JSRuntime.toInt32(value));
+        public void setBufferElementInt(DynamicObject buffer, int index, boolean littleEndian, boolean condition, int value) {
+            checkWritable();
+            getByteBufferAccess(littleEndian).putInt16(JSArrayBuffer.getDirectByteBuffer(buffer, condition), index, value);
         }
     }
 
@@ -574,29 +631,29 @@ public abstract class TypedArray extends ScriptArray {
         }
 
         @Override
-        public Number getBufferElement(DynamicObject buffer, int index, boolean littleEndian, boolean condition) {
+        public int getBufferElementInt(DynamicObject buffer, int index, boolean littleEndian, boolean condition) {
             return getBufferAccess(littleEndian).getUint16(JSArrayBuffer.getByteArray(buffer, condition), 0, index, 1);
         }
 
         @Override
-        public void setBufferElement(DynamicObject buffer, int index, boolean littleEndian, boolean condition, Number value) {
-            getBufferAccess(littleEndian).putInt16(JSArrayBuffer.getByteArray(buffer, condition), 0, index, 1, JSRuntime.toInt32(value));
+        public void setBufferElementInt(DynamicObject buffer, int index, boolean littleEndian, boolean condition, int value) {
+            getBufferAccess(littleEndian).putInt16(JSArrayBuffer.getByteArray(buffer, condition), 0, index, 1, value);
         }
     }
 
     public static final class DirectUint16Array extends TypedIntArray<ByteBuffer> {
-        DirectUint16Array(TypedArrayFactory factory, boolean offset) {
-            super(factory, offset);
+        DirectUint16Array(TypedArrayFactory factory, boolean offset, boolean readOnly) {
+            super(factory, offset, readOnly);
         }
 
         @Override
         public int getIntImpl(ByteBuffer buffer, int offset, int index) {
-            return withNativeOrder(buffer).getChar(offset + index * UINT16_BYTES_PER_ELEMENT);
+            return NATIVE_ORDER.getUint16(buffer, offset + index * UINT16_BYTES_PER_ELEMENT);
         }
 
         @Override
         public void setIntImpl(ByteBuffer buffer, int offset, int index, int value) {
-            withNativeOrder(buffer).putChar(offset + index * UINT16_BYTES_PER_ELEMENT, (char) value);
+            NATIVE_ORDER.putInt16(buffer, offset + index * UINT16_BYTES_PER_ELEMENT, value);
         }
 
         @Override
@@ -605,13 +662,14 @@ public abstract class TypedArray extends ScriptArray {
         }
 
         @Override
-        public Number getBufferElement(DynamicObject buffer, int index, boolean littleEndian, boolean condition) {
-            return (int) getByteBufferFromBuffer(buffer, littleEndian, condition).getChar(index);
+        public int getBufferElementInt(DynamicObject buffer, int index, boolean littleEndian, boolean condition) {
+            return getByteBufferAccess(littleEndian).getUint16(JSArrayBuffer.getDirectByteBuffer(buffer, condition), index);
         }
 
         @Override
-        public void setBufferElement(DynamicObject buffer, int index, boolean littleEndian, boolean condition, Number value) {
-            getByteBufferFromBuffer(buffer, littleEndian, condition).putChar(index, (char) JSRuntime.toInt32(value));
+        public void setBufferElementInt(DynamicObject buffer, int index, boolean littleEndian, boolean condition, int value) {
+            checkWritable();
+            getByteBufferAccess(littleEndian).putInt16(JSArrayBuffer.getDirectByteBuffer(buffer, condition), index, value);
         }
     }
 
@@ -633,29 +691,29 @@ public abstract class TypedArray extends ScriptArray {
         }
 
         @Override
-        public Number getBufferElement(DynamicObject buffer, int index, boolean littleEndian, boolean condition) {
+        public int getBufferElementInt(DynamicObject buffer, int index, boolean littleEndian, boolean condition) {
             return getBufferAccess(littleEndian).getInt32(JSArrayBuffer.getByteArray(buffer, condition), 0, index, 1);
         }
 
         @Override
-        public void setBufferElement(DynamicObject buffer, int index, boolean littleEndian, boolean condition, Number value) {
-            getBufferAccess(littleEndian).putInt32(JSArrayBuffer.getByteArray(buffer, condition), 0, index, 1, JSRuntime.toInt32(value));
+        public void setBufferElementInt(DynamicObject buffer, int index, boolean littleEndian, boolean condition, int value) {
+            getBufferAccess(littleEndian).putInt32(JSArrayBuffer.getByteArray(buffer, condition), 0, index, 1, value);
         }
     }
 
     public static final class DirectInt32Array extends TypedIntArray<ByteBuffer> {
-        DirectInt32Array(TypedArrayFactory factory, boolean offset) {
-            super(factory, offset);
+        DirectInt32Array(TypedArrayFactory factory, boolean offset, boolean readOnly) {
+            super(factory, offset, readOnly);
         }
 
         @Override
         public int getIntImpl(ByteBuffer buffer, int offset, int index) {
-            return withNativeOrder(buffer).getInt(offset + index * INT32_BYTES_PER_ELEMENT);
+            return NATIVE_ORDER.getInt32(buffer, offset + index * INT32_BYTES_PER_ELEMENT);
         }
 
         @Override
         public void setIntImpl(ByteBuffer buffer, int offset, int index, int value) {
-            withNativeOrder(buffer).putInt(offset + index * INT32_BYTES_PER_ELEMENT, value);
+            NATIVE_ORDER.putInt32(buffer, offset + index * INT32_BYTES_PER_ELEMENT, value);
         }
 
         @Override
@@ -664,13 +722,14 @@ public abstract class TypedArray extends ScriptArray {
         }
 
         @Override
-        public Number getBufferElement(DynamicObject buffer, int index, boolean littleEndian, boolean condition) {
-            return getByteBufferFromBuffer(buffer, littleEndian, condition).getInt(index);
+        public int getBufferElementInt(DynamicObject buffer, int index, boolean littleEndian, boolean condition) {
+            return getByteBufferAccess(littleEndian).getInt32(JSArrayBuffer.getDirectByteBuffer(buffer, condition), index);
         }
 
         @Override
-        public void setBufferElement(DynamicObject buffer, int index, boolean littleEndian, boolean condition, Number value) {
-            getByteBufferFromBuffer(buffer, littleEndian, condition).putInt(index, JSRuntime.toInt32(value));
+        public void setBufferElementInt(DynamicObject buffer, int index, boolean littleEndian, boolean condition, int value) {
+            checkWritable();
+            getByteBufferAccess(littleEndian).putInt32(JSArrayBuffer.getDirectByteBuffer(buffer, condition), index, value);
         }
     }
 
@@ -681,6 +740,10 @@ public abstract class TypedArray extends ScriptArray {
             super(factory, offset);
         }
 
+        private AbstractUint32Array(TypedArrayFactory factory, boolean offset, boolean readOnly) {
+            super(factory, offset, readOnly);
+        }
+
         @Override
         public Object getElement(DynamicObject object, long index, boolean condition) {
             if (hasElement(object, index, condition)) {
@@ -704,6 +767,11 @@ public abstract class TypedArray extends ScriptArray {
             assert hasElement(object, index, condition);
             return toUint32(getInt(object, (int) index, condition));
         }
+
+        @Override
+        public Number getBufferElement(DynamicObject buffer, int index, boolean littleEndian, boolean condition) {
+            return toUint32(getBufferElementInt(buffer, index, littleEndian, condition));
+        }
     }
 
     public static final class Uint32Array extends AbstractUint32Array<byte[]> {
@@ -722,29 +790,29 @@ public abstract class TypedArray extends ScriptArray {
         }
 
         @Override
-        public Number getBufferElement(DynamicObject buffer, int index, boolean littleEndian, boolean condition) {
-            return toUint32((int) getBufferAccess(littleEndian).getUint32(JSArrayBuffer.getByteArray(buffer, condition), 0, index, 1));
+        public int getBufferElementInt(DynamicObject buffer, int index, boolean littleEndian, boolean condition) {
+            return getBufferAccess(littleEndian).getInt32(JSArrayBuffer.getByteArray(buffer, condition), 0, index, 1);
         }
 
         @Override
-        public void setBufferElement(DynamicObject buffer, int index, boolean littleEndian, boolean condition, Number value) {
-            getBufferAccess(littleEndian).putInt32(JSArrayBuffer.getByteArray(buffer, condition), 0, index, 1, JSRuntime.toInt32(value));
+        public void setBufferElementInt(DynamicObject buffer, int index, boolean littleEndian, boolean condition, int value) {
+            getBufferAccess(littleEndian).putInt32(JSArrayBuffer.getByteArray(buffer, condition), 0, index, 1, value);
         }
     }
 
     public static final class DirectUint32Array extends AbstractUint32Array<ByteBuffer> {
-        DirectUint32Array(TypedArrayFactory factory, boolean offset) {
-            super(factory, offset);
+        DirectUint32Array(TypedArrayFactory factory, boolean offset, boolean readOnly) {
+            super(factory, offset, readOnly);
         }
 
         @Override
         public int getIntImpl(ByteBuffer buffer, int offset, int index) {
-            return withNativeOrder(buffer).getInt(offset + index * UINT32_BYTES_PER_ELEMENT);
+            return NATIVE_ORDER.getInt32(buffer, offset + index * UINT32_BYTES_PER_ELEMENT);
         }
 
         @Override
         public void setIntImpl(ByteBuffer buffer, int offset, int index, int value) {
-            withNativeOrder(buffer).putInt(offset + index * UINT32_BYTES_PER_ELEMENT, value);
+            NATIVE_ORDER.putInt32(buffer, offset + index * UINT32_BYTES_PER_ELEMENT, value);
         }
 
         @Override
@@ -753,13 +821,14 @@ public abstract class TypedArray extends ScriptArray {
         }
 
         @Override
-        public Number getBufferElement(DynamicObject buffer, int index, boolean littleEndian, boolean condition) {
-            return toUint32(getByteBufferFromBuffer(buffer, littleEndian, condition).getInt(index));
+        public int getBufferElementInt(DynamicObject buffer, int index, boolean littleEndian, boolean condition) {
+            return getByteBufferAccess(littleEndian).getInt32(JSArrayBuffer.getDirectByteBuffer(buffer, condition), index);
         }
 
         @Override
-        public void setBufferElement(DynamicObject buffer, int index, boolean littleEndian, boolean condition, Number value) {
-            getByteBufferFromBuffer(buffer, littleEndian, condition).putInt(index, JSRuntime.toInt32(value));
+        public void setBufferElementInt(DynamicObject buffer, int index, boolean littleEndian, boolean condition, int value) {
+            checkWritable();
+            getByteBufferAccess(littleEndian).putInt32(JSArrayBuffer.getDirectByteBuffer(buffer, condition), index, value);
         }
     }
 
@@ -768,6 +837,10 @@ public abstract class TypedArray extends ScriptArray {
             super(factory, offset);
         }
 
+        protected TypedFloatArray(TypedArrayFactory factory, boolean offset, boolean readOnly) {
+            super(factory, offset, readOnly);
+        }
+
         @Override
         public final Object getElement(DynamicObject object, long index, boolean condition) {
             if (hasElement(object, index, condition)) {
@@ -801,12 +874,27 @@ public abstract class TypedArray extends ScriptArray {
         }
 
         public final void setDouble(DynamicObject object, int index, double value, boolean condition) {
+            checkWritable();
             setDoubleImpl(getBufferFromTypedArrayT(object, condition), getOffset(object, condition), index, value);
         }
 
         public abstract double getDoubleImpl(T buffer, int offset, int index);
 
         public abstract void setDoubleImpl(T buffer, int offset, int index, double value);
+
+        @Override
+        public final Number getBufferElement(DynamicObject buffer, int index, boolean littleEndian, boolean condition) {
+            return getBufferElementDouble(buffer, index, littleEndian, condition);
+        }
+
+        @Override
+        public final void setBufferElement(DynamicObject buffer, int index, boolean littleEndian, boolean condition, Number value) {
+            setBufferElementDouble(buffer, index, littleEndian, condition, JSRuntime.doubleValue(value));
+        }
+
+        public abstract double getBufferElementDouble(DynamicObject buffer, int index, boolean littleEndian, boolean condition);
+
+        public abstract void setBufferElementDouble(DynamicObject buffer, int index, boolean littleEndian, boolean condition, double value);
     }
 
     static final int FLOAT32_BYTES_PER_ELEMENT = 4;
@@ -827,29 +915,29 @@ public abstract class TypedArray extends ScriptArray {
         }
 
         @Override
-        public Number getBufferElement(DynamicObject buffer, int index, boolean littleEndian, boolean condition) {
+        public double getBufferElementDouble(DynamicObject buffer, int index, boolean littleEndian, boolean condition) {
             return (double) getBufferAccess(littleEndian).getFloat(JSArrayBuffer.getByteArray(buffer, condition), 0, index, 1);
         }
 
         @Override
-        public void setBufferElement(DynamicObject buffer, int index, boolean littleEndian, boolean condition, Number value) {
-            getBufferAccess(littleEndian).putFloat(JSArrayBuffer.getByteArray(buffer, condition), 0, index, 1, JSRuntime.floatValue(value));
+        public void setBufferElementDouble(DynamicObject buffer, int index, boolean littleEndian, boolean condition, double value) {
+            getBufferAccess(littleEndian).putFloat(JSArrayBuffer.getByteArray(buffer, condition), 0, index, 1, (float) value);
         }
     }
 
     public static final class DirectFloat32Array extends TypedFloatArray<ByteBuffer> {
-        DirectFloat32Array(TypedArrayFactory factory, boolean offset) {
-            super(factory, offset);
+        DirectFloat32Array(TypedArrayFactory factory, boolean offset, boolean readOnly) {
+            super(factory, offset, readOnly);
         }
 
         @Override
         public double getDoubleImpl(ByteBuffer buffer, int offset, int index) {
-            return withNativeOrder(buffer).getFloat(offset + index * FLOAT32_BYTES_PER_ELEMENT);
+            return NATIVE_ORDER.getFloat(buffer, offset + index * FLOAT32_BYTES_PER_ELEMENT);
         }
 
         @Override
         public void setDoubleImpl(ByteBuffer buffer, int offset, int index, double value) {
-            withNativeOrder(buffer).putFloat(offset + index * FLOAT32_BYTES_PER_ELEMENT, (float) value);
+            NATIVE_ORDER.putFloat(buffer, offset + index * FLOAT32_BYTES_PER_ELEMENT, (float) value);
         }
 
         @Override
@@ -858,13 +946,14 @@ public abstract class TypedArray extends ScriptArray {
         }
 
         @Override
-        public Number getBufferElement(DynamicObject buffer, int index, boolean littleEndian, boolean condition) {
-            return (double) getByteBufferFromBuffer(buffer, littleEndian, condition).getFloat(index);
+        public double getBufferElementDouble(DynamicObject buffer, int index, boolean littleEndian, boolean condition) {
+            return getByteBufferAccess(littleEndian).getFloat(JSArrayBuffer.getDirectByteBuffer(buffer, condition), index);
         }
 
         @Override
-        public void setBufferElement(DynamicObject buffer, int index, boolean littleEndian, boolean condition, Number value) {
-            getByteBufferFromBuffer(buffer, littleEndian, condition).putFloat(index, JSRuntime.floatValue(value));
+        public void setBufferElementDouble(DynamicObject buffer, int index, boolean littleEndian, boolean condition, double value) {
+            checkWritable();
+            getByteBufferAccess(littleEndian).putFloat(JSArrayBuffer.getDirectByteBuffer(buffer, condition), index, (float) value);
         }
     }
 
@@ -886,29 +975,29 @@ public abstract class TypedArray extends ScriptArray {
         }
 
         @Override
-        public Number getBufferElement(DynamicObject buffer, int index, boolean littleEndian, boolean condition) {
+        public double getBufferElementDouble(DynamicObject buffer, int index, boolean littleEndian, boolean condition) {
             return getBufferAccess(littleEndian).getDouble(JSArrayBuffer.getByteArray(buffer, condition), 0, index, 1);
         }
 
         @Override
-        public void setBufferElement(DynamicObject buffer, int index, boolean littleEndian, boolean condition, Number value) {
-            getBufferAccess(littleEndian).putDouble(JSArrayBuffer.getByteArray(buffer, condition), 0, index, 1, JSRuntime.doubleValue(value));
+        public void setBufferElementDouble(DynamicObject buffer, int index, boolean littleEndian, boolean condition, double value) {
+            getBufferAccess(littleEndian).putDouble(JSArrayBuffer.getByteArray(buffer, condition), 0, index, 1, value);
         }
     }
 
     public static final class DirectFloat64Array extends TypedFloatArray<ByteBuffer> {
-        DirectFloat64Array(TypedArrayFactory factory, boolean offset) {
-            super(factory, offset);
+        DirectFloat64Array(TypedArrayFactory factory, boolean offset, boolean readOnly) {
+            super(factory, offset, readOnly);
         }
 
         @Override
         public double getDoubleImpl(ByteBuffer buffer, int offset, int index) {
-            return withNativeOrder(buffer).getDouble(offset + index * FLOAT64_BYTES_PER_ELEMENT);
+            return NATIVE_ORDER.getDouble(buffer, offset + index * FLOAT64_BYTES_PER_ELEMENT);
         }
 
         @Override
         public void setDoubleImpl(ByteBuffer buffer, int offset, int index, double value) {
-            withNativeOrder(buffer).putDouble(offset + index * FLOAT64_BYTES_PER_ELEMENT, value);
+            NATIVE_ORDER.putDouble(buffer, offset + index * FLOAT64_BYTES_PER_ELEMENT, value);
         }
 
         @Override
@@ -917,13 +1006,14 @@ public abstract class TypedArray extends ScriptArray {
         }
 
         @Override
-        public Number getBufferElement(DynamicObject buffer, int index, boolean littleEndian, boolean condition) {
-            return getByteBufferFromBuffer(buffer, littleEndian, condition).getDouble(index);
+        public double getBufferElementDouble(DynamicObject buffer, int index, boolean littleEndian, boolean condition) {
+            return getByteBufferAccess(littleEndian).getDouble(JSArrayBuffer.getDirectByteBuffer(buffer, condition), index);
         }
 
         @Override
-        public void setBufferElement(DynamicObject buffer, int index, boolean littleEndian, boolean condition, Number value) {
-            getByteBufferFromBuffer(buffer, littleEndian, condition).putDouble(index, JSRuntime.doubleValue(value));
+        public void setBufferElementDouble(DynamicObject buffer, int index, boolean littleEndian, boolean condition, double value) {
+            checkWritable();
+            getByteBufferAccess(littleEndian).putDouble(JSArrayBuffer.getDirectByteBuffer(buffer, condition), index, value);
         }
     }
 
@@ -1128,6 +1218,63 @@ public abstract class TypedArray extends ScriptArray {
             return byteIndex * Unsafe.ARRAY_BYTE_INDEX_SCALE + Unsafe.ARRAY_BYTE_BASE_OFFSET;
         }
 
+        public int getInt16(ByteBuffer buffer, int byteIndex) {
+            return UNSAFE.getShort(address(buffer, byteIndex, 2));
+        }
+
+        public int getUint16(ByteBuffer buffer, int byteIndex) {
+            return getInt16(buffer, byteIndex) & 0xffff;
+        }
+
+        public int getInt32(ByteBuffer buffer, int byteIndex) {
+            return UNSAFE.getInt(address(buffer, byteIndex, 4));
+        }
+
+        public long getInt64(ByteBuffer buffer, int byteIndex) {
+            return UNSAFE.getLong(address(buffer, byteIndex, 8));
+        }
+
+        public float getFloat(ByteBuffer buffer, int byteIndex) {
+            return UNSAFE.getFloat(address(buffer, byteIndex, 4));
+        }
+
+        public double getDouble(ByteBuffer buffer, int byteIndex) {
+            return UNSAFE.getDouble(address(buffer, byteIndex, 8));
+        }
+
+        public void putInt16(ByteBuffer buffer, int byteIndex, int value) {
+            UNSAFE.putShort(address(buffer, byteIndex, 2), (short) value);
+        }
+
+        public void putInt32(ByteBuffer buffer, int byteIndex, int value) {
+            UNSAFE.putInt(address(buffer, byteIndex, 4), value);
+        }
+
+        public void putInt64(ByteBuffer buffer, int byteIndex, long value) {
+            UNSAFE.putLong(address(buffer, byteIndex, 8), value);
+        }
+
+        public void putFloat(ByteBuffer buffer, int byteIndex, float value) {
+            UNSAFE.putFloat(address(buffer, byteIndex, 4), value);
+        }
+
+        public void putDouble(ByteBuffer buffer, int byteIndex, double value) {
+            UNSAFE.putDouble(address(buffer, byteIndex, 8), value);
+        }
+
+        /**
+         * Returns the native address of the given byte index of a direct buffer, checking the
+         * bounds like the absolute accessors of {@link ByteBuffer} do.
+         */
+        private static long address(ByteBuffer buffer, int byteIndex, int size) {
+            assert buffer.isDirect();
+            if (byteIndex < 0 || byteIndex > buffer.limit() - size) {
+                CompilerDirectives.transferToInterpreter();
+                throw new IndexOutOfBoundsException();
+            }
+            return UNSAFE.getLong(buffer, BUFFER_ADDRESS_OFFSET) + byteIndex;
+        }
+
         private static final Unsafe UNSAFE = AccessController.doPrivileged(new PrivilegedAction<Unsafe>() {
             @Override
             public Unsafe run() {
@@ -1144,6 +1291,17 @@ public abstract class TypedArray extends ScriptArray {
                 }
             }
         });
+
+        private static final long BUFFER_ADDRESS_OFFSET = AccessController.doPrivileged(new PrivilegedAction<Long>() {
+            @Override
+            public Long run() {
+                try {
+                    return UNSAFE.objectFieldOffset(Buffer.class.getDeclaredField("address"));
+                } catch (NoSuchFieldException e) {
+                    throw new RuntimeException("exception while trying to get the offset of Buffer.address:", e);
+                }
+            }
+        });
     }
 
     protected static final class ByteBufferNativeOrderBufferAccess extends BufferAccess {
@@ -1202,7 +1360,70 @@ public abstract class TypedArray extends ScriptArray {
         }
     }
 
-    static final BufferAccess NATIVE_ORDER = new SunMiscUnsafeNativeOrderBufferAccess();
+    /**
+     * Access to direct byte buffers in a fixed byte order, independent of the byte order set on the
+     * buffer. Reads and writes go through {@link SunMiscUnsafeNativeOrderBufferAccess}; the bytes
+     * are reversed if the requested byte order is not the native one.
+     */
+    public static final class ByteBufferAccess {
+        private final boolean reverse;
+
+        ByteBufferAccess(ByteOrder order) {
+            this.reverse = order != ByteOrder.nativeOrder();
+        }
+
+        public int getInt16(ByteBuffer buffer, int byteIndex) {
+            short value = (short) NATIVE_ORDER.getInt16(buffer, byteIndex);
+            return reverse ? Short.reverseBytes(value) : value;
+        }
+
+        public int getUint16(ByteBuffer buffer, int byteIndex) {
+            return getInt16(buffer, byteIndex) & 0xffff;
+        }
+
+        public int getInt32(ByteBuffer buffer, int byteIndex) {
+            int value = NATIVE_ORDER.getInt32(buffer, byteIndex);
+            return reverse ? Integer.reverseBytes(value) : value;
+        }
+
+        public long getInt64(ByteBuffer buffer, int byteIndex) {
+            long value = NATIVE_ORDER.getInt64(buffer, byteIndex);
+            return reverse ? Long.reverseBytes(value) : value;
+        }
+
+        public float getFloat(ByteBuffer buffer, int byteIndex) {
+            return Float.intBitsToFloat(getInt32(buffer, byteIndex));
+        }
+
+        public double getDouble(ByteBuffer buffer, int byteIndex) {
+            return Double.longBitsToDouble(getInt64(buffer, byteIndex));
+        }
+
+        public void putInt16(ByteBuffer buffer, int byteIndex, int value) {
+            short shortValue = (short) value;
+            NATIVE_ORDER.putInt16(buffer, byteIndex, reverse ? Short.reverseBytes(shortValue) : shortValue);
+        }
+
+        public void putInt32(ByteBuffer buffer, int byteIndex, int value) {
+            NATIVE_ORDER.putInt32(buffer, byteIndex, reverse ? Integer.reverseBytes(value) : value);
+        }
+
+        public void putInt64(ByteBuffer buffer, int byteIndex, long value) {
+            NATIVE_ORDER.putInt64(buffer, byteIndex, reverse ? Long.reverseBytes(value) : value);
+        }
+
+        public void putFloat(ByteBuffer buffer, int byteIndex, float value) {
+            putInt32(buffer, byteIndex, Float.floatToRawIntBits(value));
+        }
+
+        public void putDouble(ByteBuffer buffer, int byteIndex, double value) {
+            putInt64(buffer, byteIndex, Double.doubleToRawLongBits(value));
+        }
+    }
+
+    static final SunMiscUnsafeNativeOrderBufferAccess NATIVE_ORDER = new SunMiscUnsafeNativeOrderBufferAccess();
     private static final BufferAccess LITTLE_ENDIAN_ORDER = new LittleEndianBufferAccess();
     private static final BufferAccess BIG_ENDIAN_ORDER = new BigEndianBufferAccess();
+    private static final ByteBufferAccess LITTLE_ENDIAN_BYTE_BUFFER = new ByteBufferAccess(ByteOrder.LITTLE_ENDIAN);
+    private static final ByteBufferAccess BIG_ENDIAN_BYTE_BUFFER = new ByteBufferAccess(ByteOrder.BIG_ENDIAN);
 }
@@ -62,9 +62,9 @@ import com.oracle.truffle.js.runtime.array.TypedArray.Uint8ClampedArray;
 public enum TypedArrayFactory {
     Int8Array(TypedArray.INT8_BYTES_PER_ELEMENT) {
         @Override
-        TypedArray instantiateArrayType(boolean direct, boolean offset) {
+        TypedArray instantiateArrayType(boolean direct, boolean offset, boolean readOnly) {
             if (direct) {
-                return new DirectInt8Array(this, offset);
+                return new DirectInt8Array(this, offset, readOnly);
             } else {
                 return new Int8Array(this, offset);
             }
@@ -72,9 +72,9 @@ public enum TypedArrayFactory {
     },
     Uint8Array(TypedArray.UINT8_BYTES_PER_ELEMENT) {
         @Override
-        TypedArray instantiateArrayType(boolean direct, boolean offset) {
+        TypedArray instantiateArrayType(boolean direct, boolean offset, boolean readOnly) {
             if (direct) {
-                return new DirectUint8Array(this, offset);
+                return new DirectUint8Array(this, offset, readOnly);
             } else {
                 return new Uint8Array(this, offset);
             }
@@ -82,9 +82,9 @@ public enum TypedArrayFactory {
     },
     Uint8ClampedArray(TypedArray.UINT8_BYTES_PER_ELEMENT) {
         @Override
-        TypedArray instantiateArrayType(boolean direct, boolean offset) {
+        TypedArray instantiateArrayType(boolean direct, boolean offset, boolean readOnly) {
             if (direct) {
-                return new DirectUint8ClampedArray(this, offset);
+                return new DirectUint8ClampedArray(this, offset, readOnly);
             } else {
                 return new Uint8ClampedArray(this, offset);
             }
@@ -92,9 +92,9 @@ public enum TypedArrayFactory {
     },
     Int16Array(TypedArray.INT16_BYTES_PER_ELEMENT) {
         @Override
-        TypedArray instantiateArrayType(boolean direct, boolean offset) {
+        TypedArray instantiateArrayType(boolean direct, boolean offset, boolean readOnly) {
             if (direct) {
-                return new DirectInt16Array(this, offset);
+                return new DirectInt16Array(this, offset, readOnly);
             } else {
                 return new Int16Array(this, offset);
             }
@@ -102,9 +102,9 @@ public enum TypedArrayFactory {
     },
     Uint16Array(TypedArray.UINT16_BYTES_PER_ELEMENT) {
         @Override
-        TypedArray instantiateArrayType(boolean direct, boolean offset) {
+        TypedArray instantiateArrayType(boolean direct, boolean offset, boolean readOnly) {
             if (direct) {
-                return new DirectUint16Array(this, offset);
+                return new DirectUint16Array(this, offset, readOnly);
             } else {
                 return new Uint16Array(this, offset);
             }
@@ -112,9 +112,9 @@ public enum TypedArrayFactory {
     },
     Int32Array(TypedArray.INT32_BYTES_PER_ELEMENT) {
         @Override
-        TypedArray instantiateArrayType(boolean direct, boolean offset) {
+        TypedArray instantiateArrayType(boolean direct, boolean offset, boolean readOnly) {
             if (direct) {
-                return new DirectInt32Array(this, offset);
+                return new DirectInt32Array(this, offset, readOnly);
             } else {
                 return new Int32Array(this, offset);
             }
@@ -122,9 +122,9 @@ public enum TypedArrayFactory {
     },
     Uint32Array(TypedArray.UINT32_BYTES_PER_ELEMENT) {
         @Override
-        TypedArray instantiateArrayType(boolean direct, boolean offset) {
+        TypedArray instantiateArrayType(boolean direct, boolean offset, boolean readOnly) {
             if (direct) {
-                return new DirectUint32Array(this, offset);
+                return new DirectUint32Array(this, offset, readOnly);
             } else {
                 return new Uint32Array(this, offset);
             }
@@ -132,9 +132,9 @@ public enum TypedArrayFactory {
     },
     Float32Array(TypedArray.FLOAT32_BYTES_PER_ELEMENT) {
         @Override
-        TypedArray instantiateArrayType(boolean direct, boolean offset) {
+        TypedArray instantiateArrayType(boolean direct, boolean offset, boolean readOnly) {
             if (direct) {
-                return new DirectFloat32Array(this, offset);
+                return new DirectFloat32Array(this, offset, readOnly);
             } else {
                 return new Float32Array(this, offset);
             }
@@ -142,9 +142,9 @@ public enum TypedArrayFactory {
     },
     Float64Array(TypedArray.FLOAT64_BYTES_PER_ELEMENT) {
         @Override
-        TypedArray instantiateArrayType(boolean direct, boolean offset) {
+        TypedArray instantiateArrayType(boolean direct, boolean offset, boolean readOnly) {
             if (direct) {
-                return new DirectFloat64Array(this, offset);
+                return new DirectFloat64Array(this, offset, readOnly);
             } else {
                 return new Float64Array(this, offset);
             }
@@ -156,19 +156,34 @@ public enum TypedArrayFactory {
     private final TypedArray arrayTypeWithOffset;
     private final TypedArray directArrayType;
     private final TypedArray directArrayTypeWithOffset;
+    private final TypedArray readOnlyDirectArrayType;
+    private final TypedArray readOnlyDirectArrayTypeWithOffset;
 
     TypedArrayFactory(int bytesPerElement) {
         this.bytesPerElement = bytesPerElement;
-        this.arrayType = instantiateArrayType(false, false);
-        this.arrayTypeWithOffset = instantiateArrayType(false, true);
-        this.directArrayType = instantiateArrayType(true, false);
-        this.directArrayTypeWithOffset = instantiateArrayType(true, true);
+        this.arrayType = instantiateArrayType(false, false, false);
+        this.arrayTypeWithOffset = instantiateArrayType(false, true, false);
+        this.directArrayType = instantiateArrayType(true, false, false);
+        this.directArrayTypeWithOffset = instantiateArrayType(true, true, false);
+        this.readOnlyDirectArrayType = instantiateArrayType(true, false, true);
+        this.readOnlyDirectArrayTypeWithOffset = instantiateArrayType(true, true, true);
         assert !arrayType.hasOffset() && arrayTypeWithOffset.hasOffset() && !directArrayType.hasOffset() && directArrayTypeWithOffset.hasOffset();
+        assert !directArrayType.isReadOnly() && readOnlyDirectArrayType.isReadOnly() && readOnlyDirectArrayTypeWithOffset.hasOffset();
     }
 
     public final TypedArray createArrayType(boolean direct, boolean offset) {
+        return createArrayType(direct, offset, false);
+    }
+
+    /**
+     * Returns the array type for views of a buffer. Views of read-only direct buffers get their own
+     * array types so that stores into writable buffers need no read-only check.
+     */
+    public final TypedArray createArrayType(boolean direct, boolean offset, boolean readOnly) {
         if (direct) {
-            if (offset) {
+            if (readOnly) {
+                return offset ? readOnlyDirectArrayTypeWithOffset : readOnlyDirectArrayType;
+            } else if (offset) {
                 return directArrayTypeWithOffset;
             } else {
                 return directArrayType;
@@ -194,7 +209,7 @@ public enum TypedArrayFactory {
         return name();
     }
 
-    abstract TypedArray instantiateArrayType(boolean direct, boolean offset);
+    abstract TypedArray instantiateArrayType(boolean direct, boolean offset, boolean readOnly);
 
     static final TypedArrayFactory[] FACTORIES = TypedArrayFactory.values();
 }
@@ -42,13 +42,10 @@ package com.oracle.truffle.js.runtime.array.dyn;
 
 import java.util.Arrays;
 
-import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.js.runtime.JSRuntime;
 import com.oracle.truffle.js.runtime.JSTruffleOptions;
-import com.oracle.truffle.js.runtime.array.ArrayAllocationSite;
 import com.oracle.truffle.js.runtime.array.ScriptArray;
-import com.oracle.truffle.js.runtime.builtins.JSAbstractArray;
 import com.oracle.truffle.js.runtime.builtins.JSArray;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 
@@ -129,10 +126,7 @@ public abstract class AbstractConstantEmptyArray extends AbstractConstantArray {
         } else {
             newArray = createWritableIntContiguous(object, capacity, index, initialArray, profile);
         }
-        if (JSTruffleOptions.TraceArrayTransitions) {
-            traceArrayTransition(this, newArray, index, value);
-        }
-        notifyAllocationSite(object, newArray);
+        reportArrayTransition(object, this, newArray, index, value);
         return newArray;
     }
 
@@ -167,10 +161,7 @@ public abstract class AbstractConstantEmptyArray extends AbstractConstantArray {
         } else {
             newArray = createWritableDoubleContiguous(object, capacity, index, initialArray, profile);
         }
-        if (JSTruffleOptions.TraceArrayTransitions) {
-            traceArrayTransition(this, newArray, index, value);
-        }
-        notifyAllocationSite(object, newArray);
+        reportArrayTransition(object, this, newArray, index, value);
         return newArray;
     }
 
@@ -195,10 +186,7 @@ public abstract class AbstractConstantEmptyArray extends AbstractConstantArray {
         } else {
             newArray = createWritableJSObjectContiguous(object, capacity, index, initialArray, profile);
         }
-        if (JSTruffleOptions.TraceArrayTransitions) {
-            traceArrayTransition(this, newArray, index, value);
-        }
-        notifyAllocationSite(object, newArray);
+        reportArrayTransition(object, this, newArray, index, value);
         return newArray;
     }
 
@@ -223,10 +211,7 @@ public abstract class AbstractConstantEmptyArray extends AbstractConstantArray {
         } else {
             newArray = createWritableObjectContiguous(object, capacity, index, initialArray, profile);
         }
-        if (JSTruffleOptions.TraceArrayTransitions) {
-            traceArrayTransition(this, newArray, index, value);
-        }
-        notifyAllocationSite(object, newArray);
+        reportArrayTransition(object, this, newArray, index, value);
         return newArray;
     }
 
@@ -250,13 +235,4 @@ public abstract class AbstractConstantEmptyArray extends AbstractConstantArray {
     public boolean hasHoles(DynamicObject object, boolean condition) {
         return getCapacity(object, condition) != 0;
     }
-
-    private void notifyAllocationSite(DynamicObject object, ScriptArray newArray) {
-        if (JSTruffleOptions.TrackArrayAllocationSites && CompilerDirectives.inInterpreter()) {
-            ArrayAllocationSite site = JSAbstractArray.arrayGetAllocationSite(object);
-            if (site != null) {
-                site.notifyArrayTransition(newArray, lengthInt(object));
-            }
-        }
-    }
 }
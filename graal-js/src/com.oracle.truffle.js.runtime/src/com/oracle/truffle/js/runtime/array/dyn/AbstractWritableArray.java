@@ -56,10 +56,12 @@ import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.js.runtime.Errors;
 import com.oracle.truffle.js.runtime.JSRuntime;
 import com.oracle.truffle.js.runtime.JSTruffleOptions;
+import com.oracle.truffle.js.runtime.array.ArrayAllocationSite;
 import com.oracle.truffle.js.runtime.array.DynamicArray;
 import com.oracle.truffle.js.runtime.array.ScriptArray;
 import com.oracle.truffle.js.runtime.array.SparseArray;
 import com.oracle.truffle.js.runtime.builtins.JSAbstractArray;
+import com.oracle.truffle.js.runtime.builtins.JSArray;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 
 /**
@@ -267,10 +269,25 @@ public abstract class AbstractWritableArray extends DynamicArray {
                 }
             }
             resizeArray(object, newCapacity, capacity, offset, condition);
+            notifyAllocationSiteGrowth(object, newCapacity, condition);
             return offset;
         }
     }
 
+    private static void notifyAllocationSiteGrowth(DynamicObject object, int newCapacity, boolean condition) {
+        if (JSTruffleOptions.TrackArrayAllocationSites && JSArray.isJSArray(object)) {
+            ArrayAllocationSite site = JSAbstractArray.arrayGetAllocationSite(object, condition);
+            if (site != null) {
+                notifyAllocationSiteGrowthBoundary(site, newCapacity);
+            }
+        }
+    }
+
+    @TruffleBoundary
+    private static void notifyAllocationSiteGrowthBoundary(ArrayAllocationSite site, int newCapacity) {
+        site.notifyArrayGrowth(newCapacity);
+    }
+
     private int ensureCapacityContiguous(DynamicObject object, int internalIndex, boolean condition, ProfileHolder profile) {
         int offset = ensureCapacity(object, internalIndex, getIndexOffset(object, condition), condition, profile);
         if (offset != 0) {
@@ -371,9 +388,7 @@ public abstract class AbstractWritableArray extends DynamicArray {
 
     public final SparseArray toSparse(DynamicObject object, long index, Object value) {
         SparseArray newArray = SparseArray.makeSparseArray(object, this);
-        if (JSTruffleOptions.TraceArrayTransitions) {
-            traceArrayTransition(this, newArray, index, value);
-        }
+        reportArrayTransition(object, this, newArray, index, value);
         return newArray;
     }
 
@@ -703,8 +718,8 @@ public abstract class AbstractWritableArray extends DynamicArray {
 
     private ScriptArray ensureHolesArray(DynamicObject object, int length, Object newArray, long indexOffset, int arrayOffset, int usedLength, int holesCount) {
         AbstractWritableArray newArrayObject = sameTypeHolesArray(object, length, newArray, indexOffset, arrayOffset, usedLength, holesCount);
-        if (newArrayObject != this && JSTruffleOptions.TraceArrayTransitions) {
-            traceArrayTransition(this, newArrayObject, 0, null);
+        if (newArrayObject != this) {
+            reportArrayTransition(object, this, newArrayObject, 0, null);
         }
         return newArrayObject;
     }
@@ -44,7 +44,6 @@ import static com.oracle.truffle.js.runtime.builtins.JSAbstractArray.arrayGetArr
 import static com.oracle.truffle.js.runtime.builtins.JSAbstractArray.arraySetArray;
 
 import com.oracle.truffle.api.object.DynamicObject;
-import com.oracle.truffle.js.runtime.JSTruffleOptions;
 import com.oracle.truffle.js.runtime.array.DynamicArray;
 import com.oracle.truffle.js.runtime.array.ScriptArray;
 
@@ -105,9 +104,7 @@ public final class ConstantByteArray extends AbstractConstantArray {
     public ZeroBasedIntArray createWriteableInt(DynamicObject object, long index, int value, ProfileHolder profile) {
         int[] intCopy = ArrayCopy.byteToInt(getArray(object));
         ZeroBasedIntArray newArray = ZeroBasedIntArray.makeZeroBasedIntArray(object, intCopy.length, intCopy.length, intCopy, integrityLevel);
-        if (JSTruffleOptions.TraceArrayTransitions) {
-            traceArrayTransition(this, newArray, index, value);
-        }
+        reportArrayTransition(object, this, newArray, index, value);
         return newArray;
     }
 
@@ -115,9 +112,7 @@ public final class ConstantByteArray extends AbstractConstantArray {
     public ZeroBasedDoubleArray createWriteableDouble(DynamicObject object, long index, double value, ProfileHolder profile) {
         double[] doubleCopy = ArrayCopy.byteToDouble(getArray(object));
         ZeroBasedDoubleArray newArray = ZeroBasedDoubleArray.makeZeroBasedDoubleArray(object, doubleCopy.length, doubleCopy.length, doubleCopy, integrityLevel);
-        if (JSTruffleOptions.TraceArrayTransitions) {
-            traceArrayTransition(this, newArray, index, value);
-        }
+        reportArrayTransition(object, this, newArray, index, value);
         return newArray;
     }
 
@@ -130,9 +125,7 @@ public final class ConstantByteArray extends AbstractConstantArray {
     public ZeroBasedObjectArray createWriteableObject(DynamicObject object, long index, Object value, ProfileHolder profile) {
         Object[] doubleCopy = ArrayCopy.byteToObject(getArray(object));
         ZeroBasedObjectArray newArray = ZeroBasedObjectArray.makeZeroBasedObjectArray(object, doubleCopy.length, doubleCopy.length, doubleCopy, integrityLevel);
-        if (JSTruffleOptions.TraceArrayTransitions) {
-            traceArrayTransition(this, newArray, index, value);
-        }
+        reportArrayTransition(object, this, newArray, index, value);
         return newArray;
     }
 
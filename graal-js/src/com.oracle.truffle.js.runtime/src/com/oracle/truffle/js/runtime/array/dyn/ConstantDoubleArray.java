@@ -44,7 +44,6 @@ import static com.oracle.truffle.js.runtime.builtins.JSAbstractArray.arrayGetArr
 import static com.oracle.truffle.js.runtime.builtins.JSAbstractArray.arraySetArray;
 
 import com.oracle.truffle.api.object.DynamicObject;
-import com.oracle.truffle.js.runtime.JSTruffleOptions;
 import com.oracle.truffle.js.runtime.array.DynamicArray;
 import com.oracle.truffle.js.runtime.array.ScriptArray;
 
@@ -110,9 +109,7 @@ public final class ConstantDoubleArray extends AbstractConstantArray {
     public ZeroBasedDoubleArray createWriteableDouble(DynamicObject object, long index, double value, ProfileHolder profile) {
         double[] doubleCopy = ArrayCopy.doubleToDouble(getArray(object));
         ZeroBasedDoubleArray newArray = ZeroBasedDoubleArray.makeZeroBasedDoubleArray(object, doubleCopy.length, doubleCopy.length, doubleCopy, integrityLevel);
-        if (JSTruffleOptions.TraceArrayTransitions) {
-            traceArrayTransition(this, newArray, index, value);
-        }
+        reportArrayTransition(object, this, newArray, index, value);
         return newArray;
     }
 
@@ -125,9 +122,7 @@ public final class ConstantDoubleArray extends AbstractConstantArray {
     public ZeroBasedObjectArray createWriteableObject(DynamicObject object, long index, Object value, ProfileHolder profile) {
         Object[] doubleCopy = ArrayCopy.doubleToObject(getArray(object));
         ZeroBasedObjectArray newArray = ZeroBasedObjectArray.makeZeroBasedObjectArray(object, doubleCopy.length, doubleCopy.length, doubleCopy, integrityLevel);
-        if (JSTruffleOptions.TraceArrayTransitions) {
-            traceArrayTransition(this, newArray, index, value);
-        }
+        reportArrayTransition(object, this, newArray, index, value);
         return newArray;
     }
 
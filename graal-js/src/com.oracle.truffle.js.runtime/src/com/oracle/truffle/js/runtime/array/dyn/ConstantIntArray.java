@@ -44,7 +44,6 @@ import static com.oracle.truffle.js.runtime.builtins.JSAbstractArray.arrayGetArr
 import static com.oracle.truffle.js.runtime.builtins.JSAbstractArray.arraySetArray;
 
 import com.oracle.truffle.api.object.DynamicObject;
-import com.oracle.truffle.js.runtime.JSTruffleOptions;
 import com.oracle.truffle.js.runtime.array.DynamicArray;
 import com.oracle.truffle.js.runtime.array.ScriptArray;
 
@@ -105,9 +104,7 @@ public final class ConstantIntArray extends AbstractConstantArray {
     public AbstractIntArray createWriteableInt(DynamicObject object, long index, int value, ProfileHolder profile) {
         int[] copyArray = ArrayCopy.intToInt(getArray(object));
         ZeroBasedIntArray newArray = ZeroBasedIntArray.makeZeroBasedIntArray(object, copyArray.length, copyArray.length, copyArray, integrityLevel);
-        if (JSTruffleOptions.TraceArrayTransitions) {
-            traceArrayTransition(this, newArray, index, value);
-        }
+        reportArrayTransition(object, this, newArray, index, value);
         return newArray;
     }
 
@@ -115,9 +112,7 @@ public final class ConstantIntArray extends AbstractConstantArray {
     public AbstractWritableArray createWriteableDouble(DynamicObject object, long index, double value, ProfileHolder profile) {
         double[] copyArray = ArrayCopy.intToDouble(getArray(object));
         ZeroBasedDoubleArray newArray = ZeroBasedDoubleArray.makeZeroBasedDoubleArray(object, copyArray.length, copyArray.length, copyArray, integrityLevel);
-        if (JSTruffleOptions.TraceArrayTransitions) {
-            traceArrayTransition(this, newArray, index, value);
-        }
+        reportArrayTransition(object, this, newArray, index, value);
         return newArray;
     }
 
@@ -130,9 +125,7 @@ public final class ConstantIntArray extends AbstractConstantArray {
     public AbstractWritableArray createWriteableObject(DynamicObject object, long index, Object value, ProfileHolder profile) {
         Object[] copyArray = ArrayCopy.intToObject(getArray(object));
         ZeroBasedObjectArray newArray = ZeroBasedObjectArray.makeZeroBasedObjectArray(object, copyArray.length, copyArray.length, copyArray, integrityLevel);
-        if (JSTruffleOptions.TraceArrayTransitions) {
-            traceArrayTransition(this, newArray, index, value);
-        }
+        reportArrayTransition(object, this, newArray, index, value);
         return newArray;
     }
 
@@ -114,9 +114,7 @@ public final class ZeroBasedJSObjectArray extends AbstractJSObjectArray {
         int length = lengthInt(object, condition);
         int usedLength = getUsedLength(object, condition);
         ContiguousJSObjectArray newArray = ContiguousJSObjectArray.makeContiguousJSObjectArray(object, length, array, 0, 0, usedLength, integrityLevel);
-        if (JSTruffleOptions.TraceArrayTransitions) {
-            traceArrayTransition(this, newArray, index, value);
-        }
+        reportArrayTransition(object, this, newArray, index, value);
         return newArray;
     }
 
@@ -126,9 +124,7 @@ public final class ZeroBasedJSObjectArray extends AbstractJSObjectArray {
         int length = lengthInt(object, condition);
         int usedLength = getUsedLength(object, condition);
         HolesJSObjectArray newArray = HolesJSObjectArray.makeHolesJSObjectArray(object, length, array, 0, 0, usedLength, 0, integrityLevel);
-        if (JSTruffleOptions.TraceArrayTransitions) {
-            traceArrayTransition(this, newArray, index, value);
-        }
+        reportArrayTransition(object, this, newArray, index, value);
         return newArray;
     }
 
@@ -139,9 +135,7 @@ public final class ZeroBasedJSObjectArray extends AbstractJSObjectArray {
         int usedLength = getUsedLength(object, condition);
         Object[] doubleCopy = ArrayCopy.jsobjectToObject(array, 0, usedLength);
         ZeroBasedObjectArray newArray = ZeroBasedObjectArray.makeZeroBasedObjectArray(object, length, usedLength, doubleCopy, integrityLevel);
-        if (JSTruffleOptions.TraceArrayTransitions) {
-            traceArrayTransition(this, newArray, index, value);
-        }
+        reportArrayTransition(object, this, newArray, index, value);
         return newArray;
     }
 
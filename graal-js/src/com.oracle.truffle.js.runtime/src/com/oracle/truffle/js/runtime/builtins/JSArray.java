@@ -50,9 +50,12 @@ import com.oracle.truffle.js.runtime.Errors;
 import com.oracle.truffle.js.runtime.JSContext;
 import com.oracle.truffle.js.runtime.JSRealm;
 import com.oracle.truffle.js.runtime.JSRuntime;
+import com.oracle.truffle.js.runtime.JSTruffleOptions;
+import com.oracle.truffle.js.runtime.Symbol;
 import com.oracle.truffle.js.runtime.array.ArrayAllocationSite;
 import com.oracle.truffle.js.runtime.array.ScriptArray;
 import com.oracle.truffle.js.runtime.array.SparseArray;
+import com.oracle.truffle.js.runtime.array.dyn.AbstractWritableArray;
 import com.oracle.truffle.js.runtime.array.dyn.ConstantByteArray;
 import com.oracle.truffle.js.runtime.array.dyn.ConstantDoubleArray;
 import com.oracle.truffle.js.runtime.array.dyn.ConstantEmptyPrototypeArray;
@@ -185,6 +188,11 @@ public final class JSArray extends JSAbstractArray implements JSConstructorFacto
 
         putConstructorProperty(ctx, arrayPrototype, ctor);
         putFunctionsFromContainer(realm, arrayPrototype, PROTOTYPE_NAME);
+        if (ctx.getEcmaScriptVersion() >= 6) {
+            // The initial value of the @@iterator property is the same function object as the
+            // initial value of the values property. Declared, so that replacing it changes the shape.
+            JSObjectUtil.putDeclaredDataProperty(ctx, arrayPrototype, Symbol.SYMBOL_ITERATOR, arrayPrototype.get("values"), JSAttributes.getDefaultNotEnumerable());
+        }
         // sets the length just for the prototype
         putProxyProperty(arrayPrototype, makeArrayLengthProxyProperty());
         return arrayPrototype;
@@ -254,6 +262,25 @@ public final class JSArray extends JSAbstractArray implements JSConstructorFacto
         return create(context, context.getArrayFactory(), arrayType, ScriptArray.EMPTY_OBJECT_ARRAY, site, capacity, 0, 0, 0, 0);
     }
 
+    /**
+     * Creates an array of the given length without elements, using the array type and backing
+     * store capacity learned by the allocation site, if available.
+     */
+    public static DynamicObject createWithAllocationSite(JSContext context, ArrayAllocationSite site, int length) {
+        if (site != null) {
+            site.notifyArrayAllocation();
+        }
+        ScriptArray initialArrayType = site == null ? null : site.getInitialArrayType();
+        if (initialArrayType != null && length < JSTruffleOptions.MaxFlatArraySize) {
+            int capacity = Math.max(length, site.getInitialCapacity());
+            if (capacity > 0) {
+                Object array = ((AbstractWritableArray) initialArrayType).allocateArray(capacity);
+                return create(context, context.getArrayFactory(), initialArrayType, array, site, length, 0, 0, 0, 0);
+            }
+        }
+        return createConstantEmptyArray(context, site, length);
+    }
+
     public static DynamicObject createConstantByteArray(JSContext context, byte[] byteArray) {
         ScriptArray arrayType = ConstantByteArray.createConstantByteArray();
         return create(context, arrayType, byteArray, byteArray.length);
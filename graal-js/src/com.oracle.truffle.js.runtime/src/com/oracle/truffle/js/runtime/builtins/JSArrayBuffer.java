@@ -44,13 +44,20 @@ import static com.oracle.truffle.js.runtime.objects.JSObjectUtil.putConstructorP
 import static com.oracle.truffle.js.runtime.objects.JSObjectUtil.putFunctionsFromContainer;
 import static com.oracle.truffle.js.runtime.objects.JSObjectUtil.putHiddenProperty;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.HiddenKey;
 import com.oracle.truffle.api.object.Shape;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.js.runtime.Errors;
@@ -73,6 +80,7 @@ public final class JSArrayBuffer extends JSAbstractBuffer implements JSConstruct
 
     private static final JSArrayBuffer HEAP_INSTANCE = new JSArrayBuffer();
     private static final JSArrayBuffer DIRECT_INSTANCE = new JSArrayBuffer();
+    private static final HiddenKey MAPPED_ID = new HiddenKey("mapped");
 
     private JSArrayBuffer() {
     }
@@ -97,7 +105,7 @@ public final class JSArrayBuffer extends JSAbstractBuffer implements JSConstruct
 
     public static ByteBuffer getDirectByteBuffer(DynamicObject thisObj, boolean condition) {
         assert isJSDirectArrayBuffer(thisObj) || JSSharedArrayBuffer.isJSSharedArrayBuffer(thisObj);
-        return DirectByteBufferHelper.cast((ByteBuffer) BYTE_BUFFER_PROPERTY.get(thisObj, condition));
+        return DirectByteBufferHelper.castAny((ByteBuffer) BYTE_BUFFER_PROPERTY.get(thisObj, condition));
     }
 
     public static DynamicObject createDirectArrayBuffer(JSContext context, int length) {
@@ -110,6 +118,59 @@ public final class JSArrayBuffer extends JSAbstractBuffer implements JSConstruct
         return obj;
     }
 
+    /**
+     * Maximum size of a single mapped view. Files larger than this are mapped as several
+     * consecutive ArrayBuffers, since a buffer cannot exceed {@link Integer#MAX_VALUE} bytes.
+     */
+    public static final int MAPPED_VIEW_SIZE = 1 << 30;
+
+    /**
+     * Creates a direct ArrayBuffer backed by a memory-mapped file region. If the buffer is
+     * read-only, typed array and DataView stores into the ArrayBuffer throw a TypeError (see
+     * {@link #isReadOnlyBuffer}). The mapping is released when the ArrayBuffer is detached.
+     */
+    @TruffleBoundary
+    public static DynamicObject createMappedArrayBuffer(JSContext context, MappedByteBuffer buffer) {
+        buffer.order(ByteOrder.nativeOrder());
+        DynamicObject obj = createDirectArrayBuffer(context, buffer);
+        obj.define(MAPPED_ID, true);
+        return obj;
+    }
+
+    /**
+     * Returns {@code true} if {@code thisObj} is a direct ArrayBuffer backed by a read-only buffer,
+     * i.e. a read-only file mapping.
+     */
+    public static boolean isReadOnlyBuffer(DynamicObject thisObj) {
+        if (!isJSDirectArrayBuffer(thisObj)) {
+            return false;
+        }
+        ByteBuffer buffer = (ByteBuffer) BYTE_BUFFER_PROPERTY.get(thisObj, true);
+        return buffer != null && DirectByteBufferHelper.isReadOnly(buffer);
+    }
+
+    /**
+     * Maps the file at {@code path} into one ArrayBuffer per {@link #MAPPED_VIEW_SIZE} bytes. If
+     * {@code writable} is {@code false}, the file is only opened for reading and the ArrayBuffers
+     * are read-only. The mapping stays valid after the channel is closed and is released when the
+     * buffers are detached or garbage collected.
+     */
+    @TruffleBoundary
+    public static DynamicObject[] mapFile(JSContext context, Path path, boolean writable) throws IOException {
+        FileChannel.MapMode mode = writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY;
+        try (FileChannel channel = writable ? FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE) : FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int count = Math.max(1, (int) ((size + MAPPED_VIEW_SIZE - 1) / MAPPED_VIEW_SIZE));
+            DynamicObject[] buffers = new DynamicObject[count];
+            for (int i = 0; i < count; i++) {
+                long position = (long) i * MAPPED_VIEW_SIZE;
+                long length = Math.min(MAPPED_VIEW_SIZE, size - position);
+                buffers[i] = createMappedArrayBuffer(context, channel.map(mode, position, length));
+            }
+            return buffers;
+        }
+    }
+
     @Override
     public DynamicObject createPrototype(JSRealm realm, DynamicObject ctor) {
         JSContext context = realm.getContext();
@@ -228,7 +289,13 @@ public final class JSArrayBuffer extends JSAbstractBuffer implements JSConstruct
         assert isJSAbstractBuffer(arrayBuffer);
         JSObject.getJSContext(arrayBuffer).getTypedArrayNotDetachedAssumption().invalidate();
         if (isJSDirectArrayBuffer(arrayBuffer)) {
+            ByteBuffer buffer = (ByteBuffer) BYTE_BUFFER_PROPERTY.get(arrayBuffer, true);
             BYTE_BUFFER_PROPERTY.setSafe(arrayBuffer, null, null);
+            if (buffer != null && arrayBuffer.containsKey(MAPPED_ID)) {
+                // views of a detached buffer never touch its memory again, so the mapping can be
+                // released now rather than when the buffer happens to be collected
+                DirectByteBufferHelper.unmap(buffer);
+            }
         } else {
             BYTE_ARRAY_PROPERTY.setSafe(arrayBuffer, null, null);
         }
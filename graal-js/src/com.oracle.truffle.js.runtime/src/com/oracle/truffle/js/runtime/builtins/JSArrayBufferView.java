@@ -170,6 +170,14 @@ public final class JSArrayBufferView extends JSBuiltinObject {
         return DirectByteBufferHelper.cast((ByteBuffer) BYTE_BUFFER_PROPERTY.get(thisObj, condition));
     }
 
+    /**
+     * Get the buffer of a typed array backed by a read-only buffer (see
+     * {@link JSArrayBuffer#mapFile}).
+     */
+    public static ByteBuffer typedArrayGetReadOnlyByteBuffer(DynamicObject thisObj, boolean condition) {
+        return DirectByteBufferHelper.castReadOnly((ByteBuffer) BYTE_BUFFER_PROPERTY.get(thisObj, condition));
+    }
+
     private static String typedArrayGetName(DynamicObject thisObj) {
         return typedArrayGetArrayType(thisObj).getName();
     }
@@ -413,6 +421,9 @@ public final class JSArrayBufferView extends JSBuiltinObject {
         DynamicObject prototype = JSObject.create(realm, realm.getObjectPrototype(), JSUserObject.INSTANCE);
         JSObjectUtil.putConstructorProperty(ctx, prototype, ctor);
         JSObjectUtil.putFunctionsFromContainer(realm, prototype, PROTOTYPE_NAME);
+        if (ctx.getEcmaScriptVersion() >= 6) {
+            JSObjectUtil.putDeclaredDataProperty(ctx, prototype, Symbol.SYMBOL_ITERATOR, prototype.get("values"), JSAttributes.getDefaultNotEnumerable());
+        }
         putArrayBufferViewPrototypeGetter(realm, prototype, LENGTH, new ArrayBufferViewGetter() {
             @Override
             public Object apply(DynamicObject view, boolean condition) {
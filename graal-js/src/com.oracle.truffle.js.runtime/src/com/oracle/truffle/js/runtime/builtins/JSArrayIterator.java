@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.runtime.builtins;
+
+import java.util.EnumSet;
+
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.HiddenKey;
+import com.oracle.truffle.api.object.LocationModifier;
+import com.oracle.truffle.api.object.Property;
+import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.JSRealm;
+import com.oracle.truffle.js.runtime.JSRuntime;
+import com.oracle.truffle.js.runtime.Symbol;
+import com.oracle.truffle.js.runtime.objects.JSAttributes;
+import com.oracle.truffle.js.runtime.objects.JSObject;
+import com.oracle.truffle.js.runtime.objects.JSObjectUtil;
+import com.oracle.truffle.js.runtime.objects.JSShape;
+import com.oracle.truffle.js.runtime.objects.Undefined;
+
+/**
+ * Array Iterator objects (ES6 22.1.5). The iteration state ([[IteratedObject]],
+ * [[ArrayIteratorNextIndex]], [[ArrayIterationKind]]) is kept in fixed hidden properties.
+ */
+public final class JSArrayIterator {
+
+    public static final String CLASS_NAME = "Array Iterator";
+    public static final String PROTOTYPE_NAME = "ArrayIterator.prototype";
+
+    public static final int ITERATION_KIND_KEY = 1 << 0;
+    public static final int ITERATION_KIND_VALUE = 1 << 1;
+    public static final int ITERATION_KIND_KEY_PLUS_VALUE = ITERATION_KIND_KEY | ITERATION_KIND_VALUE;
+
+    private static final HiddenKey ITERATION_KIND_ID = new HiddenKey("ArrayIterationKind");
+
+    private static final Property ITERATED_OBJECT_PROPERTY;
+    private static final Property NEXT_INDEX_PROPERTY;
+    private static final Property ITERATION_KIND_PROPERTY;
+
+    static {
+        Shape.Allocator allocator = JSShape.makeAllocator(JSObject.LAYOUT);
+        ITERATED_OBJECT_PROPERTY = JSObjectUtil.makeHiddenProperty(JSRuntime.ITERATED_OBJECT_ID, allocator.locationForType(Object.class, EnumSet.of(LocationModifier.NonNull)));
+        NEXT_INDEX_PROPERTY = JSObjectUtil.makeHiddenProperty(JSRuntime.ITERATOR_NEXT_INDEX, allocator.locationForType(long.class));
+        ITERATION_KIND_PROPERTY = JSObjectUtil.makeHiddenProperty(ITERATION_KIND_ID, allocator.locationForType(int.class, EnumSet.of(LocationModifier.Final)));
+    }
+
+    private JSArrayIterator() {
+    }
+
+    /**
+     * CreateArrayIterator(array, kind).
+     */
+    public static DynamicObject create(JSContext context, Object iteratedObject, int iterationKind) {
+        return JSObject.create(context, context.getArrayIteratorFactory(), iteratedObject, 0L, iterationKind);
+    }
+
+    public static boolean isJSArrayIterator(Object obj) {
+        return JSObject.isDynamicObject(obj) && isJSArrayIterator((DynamicObject) obj);
+    }
+
+    public static boolean isJSArrayIterator(DynamicObject obj) {
+        return obj.getShape().hasProperty(ITERATION_KIND_ID);
+    }
+
+    /**
+     * Returns the iterated object, or {@code undefined} if the iterator is exhausted.
+     */
+    public static Object getIteratedObject(DynamicObject iterator, boolean condition) {
+        return ITERATED_OBJECT_PROPERTY.get(iterator, condition);
+    }
+
+    public static void setIteratedObject(DynamicObject iterator, Object iteratedObject) {
+        ITERATED_OBJECT_PROPERTY.setSafe(iterator, iteratedObject, null);
+    }
+
+    public static void setExhausted(DynamicObject iterator) {
+        setIteratedObject(iterator, Undefined.instance);
+    }
+
+    public static long getNextIndex(DynamicObject iterator, boolean condition) {
+        return (long) NEXT_INDEX_PROPERTY.get(iterator, condition);
+    }
+
+    public static void setNextIndex(DynamicObject iterator, long nextIndex) {
+        NEXT_INDEX_PROPERTY.setSafe(iterator, nextIndex, null);
+    }
+
+    public static int getIterationKind(DynamicObject iterator, boolean condition) {
+        return (int) ITERATION_KIND_PROPERTY.get(iterator, condition);
+    }
+
+    /**
+     * Creates the %ArrayIteratorPrototype% object (ES6 22.1.5.2). {@code next} is a declared
+     * property, so that replacing it changes the shape and invalidates
+     * {@link JSRealm#getArrayIteratorNextUnmodifiedAssumption()}.
+     */
+    public static DynamicObject createPrototype(JSRealm realm) {
+        JSContext context = realm.getContext();
+        DynamicObject prototype = JSObject.create(realm, realm.getIteratorPrototype(), JSUserObject.INSTANCE);
+        JSObjectUtil.putDeclaredDataProperty(context, prototype, JSRuntime.NEXT, realm.lookupFunction(PROTOTYPE_NAME, JSRuntime.NEXT), JSAttributes.getDefaultNotEnumerable());
+        JSObjectUtil.putDataProperty(context, prototype, Symbol.SYMBOL_TO_STRING_TAG, CLASS_NAME, JSAttributes.configurableNotEnumerableNotWritable());
+        return prototype;
+    }
+
+    public static Shape makeInitialShape(JSContext context, DynamicObject prototype) {
+        Shape initialShape = JSObjectUtil.getProtoChildShape(prototype, JSUserObject.INSTANCE, context);
+        initialShape = initialShape.addProperty(ITERATED_OBJECT_PROPERTY);
+        initialShape = initialShape.addProperty(NEXT_INDEX_PROPERTY);
+        initialShape = initialShape.addProperty(ITERATION_KIND_PROPERTY);
+        return initialShape;
+    }
+}
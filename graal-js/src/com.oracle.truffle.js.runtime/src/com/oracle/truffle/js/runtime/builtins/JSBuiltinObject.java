@@ -73,7 +73,7 @@ public abstract class JSBuiltinObject extends JSClass {
     /**
      * If more than {@code threshold} properties are added to object, transition to a hash map.
      */
-    private static final int DICTIONARY_TRANSITION_THRESHOLD = 400;
+    static final int DICTIONARY_TRANSITION_THRESHOLD = 400;
     private static final int DICTIONARY_TRANSITION_MAXIMUM = DICTIONARY_TRANSITION_THRESHOLD + 1;
 
     protected JSBuiltinObject() {
@@ -294,7 +294,7 @@ public abstract class JSBuiltinObject extends JSClass {
                 isDictionaryObject = true;
             }
             if (isDictionaryObject) {
-                JSDictionaryObject.getHashMap(thisObj).put(name, PropertyDescriptor.createDataDefault(value));
+                JSDictionaryObject.getDictionary(thisObj).put(name, value, JSAttributes.getDefault());
                 return true;
             }
         }
@@ -41,10 +41,7 @@
 package com.oracle.truffle.js.runtime.builtins;
 
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
@@ -58,29 +55,39 @@ import com.oracle.truffle.js.runtime.JSContext;
 import com.oracle.truffle.js.runtime.JSRuntime;
 import com.oracle.truffle.js.runtime.JSTruffleOptions;
 import com.oracle.truffle.js.runtime.objects.Accessor;
+import com.oracle.truffle.js.runtime.objects.JSAttributes;
 import com.oracle.truffle.js.runtime.objects.JSObject;
 import com.oracle.truffle.js.runtime.objects.JSObjectUtil;
 import com.oracle.truffle.js.runtime.objects.JSProperty;
 import com.oracle.truffle.js.runtime.objects.JSShape;
 import com.oracle.truffle.js.runtime.objects.PropertyDescriptor;
 import com.oracle.truffle.js.runtime.objects.Undefined;
+import com.oracle.truffle.js.runtime.util.JSMetrics;
+import com.oracle.truffle.js.runtime.util.PropertyDictionary;
 
 /**
- * This is a variant of {@link JSUserObject} that stores its contents as a HashMap of properties
- * (excepts hidden properties, incl. prototype).
+ * This is a variant of {@link JSUserObject} that stores its contents in a
+ * {@link PropertyDictionary} (excepts hidden properties, incl. prototype).
+ *
+ * Property values are stored inline in the dictionary; accessor properties store an
+ * {@link Accessor} and have the {@link JSProperty#ACCESSOR} flag set.
  */
 public final class JSDictionaryObject extends JSBuiltinObject {
 
     public static final String CLASS_NAME = "Object";
 
-    private static final HiddenKey HASHMAP_PROPERTY_NAME = new HiddenKey("%hashMap");
-    private static final Property HASHMAP_PROPERTY;
+    private static final HiddenKey DICTIONARY_PROPERTY_NAME = new HiddenKey("%dictionary");
+    private static final Property DICTIONARY_PROPERTY;
+    /** Number of times the object has been converted back to an ordinary object. */
+    private static final HiddenKey NORMALIZATIONS_NAME = new HiddenKey("%normalizations");
+    /** Only normalize well below the transition threshold, so the object does not flip back. */
+    private static final int NORMALIZE_MAX_SIZE = DICTIONARY_TRANSITION_THRESHOLD / 2;
 
     public static final JSDictionaryObject INSTANCE = new JSDictionaryObject();
 
     static {
         Shape.Allocator allocator = JSShape.makeAllocator(JSObject.LAYOUT);
-        HASHMAP_PROPERTY = JSObjectUtil.makeHiddenProperty(HASHMAP_PROPERTY_NAME, allocator.locationForType(LinkedHashMap.class));
+        DICTIONARY_PROPERTY = JSObjectUtil.makeHiddenProperty(DICTIONARY_PROPERTY_NAME, allocator.locationForType(PropertyDictionary.class));
     }
 
     private JSDictionaryObject() {
@@ -110,34 +117,48 @@ public final class JSDictionaryObject extends JSBuiltinObject {
     @TruffleBoundary
     @Override
     public Object getOwnHelper(DynamicObject store, Object thisObj, Object key) {
-        PropertyDescriptor desc = getHashMap(store).get(key);
-        if (desc != null) {
-            return getValue(desc, thisObj);
+        PropertyDictionary dictionary = getDictionary(store);
+        int entry = dictionary.find(key);
+        if (entry != PropertyDictionary.NOT_FOUND) {
+            return getValue(dictionary.getValue(entry), dictionary.getFlags(entry), thisObj);
         }
 
         return super.getOwnHelper(store, thisObj, key);
     }
 
-    public static Object getValue(PropertyDescriptor property, Object receiver) {
-        if (property.isAccessorDescriptor()) {
-            DynamicObject getter = (DynamicObject) property.getGet();
+    private static Object getValue(Object value, int flags, Object receiver) {
+        if (isAccessor(flags)) {
+            DynamicObject getter = ((Accessor) value).getGetter();
             if (getter != Undefined.instance) {
                 return JSFunction.call(getter, receiver, JSArguments.EMPTY_ARGUMENTS_ARRAY);
             } else {
                 return Undefined.instance;
             }
         } else {
-            assert property.isDataDescriptor();
-            return property.getValue();
+            return value;
         }
     }
 
+    public static boolean isAccessor(int flags) {
+        return (flags & JSProperty.ACCESSOR) != 0;
+    }
+
+    public static boolean isWritableData(int flags) {
+        return (flags & (JSProperty.ACCESSOR | JSAttributes.NOT_WRITABLE)) == 0;
+    }
+
     @Override
     @TruffleBoundary
     public List<Object> ownPropertyKeys(DynamicObject thisObj) {
         assert isJSDictionaryObject(thisObj);
         List<Object> keys = super.ownPropertyKeysList(thisObj);
-        getHashMap(thisObj).forEach((key, desc) -> keys.add(key));
+        PropertyDictionary dictionary = getDictionary(thisObj);
+        for (int i = 0; i < dictionary.getEntryLimit(); i++) {
+            Object key = dictionary.getKey(i);
+            if (key != null) {
+                keys.add(key);
+            }
+        }
         Collections.sort(keys, JSRuntime::comparePropertyKeys);
         return keys;
     }
@@ -145,16 +166,16 @@ public final class JSDictionaryObject extends JSBuiltinObject {
     @TruffleBoundary
     @Override
     public boolean delete(DynamicObject thisObj, Object key, boolean isStrict) {
-        HashMap<Object, PropertyDescriptor> hashMap = getHashMap(thisObj);
-        PropertyDescriptor desc = hashMap.get(key);
-        if (desc != null) {
-            if (!desc.getConfigurable()) {
+        PropertyDictionary dictionary = getDictionary(thisObj);
+        int entry = dictionary.find(key);
+        if (entry != PropertyDictionary.NOT_FOUND) {
+            if ((dictionary.getFlags(entry) & JSAttributes.NOT_CONFIGURABLE) != 0) {
                 if (isStrict) {
                     throw Errors.createTypeErrorNotConfigurableProperty(key);
                 }
                 return false;
             }
-            hashMap.remove(key);
+            dictionary.remove(key);
             return true;
         }
         return super.delete(thisObj, key, isStrict);
@@ -168,7 +189,7 @@ public final class JSDictionaryObject extends JSBuiltinObject {
     @TruffleBoundary
     @Override
     public boolean hasOwnProperty(DynamicObject thisObj, Object key) {
-        if (getHashMap(thisObj).containsKey(key)) {
+        if (getDictionary(thisObj).containsKey(key)) {
             return true;
         }
         return super.hasOwnProperty(thisObj, key);
@@ -177,28 +198,29 @@ public final class JSDictionaryObject extends JSBuiltinObject {
     @TruffleBoundary
     @Override
     public boolean setOwn(DynamicObject thisObj, Object key, Object value, Object receiver, boolean isStrict) {
-        HashMap<Object, PropertyDescriptor> hashMap = getHashMap(thisObj);
-        PropertyDescriptor property = hashMap.get(key);
-        if (property != null) {
-            setValue(key, property, thisObj, receiver, value, isStrict);
+        PropertyDictionary dictionary = getDictionary(thisObj);
+        int entry = dictionary.find(key);
+        if (entry != PropertyDictionary.NOT_FOUND) {
+            setValue(key, dictionary, entry, thisObj, receiver, value, isStrict);
+            recordWrite(thisObj, dictionary);
             return true;
         }
 
         return super.setOwn(thisObj, key, value, receiver, isStrict);
     }
 
-    private static void setValue(Object key, PropertyDescriptor property, DynamicObject store, Object thisObj, Object value, boolean isStrict) {
-        if (property.isAccessorDescriptor()) {
-            DynamicObject setter = (DynamicObject) property.getSet();
+    private static void setValue(Object key, PropertyDictionary dictionary, int entry, DynamicObject store, Object thisObj, Object value, boolean isStrict) {
+        int flags = dictionary.getFlags(entry);
+        if (isAccessor(flags)) {
+            DynamicObject setter = ((Accessor) dictionary.getValue(entry)).getSetter();
             if (setter != Undefined.instance) {
                 JSFunction.call(setter, thisObj, new Object[]{value});
             } else if (isStrict) {
                 throw Errors.createTypeErrorCannotSetAccessorProperty(key, store);
             }
         } else {
-            assert property.isDataDescriptor();
-            if (property.getWritable()) {
-                property.setValue(value);
+            if ((flags & JSAttributes.NOT_WRITABLE) == 0) {
+                dictionary.setValue(entry, value);
             } else {
                 if (isStrict) {
                     throw Errors.createTypeErrorNotWritableProperty(key, thisObj);
@@ -211,9 +233,10 @@ public final class JSDictionaryObject extends JSBuiltinObject {
     @Override
     public PropertyDescriptor getOwnProperty(DynamicObject thisObj, Object key) {
         assert JSRuntime.isPropertyKey(key) || key instanceof HiddenKey;
-        PropertyDescriptor prop = getHashMap(thisObj).get(key);
-        if (prop != null) {
-            return prop;
+        PropertyDictionary dictionary = getDictionary(thisObj);
+        int entry = dictionary.find(key);
+        if (entry != PropertyDictionary.NOT_FOUND) {
+            return toPropertyDescriptor(dictionary.getValue(entry), dictionary.getFlags(entry));
         }
         return super.getOwnProperty(thisObj, key);
     }
@@ -222,21 +245,74 @@ public final class JSDictionaryObject extends JSBuiltinObject {
     @Override
     public boolean defineOwnProperty(DynamicObject thisObj, Object key, PropertyDescriptor desc, boolean doThrow) {
         if (!hasOwnProperty(thisObj, key) && JSObject.isExtensible(thisObj)) {
-            getHashMap(thisObj).put(key, desc);
+            if (desc.isAccessorDescriptor()) {
+                DynamicObject getter = desc.hasGet() && desc.getGet() != null ? (DynamicObject) desc.getGet() : Undefined.instance;
+                DynamicObject setter = desc.hasSet() && desc.getSet() != null ? (DynamicObject) desc.getSet() : Undefined.instance;
+                getDictionary(thisObj).put(key, new Accessor(getter, setter), desc.getFlags() | JSProperty.ACCESSOR);
+            } else {
+                Object value = desc.hasValue() ? desc.getValue() : Undefined.instance;
+                getDictionary(thisObj).put(key, value, desc.getFlags());
+            }
             return true;
         }
 
-        // defineProperty is currently not supported on dictionary objects,
+        // redefining an existing property is currently not supported on dictionary objects,
         // so we need to convert back to a normal shape-based object.
         makeOrdinaryObject(thisObj, "defineOwnProperty");
         return super.defineOwnProperty(thisObj, key, desc, doThrow);
     }
 
-    @SuppressWarnings("unchecked")
-    static HashMap<Object, PropertyDescriptor> getHashMap(DynamicObject obj) {
+    public static PropertyDictionary getDictionary(DynamicObject obj) {
+        assert JSDictionaryObject.isJSDictionaryObject(obj);
+        Property dictionaryProperty = obj.getShape().getProperty(DICTIONARY_PROPERTY_NAME);
+        return (PropertyDictionary) dictionaryProperty.get(obj, false);
+    }
+
+    /**
+     * Like {@link #getDictionary(DynamicObject)}, but avoids the property lookup if
+     * {@code cachedProperty} (see {@link #getDictionaryProperty}) is the last property of the
+     * object's shape, i.e., the dictionary is at its location. All objects created from the same
+     * dictionary shape share that property.
+     */
+    public static PropertyDictionary getDictionary(DynamicObject obj, Property cachedProperty) {
         assert JSDictionaryObject.isJSDictionaryObject(obj);
-        Property hashMapProperty = obj.getShape().getProperty(HASHMAP_PROPERTY_NAME);
-        return (HashMap<Object, PropertyDescriptor>) hashMapProperty.get(obj, false);
+        Shape shape = obj.getShape();
+        if (shape.getLastProperty() == cachedProperty) {
+            return (PropertyDictionary) cachedProperty.get(obj, shape);
+        }
+        return getDictionary(obj);
+    }
+
+    public static Property getDictionaryProperty(DynamicObject obj) {
+        assert JSDictionaryObject.isJSDictionaryObject(obj);
+        return obj.getShape().getProperty(DICTIONARY_PROPERTY_NAME);
+    }
+
+    /**
+     * Counts a write to an existing own property and converts the object back to an ordinary
+     * object once the key set has not changed for
+     * {@link JSTruffleOptions#DictionaryObjectNormalizeThreshold} such writes, provided it has at
+     * most half as many properties as needed for the transition to a dictionary object and it has
+     * not already been normalized {@link JSTruffleOptions#DictionaryObjectMaxNormalizations} times.
+     * Reads are not counted: they are cheap on dictionary objects and also happen on objects that
+     * are only used as prototypes.
+     */
+    public static void recordWrite(DynamicObject obj, PropertyDictionary dictionary) {
+        if (dictionary.recordWrite() == JSTruffleOptions.DictionaryObjectNormalizeThreshold) {
+            normalize(obj);
+        }
+    }
+
+    @TruffleBoundary
+    private static void normalize(DynamicObject obj) {
+        if (!isJSDictionaryObject(obj) || getDictionary(obj).size() > NORMALIZE_MAX_SIZE) {
+            return;
+        }
+        int normalizations = (int) obj.get(NORMALIZATIONS_NAME, 0);
+        if (normalizations < JSTruffleOptions.DictionaryObjectMaxNormalizations) {
+            makeOrdinaryObject(obj, "stable key set");
+            obj.define(NORMALIZATIONS_NAME, normalizations + 1);
+        }
     }
 
     public static void makeDictionaryObject(DynamicObject obj, String reason) {
@@ -245,26 +321,27 @@ public final class JSDictionaryObject extends JSBuiltinObject {
             return;
         }
 
+        JSObject.getJSContext(obj).getMetrics().increment(JSMetrics.Counter.DictionaryObjectTransition);
         if (JSTruffleOptions.TraceDictionaryObject) {
             System.out.printf("transitioning to dictionary object: %s\n%s\n", reason, obj.getShape());
         }
 
         Shape currentShape = obj.getShape();
-        assert !isJSDictionaryObject(obj) && currentShape.getProperty(HASHMAP_PROPERTY_NAME) == null;
+        assert !isJSDictionaryObject(obj) && currentShape.getProperty(DICTIONARY_PROPERTY_NAME) == null;
         Property prototypeProperty = JSShape.getPrototypeProperty(currentShape);
         Shape hashedShape;
         DynamicObject prototype = (DynamicObject) prototypeProperty.get(obj, false);
-        Property hashMapProperty = null;
+        Property dictionaryProperty = null;
         if (prototype == null) {
             JSContext context = JSObject.getJSContext(obj);
             hashedShape = context.getDictionaryShapeNullPrototype();
-            hashMapProperty = hashedShape.getProperty(HASHMAP_PROPERTY_NAME);
+            dictionaryProperty = hashedShape.getProperty(DICTIONARY_PROPERTY_NAME);
         } else {
             hashedShape = JSShape.makeUniqueRoot(currentShape.getLayout(), JSDictionaryObject.INSTANCE, JSShape.getJSContext(currentShape), prototypeProperty);
         }
 
         List<Property> properties = currentShape.getPropertyListInternal(true);
-        HashMap<Object, PropertyDescriptor> hashMap = new LinkedHashMap<>();
+        PropertyDictionary dictionary = new PropertyDictionary(properties.size());
         for (Property p : properties) {
             if (p.equals(prototypeProperty)) {
                 continue; // has already been added
@@ -273,48 +350,55 @@ public final class JSDictionaryObject extends JSBuiltinObject {
             } else {
                 // normal properties
                 Object value = p.get(obj, false);
-                hashMap.put(p.getKey(), toPropertyDescriptor(p, value));
+                if (JSProperty.isAccessor(p)) {
+                    dictionary.put(p.getKey(), value, (p.getFlags() & JSAttributes.ATTRIBUTES_MASK) | JSProperty.ACCESSOR);
+                } else {
+                    assert JSProperty.isData(p);
+                    dictionary.put(p.getKey(), value, p.getFlags() & JSAttributes.ATTRIBUTES_MASK);
+                }
             }
         }
 
-        if (hashMapProperty == null) {
-            hashedShape = hashedShape.addProperty(JSObjectUtil.makeHiddenProperty(HASHMAP_PROPERTY_NAME, hashedShape.allocator().locationForType(hashMap.getClass()), true));
-            hashMapProperty = hashedShape.getLastProperty();
+        if (dictionaryProperty == null) {
+            hashedShape = hashedShape.addProperty(JSObjectUtil.makeHiddenProperty(DICTIONARY_PROPERTY_NAME, hashedShape.allocator().locationForType(PropertyDictionary.class), true));
+            dictionaryProperty = hashedShape.getLastProperty();
         }
-        assert isHashMapProperty(hashMapProperty);
+        assert isDictionaryProperty(dictionaryProperty);
 
         obj.setShapeAndResize(currentShape, hashedShape);
 
-        hashMapProperty.setSafe(obj, hashMap, null);
+        dictionaryProperty.setSafe(obj, dictionary, null);
 
         // invalidate property assumptions (rewrite assumption check nodes for final properties)
-        for (Object key : hashMap.keySet()) {
-            JSShape.invalidatePropertyAssumption(currentShape, key);
+        for (int i = 0; i < dictionary.getEntryLimit(); i++) {
+            JSShape.invalidatePropertyAssumption(currentShape, dictionary.getKey(i));
         }
 
-        assert isJSDictionaryObject(obj) && obj.getShape().getProperty(HASHMAP_PROPERTY_NAME) != null;
+        assert isJSDictionaryObject(obj) && obj.getShape().getProperty(DICTIONARY_PROPERTY_NAME) != null;
     }
 
-    private static PropertyDescriptor toPropertyDescriptor(Property p, Object value) {
-        PropertyDescriptor desc;
-        if (JSProperty.isAccessor(p)) {
-            desc = PropertyDescriptor.createAccessor(((Accessor) value).getSetter(), ((Accessor) value).getGetter());
-            desc.setConfigurable(JSProperty.isConfigurable(p));
-            desc.setEnumerable(JSProperty.isEnumerable(p));
+    private static PropertyDescriptor toPropertyDescriptor(Object value, int flags) {
+        boolean configurable = (flags & JSAttributes.NOT_CONFIGURABLE) == 0;
+        boolean enumerable = (flags & JSAttributes.NOT_ENUMERABLE) == 0;
+        if (isAccessor(flags)) {
+            Accessor accessor = (Accessor) value;
+            PropertyDescriptor desc = PropertyDescriptor.createAccessor(accessor.getSetter(), accessor.getGetter());
+            desc.setConfigurable(configurable);
+            desc.setEnumerable(enumerable);
+            return desc;
         } else {
-            assert JSProperty.isData(p);
-            desc = PropertyDescriptor.createData(value, JSProperty.isEnumerable(p), JSProperty.isWritable(p), JSProperty.isConfigurable(p));
+            return PropertyDescriptor.createData(value, enumerable, (flags & JSAttributes.NOT_WRITABLE) == 0, configurable);
         }
-        return desc;
     }
 
     private static void makeOrdinaryObject(DynamicObject obj, String reason) {
         CompilerAsserts.neverPartOfCompilation();
+        JSObject.getJSContext(obj).getMetrics().increment(JSMetrics.Counter.OrdinaryObjectTransition);
         if (JSTruffleOptions.TraceDictionaryObject) {
             System.out.printf("transitioning from dictionary object to ordinary object: %s\n", reason);
         }
 
-        HashMap<Object, PropertyDescriptor> hashMap = getHashMap(obj);
+        PropertyDictionary dictionary = getDictionary(obj);
         Shape oldShape = obj.getShape();
         Property prototypeProperty = JSShape.getPrototypeProperty(oldShape);
         Shape newShape = JSShape.makeUniqueRoot(oldShape.getLayout(), JSUserObject.INSTANCE, JSShape.getJSContext(oldShape), prototypeProperty);
@@ -323,27 +407,30 @@ public final class JSDictionaryObject extends JSBuiltinObject {
         for (Property p : properties) {
             if (p.equals(prototypeProperty)) {
                 continue; // has already been added
-            } else if (!p.getKey().equals(HASHMAP_PROPERTY_NAME)) {
+            } else if (!p.getKey().equals(DICTIONARY_PROPERTY_NAME)) {
                 newShape = newShape.addProperty(p);
             }
         }
         obj.setShapeAndGrow(oldShape, newShape);
 
-        for (Map.Entry<Object, PropertyDescriptor> entry : hashMap.entrySet()) {
-            Object key = entry.getKey();
-            PropertyDescriptor desc = entry.getValue();
-            if (desc.isDataDescriptor()) {
-                JSObjectUtil.defineDataProperty(obj, key, desc.getValue(), desc.getFlags());
+        for (int i = 0; i < dictionary.getEntryLimit(); i++) {
+            Object key = dictionary.getKey(i);
+            if (key == null) {
+                continue;
+            }
+            int flags = dictionary.getFlags(i);
+            if (isAccessor(flags)) {
+                JSObjectUtil.defineAccessorProperty(obj, key, (Accessor) dictionary.getValue(i), flags & JSAttributes.ATTRIBUTES_MASK);
             } else {
-                JSObjectUtil.defineAccessorProperty(obj, key, new Accessor((DynamicObject) desc.getGet(), (DynamicObject) desc.getSet()), desc.getFlags());
+                JSObjectUtil.defineDataProperty(obj, key, dictionary.getValue(i), flags & JSAttributes.ATTRIBUTES_MASK);
             }
         }
 
-        assert JSUserObject.isJSUserObject(obj) && obj.getShape().getProperty(HASHMAP_PROPERTY_NAME) == null;
+        assert JSUserObject.isJSUserObject(obj) && obj.getShape().getProperty(DICTIONARY_PROPERTY_NAME) == null;
     }
 
-    private static boolean isHashMapProperty(Property property) {
-        return property != null && property.getKey() == HASHMAP_PROPERTY_NAME;
+    private static boolean isDictionaryProperty(Property property) {
+        return property != null && property.getKey() == DICTIONARY_PROPERTY_NAME;
     }
 
     public static Shape makeDictionaryShape(JSContext context, DynamicObject prototype) {
@@ -353,13 +440,13 @@ public final class JSDictionaryObject extends JSBuiltinObject {
         } else {
             emptyShape = JSObjectUtil.getProtoChildShape(prototype, INSTANCE, context);
         }
-        return emptyShape.addProperty(HASHMAP_PROPERTY);
+        return emptyShape.addProperty(DICTIONARY_PROPERTY);
     }
 
     public static DynamicObject create(JSContext context) {
         Shape shape = context.getRealm().getDictionaryShapeObjectPrototype();
         DynamicObject object = JSObject.create(shape);
-        HASHMAP_PROPERTY.setSafe(object, new LinkedHashMap<>(), shape);
+        DICTIONARY_PROPERTY.setSafe(object, new PropertyDictionary(), shape);
         return object;
     }
 }
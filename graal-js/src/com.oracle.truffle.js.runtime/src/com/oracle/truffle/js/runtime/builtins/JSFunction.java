@@ -477,6 +477,16 @@ public final class JSFunction extends JSBuiltinObject {
         return getClassPrototypeInitialized(thisObj);
     }
 
+    /**
+     * Returns true if the function is an arrow function that captured the {@code this} value of
+     * its enclosing code. Arrow functions keep their lexical {@code this} in the class prototype
+     * field, which is otherwise only used by constructors and generator functions.
+     */
+    public static boolean hasLexicalThis(DynamicObject thisObj) {
+        JSFunctionData functionData = getFunctionData(thisObj);
+        return !functionData.isConstructor() && !functionData.isGenerator() && isClassPrototypeInitialized(thisObj);
+    }
+
     public static Object getClassPrototypeInitialized(DynamicObject thisObj) {
         Object classPrototype = getClassPrototypeField(thisObj);
         assert classPrototype != CLASS_PROTOTYPE_PLACEHOLDER;
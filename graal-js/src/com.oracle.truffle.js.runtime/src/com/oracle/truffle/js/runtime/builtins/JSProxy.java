@@ -404,17 +404,18 @@ public final class JSProxy extends AbstractJSClass {
             }
             return false;
         }
-        if (!JSObject.isJSObject(target)) {
-            return true;
-        }
-        PropertyDescriptor targetDesc = JSObject.getOwnProperty((DynamicObject) target, propertyKey);
-        if (targetDesc == null) {
-            return true;
+        if (JSObject.isJSObject(target)) {
+            checkDeleteTrapInvariants((DynamicObject) target, propertyKey);
         }
-        if (targetDesc.hasConfigurable() && !targetDesc.getConfigurable()) {
+        return true;
+    }
+
+    @TruffleBoundary
+    public static void checkDeleteTrapInvariants(DynamicObject target, Object propertyKey) {
+        PropertyDescriptor targetDesc = JSObject.getOwnProperty(target, propertyKey);
+        if (targetDesc != null && targetDesc.hasConfigurable() && !targetDesc.getConfigurable()) {
             throw Errors.createTypeErrorConfigurableExpected();
         }
-        return true;
     }
 
     @TruffleBoundary
@@ -443,11 +444,16 @@ public final class JSProxy extends AbstractJSClass {
                 return false;
             }
         }
-        if (!JSObject.isJSObject(target)) {
-            return true;
+        if (JSObject.isJSObject(target)) {
+            checkDefinePropertyTrapInvariants((DynamicObject) target, key, desc);
         }
-        PropertyDescriptor targetDesc = JSObject.getOwnProperty((DynamicObject) target, key);
-        boolean extensibleTarget = JSObject.isExtensible((DynamicObject) target);
+        return true;
+    }
+
+    @TruffleBoundary
+    public static void checkDefinePropertyTrapInvariants(DynamicObject target, Object key, PropertyDescriptor desc) {
+        PropertyDescriptor targetDesc = JSObject.getOwnProperty(target, key);
+        boolean extensibleTarget = JSObject.isExtensible(target);
         boolean settingConfigFalse = desc.hasConfigurable() && !desc.getConfigurable();
         if (targetDesc == null) {
             if (!extensibleTarget) {
@@ -464,12 +470,11 @@ public final class JSProxy extends AbstractJSClass {
                 throw Errors.createTypeError("ES 9.5.6 20.b");
             }
         }
-        return true;
     }
 
     // ES2015, 6.2.4.6, CompletePropertyDescriptor
     @TruffleBoundary
-    private static PropertyDescriptor completePropertyDescriptor(PropertyDescriptor desc) {
+    public static PropertyDescriptor completePropertyDescriptor(PropertyDescriptor desc) {
         if (desc.isGenericDescriptor() || desc.isDataDescriptor()) {
             if (!desc.hasValue()) {
                 desc.setValue(Undefined.instance);
@@ -515,14 +520,19 @@ public final class JSProxy extends AbstractJSClass {
         Object returnValue = JSFunction.call(preventExtensionsFn, handler, new Object[]{target});
         boolean booleanTrapResult = JSRuntime.toBoolean(returnValue);
         if (booleanTrapResult && JSObject.isJSObject(target)) {
-            boolean targetIsExtensible = JSObject.isExtensible((DynamicObject) target);
-            if (targetIsExtensible) {
-                throw Errors.createTypeError("target is extensible");
-            }
+            checkPreventExtensionsTrapInvariants((DynamicObject) target);
         }
         return booleanTrapResult;
     }
 
+    @TruffleBoundary
+    public static void checkPreventExtensionsTrapInvariants(DynamicObject target) {
+        boolean targetIsExtensible = JSObject.isExtensible(target);
+        if (targetIsExtensible) {
+            throw Errors.createTypeError("target is extensible");
+        }
+    }
+
     @TruffleBoundary
     @Override
     public boolean isExtensible(DynamicObject thisObj) {
@@ -541,11 +551,16 @@ public final class JSProxy extends AbstractJSClass {
         if (!JSObject.isJSObject(target)) {
             return booleanTrapResult;
         }
-        boolean targetResult = JSObject.isExtensible((DynamicObject) target);
-        if (booleanTrapResult != targetResult) {
+        checkIsExtensibleTrapInvariants((DynamicObject) target, booleanTrapResult);
+        return booleanTrapResult;
+    }
+
+    @TruffleBoundary
+    public static void checkIsExtensibleTrapInvariants(DynamicObject target, boolean trapResult) {
+        boolean targetResult = JSObject.isExtensible(target);
+        if (trapResult != targetResult) {
             throw Errors.createTypeErrorSameResultExpected();
         }
-        return booleanTrapResult;
     }
 
     // internal methods
@@ -623,18 +638,22 @@ public final class JSProxy extends AbstractJSClass {
             throw Errors.createTypeError("object or null expected");
         }
         DynamicObject handlerProtoObj = (DynamicObject) handlerProto;
-        if (!JSObject.isJSObject(target)) {
-            return handlerProtoObj;
+        if (JSObject.isJSObject(target)) {
+            checkGetPrototypeOfTrapInvariants((DynamicObject) target, handlerProtoObj);
         }
-        boolean extensibleTarget = JSObject.isExtensible((DynamicObject) target);
+        return handlerProtoObj;
+    }
+
+    @TruffleBoundary
+    public static void checkGetPrototypeOfTrapInvariants(DynamicObject target, DynamicObject handlerProto) {
+        boolean extensibleTarget = JSObject.isExtensible(target);
         if (extensibleTarget) {
-            return handlerProtoObj;
+            return;
         }
-        DynamicObject targetProtoObj = JSObject.getPrototype((DynamicObject) target);
-        if (handlerProtoObj != targetProtoObj) {
+        DynamicObject targetProtoObj = JSObject.getPrototype(target);
+        if (handlerProto != targetProtoObj) {
             throw Errors.createTypeErrorSameResultExpected();
         }
-        return handlerProtoObj;
     }
 
     @TruffleBoundary
@@ -656,18 +675,22 @@ public final class JSProxy extends AbstractJSClass {
         if (!booleanTrapResult) {
             return false;
         }
-        if (!JSObject.isJSObject(target)) {
-            return true;
+        if (JSObject.isJSObject(target)) {
+            checkSetPrototypeOfTrapInvariants((DynamicObject) target, newPrototype);
         }
-        boolean targetIsExtensible = JSObject.isExtensible((DynamicObject) target);
+        return true;
+    }
+
+    @TruffleBoundary
+    public static void checkSetPrototypeOfTrapInvariants(DynamicObject target, DynamicObject newPrototype) {
+        boolean targetIsExtensible = JSObject.isExtensible(target);
         if (targetIsExtensible) {
-            return true;
+            return;
         }
-        Object targetProto = JSObject.getPrototype((DynamicObject) target);
+        Object targetProto = JSObject.getPrototype(target);
         if (newPrototype != targetProto) {
             throw Errors.createTypeErrorSameResultExpected();
         }
-        return true;
     }
 
     @TruffleBoundary
@@ -691,16 +714,26 @@ public final class JSProxy extends AbstractJSClass {
             Boundaries.listAddAll(uncheckedResultKeys, trapResult);
             return uncheckedResultKeys;
         }
-        JSContext context = JSObject.getJSContext(thisObj);
+        checkOwnKeysTrapResultDuplicates(JSObject.getJSContext(thisObj), trapResult);
+        checkOwnKeysTrapInvariants((DynamicObject) target, trapResult);
+        return trapResult;
+    }
+
+    @TruffleBoundary
+    public static void checkOwnKeysTrapResultDuplicates(JSContext context, List<Object> trapResult) {
         if (!context.isOptionV8CompatibilityMode() && context.getEcmaScriptVersion() >= 9 && containsDuplicateEntries(trapResult)) {
             throw Errors.createTypeError("trap result contains duplicate entries");
         }
-        boolean extensibleTarget = JSObject.isExtensible((DynamicObject) target);
-        Iterable<Object> targetKeys = JSObject.ownPropertyKeys((DynamicObject) target);
+    }
+
+    @TruffleBoundary
+    public static void checkOwnKeysTrapInvariants(DynamicObject target, List<Object> trapResult) {
+        boolean extensibleTarget = JSObject.isExtensible(target);
+        Iterable<Object> targetKeys = JSObject.ownPropertyKeys(target);
         List<Object> targetConfigurableKeys = new ArrayList<>();
         List<Object> targetNonconfigurableKeys = new ArrayList<>();
         for (Object key : targetKeys) {
-            PropertyDescriptor desc = JSObject.getOwnProperty((DynamicObject) target, key);
+            PropertyDescriptor desc = JSObject.getOwnProperty(target, key);
             if (desc != null && !desc.getConfigurable()) {
                 Boundaries.listAdd(targetNonconfigurableKeys, key);
             } else {
@@ -708,7 +741,7 @@ public final class JSProxy extends AbstractJSClass {
             }
         }
         if (extensibleTarget && targetNonconfigurableKeys.isEmpty()) {
-            return trapResult;
+            return;
         }
         List<Object> uncheckedResultKeys = new ArrayList<>();
         Boundaries.listAddAll(uncheckedResultKeys, trapResult);
@@ -722,7 +755,7 @@ public final class JSProxy extends AbstractJSClass {
             }
         }
         if (extensibleTarget) {
-            return trapResult;
+            return;
         }
         for (Object key : targetConfigurableKeys) {
             if (!uncheckedResultKeys.contains(key)) {
@@ -735,7 +768,6 @@ public final class JSProxy extends AbstractJSClass {
         if (!uncheckedResultKeys.isEmpty()) {
             throw Errors.createTypeError("Proxy.ownPropertyKeys, 24");
         }
-        return trapResult;
     }
 
     private static boolean containsDuplicateEntries(List<Object> trapResult) {
@@ -770,8 +802,16 @@ public final class JSProxy extends AbstractJSClass {
         if (!JSObject.isJSObject(target)) {
             return JSRuntime.toPropertyDescriptor(trapResultObj);
         }
+        return checkGetOwnPropertyTrapInvariants((DynamicObject) target, propertyKey, trapResultObj);
+    }
 
-        PropertyDescriptor targetDesc = JSObject.getOwnProperty((DynamicObject) target, propertyKey);
+    /**
+     * Validates the result of the getOwnPropertyDescriptor trap against the target and returns
+     * the completed descriptor, or {@code null} for undefined.
+     */
+    @TruffleBoundary
+    public static PropertyDescriptor checkGetOwnPropertyTrapInvariants(DynamicObject target, Object propertyKey, Object trapResultObj) {
+        PropertyDescriptor targetDesc = JSObject.getOwnProperty(target, propertyKey);
         if (trapResultObj == Undefined.instance) {
             if (targetDesc == null) {
                 return null; // undefined
@@ -779,13 +819,13 @@ public final class JSProxy extends AbstractJSClass {
             if (targetDesc.hasConfigurable() && !targetDesc.getConfigurable()) {
                 throw Errors.createTypeErrorConfigurableExpected();
             }
-            boolean isExtensible = JSObject.isExtensible((DynamicObject) target);
+            boolean isExtensible = JSObject.isExtensible(target);
             if (!isExtensible) {
                 throw Errors.createTypeError("not extensible");
             }
             return null; // undefined
         }
-        boolean extensibleTarget = JSObject.isExtensible((DynamicObject) target);
+        boolean extensibleTarget = JSObject.isExtensible(target);
         PropertyDescriptor resultDesc = JSRuntime.toPropertyDescriptor(trapResultObj);
         completePropertyDescriptor(resultDesc);
         boolean valid = isCompatiblePropertyDescriptor(extensibleTarget, resultDesc, targetDesc);
@@ -41,46 +41,55 @@
 package com.oracle.truffle.js.runtime.interop;
 
 import java.util.Deque;
-import java.util.LinkedList;
 import java.util.concurrent.ConcurrentLinkedDeque;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.js.runtime.EcmaAgent;
 import com.oracle.truffle.js.runtime.Errors;
+import com.oracle.truffle.js.runtime.JSTruffleOptions;
+import com.oracle.truffle.js.runtime.util.JSMetrics;
 
 /**
  * Default implementation of a Java interop worker used when Graal.js is not embedded in Node.js.
+ *
+ * Each worker runs its tasks in order on a single thread, fed by a bounded queue. Tasks post their
+ * completion callbacks back to the {@link DefaultMainWorker}, which runs them on the main thread.
  **/
 public class DefaultJavaInteropWorker implements EcmaAgent {
 
-    private int submittedTasks;
-
     private final DefaultMainWorker parent;
-    private final ExecutorService executor;
+    private final ThreadPoolExecutor executor;
 
     public DefaultJavaInteropWorker(DefaultMainWorker main) {
         this.parent = main;
-        this.submittedTasks = 0;
-        this.executor = Executors.newSingleThreadExecutor();
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(JSTruffleOptions.JavaInteropWorkerQueueSize));
     }
 
     @TruffleBoundary
     @Override
     public void execute(EcmaAgent sender, Runnable task) {
-        submittedTasks++;
-        executor.submit(new Runnable() {
-
-            @Override
-            public void run() {
-                // scheduled back on the main thread: no races here.
-                task.run();
-                submittedTasks--;
-            }
-        });
-        executor.submit(task);
+        parent.taskSubmitted(executor.getQueue().size());
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        task.run();
+                    } finally {
+                        // the task has posted its completion to the main worker by now
+                        parent.taskCompleted();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            parent.taskCompleted();
+            throw Errors.createError(isTerminated() ? "Java worker terminated" : "Java worker queue is full");
+        }
     }
 
     @Override
@@ -124,13 +133,23 @@ public class DefaultJavaInteropWorker implements EcmaAgent {
 
     public static class DefaultMainWorker implements EcmaAgent {
 
-        private final Deque<EcmaAgent> activeWorkers = new LinkedList<>();
-        private final Deque<Runnable> asyncTasks = new ConcurrentLinkedDeque<>();
+        /** Upper bound for a single blocking wait, after which the pending count is re-checked. */
+        private static final long POLL_TIMEOUT_MILLIS = 100;
+
+        private final Deque<EcmaAgent> activeWorkers = new ConcurrentLinkedDeque<>();
+        private final LinkedBlockingQueue<Runnable> asyncTasks = new LinkedBlockingQueue<>();
+        /** Number of tasks submitted to workers that have not completed yet. */
+        private final AtomicInteger pendingTasks = new AtomicInteger();
+        private final JSMetrics metrics;
+
+        public DefaultMainWorker(JSMetrics metrics) {
+            this.metrics = metrics;
+        }
 
         @TruffleBoundary
         @Override
         public void execute(EcmaAgent sender, Runnable task) {
-            asyncTasks.push(task);
+            asyncTasks.add(task);
         }
 
         @Override
@@ -148,29 +167,72 @@ public class DefaultJavaInteropWorker implements EcmaAgent {
             this.activeWorkers.push(newAgent);
         }
 
-        @TruffleBoundary
-        public boolean processPendingTasks() {
-            boolean maybeNewTasks = false;
+        void taskSubmitted(int queueDepth) {
+            pendingTasks.incrementAndGet();
+            if (metrics != null) {
+                metrics.increment(JSMetrics.Counter.JavaInteropTask);
+                metrics.record(JSMetrics.Histogram.JavaInteropQueueDepth, queueDepth);
+            }
+        }
 
-            while (asyncTasks.size() > 0) {
-                asyncTasks.pollLast().run();
-                maybeNewTasks = true;
+        void taskCompleted() {
+            if (pendingTasks.decrementAndGet() == 0) {
+                // wake up the main thread in case the task did not post anything
+                asyncTasks.add(NO_OP);
             }
+        }
 
-            int activeTasks = activeWorkers.size();
-            while (activeTasks > 0) {
-                activeTasks = 0;
-                for (EcmaAgent a : activeWorkers) {
-                    activeTasks += ((DefaultJavaInteropWorker) a).submittedTasks;
+        /**
+         * Runs the completion callbacks posted by workers. If there are none yet but workers are
+         * still busy, blocks until at least one arrives, so that the promise jobs it schedules are
+         * processed before waiting for the next one.
+         *
+         * @return {@code true} if any callback was run.
+         */
+        @TruffleBoundary
+        public boolean processPendingTasks() {
+            boolean ranTasks = runAvailableTasks();
+            while (!ranTasks && pendingTasks.get() > 0) {
+                Runnable task;
+                try {
+                    task = asyncTasks.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
                 }
-
-                while (asyncTasks.size() > 0) {
-                    asyncTasks.pollLast().run();
-                    maybeNewTasks = true;
+                if (task != null) {
+                    ranTasks = runTask(task);
+                    ranTasks |= runAvailableTasks();
                 }
             }
-            return maybeNewTasks;
+            if (!ranTasks) {
+                // callbacks are posted before the pending count drops
+                ranTasks = runAvailableTasks();
+            }
+            return ranTasks;
+        }
+
+        private boolean runAvailableTasks() {
+            boolean ranTasks = false;
+            Runnable task;
+            while ((task = asyncTasks.poll()) != null) {
+                ranTasks |= runTask(task);
+            }
+            return ranTasks;
+        }
+
+        private static boolean runTask(Runnable task) {
+            if (task == NO_OP) {
+                return false;
+            }
+            task.run();
+            return true;
         }
 
+        private static final Runnable NO_OP = new Runnable() {
+            @Override
+            public void run() {
+            }
+        };
     }
 }
@@ -61,15 +61,21 @@ import java.util.function.Predicate;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.nodes.ControlFlowException;
+import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.js.runtime.Errors;
+import com.oracle.truffle.js.runtime.GraalJSException;
+import com.oracle.truffle.js.runtime.JSRuntime;
+import com.oracle.truffle.js.runtime.JSTruffleOptions;
 import com.oracle.truffle.js.runtime.UserScriptException;
 import com.oracle.truffle.js.runtime.array.ScriptArray;
 import com.oracle.truffle.js.runtime.builtins.JSAbstractArray;
+import com.oracle.truffle.js.runtime.builtins.JSProxy;
 import com.oracle.truffle.js.runtime.interop.Converters.ArrayConverter;
 import com.oracle.truffle.js.runtime.interop.Converters.Converter;
 import com.oracle.truffle.js.runtime.interop.Converters.ConverterFactory;
 import com.oracle.truffle.js.runtime.interop.Converters.ObjectArrayConverter;
 import com.oracle.truffle.js.runtime.interop.Converters.VarArgsConverter;
+import com.oracle.truffle.js.runtime.objects.JSObject;
 import com.oracle.truffle.js.runtime.util.IteratorUtil;
 import com.oracle.truffle.js.runtime.util.Pair;
 
@@ -134,6 +140,10 @@ public abstract class JavaMethod implements JavaMember {
         }
     }
 
+    private static final ResolvedCall[] EMPTY_RESOLVED_CALLS = new ResolvedCall[0];
+
+    private volatile ResolvedCall[] resolvedCalls = EMPTY_RESOLVED_CALLS;
+
     protected abstract AbstractJavaMethod[] overloads();
 
     public abstract MethodHandle getMethodHandle();
@@ -148,28 +158,166 @@ public abstract class JavaMethod implements JavaMember {
 
     @TruffleBoundary
     public final Object invoke(Object receiver, Object[] arguments) {
-        Pair<AbstractJavaMethod, Converter> bestMethod = getBestMethod(arguments);
-
-        AbstractJavaMethod actualMethod = bestMethod.getFirst();
-        Object actualReceiver = receiver;
-        if (actualMethod instanceof SuperJavaMethod) {
-            actualMethod = ((SuperJavaMethod) actualMethod).getActualMethod();
-            actualReceiver = ((JavaSuperAdapter) receiver).getAdapter();
-        }
-
-        Method reflectionMethod = ((SingleJavaMethod) actualMethod).getReflectionMethod();
-        Converter converter = bestMethod.getSecond();
-        assert converter.guard(arguments);
-        Object[] convertedArguments = (Object[]) converter.convert(arguments);
+        ResolvedCall resolved = resolve(arguments);
         try {
-            return Converters.JAVA_TO_JS_CONVERTER.convert(reflectionMethod.invoke(actualReceiver, convertedArguments));
-        } catch (IllegalAccessException | IllegalArgumentException e) {
-            throw Errors.createError(e.toString());
+            return Converters.JAVA_TO_JS_CONVERTER.convert(resolved.invoke(receiver, arguments));
+        } catch (ControlFlowException | GraalJSException e) {
+            throw e;
         } catch (InvocationTargetException e) {
             if (DEBUG) {
                 e.getCause().printStackTrace();
             }
             throw UserScriptException.createJavaException(e.getCause());
+        } catch (IllegalAccessException e) {
+            throw Errors.createError(e.toString());
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            // method handles do not wrap exceptions thrown by the callee
+            if (DEBUG) {
+                e.printStackTrace();
+            }
+            throw UserScriptException.createJavaException(e);
+        }
+    }
+
+    /**
+     * Returns the overload to call with these arguments, and how to call it.
+     *
+     * Resolutions are cached per method (and thereby per class), keyed on the argument types, so
+     * that call sites that went megamorphic and the generic call path do not have to run overload
+     * resolution on every call. All JS objects share one Java class, so they are told apart by
+     * their {@link com.oracle.truffle.js.runtime.builtins.JSClass} and callability instead (see
+     * {@link #argumentKey}).
+     */
+    @TruffleBoundary
+    public final ResolvedCall resolve(Object[] arguments) {
+        ResolvedCall[] cache = resolvedCalls;
+        for (ResolvedCall resolved : cache) {
+            if (resolved.accept(arguments)) {
+                return resolved;
+            }
+        }
+
+        Pair<AbstractJavaMethod, Converter> bestMethod = getBestMethod(arguments);
+        ResolvedCall resolved = new ResolvedCall(argumentKeys(arguments), bestMethod.getFirst(), bestMethod.getSecond(), isStatic() || isConstructor());
+        ResolvedCall[] newCache;
+        if (cache.length < JSTruffleOptions.JavaResolutionCacheLimit) {
+            newCache = Arrays.copyOf(cache, cache.length + 1);
+        } else {
+            // evict the oldest entry
+            newCache = new ResolvedCall[cache.length];
+            System.arraycopy(cache, 1, newCache, 0, cache.length - 1);
+        }
+        if (newCache.length > 0) {
+            newCache[newCache.length - 1] = resolved;
+            resolvedCalls = newCache;
+        }
+        return resolved;
+    }
+
+    private static Object[] argumentKeys(Object[] arguments) {
+        Object[] keys = new Object[arguments.length];
+        for (int i = 0; i < arguments.length; i++) {
+            keys[i] = argumentKey(arguments[i]);
+        }
+        return keys;
+    }
+
+    private static final Object CALLABLE_PROXY_KEY = new Object();
+
+    /**
+     * The part of an argument that overload resolution depends on: the Java class of the argument,
+     * or the object type of dynamic objects. Callable and non-callable proxies share their object
+     * type, but not their overloads (e.g. functional interface vs. {@code Map}).
+     */
+    private static Object argumentKey(Object argument) {
+        if (JSObject.isDynamicObject(argument)) {
+            DynamicObject object = (DynamicObject) argument;
+            if (JSProxy.isProxy(object) && JSRuntime.isCallableProxy(object)) {
+                return CALLABLE_PROXY_KEY;
+            }
+            return object.getShape().getObjectType();
+        }
+        return classOf(argument);
+    }
+
+    /**
+     * Adapts the method handle of the overload to the signature {@code (Object, Object[])Object}
+     * (receiver, converted arguments).
+     */
+    public static MethodHandle makeInvokeHandle(AbstractJavaMethod method, boolean isStatic) {
+        MethodHandle adaptedHandle = method.getMethodHandle();
+        // adapt this parameter and return type
+        if (isStatic) {
+            adaptedHandle = MethodHandles.dropArguments(adaptedHandle, 0, Object.class);
+        } else {
+            adaptedHandle = adaptedHandle.asType(adaptedHandle.type().changeParameterType(0, Object.class));
+        }
+        adaptedHandle = adaptedHandle.asType(adaptedHandle.type().changeReturnType(Object.class));
+        // spread arguments array to parameters
+        return adaptedHandle.asSpreader(Object[].class, method.getParameterTypes().length);
+    }
+
+    /**
+     * A resolved overload together with the argument converters selected for it.
+     */
+    public static final class ResolvedCall {
+        private final Object[] argumentKeys;
+        private final AbstractJavaMethod method;
+        private final Converter converter;
+        private final MethodHandle invokeHandle;
+
+        ResolvedCall(Object[] argumentKeys, AbstractJavaMethod method, Converter converter, boolean isStatic) {
+            this.argumentKeys = argumentKeys;
+            this.method = method;
+            this.converter = converter;
+            // no method handles in native images, we use reflection there
+            this.invokeHandle = JSTruffleOptions.SubstrateVM ? null : makeInvokeHandle(method, isStatic);
+        }
+
+        public AbstractJavaMethod getMethod() {
+            return method;
+        }
+
+        public Converter getConverter() {
+            return converter;
+        }
+
+        public MethodHandle getInvokeHandle() {
+            return invokeHandle;
+        }
+
+        boolean accept(Object[] arguments) {
+            if (arguments.length != argumentKeys.length) {
+                return false;
+            }
+            for (int i = 0; i < arguments.length; i++) {
+                if (argumentKey(arguments[i]) != argumentKeys[i]) {
+                    return false;
+                }
+            }
+            return converter.guard(arguments);
+        }
+
+        Object invoke(Object receiver, Object[] arguments) throws Throwable {
+            assert converter.guard(arguments);
+            Object[] convertedArguments = (Object[]) converter.convert(arguments);
+            if (invokeHandle != null) {
+                return invokeHandle.invokeExact(receiver, convertedArguments);
+            }
+            AbstractJavaMethod actualMethod = method;
+            Object actualReceiver = receiver;
+            if (actualMethod instanceof SuperJavaMethod) {
+                actualMethod = ((SuperJavaMethod) actualMethod).getActualMethod();
+                actualReceiver = ((JavaSuperAdapter) receiver).getAdapter();
+            }
+            try {
+                return ((SingleJavaMethod) actualMethod).getReflectionMethod().invoke(actualReceiver, convertedArguments);
+            } catch (IllegalArgumentException e) {
+                // thrown by reflection itself, exceptions of the callee are wrapped
+                throw Errors.createError(e.toString());
+            }
         }
     }
 
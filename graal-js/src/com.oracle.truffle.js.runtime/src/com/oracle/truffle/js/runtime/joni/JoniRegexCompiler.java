@@ -44,6 +44,7 @@ import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.interop.TruffleObject;
+import com.oracle.truffle.js.runtime.util.JSMetrics;
 import com.oracle.truffle.regex.CompiledRegexObject;
 import com.oracle.truffle.regex.RegexCompiler;
 import com.oracle.truffle.regex.RegexFlags;
@@ -62,6 +63,9 @@ import java.util.regex.PatternSyntaxException;
 public final class JoniRegexCompiler extends RegexCompiler {
 
     private final RegexLanguage language;
+    private final JSMetrics metrics;
+    /** When used as a fallback engine, every compilation is counted as a fallback. */
+    private final boolean fallback;
     // For Joni, we want to share call targets to avoid excessive splitting.
     private CallTarget searchSimpleCallTarget;
     private CallTarget searchGroupCallTarget;
@@ -69,33 +73,39 @@ public final class JoniRegexCompiler extends RegexCompiler {
     private CallTarget matchGroupCallTarget;
 
     public JoniRegexCompiler(RegexLanguage language) {
+        this(language, null, false);
+    }
+
+    public JoniRegexCompiler(RegexLanguage language, JSMetrics metrics, boolean fallback) {
         this.language = language;
+        this.metrics = metrics;
+        this.fallback = fallback;
     }
 
     private CallTarget searchSimpleCallTarget() {
         if (searchSimpleCallTarget == null) {
-            searchSimpleCallTarget = Truffle.getRuntime().createCallTarget(new RegexRootNode(language, new JoniRegexExecRootNode.Simple(language, false)));
+            searchSimpleCallTarget = Truffle.getRuntime().createCallTarget(new RegexRootNode(language, new JoniRegexExecRootNode.Simple(language, false, metrics)));
         }
         return searchSimpleCallTarget;
     }
 
     private CallTarget searchGroupCallTarget() {
         if (searchGroupCallTarget == null) {
-            searchGroupCallTarget = Truffle.getRuntime().createCallTarget(new RegexRootNode(language, new JoniRegexExecRootNode.Groups(language, false)));
+            searchGroupCallTarget = Truffle.getRuntime().createCallTarget(new RegexRootNode(language, new JoniRegexExecRootNode.Groups(language, false, metrics)));
         }
         return searchGroupCallTarget;
     }
 
     private CallTarget matchSimpleCallTarget() {
         if (matchSimpleCallTarget == null) {
-            matchSimpleCallTarget = Truffle.getRuntime().createCallTarget(new RegexRootNode(language, new JoniRegexExecRootNode.Simple(language, true)));
+            matchSimpleCallTarget = Truffle.getRuntime().createCallTarget(new RegexRootNode(language, new JoniRegexExecRootNode.Simple(language, true, metrics)));
         }
         return matchSimpleCallTarget;
     }
 
     private CallTarget matchGroupCallTarget() {
         if (matchGroupCallTarget == null) {
-            matchGroupCallTarget = Truffle.getRuntime().createCallTarget(new RegexRootNode(language, new JoniRegexExecRootNode.Groups(language, true)));
+            matchGroupCallTarget = Truffle.getRuntime().createCallTarget(new RegexRootNode(language, new JoniRegexExecRootNode.Groups(language, true, metrics)));
         }
         return matchGroupCallTarget;
     }
@@ -103,6 +113,9 @@ public final class JoniRegexCompiler extends RegexCompiler {
     @CompilerDirectives.TruffleBoundary
     @Override
     public TruffleObject compile(RegexSource source) throws RegexSyntaxException {
+        if (fallback && metrics != null) {
+            metrics.increment(JSMetrics.Counter.RegexFallback);
+        }
         Regex implementation = createJoniRegex(source.getPattern(), source.getFlags());
         CallTarget callTarget;
         boolean group = PatternAnalyzer.containsGroup(source.getPattern());
@@ -42,6 +42,9 @@ package com.oracle.truffle.js.runtime.joni;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.js.runtime.Errors;
+import com.oracle.truffle.js.runtime.JSTruffleOptions;
+import com.oracle.truffle.js.runtime.util.JSMetrics;
 import com.oracle.truffle.regex.CompiledRegexObject;
 import com.oracle.truffle.regex.RegexExecRootNode;
 import com.oracle.truffle.regex.RegexFlags;
@@ -51,6 +54,7 @@ import com.oracle.truffle.regex.RegexSource;
 import com.oracle.truffle.regex.nashorn.regexp.joni.Matcher;
 import com.oracle.truffle.regex.nashorn.regexp.joni.Regex;
 import com.oracle.truffle.regex.nashorn.regexp.joni.Region;
+import com.oracle.truffle.regex.nashorn.regexp.joni.exception.MatchLimitException;
 import com.oracle.truffle.regex.result.RegexResult;
 import com.oracle.truffle.regex.result.SingleResult;
 import com.oracle.truffle.regex.result.StartsEndsIndexArrayResult;
@@ -65,10 +69,12 @@ public abstract class JoniRegexExecRootNode extends RegexExecRootNode {
     @Child private InputToStringNode toStringNode = InputToStringNode.create();
 
     private final boolean sticky;
+    private final JSMetrics metrics;
 
-    public JoniRegexExecRootNode(RegexLanguage language, RegexSource source, boolean sticky) {
+    public JoniRegexExecRootNode(RegexLanguage language, RegexSource source, boolean sticky, JSMetrics metrics) {
         super(language, source);
         this.sticky = sticky;
+        this.metrics = metrics;
     }
 
     @Override
@@ -79,24 +85,31 @@ public abstract class JoniRegexExecRootNode extends RegexExecRootNode {
     @Override
     public RegexResult execute(VirtualFrame frame, RegexObject regexObject, Object input, int fromIndex) {
         Regex impl = ((JoniCompiledRegex) ((CompiledRegexObject) regexObject.getCompiledRegexObject()).getCompiledRegex()).getJoniRegex();
-        Matcher matcher = sticky ? match(impl, toStringNode.execute(input), fromIndex) : search(impl, toStringNode.execute(input), fromIndex);
+        Matcher matcher = execute(impl, toStringNode.execute(input), fromIndex);
 
         return (matcher != null) ? getMatchResult(regexObject, input, matcher) : RegexResult.NO_MATCH;
     }
 
     @TruffleBoundary
-    private static Matcher search(Regex regex, String input, int fromIndex) {
-        Matcher matcher = regex.matcher(input);
-        boolean isMatch = matcher.search(fromIndex, input.length(), regex.getOptions()) > -1;
-        // If there was no match, matcher.getBegin() returns 0 (instead of -1). This means that
-        // Matcher can only be used if the return value of matcher.search(..) indicates a match.
-        return isMatch ? matcher : null;
-    }
-
-    @TruffleBoundary
-    private static Matcher match(Regex regex, String input, int fromIndex) {
-        Matcher matcher = regex.matcher(input);
-        boolean isMatch = matcher.match(fromIndex, input.length(), regex.getOptions()) > -1;
+    private Matcher execute(Regex regex, String input, int fromIndex) {
+        Matcher matcher = regex.matcher(input).setMatchLimits(JSTruffleOptions.RegexStepLimit, JSTruffleOptions.RegexMemoization);
+        boolean isMatch;
+        try {
+            if (sticky) {
+                isMatch = matcher.match(fromIndex, input.length(), regex.getOptions()) > -1;
+            } else {
+                isMatch = matcher.search(fromIndex, input.length(), regex.getOptions()) > -1;
+            }
+        } catch (MatchLimitException e) {
+            if (metrics != null) {
+                metrics.add(JSMetrics.Counter.RegexBacktrackSteps, e.getSteps());
+                metrics.increment(JSMetrics.Counter.RegexStepLimitExceeded);
+            }
+            throw Errors.createRangeError("Regular expression exceeded the backtracking step limit of " + JSTruffleOptions.RegexStepLimit);
+        }
+        if (metrics != null && matcher.getSteps() != 0) {
+            metrics.add(JSMetrics.Counter.RegexBacktrackSteps, matcher.getSteps());
+        }
         // If there was no match, matcher.getBegin() returns 0 (instead of -1). This means that
         // Matcher can only be used if the return value of matcher.search(..) indicates a match.
         return isMatch ? matcher : null;
@@ -115,8 +128,8 @@ public abstract class JoniRegexExecRootNode extends RegexExecRootNode {
     }
 
     public static class Simple extends JoniRegexExecRootNode {
-        public Simple(RegexLanguage language, boolean sticky) {
-            super(language, createPseudoSource("JONI_SINGLETON_ROOT_NODE_" + (sticky ? "STICKY_" : "") + "SIMPLE"), sticky);
+        public Simple(RegexLanguage language, boolean sticky, JSMetrics metrics) {
+            super(language, createPseudoSource("JONI_SINGLETON_ROOT_NODE_" + (sticky ? "STICKY_" : "") + "SIMPLE"), sticky, metrics);
         }
 
         @Override
@@ -126,8 +139,8 @@ public abstract class JoniRegexExecRootNode extends RegexExecRootNode {
     }
 
     public static class Groups extends JoniRegexExecRootNode {
-        public Groups(RegexLanguage language, boolean sticky) {
-            super(language, createPseudoSource("JONI_SINGLETON_ROOT_NODE_" + (sticky ? "STICKY_" : "") + "GROUPS"), sticky);
+        public Groups(RegexLanguage language, boolean sticky, JSMetrics metrics) {
+            super(language, createPseudoSource("JONI_SINGLETON_ROOT_NODE_" + (sticky ? "STICKY_" : "") + "GROUPS"), sticky, metrics);
         }
 
         @Override
@@ -51,6 +51,22 @@ import com.oracle.truffle.js.runtime.JSTruffleOptions;
 import com.oracle.truffle.js.runtime.truffleinterop.JSLazyStringForeignAccessFactoryForeign;
 
 public final class JSLazyString implements CharSequence, TruffleObject {
+    /**
+     * A sliced string is only created if its parent is at most this many times longer.
+     */
+    private static final int MAX_SLICE_WASTE_FACTOR = 4;
+
+    /**
+     * Maximum number of rope nodes {@link #charAt} descends through before flattening the string.
+     */
+    private static final int MAX_CHAR_AT_DEPTH = 16;
+
+    /**
+     * Number of {@link #charAt} calls on an unflattened rope after which the rope is flattened, so
+     * that repeated indexed access does not keep paying for the descent.
+     */
+    private static final int MAX_ROPE_CHAR_AT_COUNT = 32;
+
     @TruffleBoundary
     public static CharSequence create(CharSequence left, CharSequence right) {
         assert JSRuntime.isString(left);
@@ -146,9 +162,45 @@ public final class JSLazyString implements CharSequence, TruffleObject {
         return new JSLazyString(new JSLazyIntWrapper(left), right);
     }
 
+    /**
+     * Creates a substring of {@code str}. Long substrings that cover a large enough part of their
+     * (flat) parent string are created as sliced strings sharing the parent's characters instead of
+     * copying them. Short substrings, or substrings that would keep a much larger parent string
+     * alive, are copied.
+     */
+    @TruffleBoundary
+    public static CharSequence substring(CharSequence str, int begin, int end) {
+        assert JSRuntime.isString(str) && 0 <= begin && begin <= end && end <= str.length();
+        int sliceLength = end - begin;
+        if (sliceLength == str.length()) {
+            return str;
+        }
+        String parent;
+        int parentOffset;
+        if (str instanceof JSLazyString && ((JSLazyString) str).right == null) {
+            JSLazyString leaf = (JSLazyString) str;
+            parent = (String) leaf.left;
+            parentOffset = leaf.offset;
+        } else {
+            parent = str.toString();
+            parentOffset = 0;
+        }
+        if (!JSTruffleOptions.LazyStrings || sliceLength < JSTruffleOptions.MinLazySubstringLength || (long) sliceLength * MAX_SLICE_WASTE_FACTOR < parent.length()) {
+            return parent.substring(parentOffset + begin, parentOffset + end);
+        }
+        return new JSLazyString(parent, parentOffset + begin, sliceLength);
+    }
+
+    /**
+     * Either the left and right part of a concatenation, or, if {@link #right} is {@code null},
+     * the {@link String} of which this string covers {@link #length} characters starting at
+     * {@link #offset}. The string is flat if it covers all of {@link #left}.
+     */
     private CharSequence left;
     private CharSequence right;
     private final int length;
+    private int offset;
+    private int ropeCharAtCount;
 
     private JSLazyString(CharSequence left, CharSequence right, int length) {
         assert left.length() > 0 && right.length() > 0 && length == left.length() + right.length();
@@ -157,6 +209,14 @@ public final class JSLazyString implements CharSequence, TruffleObject {
         this.length = length;
     }
 
+    private JSLazyString(String parent, int offset, int length) {
+        assert length > 0 && offset >= 0 && offset + length <= parent.length();
+        this.left = parent;
+        this.right = null;
+        this.length = length;
+        this.offset = offset;
+    }
+
     private JSLazyString(CharSequence left, CharSequence right) {
         this(left, right, left.length() + right.length());
     }
@@ -182,11 +242,16 @@ public final class JSLazyString implements CharSequence, TruffleObject {
     }
 
     private boolean isFlat() {
-        return right == null;
+        return right == null && left.length() == length;
     }
 
     @TruffleBoundary
     private void flatten() {
+        if (right == null) {
+            left = ((String) left).substring(offset, offset + length);
+            offset = 0;
+            return;
+        }
         char[] dst = new char[length];
         flatten(this, 0, length, dst, 0);
         left = new String(dst);
@@ -201,7 +266,11 @@ public final class JSLazyString implements CharSequence, TruffleObject {
         int dstFrom = dstBegin;
         for (;;) {
             assert 0 <= from && from <= to && to <= str.length();
-            if (str instanceof JSLazyString) {
+            if (str instanceof JSLazyString && ((JSLazyString) str).right == null) {
+                JSLazyString leaf = (JSLazyString) str;
+                ((String) leaf.left).getChars(leaf.offset + from, leaf.offset + to, dst, dstFrom);
+                return;
+            } else if (str instanceof JSLazyString) {
                 JSLazyString lazyString = (JSLazyString) str;
                 CharSequence left = lazyString.left;
                 CharSequence right = lazyString.right;
@@ -245,14 +314,53 @@ public final class JSLazyString implements CharSequence, TruffleObject {
         }
     }
 
+    /**
+     * Reads a character without flattening sliced strings or shallow ropes. Ropes are flattened
+     * once they are too deep or have been indexed too often.
+     */
     @Override
     public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new StringIndexOutOfBoundsException(index);
+        }
+        if (right == null) {
+            return ((String) left).charAt(offset + index);
+        }
+        return ropeCharAt(index);
+    }
+
+    @TruffleBoundary
+    private char ropeCharAt(int index) {
+        if (++ropeCharAtCount > MAX_ROPE_CHAR_AT_COUNT) {
+            // frequently indexed rope, e.g. iterated character by character
+            return toString().charAt(index);
+        }
+        CharSequence str = this;
+        int i = index;
+        for (int depth = 0; depth < MAX_CHAR_AT_DEPTH; depth++) {
+            if (str instanceof JSLazyString) {
+                JSLazyString lazyString = (JSLazyString) str;
+                if (lazyString.right == null) {
+                    return ((String) lazyString.left).charAt(lazyString.offset + i);
+                }
+                int mid = lazyString.left.length();
+                if (i < mid) {
+                    str = lazyString.left;
+                } else {
+                    str = lazyString.right;
+                    i -= mid;
+                }
+            } else {
+                return str.charAt(i);
+            }
+        }
+        // deep rope, e.g. built by repeated appending
         return toString().charAt(index);
     }
 
     @Override
     public CharSequence subSequence(int start, int end) {
-        return toString().subSequence(start, end);
+        return substring(this, start, end);
     }
 
     public boolean isEmpty() {
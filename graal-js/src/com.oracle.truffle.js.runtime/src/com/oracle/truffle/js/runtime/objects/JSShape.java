@@ -40,12 +40,14 @@
  */
 package com.oracle.truffle.js.runtime.objects;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
 import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.object.HiddenKey;
 import com.oracle.truffle.api.object.Layout;
@@ -213,6 +215,26 @@ public final class JSShape {
         return JSShapeData.getEnumerablePropertyNames(shape);
     }
 
+    /**
+     * Returns a fresh array of the enumerable own property names of the shape.
+     */
+    @TruffleBoundary
+    public static Object[] copyEnumerablePropertyNames(Shape shape) {
+        assert JSTruffleOptions.FastOwnKeys;
+        String[] names = JSShapeData.getEnumerablePropertyNameArray(shape);
+        return Arrays.copyOf(names, names.length, Object[].class);
+    }
+
+    /**
+     * Returns the cached for-in keys of the object (including the prototype chain), or
+     * {@code null} if they cannot be cached.
+     */
+    @TruffleBoundary
+    public static JSShapeData.EnumCache getEnumCache(DynamicObject obj) {
+        assert JSTruffleOptions.FastOwnKeys;
+        return JSShapeData.getEnumCache(obj);
+    }
+
     /**
      * Internal constructor for null shape et al.
      */
@@ -43,13 +43,17 @@ package com.oracle.truffle.js.runtime.objects;
 import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 
 import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.object.Property;
 import com.oracle.truffle.api.object.Shape;
 import com.oracle.truffle.js.runtime.JSContext;
@@ -64,9 +68,13 @@ import com.oracle.truffle.js.runtime.util.IteratorUtil;
  */
 public final class JSShapeData {
     private static final Property[] EMPTY_PROPERTY_ARRAY = new Property[0];
+    private static final String[] EMPTY_STRING_ARRAY = new String[0];
+    private static final int ENUM_CACHE_MAX_PROTOTYPE_CHAIN_LENGTH = 16;
 
     private Property[] propertyArray;
     private Property[] enumerablePropertyArray;
+    private String[] enumerablePropertyNameArray;
+    private EnumCache enumCache;
 
     private JSShapeData() {
     }
@@ -187,6 +195,128 @@ public final class JSShapeData {
         return getEnumerablePropertyArray(shape).length;
     }
 
+    @TruffleBoundary
+    static String[] getEnumerablePropertyNameArray(Shape shape) {
+        if (shape.getPropertyCount() == 0) {
+            return EMPTY_STRING_ARRAY;
+        } else {
+            JSShapeData shapeData = getShapeData(shape);
+            if (shapeData.enumerablePropertyNameArray == null) {
+                Property[] enumerableProperties = getEnumerablePropertyArray(shape);
+                String[] names = new String[enumerableProperties.length];
+                for (int i = 0; i < enumerableProperties.length; i++) {
+                    names[i] = (String) enumerableProperties[i].getKey();
+                }
+                shapeData.enumerablePropertyNameArray = names;
+            }
+            return shapeData.enumerablePropertyNameArray;
+        }
+    }
+
+    /**
+     * Returns the keys visited by for-in on the given object, i.e., the enumerable string keys of
+     * the object and its prototype chain in enumeration order, or {@code null} if the enumeration
+     * cannot be cached because an object in the prototype chain has non-shape properties.
+     *
+     * The result is cached per shape and revalidated against the prototype chain on each call.
+     */
+    @TruffleBoundary
+    static EnumCache getEnumCache(DynamicObject object) {
+        JSShapeData shapeData = getShapeData(object.getShape());
+        EnumCache cache = shapeData.enumCache;
+        if (cache != null && cache.isValid(object)) {
+            enumCacheHitCount.inc();
+            return cache;
+        }
+        cache = EnumCache.create(object);
+        if (cache != null) {
+            enumCacheAllocCount.inc();
+            shapeData.enumCache = cache;
+        }
+        return cache;
+    }
+
+    /**
+     * Enumerable keys of an object including its prototype chain, valid as long as the prototype
+     * chain consists of the same objects with the same shapes.
+     */
+    public static final class EnumCache {
+        @CompilationFinal(dimensions = 1) private final String[] keys;
+        @CompilationFinal(dimensions = 1) private final DynamicObject[] prototypes;
+        @CompilationFinal(dimensions = 1) private final Shape[] prototypeShapes;
+
+        private EnumCache(String[] keys, DynamicObject[] prototypes, Shape[] prototypeShapes) {
+            this.keys = keys;
+            this.prototypes = prototypes;
+            this.prototypeShapes = prototypeShapes;
+        }
+
+        static EnumCache create(DynamicObject object) {
+            CompilerAsserts.neverPartOfCompilation();
+            List<String> keys = new ArrayList<>();
+            List<DynamicObject> prototypes = new ArrayList<>();
+            Set<Object> visitedKeys = new HashSet<>();
+            DynamicObject current = object;
+            for (;;) {
+                if (!JSObject.getJSClass(current).hasOnlyShapeProperties(current)) {
+                    return null;
+                }
+                Property[] properties = getPropertiesArray(current.getShape());
+                for (Property property : properties) {
+                    Object key = property.getKey();
+                    if (key instanceof String && JSProperty.isEnumerable(property) && !visitedKeys.contains(key)) {
+                        keys.add((String) key);
+                    }
+                }
+                // also add non-enumerable properties, they hide enumerable ones in the prototypes.
+                for (Property property : properties) {
+                    visitedKeys.add(property.getKey());
+                }
+                DynamicObject proto = JSObject.getPrototype(current);
+                if (proto == Null.instance) {
+                    break;
+                }
+                if (prototypes.size() >= ENUM_CACHE_MAX_PROTOTYPE_CHAIN_LENGTH) {
+                    return null;
+                }
+                prototypes.add(proto);
+                current = proto;
+            }
+            Shape[] prototypeShapes = new Shape[prototypes.size()];
+            for (int i = 0; i < prototypeShapes.length; i++) {
+                prototypeShapes[i] = prototypes.get(i).getShape();
+            }
+            return new EnumCache(keys.toArray(EMPTY_STRING_ARRAY), prototypes.toArray(new DynamicObject[prototypes.size()]), prototypeShapes);
+        }
+
+        /**
+         * The for-in keys in iteration order. The array must not be modified.
+         */
+        public String[] getKeys() {
+            return keys;
+        }
+
+        /**
+         * Returns whether the keys are (still) valid for {@code object}, which must have the shape
+         * the cache was created for or one with the same properties.
+         */
+        public boolean isValid(DynamicObject object) {
+            if (!JSObject.getJSClass(object).hasOnlyShapeProperties(object)) {
+                return false;
+            }
+            DynamicObject proto = JSObject.getPrototype(object);
+            for (int i = 0; i < prototypes.length; i++) {
+                if (proto != prototypes[i] || proto.getShape() != prototypeShapes[i] || !JSObject.getJSClass(proto).hasOnlyShapeProperties(proto)) {
+                    return false;
+                }
+                proto = JSObject.getPrototype(proto);
+            }
+            return proto == Null.instance;
+        }
+    }
+
     private static final DebugCounter enumerablePropertyListAllocCount = DebugCounter.create("Enumerable property lists allocated");
     private static final DebugCounter propertyListAllocCount = DebugCounter.create("Property lists allocated");
+    private static final DebugCounter enumCacheAllocCount = DebugCounter.create("Enum caches allocated");
+    private static final DebugCounter enumCacheHitCount = DebugCounter.create("Enum cache hits");
 }
@@ -40,6 +40,8 @@
  */
 package com.oracle.truffle.js.runtime.util;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 
@@ -48,6 +50,7 @@ import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 
 public final class DirectByteBufferHelper {
     private static final Class<? extends ByteBuffer> DIRECT_BYTE_BUFFER_CLASS = ByteBuffer.allocateDirect(0).getClass();
+    private static final Class<? extends ByteBuffer> READ_ONLY_DIRECT_BYTE_BUFFER_CLASS = ByteBuffer.allocateDirect(0).asReadOnlyBuffer().getClass();
 
     private DirectByteBufferHelper() {
     }
@@ -61,7 +64,79 @@ public final class DirectByteBufferHelper {
         return cast(allocateDirectImpl(length));
     }
 
+    /**
+     * Returns {@code true} if the buffer can be {@linkplain #cast cast}, i.e., it is a writable
+     * direct buffer.
+     */
+    public static boolean isCastable(ByteBuffer buffer) {
+        return buffer.getClass() == DIRECT_BYTE_BUFFER_CLASS;
+    }
+
+    /**
+     * Returns {@code true} if the buffer is a read-only view of a direct buffer (e.g., a read-only
+     * file mapping), which can be {@linkplain #castReadOnly cast} for reading.
+     */
+    public static boolean isReadOnly(ByteBuffer buffer) {
+        return buffer.getClass() == READ_ONLY_DIRECT_BYTE_BUFFER_CLASS;
+    }
+
     public static ByteBuffer cast(ByteBuffer buffer) {
+        assert isCastable(buffer);
         return CompilerDirectives.castExact(buffer, DIRECT_BYTE_BUFFER_CLASS);
     }
+
+    public static ByteBuffer castReadOnly(ByteBuffer buffer) {
+        assert isReadOnly(buffer);
+        return CompilerDirectives.castExact(buffer, READ_ONLY_DIRECT_BYTE_BUFFER_CLASS);
+    }
+
+    /**
+     * Casts a direct buffer that may be either writable or read-only to its exact class. Callers
+     * that already know which kind of buffer they have should use {@link #cast} or
+     * {@link #castReadOnly} instead.
+     */
+    public static ByteBuffer castAny(ByteBuffer buffer) {
+        if (buffer.getClass() == DIRECT_BYTE_BUFFER_CLASS) {
+            return CompilerDirectives.castExact(buffer, DIRECT_BYTE_BUFFER_CLASS);
+        } else {
+            return castReadOnly(buffer);
+        }
+    }
+
+    /**
+     * Releases the memory mapping of a file-backed buffer immediately instead of waiting for the
+     * buffer to be garbage collected. The buffer must not be accessed afterwards. Returns
+     * {@code false} if the running JDK does not allow releasing the mapping explicitly.
+     */
+    @TruffleBoundary
+    public static boolean unmap(ByteBuffer buffer) {
+        assert buffer.isDirect();
+        try {
+            // JDK 9+: sun.misc.Unsafe.invokeCleaner(ByteBuffer)
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            invokeCleaner.invoke(theUnsafe.get(null), buffer);
+            return true;
+        } catch (NoSuchMethodException e) {
+            // JDK 8: ((sun.nio.ch.DirectBuffer) buffer).cleaner().clean()
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return false;
+        }
+        try {
+            Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            Object cleaner = cleanerMethod.invoke(buffer);
+            if (cleaner == null) {
+                return false;
+            }
+            Method clean = cleaner.getClass().getMethod("clean");
+            clean.setAccessible(true);
+            clean.invoke(cleaner);
+            return true;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return false;
+        }
+    }
 }
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.runtime.util;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.js.runtime.objects.JSObject;
+import com.oracle.truffle.js.runtime.objects.JSShape;
+import com.oracle.truffle.js.runtime.objects.JSShapeData.EnumCache;
+import com.oracle.truffle.js.runtime.objects.Null;
+import com.oracle.truffle.js.runtime.objects.PropertyDescriptor;
+
+/**
+ * Iterates over the precomputed for-in keys of an object (see {@link JSShape#getEnumCache}). As
+ * long as the object keeps its shape and its prototype chain is unchanged, the keys are returned
+ * as they are; otherwise, every remaining key is re-checked like in {@link EnumerateIterator}, so
+ * that keys deleted from the object or from a prototype are skipped.
+ */
+public final class EnumCacheIterator implements Iterator<Object> {
+    private final DynamicObject object;
+    private final Shape shape;
+    private final EnumCache cache;
+    private final String[] keys;
+    private int cursor;
+    private boolean modified;
+
+    public EnumCacheIterator(DynamicObject object, EnumCache cache) {
+        this.object = object;
+        this.shape = object.getShape();
+        this.cache = cache;
+        this.keys = cache.getKeys();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (modified || object.getShape() != shape || !cache.isValid(object)) {
+            modified = true;
+            skipRemovedKeys();
+        }
+        return cursor < keys.length;
+    }
+
+    @Override
+    public Object next() {
+        if (hasNext()) {
+            return keys[cursor++];
+        }
+        throw new NoSuchElementException();
+    }
+
+    @TruffleBoundary
+    private void skipRemovedKeys() {
+        while (cursor < keys.length && !isEnumerableInPrototypeChain(keys[cursor])) {
+            cursor++;
+        }
+    }
+
+    private boolean isEnumerableInPrototypeChain(String key) {
+        DynamicObject current = object;
+        while (current != Null.instance) {
+            PropertyDescriptor desc = JSObject.getOwnProperty(current, key);
+            if (desc != null) {
+                return desc.getEnumerable();
+            }
+            current = JSObject.getPrototype(current);
+        }
+        return false;
+    }
+}
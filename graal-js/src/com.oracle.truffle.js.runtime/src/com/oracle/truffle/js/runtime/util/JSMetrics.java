@@ -0,0 +1,386 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.runtime.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.js.runtime.JSTruffleOptions;
+
+/**
+ * Per-context registry of always-on runtime metrics.
+ *
+ * Unlike {@link DebugCounter}, which is only active with {@code DebugCounters} and only prints to
+ * stdout, these counters are always collected. They are backed by striped {@link LongAdder}s so
+ * concurrent updates from several threads do not contend, and can be queried via
+ * {@code Graal.metrics()}, JMX (see {@link #registerMBean()}) and the polyglot API. With
+ * {@code js.metrics=false}, updates are folded away in compiled code and no boundary is crossed.
+ */
+public final class JSMetrics {
+    public enum Counter {
+        MegamorphicPropertyAccess("megamorphicPropertyAccess"),
+        MegamorphicCall("megamorphicCall"),
+        DictionaryObjectTransition("dictionaryObjectTransition"),
+        OrdinaryObjectTransition("ordinaryObjectTransition"),
+        ArrayTransition("arrayTransition"),
+        RegexFallback("regexFallback"),
+        RegexBacktrackSteps("regexBacktrackSteps"),
+        RegexStepLimitExceeded("regexStepLimitExceeded"),
+        PromiseJob("promiseJob"),
+        JavaInteropTask("javaInteropTask"),
+        EvalCompilation("evalCompilation");
+
+        private final String key;
+
+        Counter(String key) {
+            this.key = key;
+        }
+
+        public String getKey() {
+            return key;
+        }
+    }
+
+    public enum Histogram {
+        EvalCompilationNanos("evalCompilationNanos"),
+        PromiseJobsPerDrain("promiseJobsPerDrain"),
+        JavaInteropQueueDepth("javaInteropQueueDepth");
+
+        private final String key;
+
+        Histogram(String key) {
+            this.key = key;
+        }
+
+        public String getKey() {
+            return key;
+        }
+    }
+
+    private static final String MBEAN_DOMAIN = "com.oracle.truffle.js";
+    private static final AtomicLong contextIds = new AtomicLong();
+
+    private final long id;
+    private final LongAdder[] counters;
+    private final LongHistogram[] histograms;
+    private ObjectName mbeanName;
+    @CompilationFinal private boolean enabled;
+
+    public JSMetrics(boolean enabled) {
+        this.enabled = enabled;
+        this.id = contextIds.incrementAndGet();
+        this.counters = new LongAdder[Counter.values().length];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+        this.histograms = new LongHistogram[Histogram.values().length];
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LongHistogram();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        CompilerDirectives.transferToInterpreterAndInvalidate();
+        this.enabled = enabled;
+    }
+
+    public void increment(Counter counter) {
+        if (enabled) {
+            incrementBoundary(counter);
+        }
+    }
+
+    @TruffleBoundary
+    private void incrementBoundary(Counter counter) {
+        counters[counter.ordinal()].increment();
+    }
+
+    public void add(Counter counter, long delta) {
+        if (enabled) {
+            addBoundary(counter, delta);
+        }
+    }
+
+    @TruffleBoundary
+    private void addBoundary(Counter counter, long delta) {
+        counters[counter.ordinal()].add(delta);
+    }
+
+    public void record(Histogram histogram, long value) {
+        if (enabled) {
+            recordBoundary(histogram, value);
+        }
+    }
+
+    @TruffleBoundary
+    private void recordBoundary(Histogram histogram, long value) {
+        histograms[histogram.ordinal()].record(value);
+    }
+
+    public long get(Counter counter) {
+        return counters[counter.ordinal()].sum();
+    }
+
+    public LongHistogram get(Histogram histogram) {
+        return histograms[histogram.ordinal()];
+    }
+
+    @TruffleBoundary
+    public void reset() {
+        for (LongAdder counter : counters) {
+            counter.reset();
+        }
+        for (LongHistogram histogram : histograms) {
+            histogram.reset();
+        }
+    }
+
+    /**
+     * Returns a point-in-time view of all counters, keyed by {@link Counter#getKey()}.
+     */
+    @TruffleBoundary
+    public Map<String, Long> getCounters() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (Counter counter : Counter.values()) {
+            result.put(counter.getKey(), get(counter));
+        }
+        return result;
+    }
+
+    /**
+     * Returns a point-in-time view of all histograms, keyed by {@link Histogram#getKey()}.
+     */
+    @TruffleBoundary
+    public Map<String, Map<String, Long>> getHistograms() {
+        Map<String, Map<String, Long>> result = new LinkedHashMap<>();
+        for (Histogram histogram : Histogram.values()) {
+            result.put(histogram.getKey(), get(histogram).getSummary());
+        }
+        return result;
+    }
+
+    /**
+     * Registers this registry with the platform MBean server under
+     * {@code com.oracle.truffle.js:type=Metrics,context=<id>}. Not available on SubstrateVM.
+     */
+    @TruffleBoundary
+    public synchronized void registerMBean() {
+        if (JSTruffleOptions.SubstrateVM || mbeanName != null) {
+            return;
+        }
+        try {
+            ObjectName name = new ObjectName(MBEAN_DOMAIN + ":type=Metrics,context=" + id);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new MetricsBean(this), name);
+            mbeanName = name;
+        } catch (JMException | SecurityException e) {
+            // metrics remain available through the other channels
+        }
+    }
+
+    @TruffleBoundary
+    public synchronized void unregisterMBean() {
+        if (mbeanName == null) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(mbeanName)) {
+                server.unregisterMBean(mbeanName);
+            }
+        } catch (JMException | SecurityException e) {
+            // ignore, the context is going away anyway
+        } finally {
+            mbeanName = null;
+        }
+    }
+
+    @Override
+    @TruffleBoundary
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Long> entry : getCounters().entrySet()) {
+            sb.append(entry.getKey()).append(": ").append(entry.getValue()).append('\n');
+        }
+        for (Map.Entry<String, Map<String, Long>> entry : getHistograms().entrySet()) {
+            sb.append(entry.getKey()).append(": ").append(entry.getValue()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Histogram of non-negative long values with power-of-two buckets. Each bucket is a striped
+     * counter, so recording is cheap and thread-safe; percentiles are approximated by the upper
+     * bound of the bucket they fall into.
+     */
+    public static final class LongHistogram {
+        private static final int BUCKETS = 64;
+
+        private final LongAdder[] buckets;
+        private final LongAdder count;
+        private final LongAdder sum;
+        private final LongAccumulator max;
+
+        LongHistogram() {
+            this.buckets = new LongAdder[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets[i] = new LongAdder();
+            }
+            this.count = new LongAdder();
+            this.sum = new LongAdder();
+            this.max = new LongAccumulator(Math::max, 0);
+        }
+
+        void record(long value) {
+            long v = Math.max(value, 0);
+            // bucket i holds values in [2^(i-1), 2^i - 1]; bucket 0 holds 0
+            buckets[BUCKETS - Long.numberOfLeadingZeros(v)].increment();
+            count.increment();
+            sum.add(v);
+            max.accumulate(v);
+        }
+
+        void reset() {
+            for (LongAdder bucket : buckets) {
+                bucket.reset();
+            }
+            count.reset();
+            sum.reset();
+            max.reset();
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getSum() {
+            return sum.sum();
+        }
+
+        public long getMax() {
+            return max.get();
+        }
+
+        /**
+         * Approximates the given percentile (0-100) by the upper bound of the containing bucket.
+         */
+        public long getPercentile(double percentile) {
+            long total = getCount();
+            if (total == 0) {
+                return 0;
+            }
+            long threshold = (long) Math.ceil(total * percentile / 100.0);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets[i].sum();
+                if (seen >= threshold) {
+                    long upperBound = i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << i) - 1;
+                    return Math.min(upperBound, getMax());
+                }
+            }
+            return getMax();
+        }
+
+        Map<String, Long> getSummary() {
+            Map<String, Long> summary = new LinkedHashMap<>();
+            summary.put("count", getCount());
+            summary.put("sum", getSum());
+            summary.put("max", getMax());
+            summary.put("p50", getPercentile(50));
+            summary.put("p90", getPercentile(90));
+            summary.put("p99", getPercentile(99));
+            return summary;
+        }
+    }
+
+    public interface MetricsMXBean {
+        Map<String, Long> getCounters();
+
+        long getCounter(String name);
+
+        Map<String, Long> getHistogram(String name);
+
+        void reset();
+    }
+
+    private static final class MetricsBean implements MetricsMXBean {
+        private final JSMetrics metrics;
+
+        MetricsBean(JSMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        @Override
+        public Map<String, Long> getCounters() {
+            return metrics.getCounters();
+        }
+
+        @Override
+        public long getCounter(String name) {
+            Long value = metrics.getCounters().get(name);
+            return value == null ? -1 : value;
+        }
+
+        @Override
+        public Map<String, Long> getHistogram(String name) {
+            return metrics.getHistograms().get(name);
+        }
+
+        @Override
+        public void reset() {
+            metrics.reset();
+        }
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.runtime.util;
+
+import java.util.Arrays;
+
+/**
+ * Insertion-ordered open-addressing hash table used as the backing store of dictionary-mode
+ * objects. Keys, values and property flags are kept inline in parallel arrays indexed by entry;
+ * a separate power-of-two index table maps hashes to entries using linear probing.
+ *
+ * Removal only clears the entry and leaves a tombstone in the index, so {@code delete} is O(1)
+ * and does not disturb the iteration order. Tombstones are purged when the entry arrays are full.
+ *
+ * Lookups are plain loops over arrays without boundaries, so they can be partially evaluated. The
+ * caller may pass a precomputed {@link #hash(Object) hash} of a constant key.
+ */
+public final class PropertyDictionary {
+
+    /** Returned by {@link #find} if the key is not present. */
+    public static final int NOT_FOUND = -1;
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    /** Index table slot markers; occupied slots hold {@code entry + 1}. */
+    private static final int EMPTY = 0;
+    private static final int DELETED = -1;
+
+    private Object[] keys;
+    private Object[] values;
+    private int[] flags;
+    private int[] hashes;
+    private int[] index;
+
+    /** Number of used entry slots, including removed entries. */
+    private int used;
+    /** Number of live entries. */
+    private int size;
+    /** Number of writes to existing entries since the key set was last modified. */
+    private int stableWriteCount;
+
+    public PropertyDictionary() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public PropertyDictionary(int expectedSize) {
+        int capacity = Math.max(INITIAL_CAPACITY, Integer.highestOneBit(Math.max(expectedSize, 1) - 1) << 1);
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        this.keys = new Object[capacity];
+        this.values = new Object[capacity];
+        this.flags = new int[capacity];
+        this.hashes = new int[capacity];
+        this.index = new int[capacity * 2];
+    }
+
+    public static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int find(Object key) {
+        return find(key, hash(key));
+    }
+
+    /**
+     * Returns the entry of the key, or {@link #NOT_FOUND}.
+     */
+    public int find(Object key, int hash) {
+        int[] table = index;
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        while (true) {
+            int e = table[slot];
+            if (e == EMPTY) {
+                return NOT_FOUND;
+            } else if (e != DELETED) {
+                int entry = e - 1;
+                Object k = keys[entry];
+                if (k == key || (hashes[entry] == hash && key.equals(k))) {
+                    return entry;
+                }
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public boolean containsKey(Object key) {
+        return find(key) != NOT_FOUND;
+    }
+
+    /**
+     * Upper bound (exclusive) of entry indices for iteration in insertion order. Entries for which
+     * {@link #getKey(int)} returns {@code null} have been removed and must be skipped.
+     */
+    public int getEntryLimit() {
+        return used;
+    }
+
+    public Object getKey(int entry) {
+        return keys[entry];
+    }
+
+    public Object getValue(int entry) {
+        return values[entry];
+    }
+
+    public int getFlags(int entry) {
+        return flags[entry];
+    }
+
+    public void setValue(int entry, Object value) {
+        assert keys[entry] != null;
+        values[entry] = value;
+    }
+
+    /**
+     * Inserts a new entry at the end, or replaces the value and flags of an existing entry in
+     * place.
+     */
+    public void put(Object key, Object value, int propertyFlags) {
+        int hash = hash(key);
+        int entry = find(key, hash);
+        if (entry != NOT_FOUND) {
+            values[entry] = value;
+            flags[entry] = propertyFlags;
+            return;
+        }
+        if (used == keys.length) {
+            // purge tombstones if at least a quarter of the entries are dead, otherwise grow
+            rehash(size <= used - (used >> 2) ? keys.length : keys.length * 2);
+        }
+        entry = used++;
+        keys[entry] = key;
+        values[entry] = value;
+        flags[entry] = propertyFlags;
+        hashes[entry] = hash;
+        insertIndex(hash, entry);
+        size++;
+        stableWriteCount = 0;
+    }
+
+    public boolean remove(Object key) {
+        int hash = hash(key);
+        int[] table = index;
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        while (true) {
+            int e = table[slot];
+            if (e == EMPTY) {
+                return false;
+            } else if (e != DELETED) {
+                int entry = e - 1;
+                Object k = keys[entry];
+                if (k == key || (hashes[entry] == hash && key.equals(k))) {
+                    table[slot] = DELETED;
+                    keys[entry] = null;
+                    values[entry] = null;
+                    size--;
+                    stableWriteCount = 0;
+                    if (size == 0) {
+                        clear();
+                    }
+                    return true;
+                }
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void clear() {
+        Arrays.fill(keys, 0, used, null);
+        Arrays.fill(values, 0, used, null);
+        Arrays.fill(index, EMPTY);
+        used = 0;
+    }
+
+    private void insertIndex(int hash, int entry) {
+        int[] table = index;
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        while (table[slot] > EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = entry + 1;
+    }
+
+    private void rehash(int newCapacity) {
+        Object[] oldKeys = keys;
+        Object[] oldValues = values;
+        int[] oldFlags = flags;
+        int[] oldHashes = hashes;
+        int oldUsed = used;
+        allocate(newCapacity);
+        int entry = 0;
+        for (int i = 0; i < oldUsed; i++) {
+            if (oldKeys[i] != null) {
+                keys[entry] = oldKeys[i];
+                values[entry] = oldValues[i];
+                flags[entry] = oldFlags[i];
+                hashes[entry] = oldHashes[i];
+                insertIndex(oldHashes[i], entry);
+                entry++;
+            }
+        }
+        assert entry == size;
+        used = entry;
+    }
+
+    /**
+     * Records a write to an existing entry and returns the number of such writes since the key set
+     * was last modified.
+     */
+    public int recordWrite() {
+        int count = stableWriteCount;
+        if (count != Integer.MAX_VALUE) {
+            stableWriteCount = ++count;
+        }
+        return count;
+    }
+}
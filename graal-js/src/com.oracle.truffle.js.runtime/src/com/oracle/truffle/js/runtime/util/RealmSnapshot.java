@@ -0,0 +1,987 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.runtime.util;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.RootCallTarget;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.Frame;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.FrameSlot;
+import com.oracle.truffle.api.frame.FrameSlotKind;
+import com.oracle.truffle.api.frame.MaterializedFrame;
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.api.source.SourceSection;
+import com.oracle.truffle.js.runtime.AbstractJavaScriptLanguage;
+import com.oracle.truffle.js.runtime.Errors;
+import com.oracle.truffle.js.runtime.JSArguments;
+import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.JSException;
+import com.oracle.truffle.js.runtime.JSFrameUtil;
+import com.oracle.truffle.js.runtime.JSRealm;
+import com.oracle.truffle.js.runtime.JSRuntime;
+import com.oracle.truffle.js.runtime.Symbol;
+import com.oracle.truffle.js.runtime.builtins.JSArgumentsObject;
+import com.oracle.truffle.js.runtime.builtins.JSArray;
+import com.oracle.truffle.js.runtime.builtins.JSFunction;
+import com.oracle.truffle.js.runtime.builtins.JSFunctionData;
+import com.oracle.truffle.js.runtime.builtins.JSProxy;
+import com.oracle.truffle.js.runtime.builtins.JSUserObject;
+import com.oracle.truffle.js.runtime.objects.Dead;
+import com.oracle.truffle.js.runtime.objects.JSObject;
+import com.oracle.truffle.js.runtime.objects.Null;
+import com.oracle.truffle.js.runtime.objects.PropertyDescriptor;
+import com.oracle.truffle.js.runtime.objects.Undefined;
+
+/**
+ * Serialized global environment of an initialized realm.
+ * <p>
+ * A snapshot is taken in two steps: {@link #prepare(JSRealm)} records the intrinsics of a freshly
+ * created realm and, after a prelude script has been evaluated in that realm,
+ * {@link #write(OutputStream)} serializes everything the prelude changed, i.e. the properties that
+ * were added to, redefined on or deleted from the global object and the intrinsics, together with
+ * the objects reachable from them. {@link Image#read(InputStream)} decodes a snapshot once per
+ * engine and {@link #restore(JSRealm, Image)} applies it to the main realm of a new context, so
+ * that the prelude does not have to be executed again.
+ * <p>
+ * Intrinsics are referenced by their property path from the global object. Ordinary objects,
+ * arrays, symbols and functions are serialized by value. Functions that do not capture their
+ * enclosing scope are restored with lazily initialized call targets, so their source text is only
+ * parsed when they are first invoked. Closures, such as the functions of a polyfill wrapped in an
+ * immediately invoked function expression, are restored the same way, but enclosed in copies of the
+ * scope frames they capture: each frame is recreated with the slots of the original one, including
+ * their kinds and let/const flags and the internal {@code this} slot, and is populated with the
+ * serialized slot values, so that the closures are parsed against the same variable layout when
+ * they are first invoked. Anything else (bound or class constructor functions, exotic or foreign
+ * objects, global lexical declarations, the arguments objects of captured functions) is rejected
+ * or dropped when the snapshot is written.
+ */
+public final class RealmSnapshot {
+
+    private static final int MAGIC = 0x4A53524D;
+    private static final int VERSION = 3;
+
+    private static final byte PATCH_END = 0;
+    private static final byte PATCH_DEFINE = 1;
+    private static final byte PATCH_DELETE = 2;
+    private static final byte PATCH_PROTOTYPE = 3;
+    private static final byte PATCH_PREVENT_EXTENSIONS = 4;
+    private static final byte PATCH_SCOPE = 5;
+
+    private static final byte VALUE_UNDEFINED = 0;
+    private static final byte VALUE_NULL = 1;
+    private static final byte VALUE_TRUE = 2;
+    private static final byte VALUE_FALSE = 3;
+    private static final byte VALUE_INT = 4;
+    private static final byte VALUE_DOUBLE = 5;
+    private static final byte VALUE_STRING = 6;
+    private static final byte VALUE_INTRINSIC = 7;
+    private static final byte VALUE_REFERENCE = 8;
+    private static final byte VALUE_SYMBOL = 9;
+    private static final byte VALUE_REGISTERED_SYMBOL = 10;
+    private static final byte VALUE_OBJECT = 11;
+    private static final byte VALUE_ARRAY = 12;
+    private static final byte VALUE_FUNCTION = 13;
+
+    private static final int FLAG_ACCESSOR = 1;
+    private static final int FLAG_ENUMERABLE = 1 << 1;
+    private static final int FLAG_WRITABLE = 1 << 2;
+    private static final int FLAG_CONFIGURABLE = 1 << 3;
+
+    private static final byte SLOT_UNSET = 0;
+    private static final byte SLOT_VALUE = 1;
+    private static final byte SLOT_DEAD = 2;
+
+    private static final FrameSlotKind[] FRAME_SLOT_KINDS = FrameSlotKind.values();
+
+    /**
+     * Path segments: {@code ^} follows the prototype, {@code v}, {@code g} and {@code s} followed by
+     * a property key follow the value, getter or setter of an own property. String keys are
+     * prefixed with {@code .} and well-known symbol keys with {@code @}.
+     */
+    private static final String PROTOTYPE_SEGMENT = "^";
+    private static final String WELL_KNOWN_SYMBOL_PREFIX = "Symbol.";
+    private static final int NO_SCOPE = -1;
+
+    private final JSRealm realm;
+    private final Map<Object, String[]> intrinsicPaths = new IdentityHashMap<>();
+    private final Map<DynamicObject, Baseline> baselines = new IdentityHashMap<>();
+    private final List<DynamicObject> intrinsicObjects = new ArrayList<>();
+    private final int globalScopeSize;
+
+    private static final class Baseline {
+        final DynamicObject prototype;
+        final boolean extensible;
+        final Map<Object, PropertyDescriptor> properties;
+
+        Baseline(DynamicObject prototype, boolean extensible, Map<Object, PropertyDescriptor> properties) {
+            this.prototype = prototype;
+            this.extensible = extensible;
+            this.properties = properties;
+        }
+    }
+
+    private RealmSnapshot(JSRealm realm) {
+        this.realm = realm;
+        this.globalScopeSize = realm.getGlobalScope().getFrameDescriptor().getSize();
+    }
+
+    /**
+     * Records the intrinsics of a realm that has not evaluated any code yet.
+     */
+    public static RealmSnapshot prepare(JSRealm realm) {
+        RealmSnapshot snapshot = new RealmSnapshot(realm);
+        snapshot.collectIntrinsics();
+        return snapshot;
+    }
+
+    private void collectIntrinsics() {
+        DynamicObject global = realm.getGlobalObject();
+        Deque<DynamicObject> queue = new ArrayDeque<>();
+        intrinsicPaths.put(global, new String[0]);
+        queue.add(global);
+        while (!queue.isEmpty()) {
+            DynamicObject obj = queue.poll();
+            String[] path = intrinsicPaths.get(obj);
+            DynamicObject prototype = JSObject.getPrototype(obj);
+            addIntrinsic(prototype, path, PROTOTYPE_SEGMENT, queue);
+            Map<Object, PropertyDescriptor> properties = new LinkedHashMap<>();
+            for (Object key : JSObject.ownPropertyKeys(obj)) {
+                PropertyDescriptor desc = JSObject.getOwnProperty(obj, key);
+                properties.put(key, desc);
+                String keySegment = encodePathKey(global, key);
+                if (keySegment == null) {
+                    continue;
+                }
+                if (desc.isAccessorDescriptor()) {
+                    addIntrinsic(desc.getGet(), path, "g" + keySegment, queue);
+                    addIntrinsic(desc.getSet(), path, "s" + keySegment, queue);
+                } else {
+                    addIntrinsic(desc.getValue(), path, "v" + keySegment, queue);
+                }
+            }
+            baselines.put(obj, new Baseline(prototype, JSObject.isExtensible(obj), properties));
+            intrinsicObjects.add(obj);
+        }
+    }
+
+    private void addIntrinsic(Object value, String[] parentPath, String segment, Deque<DynamicObject> queue) {
+        if (value == null || value == Undefined.instance || value == Null.instance || intrinsicPaths.containsKey(value)) {
+            return;
+        }
+        if (value instanceof Symbol) {
+            intrinsicPaths.put(value, appendSegment(parentPath, segment));
+        } else if (JSObject.isJSObject(value) && !JSProxy.isProxy(value)) {
+            intrinsicPaths.put(value, appendSegment(parentPath, segment));
+            queue.add((DynamicObject) value);
+        }
+    }
+
+    private static String[] appendSegment(String[] path, String segment) {
+        String[] newPath = Arrays.copyOf(path, path.length + 1);
+        newPath[path.length] = segment;
+        return newPath;
+    }
+
+    private static String encodePathKey(DynamicObject global, Object key) {
+        if (key instanceof String) {
+            return "." + key;
+        } else if (key instanceof Symbol) {
+            String name = ((Symbol) key).getName();
+            if (name.startsWith(WELL_KNOWN_SYMBOL_PREFIX) && lookupWellKnownSymbol(global, name) == key) {
+                return "@" + name;
+            }
+        }
+        return null;
+    }
+
+    private static Object decodePathKey(DynamicObject global, String encodedKey) throws IOException {
+        if (encodedKey.startsWith(".")) {
+            return encodedKey.substring(1);
+        } else if (encodedKey.startsWith("@")) {
+            Symbol symbol = lookupWellKnownSymbol(global, encodedKey.substring(1));
+            if (symbol != null) {
+                return symbol;
+            }
+        }
+        throw new IOException("invalid intrinsic path segment: " + encodedKey);
+    }
+
+    private static Symbol lookupWellKnownSymbol(DynamicObject global, String name) {
+        PropertyDescriptor symbolConstructor = JSObject.getOwnProperty(global, "Symbol");
+        if (symbolConstructor == null || !JSObject.isJSObject(symbolConstructor.getValue())) {
+            return null;
+        }
+        PropertyDescriptor desc = JSObject.getOwnProperty((DynamicObject) symbolConstructor.getValue(), name.substring(WELL_KNOWN_SYMBOL_PREFIX.length()));
+        return (desc != null && desc.getValue() instanceof Symbol) ? (Symbol) desc.getValue() : null;
+    }
+
+    /**
+     * Serializes the changes made to the realm since {@link #prepare(JSRealm)}.
+     *
+     * @throws IllegalArgumentException if the realm contains a value that cannot be snapshotted
+     */
+    public void write(OutputStream out) throws IOException {
+        if (realm.getGlobalScope().getFrameDescriptor().getSize() != globalScopeSize) {
+            throw new IllegalArgumentException("global lexical declarations cannot be snapshotted");
+        }
+        ByteArrayOutputStream patches = new ByteArrayOutputStream();
+        Writer writer = new Writer(new DataOutputStream(patches));
+        for (DynamicObject obj : intrinsicObjects) {
+            writer.writePatches(obj, baselines.get(obj));
+            writer.writePendingScopes();
+        }
+        writer.out.writeByte(PATCH_END);
+        writer.out.flush();
+
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(writer.intrinsics.size());
+        for (String[] path : writer.intrinsics) {
+            data.writeInt(path.length);
+            for (String segment : path) {
+                writeString(data, segment);
+            }
+        }
+        patches.writeTo(data);
+        data.flush();
+    }
+
+    private final class Writer {
+        final DataOutputStream out;
+        final Map<Object, Integer> intrinsicIndices = new IdentityHashMap<>();
+        final List<String[]> intrinsics = new ArrayList<>();
+        final Map<Object, Integer> ids = new IdentityHashMap<>();
+        final Map<Frame, Integer> scopeIds = new IdentityHashMap<>();
+        final Deque<Frame> pendingScopes = new ArrayDeque<>();
+
+        Writer(DataOutputStream out) {
+            this.out = out;
+        }
+
+        void writePatches(DynamicObject obj, Baseline baseline) throws IOException {
+            for (Object key : baseline.properties.keySet()) {
+                if (JSObject.getOwnProperty(obj, key) == null) {
+                    out.writeByte(PATCH_DELETE);
+                    out.writeInt(intrinsicIndex(obj));
+                    writeValue(key);
+                }
+            }
+            for (Object key : JSObject.ownPropertyKeys(obj)) {
+                PropertyDescriptor desc = JSObject.getOwnProperty(obj, key);
+                PropertyDescriptor before = baseline.properties.get(key);
+                if (before == null || !isSameDescriptor(before, desc)) {
+                    out.writeByte(PATCH_DEFINE);
+                    out.writeInt(intrinsicIndex(obj));
+                    writeValue(key);
+                    writeDescriptor(desc);
+                }
+            }
+            DynamicObject prototype = JSObject.getPrototype(obj);
+            if (prototype != baseline.prototype) {
+                out.writeByte(PATCH_PROTOTYPE);
+                out.writeInt(intrinsicIndex(obj));
+                writeValue(prototype);
+            }
+            if (baseline.extensible && !JSObject.isExtensible(obj)) {
+                out.writeByte(PATCH_PREVENT_EXTENSIONS);
+                out.writeInt(intrinsicIndex(obj));
+            }
+        }
+
+        int intrinsicIndex(Object value) {
+            String[] path = intrinsicPaths.get(value);
+            if (path == null) {
+                return -1;
+            }
+            return intrinsicIndices.computeIfAbsent(value, v -> {
+                intrinsics.add(path);
+                return intrinsics.size() - 1;
+            });
+        }
+
+        void writeDescriptor(PropertyDescriptor desc) throws IOException {
+            int flags = (desc.getEnumerable() ? FLAG_ENUMERABLE : 0) | (desc.getConfigurable() ? FLAG_CONFIGURABLE : 0);
+            if (desc.isAccessorDescriptor()) {
+                out.writeByte(flags | FLAG_ACCESSOR);
+                writeValue(desc.getGet() == null ? Undefined.instance : desc.getGet());
+                writeValue(desc.getSet() == null ? Undefined.instance : desc.getSet());
+            } else {
+                out.writeByte(flags | (desc.getWritable() ? FLAG_WRITABLE : 0));
+                writeValue(desc.getValue());
+            }
+        }
+
+        void writeValue(Object value) throws IOException {
+            if (value == Undefined.instance) {
+                out.writeByte(VALUE_UNDEFINED);
+            } else if (value == Null.instance) {
+                out.writeByte(VALUE_NULL);
+            } else if (value instanceof Boolean) {
+                out.writeByte((boolean) value ? VALUE_TRUE : VALUE_FALSE);
+            } else if (value instanceof Integer) {
+                out.writeByte(VALUE_INT);
+                out.writeInt((int) value);
+            } else if (value instanceof Double || value instanceof Long) {
+                out.writeByte(VALUE_DOUBLE);
+                out.writeDouble(((Number) value).doubleValue());
+            } else if (value instanceof CharSequence) {
+                out.writeByte(VALUE_STRING);
+                writeString(out, value.toString());
+            } else {
+                writeReferenceValue(value);
+            }
+        }
+
+        private void writeReferenceValue(Object value) throws IOException {
+            int intrinsicIndex = intrinsicIndex(value);
+            if (intrinsicIndex >= 0) {
+                out.writeByte(VALUE_INTRINSIC);
+                out.writeInt(intrinsicIndex);
+                return;
+            }
+            Integer id = ids.get(value);
+            if (id != null) {
+                out.writeByte(VALUE_REFERENCE);
+                out.writeInt(id);
+            } else if (value instanceof Symbol) {
+                writeSymbol((Symbol) value);
+            } else if (JSArray.isJSArray(value)) {
+                ids.put(value, ids.size());
+                out.writeByte(VALUE_ARRAY);
+                writeObjectBody((DynamicObject) value);
+            } else if (JSFunction.isJSFunction(value)) {
+                DynamicObject function = (DynamicObject) value;
+                JSFunctionData functionData = JSFunction.getFunctionData(function);
+                SourceSection sourceSection = getSourceSection(function);
+                ids.put(value, ids.size());
+                out.writeByte(VALUE_FUNCTION);
+                out.writeBoolean(JSFunction.isStrict(function));
+                out.writeInt(functionData.getFlags());
+                out.writeInt(functionData.getLength());
+                writeString(out, functionData.getName() == null ? "" : functionData.getName());
+                writeString(out, sourceSection.getSource().getName());
+                writeString(out, sourceSection.getCharacters().toString());
+                writeScope(JSFunction.needsParentFrame(function) ? JSFunction.getEnclosingFrame(function) : JSFrameUtil.NULL_MATERIALIZED_FRAME);
+                writeObjectBody(function);
+                // written after the body, since the lexical this may refer back to the function
+                boolean hasLexicalThis = JSFunction.hasLexicalThis(function);
+                out.writeBoolean(hasLexicalThis);
+                if (hasLexicalThis) {
+                    writeValue(JSFunction.getLexicalThis(function));
+                }
+            } else if (JSUserObject.isJSUserObject(value)) {
+                ids.put(value, ids.size());
+                out.writeByte(VALUE_OBJECT);
+                writeObjectBody((DynamicObject) value);
+            } else {
+                throw new IllegalArgumentException("cannot snapshot " + JSRuntime.safeToString(value));
+            }
+        }
+
+        private void writeSymbol(Symbol symbol) throws IOException {
+            for (Map.Entry<String, Symbol> entry : realm.getContext().getSymbolRegistry().entrySet()) {
+                if (entry.getValue() == symbol) {
+                    out.writeByte(VALUE_REGISTERED_SYMBOL);
+                    writeString(out, entry.getKey());
+                    return;
+                }
+            }
+            ids.put(symbol, ids.size());
+            out.writeByte(VALUE_SYMBOL);
+            writeString(out, symbol.getName());
+        }
+
+        private SourceSection getSourceSection(DynamicObject function) {
+            if (JSFunction.isBoundFunction(function) || JSFunction.isBuiltin(function) || JSFunction.getFunctionData(function).isClassConstructor()) {
+                throw new IllegalArgumentException("cannot snapshot function " + JSFunction.getName(function));
+            }
+            SourceSection sourceSection = ((RootCallTarget) JSFunction.getCallTarget(function)).getRootNode().getSourceSection();
+            if (sourceSection == null || !sourceSection.isAvailable() || sourceSection.getSource().isInternal()) {
+                throw new IllegalArgumentException("source of function " + JSFunction.getName(function) + " is not available");
+            }
+            try {
+                createFunction(realm, JSFunction.isStrict(function), sourceSection.getSource().getName(), sourceSection.getCharacters().toString());
+            } catch (JSException e) {
+                throw new IllegalArgumentException("function " + JSFunction.getName(function) + " cannot be recreated from its source text", e);
+            }
+            return sourceSection;
+        }
+
+        /**
+         * Writes a reference to a captured scope. A scope is declared, i.e. its kind, its enclosing
+         * scope and its slots are written, on first use; the values of its slots are written
+         * separately by {@link #writePendingScopes()}, since they may refer back to the closures
+         * that are currently being written.
+         */
+        private void writeScope(Frame frame) throws IOException {
+            if (frame == null || frame == JSFrameUtil.NULL_MATERIALIZED_FRAME) {
+                out.writeInt(NO_SCOPE);
+                return;
+            }
+            Integer id = scopeIds.get(frame);
+            if (id != null) {
+                out.writeInt(id);
+                return;
+            }
+            id = scopeIds.size();
+            scopeIds.put(frame, id);
+            out.writeInt(id);
+            out.writeBoolean(isBlockScope(frame));
+            writeScope(getParentScope(frame));
+            List<FrameSlot> slots = getScopeSlots(frame);
+            out.writeInt(slots.size());
+            for (FrameSlot slot : slots) {
+                writeString(out, (String) slot.getIdentifier());
+                out.writeInt(JSFrameUtil.getFlags(slot));
+                out.writeByte(slot.getKind().ordinal());
+            }
+            pendingScopes.add(frame);
+        }
+
+        void writePendingScopes() throws IOException {
+            while (!pendingScopes.isEmpty()) {
+                Frame frame = pendingScopes.poll();
+                List<FrameSlot> slots = getScopeSlots(frame);
+                out.writeByte(PATCH_SCOPE);
+                out.writeInt(scopeIds.get(frame));
+                out.writeInt(slots.size());
+                for (FrameSlot slot : slots) {
+                    Object value = frame.getValue(slot);
+                    if (value == Dead.instance()) {
+                        out.writeByte(SLOT_DEAD);
+                    } else if (isScopeValue(slot, value)) {
+                        out.writeByte(SLOT_VALUE);
+                        writeValue(value);
+                    } else {
+                        out.writeByte(SLOT_UNSET);
+                    }
+                }
+            }
+        }
+
+        private void writeObjectBody(DynamicObject obj) throws IOException {
+            writeValue(JSObject.getPrototype(obj));
+            List<Object> keys = JSObject.ownPropertyKeysList(obj);
+            out.writeInt(keys.size());
+            for (Object key : keys) {
+                writeValue(key);
+                writeDescriptor(JSObject.getOwnProperty(obj, key));
+            }
+            out.writeBoolean(JSObject.isExtensible(obj));
+        }
+    }
+
+    private static boolean isSameDescriptor(PropertyDescriptor a, PropertyDescriptor b) {
+        if (a.isAccessorDescriptor() != b.isAccessorDescriptor() || a.getEnumerable() != b.getEnumerable() || a.getConfigurable() != b.getConfigurable()) {
+            return false;
+        } else if (a.isAccessorDescriptor()) {
+            return a.getGet() == b.getGet() && a.getSet() == b.getSet();
+        } else {
+            return a.getWritable() == b.getWritable() && JSRuntime.isSameValue(a.getValue(), b.getValue());
+        }
+    }
+
+    private static boolean isBlockScope(Frame frame) {
+        return frame.getFrameDescriptor().findFrameSlot(JSFrameUtil.PARENT_SCOPE_IDENTIFIER) != null;
+    }
+
+    private static Frame getParentScope(Frame frame) {
+        FrameSlot parentSlot = frame.getFrameDescriptor().findFrameSlot(JSFrameUtil.PARENT_SCOPE_IDENTIFIER);
+        if (parentSlot != null) {
+            return (Frame) frame.getValue(parentSlot);
+        }
+        return JSFrameUtil.getParentFrame(frame);
+    }
+
+    private static List<FrameSlot> getScopeSlots(Frame frame) {
+        List<FrameSlot> slots = new ArrayList<>();
+        for (FrameSlot slot : frame.getFrameDescriptor().getSlots()) {
+            if (!(slot.getIdentifier() instanceof String) || slot.getIdentifier().equals(JSFrameUtil.PARENT_SCOPE_IDENTIFIER)) {
+                continue;
+            }
+            if (slot.getIdentifier().equals("eval")) {
+                throw new IllegalArgumentException("cannot snapshot a scope that declares eval");
+            }
+            slots.add(slot);
+        }
+        return slots;
+    }
+
+    /**
+     * Whether the value of a captured slot is kept. Arguments objects are dropped, since restored
+     * scopes do not provide the arguments of their functions, and so are internal values that are
+     * not ordinary JavaScript values.
+     */
+    private static boolean isScopeValue(FrameSlot slot, Object value) {
+        if (value == null || JSArgumentsObject.isJSArgumentsObject(value)) {
+            return false;
+        }
+        return !JSFrameUtil.isInternal(slot) || JSRuntime.isJSPrimitive(value) || JSObject.isJSObject(value);
+    }
+
+    private static String functionExpression(boolean strict, String sourceText) {
+        return (strict ? "'use strict';" : "") + "(" + sourceText + "\n)";
+    }
+
+    private static DynamicObject createFunction(JSRealm realm, boolean strict, String sourceName, String sourceText) {
+        Source source = createSource(sourceName, functionExpression(strict, sourceText));
+        Object function = realm.getContext().getEvaluator().evaluate(realm, null, source);
+        if (!JSFunction.isJSFunction(function)) {
+            throw Errors.createTypeError("not a function: " + sourceText);
+        }
+        return (DynamicObject) function;
+    }
+
+    private static Source createSource(String sourceName, String code) {
+        return Source.newBuilder(code).name(sourceName).mimeType(AbstractJavaScriptLanguage.APPLICATION_MIME_TYPE).build();
+    }
+
+    /**
+     * A decoded snapshot that can be applied to any number of realms.
+     */
+    public static final class Image {
+        private final String[][] intrinsicPaths;
+        private final byte[] patches;
+
+        private Image(String[][] intrinsicPaths, byte[] patches) {
+            this.intrinsicPaths = intrinsicPaths;
+            this.patches = patches;
+        }
+
+        /**
+         * Loads the snapshot stored in the given file.
+         */
+        public static Image load(String fileName) {
+            try (InputStream in = new BufferedInputStream(new FileInputStream(fileName))) {
+                return read(in);
+            } catch (IOException e) {
+                throw Errors.createError("Cannot load realm snapshot " + fileName + ": " + e.getMessage());
+            }
+        }
+
+        public static Image read(InputStream in) throws IOException {
+            DataInputStream data = new DataInputStream(in);
+            if (data.readInt() != MAGIC) {
+                throw new IOException("not a realm snapshot");
+            }
+            int version = data.readInt();
+            if (version != VERSION) {
+                throw new IOException("unsupported realm snapshot version " + version);
+            }
+            String[][] intrinsicPaths = new String[data.readInt()][];
+            for (int i = 0; i < intrinsicPaths.length; i++) {
+                String[] path = new String[data.readInt()];
+                for (int j = 0; j < path.length; j++) {
+                    path[j] = readString(data);
+                }
+                intrinsicPaths[i] = path;
+            }
+            ByteArrayOutputStream patches = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            for (int n = data.read(buffer); n >= 0; n = data.read(buffer)) {
+                patches.write(buffer, 0, n);
+            }
+            return new Image(intrinsicPaths, patches.toByteArray());
+        }
+    }
+
+    /**
+     * Applies a snapshot to the main realm of a newly initialized context. This evaluates code, so
+     * it must not be called before the context is initialized.
+     */
+    public static void restore(JSRealm realm, Image image) {
+        try {
+            // resolve all intrinsics before the realm is modified
+            DynamicObject global = realm.getGlobalObject();
+            Object[] intrinsics = new Object[image.intrinsicPaths.length];
+            for (int i = 0; i < intrinsics.length; i++) {
+                intrinsics[i] = resolvePath(global, image.intrinsicPaths[i]);
+            }
+            new Reader(realm, new DataInputStream(new ByteArrayInputStream(image.patches)), intrinsics).readPatches();
+        } catch (IOException e) {
+            throw Errors.createError("Cannot restore realm snapshot: " + e.getMessage());
+        }
+    }
+
+    private static Object resolvePath(DynamicObject global, String[] path) throws IOException {
+        Object current = global;
+        for (String segment : path) {
+            if (!JSObject.isJSObject(current)) {
+                throw new IOException("intrinsic not found: " + String.join("", path));
+            }
+            DynamicObject obj = (DynamicObject) current;
+            if (segment.equals(PROTOTYPE_SEGMENT)) {
+                current = JSObject.getPrototype(obj);
+                continue;
+            }
+            PropertyDescriptor desc = JSObject.getOwnProperty(obj, decodePathKey(global, segment.substring(1)));
+            if (desc == null) {
+                throw new IOException("intrinsic not found: " + String.join("", path));
+            }
+            switch (segment.charAt(0)) {
+                case 'v':
+                    current = desc.getValue();
+                    break;
+                case 'g':
+                    current = desc.getGet();
+                    break;
+                case 's':
+                    current = desc.getSet();
+                    break;
+                default:
+                    throw new IOException("invalid intrinsic path segment: " + segment);
+            }
+        }
+        return current;
+    }
+
+    private static final class Reader {
+        final JSRealm realm;
+        final JSContext context;
+        final DataInputStream in;
+        final Object[] intrinsics;
+        final List<Object> objects = new ArrayList<>();
+        /** Captured scopes, restored as frames with the same slots as the original ones. */
+        final List<MaterializedFrame> scopes = new ArrayList<>();
+        final List<FrameSlot[]> scopeSlots = new ArrayList<>();
+
+        Reader(JSRealm realm, DataInputStream in, Object[] intrinsics) {
+            this.realm = realm;
+            this.context = realm.getContext();
+            this.in = in;
+            this.intrinsics = intrinsics;
+        }
+
+        void readPatches() throws IOException {
+            while (true) {
+                byte patch = in.readByte();
+                if (patch == PATCH_END) {
+                    return;
+                } else if (patch == PATCH_SCOPE) {
+                    readScopeValues();
+                    continue;
+                }
+                DynamicObject target = (DynamicObject) intrinsics[in.readInt()];
+                switch (patch) {
+                    case PATCH_DEFINE:
+                        JSObject.defineOwnProperty(target, readValue(), readDescriptor(), true);
+                        break;
+                    case PATCH_DELETE:
+                        JSObject.delete(target, readValue(), true);
+                        break;
+                    case PATCH_PROTOTYPE:
+                        JSObject.setPrototype(target, (DynamicObject) readValue());
+                        break;
+                    case PATCH_PREVENT_EXTENSIONS:
+                        JSObject.preventExtensions(target);
+                        break;
+                    default:
+                        throw new IOException("corrupt realm snapshot");
+                }
+            }
+        }
+
+        PropertyDescriptor readDescriptor() throws IOException {
+            int flags = in.readByte();
+            boolean enumerable = (flags & FLAG_ENUMERABLE) != 0;
+            boolean configurable = (flags & FLAG_CONFIGURABLE) != 0;
+            if ((flags & FLAG_ACCESSOR) != 0) {
+                DynamicObject getter = (DynamicObject) readValue();
+                DynamicObject setter = (DynamicObject) readValue();
+                return PropertyDescriptor.createAccessor(setter, getter, enumerable, false, configurable);
+            } else {
+                return PropertyDescriptor.createData(readValue(), enumerable, (flags & FLAG_WRITABLE) != 0, configurable);
+            }
+        }
+
+        Object readValue() throws IOException {
+            byte tag = in.readByte();
+            switch (tag) {
+                case VALUE_UNDEFINED:
+                    return Undefined.instance;
+                case VALUE_NULL:
+                    return Null.instance;
+                case VALUE_TRUE:
+                    return true;
+                case VALUE_FALSE:
+                    return false;
+                case VALUE_INT:
+                    return in.readInt();
+                case VALUE_DOUBLE:
+                    return in.readDouble();
+                case VALUE_STRING:
+                    return readString(in);
+                case VALUE_INTRINSIC:
+                    return intrinsics[in.readInt()];
+                case VALUE_REFERENCE:
+                    return objects.get(in.readInt());
+                case VALUE_SYMBOL: {
+                    Symbol symbol = Symbol.create(readString(in));
+                    objects.add(symbol);
+                    return symbol;
+                }
+                case VALUE_REGISTERED_SYMBOL:
+                    return getOrCreateRegisteredSymbol(readString(in));
+                case VALUE_OBJECT:
+                    return readObjectBody(JSUserObject.create(realm));
+                case VALUE_ARRAY:
+                    return readObjectBody(JSArray.createEmptyZeroLength(context));
+                case VALUE_FUNCTION: {
+                    DynamicObject function = readObjectBody(readFunction());
+                    if (in.readBoolean()) {
+                        JSFunction.setClassPrototype(function, readValue());
+                    }
+                    return function;
+                }
+                default:
+                    throw new IOException("corrupt realm snapshot");
+            }
+        }
+
+        private DynamicObject readFunction() throws IOException {
+            boolean strict = in.readBoolean();
+            int flags = in.readInt();
+            int length = in.readInt();
+            String name = readString(in);
+            String sourceName = readString(in);
+            String sourceText = readString(in);
+            MaterializedFrame scope = readScope();
+            JSFunctionData functionData = JSFunctionData.create(context, null, null, null, length, name, flags);
+            functionData.setLazyInit(new LazyFunctionInitializer(realm, strict, sourceName, sourceText, scope));
+            return JSFunction.create(realm, functionData, scope == null ? JSFrameUtil.NULL_MATERIALIZED_FRAME : scope);
+        }
+
+        /**
+         * Reads a scope reference. New scopes are created as empty frames with the declared slots;
+         * their values are filled in by {@link #readScopeValues()}. Block scopes are linked to
+         * their enclosing scope through the parent slot, function scopes through a placeholder
+         * function object whose enclosing frame is the enclosing scope.
+         */
+        private MaterializedFrame readScope() throws IOException {
+            int id = in.readInt();
+            if (id == NO_SCOPE) {
+                return null;
+            } else if (id < scopes.size()) {
+                return scopes.get(id);
+            } else if (id != scopes.size()) {
+                throw new IOException("corrupt realm snapshot");
+            }
+            scopes.add(null);
+            scopeSlots.add(null);
+            boolean isBlock = in.readBoolean();
+            MaterializedFrame parent = readScope();
+            FrameDescriptor frameDescriptor = context.getEvaluator().createScopeFrameDescriptor(context, isBlock);
+            FrameSlot[] slots = new FrameSlot[in.readInt()];
+            for (int i = 0; i < slots.length; i++) {
+                String identifier = readString(in);
+                int slotFlags = in.readInt();
+                int kind = in.readByte();
+                if (kind < 0 || kind >= FRAME_SLOT_KINDS.length) {
+                    throw new IOException("corrupt realm snapshot");
+                }
+                slots[i] = frameDescriptor.addFrameSlot(identifier, slotFlags, FRAME_SLOT_KINDS[kind]);
+            }
+            MaterializedFrame scope;
+            if (isBlock) {
+                if (parent == null) {
+                    throw new IOException("corrupt realm snapshot");
+                }
+                scope = Truffle.getRuntime().createMaterializedFrame(parent.getArguments(), frameDescriptor);
+                scope.setObject(frameDescriptor.findFrameSlot(JSFrameUtil.PARENT_SCOPE_IDENTIFIER), parent);
+            } else {
+                JSFunctionData placeholder = JSFunction.getFunctionData(realm.getThrowerFunction());
+                DynamicObject function = JSFunction.create(realm, placeholder, parent == null ? JSFrameUtil.NULL_MATERIALIZED_FRAME : parent);
+                scope = Truffle.getRuntime().createMaterializedFrame(JSArguments.createZeroArg(Undefined.instance, function), frameDescriptor);
+            }
+            scopes.set(id, scope);
+            scopeSlots.set(id, slots);
+            return scope;
+        }
+
+        private void readScopeValues() throws IOException {
+            int id = in.readInt();
+            int count = in.readInt();
+            if (id < 0 || id >= scopes.size() || scopeSlots.get(id).length != count) {
+                throw new IOException("corrupt realm snapshot");
+            }
+            MaterializedFrame scope = scopes.get(id);
+            FrameSlot[] slots = scopeSlots.get(id);
+            for (FrameSlot slot : slots) {
+                byte state = in.readByte();
+                if (state == SLOT_VALUE) {
+                    setSlotValue(scope, slot, readValue());
+                } else if (state == SLOT_DEAD) {
+                    setSlotValue(scope, slot, Dead.instance());
+                } else if (state != SLOT_UNSET) {
+                    throw new IOException("corrupt realm snapshot");
+                }
+            }
+        }
+
+        private static void setSlotValue(MaterializedFrame frame, FrameSlot slot, Object value) {
+            FrameSlotKind kind = slot.getKind();
+            if (kind == FrameSlotKind.Int && value instanceof Integer) {
+                frame.setInt(slot, (int) value);
+            } else if (kind == FrameSlotKind.Double && (value instanceof Double || value instanceof Integer)) {
+                frame.setDouble(slot, ((Number) value).doubleValue());
+            } else if (kind == FrameSlotKind.Boolean && value instanceof Boolean) {
+                frame.setBoolean(slot, (boolean) value);
+            } else {
+                if (kind != FrameSlotKind.Object) {
+                    frame.getFrameDescriptor().setFrameSlotKind(slot, FrameSlotKind.Object);
+                }
+                frame.setObject(slot, value);
+            }
+        }
+
+        private Symbol getOrCreateRegisteredSymbol(String key) {
+            Map<String, Symbol> symbolRegistry = context.getSymbolRegistry();
+            Symbol symbol = symbolRegistry.get(key);
+            if (symbol == null) {
+                symbol = Symbol.create(key);
+                symbolRegistry.put(key, symbol);
+            }
+            return symbol;
+        }
+
+        private DynamicObject readObjectBody(DynamicObject obj) throws IOException {
+            objects.add(obj);
+            JSObject.setPrototype(obj, (DynamicObject) readValue());
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                JSObject.defineOwnProperty(obj, readValue(), readDescriptor(), true);
+            }
+            if (!in.readBoolean()) {
+                JSObject.preventExtensions(obj);
+            }
+            return obj;
+        }
+    }
+
+    /**
+     * Parses the source text of a restored function when one of its call targets is first needed.
+     * Closures are parsed in the environment of their restored scope.
+     */
+    private static final class LazyFunctionInitializer implements JSFunctionData.CallTargetInitializer {
+        private final JSRealm realm;
+        private final boolean strict;
+        private final String sourceName;
+        private final String sourceText;
+        private final MaterializedFrame scope;
+        private JSFunctionData parsed;
+
+        LazyFunctionInitializer(JSRealm realm, boolean strict, String sourceName, String sourceText, MaterializedFrame scope) {
+            this.realm = realm;
+            this.strict = strict;
+            this.sourceName = sourceName;
+            this.sourceText = sourceText;
+            this.scope = scope;
+        }
+
+        private synchronized JSFunctionData getParsed() {
+            if (parsed == null) {
+                if (scope == null) {
+                    parsed = JSFunction.getFunctionData(createFunction(realm, strict, sourceName, sourceText));
+                } else {
+                    Source source = createSource(sourceName, "(" + sourceText + "\n)");
+                    parsed = realm.getContext().getEvaluator().parseFunctionInScope(realm.getContext(), source, scope, strict);
+                }
+            }
+            return parsed;
+        }
+
+        @Override
+        public void initializeRoot(JSFunctionData functionData) {
+            functionData.setRootTarget(getParsed().getCallTarget());
+        }
+
+        @Override
+        public void initializeCallTarget(JSFunctionData functionData, JSFunctionData.Target target, CallTarget rootTarget) {
+            switch (target) {
+                case Call:
+                    functionData.setCallTarget(getParsed().getCallTarget());
+                    break;
+                case Construct:
+                    functionData.setConstructTarget(getParsed().getConstructTarget());
+                    break;
+                case ConstructNewTarget:
+                    functionData.setConstructNewTarget(getParsed().getConstructNewTarget());
+                    break;
+                default:
+                    throw new IllegalStateException();
+            }
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String str) throws IOException {
+        out.writeInt(str.length());
+        out.writeChars(str);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        char[] chars = new char[in.readInt()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = in.readChar();
+        }
+        return new String(chars);
+    }
+}
@@ -49,7 +49,9 @@ import com.oracle.truffle.api.interop.UnknownIdentifierException;
 import com.oracle.truffle.api.interop.UnsupportedMessageException;
 import com.oracle.truffle.api.interop.UnsupportedTypeException;
 import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.js.runtime.Errors;
 import com.oracle.truffle.js.runtime.objects.Undefined;
+import com.oracle.truffle.regex.RegexStepLimitException;
 import com.oracle.truffle.regex.result.RegexResult;
 
 public final class TRegexUtil {
@@ -121,6 +123,8 @@ public final class TRegexUtil {
     public static TruffleObject execExecMethod(Node execNode, TruffleObject compiledRegexExecMethodObject, String input, long fromIndex) {
         try {
             return (TruffleObject) ForeignAccess.sendExecute(execNode, compiledRegexExecMethodObject, input, fromIndex);
+        } catch (RegexStepLimitException e) {
+            throw Errors.createRangeError(e.getMessage());
         } catch (UnsupportedTypeException | UnsupportedMessageException | ArityException e) {
             CompilerDirectives.transferToInterpreter();
             throw new IllegalStateException(e);
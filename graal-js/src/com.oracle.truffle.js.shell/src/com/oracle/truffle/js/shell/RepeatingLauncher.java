@@ -43,15 +43,24 @@ package com.oracle.truffle.js.shell;
 import static com.oracle.truffle.js.shell.JSLauncher.PreprocessResult.Consumed;
 import static java.lang.Math.abs;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 
 import org.graalvm.options.OptionCategory;
 import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
 import org.graalvm.polyglot.Source;
 
 public class RepeatingLauncher extends JSLauncher {
     private int engines = 1;
     private int runs = 1;
+    // throughput mode: threads x contexts x iterations on a shared engine
+    private int threads = 0;
+    private int contexts = 1;
+    private int iterations = 100;
+    private int warmup = 0;
+    private Map<String, String> polyglotOptions = Collections.emptyMap();
 
     @Override
     protected PreprocessResult preprocessArgument(String argument, String value, Map<String, String> polyglotOptions) {
@@ -63,6 +72,22 @@ public class RepeatingLauncher extends JSLauncher {
             runs = parsePositiveInteger(argument, value);
             return Consumed;
         }
+        if (argument.equals("threads")) {
+            threads = parsePositiveInteger(argument, value);
+            return Consumed;
+        }
+        if (argument.equals("contexts")) {
+            contexts = parsePositiveInteger(argument, value);
+            return Consumed;
+        }
+        if (argument.equals("iterations")) {
+            iterations = parsePositiveInteger(argument, value);
+            return Consumed;
+        }
+        if (argument.equals("warmup")) {
+            warmup = parsePositiveInteger(argument, value);
+            return Consumed;
+        }
         return super.preprocessArgument(argument, value, polyglotOptions);
     }
 
@@ -80,6 +105,9 @@ public class RepeatingLauncher extends JSLauncher {
 
     @Override
     protected int executeScripts(Context.Builder contextBuilder) {
+        if (isThroughputMode()) {
+            return executeThroughput();
+        }
         int result = 0;
         for (int i = 0; i < engines; i++) {
             int newResult = super.executeScripts(contextBuilder);
@@ -90,6 +118,49 @@ public class RepeatingLauncher extends JSLauncher {
         return result;
     }
 
+    protected boolean isThroughputMode() {
+        return threads > 0;
+    }
+
+    /**
+     * The launcher's context builder already carries the polyglot options. It is not used here:
+     * the options are applied to the shared engine only, and the contexts inherit them from it.
+     */
+    private int executeThroughput() {
+        Source[] sources = super.parseSources();
+        if (sources.length == 0) {
+            return -1;
+        }
+        try (Engine engine = createSharedEngine(polyglotOptions)) {
+            Context.Builder contextBuilder = newSharedEngineContextBuilder(engine).arguments("js", programArgs);
+            ThroughputRunner runner = new ThroughputRunner(threads, contexts, iterations, warmup);
+            return runner.run(contextBuilder, engine, sources, System.out, this::whileThroughputContextsActive);
+        }
+    }
+
+    /**
+     * Creates the engine shared by all contexts of a throughput run; the only place the polyglot
+     * options of the run are applied.
+     */
+    public static Engine createSharedEngine(Map<String, String> options) {
+        return Engine.newBuilder().options(options).build();
+    }
+
+    /**
+     * Returns a builder for contexts on a shared engine. No options are set on it, so that they
+     * are not passed a second time next to the ones of the engine.
+     */
+    public static Context.Builder newSharedEngineContextBuilder(Engine engine) {
+        return Context.newBuilder("js").engine(engine).allowHostAccess(true);
+    }
+
+    /**
+     * Called at the end of a throughput run while all contexts are still alive, e.g. to collect
+     * heap statistics for the same run.
+     */
+    protected void whileThroughputContextsActive(@SuppressWarnings("unused") Engine engine) {
+    }
+
     @Override
     Source[] parseSources() {
         Source[] originalSources = super.parseSources();
@@ -115,7 +186,14 @@ public class RepeatingLauncher extends JSLauncher {
             if (runs > 1) {
                 throw abort("Can not use --runs with the REPL");
             }
+            if (isThroughputMode()) {
+                throw abort("Can not use --threads with the REPL");
+            }
+        }
+        if (isThroughputMode() && (engines > 1 || runs > 1)) {
+            throw abort("Can not combine --threads with --engines or --runs");
         }
+        this.polyglotOptions = new HashMap<>(polyglotOptions);
     }
 
     @Override
@@ -124,5 +202,9 @@ public class RepeatingLauncher extends JSLauncher {
         System.out.println("\nCustom developer options:");
         printOption("--runs N", "run scripts N times");
         printOption("--engines N", "load scripts in N different engines");
+        printOption("--threads N", "throughput mode: run scripts in N threads sharing one engine");
+        printOption("--contexts N", "throughput mode: number of contexts per thread (default: 1)");
+        printOption("--iterations N", "throughput mode: iterations per context (default: 100)");
+        printOption("--warmup N", "throughput mode: iterations excluded from latency statistics");
     }
 }
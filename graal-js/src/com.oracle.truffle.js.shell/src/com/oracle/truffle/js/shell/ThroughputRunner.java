@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.shell;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+import org.graalvm.polyglot.PolyglotException;
+import org.graalvm.polyglot.Source;
+
+/**
+ * Runs the given sources in {@code threads} threads, each owning {@code contextsPerThread}
+ * contexts created on one shared {@link Engine}, for a number of iterations. An iteration
+ * evaluates all sources once in every context of a thread; its latency is recorded per thread.
+ * The first {@code warmupIterations} iterations are only reported as part of the warmup curve.
+ */
+final class ThroughputRunner {
+    private static final double NANOS_PER_MILLI = 1_000_000d;
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+    private static final int MAX_CURVE_POINTS = 20;
+
+    private final int threads;
+    private final int contextsPerThread;
+    private final int iterations;
+    private final int warmupIterations;
+
+    ThroughputRunner(int threads, int contextsPerThread, int iterations, int warmupIterations) {
+        this.threads = threads;
+        this.contextsPerThread = contextsPerThread;
+        this.iterations = iterations;
+        this.warmupIterations = Math.min(warmupIterations, iterations);
+    }
+
+    /**
+     * Executes the run and prints the report to {@code out}. {@code whileActive} is invoked after
+     * all iterations are done, but before the contexts are closed. {@code contextBuilder} must
+     * already be bound to {@code engine}.
+     *
+     * @return the exit status, as for {@link JSLauncher#executeScripts}
+     */
+    int run(Context.Builder contextBuilder, Engine engine, Source[] sources, PrintStream out, Consumer<Engine> whileActive) {
+        Context[][] contexts = new Context[threads][contextsPerThread];
+        for (int t = 0; t < threads; t++) {
+            for (int c = 0; c < contextsPerThread; c++) {
+                contexts[t][c] = contextBuilder.build();
+            }
+        }
+
+        long[][] latencies = new long[threads][iterations];
+        long[] measurementStart = new long[threads];
+        long[] measurementEnd = new long[threads];
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CyclicBarrier start = new CyclicBarrier(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        CountDownLatch close = new CountDownLatch(1);
+
+        List<Thread> workers = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            final int threadIndex = t;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    runIterations(contexts[threadIndex], sources, latencies[threadIndex], measurementStart, measurementEnd, threadIndex);
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    done.countDown();
+                }
+                try {
+                    close.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                for (Context context : contexts[threadIndex]) {
+                    context.close();
+                }
+            }, "js-throughput-" + t);
+            workers.add(worker);
+            worker.start();
+        }
+
+        int status = 0;
+        try {
+            done.await();
+            if (failure.get() == null) {
+                printReport(out, latencies, measurementStart, measurementEnd, sources.length);
+                whileActive.accept(engine);
+            } else {
+                status = reportFailure(failure.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            status = 8;
+        } finally {
+            close.countDown();
+            for (Thread worker : workers) {
+                try {
+                    worker.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        return status;
+    }
+
+    private void runIterations(Context[] threadContexts, Source[] sources, long[] threadLatencies, long[] measurementStart, long[] measurementEnd, int threadIndex) {
+        measurementStart[threadIndex] = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            if (i == warmupIterations) {
+                measurementStart[threadIndex] = System.nanoTime();
+            }
+            long iterationStart = System.nanoTime();
+            for (Context context : threadContexts) {
+                for (Source source : sources) {
+                    context.eval(source);
+                }
+            }
+            threadLatencies[i] = System.nanoTime() - iterationStart;
+        }
+        measurementEnd[threadIndex] = System.nanoTime();
+    }
+
+    private void printReport(PrintStream out, long[][] latencies, long[] measurementStart, long[] measurementEnd, int sourceCount) {
+        out.println(String.format("Throughput: %d thread(s) x %d context(s) x %d iteration(s), %d warmup, %d source(s), shared engine",
+                        threads, contextsPerThread, iterations, warmupIterations, sourceCount));
+
+        out.println("Warmup curve (mean iteration latency in ms):");
+        int step = Math.max(1, iterations / MAX_CURVE_POINTS);
+        for (int i = 0; i < iterations; i += step) {
+            long sum = 0;
+            for (int t = 0; t < threads; t++) {
+                sum += latencies[t][i];
+            }
+            out.println(String.format("  iteration %6d: %10.3f", i + 1, sum / (double) threads / NANOS_PER_MILLI));
+        }
+
+        int measured = iterations - warmupIterations;
+        if (measured == 0) {
+            out.println("No measured iterations (all iterations are warmup).");
+            return;
+        }
+        long[] sorted = new long[threads * measured];
+        long firstStart = Long.MAX_VALUE;
+        long lastEnd = Long.MIN_VALUE;
+        for (int t = 0; t < threads; t++) {
+            System.arraycopy(latencies[t], warmupIterations, sorted, t * measured, measured);
+            firstStart = Math.min(firstStart, measurementStart[t]);
+            lastEnd = Math.max(lastEnd, measurementEnd[t]);
+        }
+        Arrays.sort(sorted);
+        out.println(String.format("Iteration latency in ms: p50 %.3f, p90 %.3f, p99 %.3f, max %.3f",
+                        percentile(sorted, 50) / NANOS_PER_MILLI, percentile(sorted, 90) / NANOS_PER_MILLI, percentile(sorted, 99) / NANOS_PER_MILLI,
+                        sorted[sorted.length - 1] / NANOS_PER_MILLI));
+        long ops = (long) threads * contextsPerThread * measured;
+        double seconds = (lastEnd - firstStart) / NANOS_PER_SECOND;
+        out.println(String.format("Aggregate throughput: %.2f ops/s (%d context iterations in %.3f s)", ops / seconds, ops, seconds));
+    }
+
+    private static long percentile(long[] sorted, int percentile) {
+        int index = (int) Math.ceil(sorted.length * percentile / 100d) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static int reportFailure(Throwable failure) {
+        if (failure instanceof PolyglotException) {
+            PolyglotException e = (PolyglotException) failure;
+            if (e.isExit()) {
+                return e.getExitStatus();
+            } else if (e.isSyntaxError()) {
+                System.err.println(e.getMessage());
+                return 7;
+            } else if (!e.isInternalError()) {
+                System.err.println(e.getMessage());
+                return 7;
+            }
+        }
+        failure.printStackTrace();
+        return 8;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.snapshot;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.oracle.truffle.js.parser.JSEngine;
+import com.oracle.truffle.js.runtime.AbstractJavaScriptLanguage;
+import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.JSRealm;
+import com.oracle.truffle.js.runtime.JSTruffleOptions;
+import com.oracle.truffle.js.runtime.util.RealmSnapshot;
+
+/**
+ * Evaluates prelude scripts in a fresh realm and writes the resulting global environment as a
+ * {@link RealmSnapshot} that can be loaded with the {@code RealmSnapshotFileName} option.
+ */
+public class RealmSnapshotTool {
+
+    public static void main(String[] args) throws IOException {
+        List<String> preludeFiles = new ArrayList<>();
+        String outFile = null;
+        for (String arg : args) {
+            if (arg.startsWith("--prelude=")) {
+                preludeFiles.add(arg.substring(arg.indexOf('=') + 1));
+            } else if (arg.startsWith("--out=")) {
+                outFile = arg.substring(arg.indexOf('=') + 1);
+            }
+        }
+        if (preludeFiles.isEmpty() || outFile == null) {
+            System.out.println("Usage: [--prelude=FILE]... --out=FILE");
+            return;
+        }
+        if (JSTruffleOptions.RealmSnapshotFileName != null) {
+            throw new IllegalArgumentException("cannot create a realm snapshot while another one is loaded");
+        }
+
+        JSContext context = JSEngine.createJSContext();
+        JSRealm realm = context.getRealm();
+        RealmSnapshot snapshot = RealmSnapshot.prepare(realm);
+        for (String preludeFile : preludeFiles) {
+            context.getEvaluator().evaluate(realm, null, AbstractJavaScriptLanguage.sourceFromFileName(preludeFile));
+        }
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(outFile))) {
+            snapshot.write(out);
+        }
+    }
+}
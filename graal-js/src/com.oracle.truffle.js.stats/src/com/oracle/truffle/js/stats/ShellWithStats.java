@@ -48,6 +48,7 @@ import java.util.Map;
 
 import org.graalvm.options.OptionCategory;
 import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
 
 import com.oracle.truffle.js.builtins.helper.HeapDump;
 import com.oracle.truffle.js.runtime.JSTruffleOptions;
@@ -79,6 +80,22 @@ public class ShellWithStats extends RepeatingLauncher {
     @Override
     protected int executeScripts(Context.Builder contextBuilder) {
         int result = super.executeScripts(contextBuilder);
+        if (!isThroughputMode()) {
+            dumpAndAnalyzeHeap();
+        }
+        return result;
+    }
+
+    /**
+     * In throughput mode, the heap is analyzed while the contexts of the run are still alive, so
+     * that the statistics reflect all contexts on the shared engine.
+     */
+    @Override
+    protected void whileThroughputContextsActive(@SuppressWarnings("unused") Engine engine) {
+        dumpAndAnalyzeHeap();
+    }
+
+    private void dumpAndAnalyzeHeap() {
         if (!JSTruffleOptions.SubstrateVM && heapDump) {
             try {
                 String dumpName = JSTruffleOptions.HeapDumpFileName == null ? HeapDump.defaultDumpName() : JSTruffleOptions.HeapDumpFileName;
@@ -90,7 +107,6 @@ public class ShellWithStats extends RepeatingLauncher {
                 throw new RuntimeException(e);
             }
         }
-        return result;
     }
 
     private static void deleteIfExists(String dumpName) {
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.builtins;
+
+import static org.junit.Assert.assertEquals;
+
+import org.graalvm.polyglot.Context;
+import org.junit.Test;
+
+/**
+ * Tests for object spread and {@code Object.assign} once the copy has been cached by shape.
+ */
+public class CopyDataPropertiesTest {
+
+    /** Each function copies at a single call site, so its cache is reused. */
+    private static final String HELPERS = "function attempt(f) { try { return String(f()); } catch (e) { return e.name; } }" +
+                    "function assign(target, source) { return Object.assign(target, source); }" +
+                    "function spread(source) { return {...source}; }" +
+                    "function describe(o) { return Object.keys(o).map(function(k) { return k + '=' + o[k]; }).join(); }";
+
+    private static String eval(Context context, String source) {
+        return context.eval("js", source).asString();
+    }
+
+    private static Context createContext() {
+        Context context = Context.create("js");
+        context.eval("js", HELPERS);
+        return context;
+    }
+
+    @Test
+    public void testSetterAddedToPrototype() {
+        try (Context context = createContext()) {
+            context.eval("js", "for (var i = 0; i < 10; i++) { assign({}, {a: i, b: i}); spread({a: i, b: i}); }" +
+                            "var calls = [];" +
+                            "Object.defineProperty(Object.prototype, 'b', {set: function(v) { calls.push(v); }, get: function() { return 'proto'; }, configurable: true});");
+            // [[Set]] must call the setter instead of creating an own property
+            assertEquals("a=1:proto:false:2", eval(context, "var t = assign({}, {a: 1, b: 2}); describe(t) + ':' + t.b + ':' + t.hasOwnProperty('b') + ':' + calls.join()"));
+            // CreateDataProperty ignores the prototype
+            assertEquals("a=1,b=2:true:2", eval(context, "var s = spread({a: 1, b: 2}); describe(s) + ':' + s.hasOwnProperty('b') + ':' + calls.join()"));
+        }
+    }
+
+    @Test
+    public void testReadOnlyAddedToPrototype() {
+        try (Context context = createContext()) {
+            context.eval("js", "for (var i = 0; i < 10; i++) { assign({}, {a: i, c: i}); }" +
+                            "Object.defineProperty(Object.prototype, 'c', {value: 'ro', writable: false, configurable: true});");
+            assertEquals("TypeError", eval(context, "attempt(function() { return describe(assign({}, {a: 1, c: 2})); })"));
+            assertEquals("a=1,c=2", eval(context, "describe(spread({a: 1, c: 2}))"));
+            context.eval("js", "delete Object.prototype.c;");
+            assertEquals("a=1,c=2", eval(context, "describe(assign({}, {a: 1, c: 2}))"));
+        }
+    }
+
+    @Test
+    public void testNonExtensibleTarget() {
+        try (Context context = createContext()) {
+            context.eval("js", "for (var i = 0; i < 10; i++) { assign({}, {a: i}); }");
+            assertEquals("TypeError", eval(context, "attempt(function() { return describe(assign(Object.preventExtensions({}), {a: 1})); })"));
+            assertEquals("TypeError", eval(context, "attempt(function() { return describe(assign(Object.freeze({a: 0}), {a: 1})); })"));
+            // existing writable properties can still be set on a sealed target
+            assertEquals("a=1", eval(context, "describe(assign(Object.seal({a: 0}), {a: 1}))"));
+            assertEquals("a=1", eval(context, "describe(assign({}, {a: 1}))"));
+        }
+    }
+
+    @Test
+    public void testSourceWithAccessors() {
+        try (Context context = createContext()) {
+            context.eval("js", "var reads = 0;" +
+                            "function source(i) { var s = {a: i}; Object.defineProperty(s, 'g', {get: function() { reads++; return i * 10; }, enumerable: true});" +
+                            "  Object.defineProperty(s, 'hidden', {get: function() { throw new Error(); }, enumerable: false}); return s; }");
+            assertEquals("a=0,g=0|a=1,g=10|a=2,g=20|a=3,g=30|a=4,g=40:10",
+                            eval(context, "var r = []; for (var i = 0; i < 5; i++) { r.push(describe(assign({}, source(i)))); spread(source(i)); } r.join('|') + ':' + reads"));
+            // the copied property is a plain data property
+            assertEquals("true:false", eval(context, "var d = Object.getOwnPropertyDescriptor(spread(source(7)), 'g'); d.writable + ':' + ('get' in d)"));
+        }
+    }
+
+    @Test
+    public void testIntegerKeyOrder() {
+        try (Context context = createContext()) {
+            String source = "var s = {b: 1}; s[2] = 2; s.a = 3; s[0] = 4; s";
+            for (int i = 0; i < 5; i++) {
+                assertEquals("0=4,2=2,b=1,a=3", eval(context, "describe(spread(" + "(function() { " + source + "; return s; })()))"));
+                assertEquals("0=4,2=2,x=0,b=1,a=3", eval(context, "describe(assign({x: 0}, (function() { " + source + "; return s; })()))"));
+            }
+            assertEquals("0,1,2,b", eval(context, "Object.keys(assign({b: 0, 1: 0}, {2: 0, 0: 0})).join()"));
+        }
+    }
+
+    @Test
+    public void testSourceShapeChanges() {
+        try (Context context = createContext()) {
+            context.eval("js", "var a = {x: 1, y: 2};");
+            assertEquals("x=1,y=2", eval(context, "describe(spread(a))"));
+            assertEquals("x=1,y=2", eval(context, "describe(spread(a))"));
+            context.eval("js", "a.z = 3;");
+            assertEquals("x=1,y=2,z=3", eval(context, "describe(spread(a))"));
+            context.eval("js", "delete a.x;");
+            assertEquals("y=2,z=3", eval(context, "describe(spread(a))"));
+            context.eval("js", "a.y = 'str'; a.z = 1.5;");
+            assertEquals("y=str,z=1.5", eval(context, "describe(spread(a))"));
+            context.eval("js", "Object.defineProperty(a, 'y', {enumerable: false});");
+            assertEquals("z=1.5", eval(context, "describe(spread(a))"));
+            for (int i = 0; i < 10; i++) {
+                context.eval("js", "a['k" + i + "'] = " + i + ";");
+                assertEquals(i + 1, context.eval("js", "Object.keys(spread(a)).length - 1").asInt());
+            }
+        }
+    }
+
+    @Test
+    public void testValueTypeChanges() {
+        try (Context context = createContext()) {
+            // the sources share a shape whose location holds any value, while the learned target
+            // locations start out holding ints
+            context.eval("js", "function source(v) { var s = {a: 'init', b: 0}; s.a = v; return s; }");
+            String code = "var r = []; var values = [1, 2, 3, 4, 'str', 5.5, {}, 6, null, 7];" +
+                            "for (var i = 0; i < values.length; i++) {" +
+                            "  var t = assign({}, source(values[i])), s = spread(source(values[i]));" +
+                            "  r.push(t.a === values[i] && s.a === values[i] && describe(t) === describe(s)); }" +
+                            "r.indexOf(false) + ':' + describe(spread(source('x')))";
+            assertEquals("-1:a=x,b=0", eval(context, code));
+        }
+    }
+
+    @Test
+    public void testObsoleteTargetShape() {
+        try (Context context = createContext()) {
+            context.eval("js", "var first = spread({a: 1, b: 2}); spread({a: 3, b: 4});");
+            // generalizing a location of the learned target shape invalidates the plan
+            context.eval("js", "first.a = 'str'; first.b = {};");
+            String code = "var r = []; for (var i = 0; i < 5; i++) { r.push(describe(spread({a: i, b: i + 1}))); } r.join('|') + ':' + first.a";
+            assertEquals("a=0,b=1|a=1,b=2|a=2,b=3|a=3,b=4|a=4,b=5:str", eval(context, code));
+        }
+    }
+}
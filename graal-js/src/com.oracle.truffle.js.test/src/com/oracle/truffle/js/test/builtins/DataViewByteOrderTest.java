@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.builtins;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.graalvm.polyglot.Context;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.oracle.truffle.js.runtime.JSContextOptions;
+
+/**
+ * Tests that {@code DataView} accessors honor the requested byte order and agree with typed arrays
+ * (which use the native byte order), for heap and direct array buffers.
+ */
+@RunWith(Parameterized.class)
+public class DataViewByteOrderTest {
+
+    @Parameters(name = "direct={0}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][]{{false}, {true}});
+    }
+
+    @Parameter(0) public boolean direct;
+
+    private Context createContext() {
+        return Context.newBuilder("js").option(JSContextOptions.DIRECT_BYTE_BUFFER_NAME, String.valueOf(direct)).build();
+    }
+
+    private static String bytesAfter(Context context, String store) {
+        return context.eval("js", "(function() { var b = new ArrayBuffer(10); var v = new DataView(b); " + store + "; return Array.from(new Uint8Array(b)).join(); })()").asString();
+    }
+
+    @Test
+    public void testStoreByteOrder() {
+        try (Context context = createContext()) {
+            assertEquals("0,1,2,0,0,0,0,0,0,0", bytesAfter(context, "v.setInt16(1, 0x0102)"));
+            assertEquals("0,2,1,0,0,0,0,0,0,0", bytesAfter(context, "v.setInt16(1, 0x0102, true)"));
+            assertEquals("0,0,1,2,3,4,0,0,0,0", bytesAfter(context, "v.setUint32(2, 0x01020304)"));
+            assertEquals("0,0,4,3,2,1,0,0,0,0", bytesAfter(context, "v.setUint32(2, 0x01020304, true)"));
+            assertEquals("63,128,0,0,0,0,0,0,0,0", bytesAfter(context, "v.setFloat32(0, 1)"));
+            assertEquals("0,0,128,63,0,0,0,0,0,0", bytesAfter(context, "v.setFloat32(0, 1, true)"));
+            assertEquals("0,0,63,240,0,0,0,0,0,0", bytesAfter(context, "v.setFloat64(2, 1)"));
+            assertEquals("0,0,0,0,0,0,0,0,240,63", bytesAfter(context, "v.setFloat64(2, 1, true)"));
+        }
+    }
+
+    @Test
+    public void testLoadByteOrder() {
+        try (Context context = createContext()) {
+            context.eval("js", "var b = new ArrayBuffer(13); new Uint8Array(b).set([0x80, 1, 2, 3, 4, 5, 6, 7, 8, 0x3f, 0xf0, 0, 0]); var v = new DataView(b);");
+            assertEquals(0x0102, context.eval("js", "v.getInt16(1)").asInt());
+            assertEquals(0x0201, context.eval("js", "v.getInt16(1, true)").asInt());
+            assertEquals(0x0180, context.eval("js", "v.getUint16(0, true)").asInt());
+            assertEquals(0x8001, context.eval("js", "v.getUint16(0)").asInt());
+            assertEquals(-32767, context.eval("js", "v.getInt16(0)").asInt());
+            assertEquals(0x01020304, context.eval("js", "v.getInt32(1)").asInt());
+            assertEquals(0x04030201, context.eval("js", "v.getInt32(1, true)").asInt());
+            assertEquals(0x80010203L, context.eval("js", "v.getUint32(0)").asLong());
+            assertEquals(0x03020180L, context.eval("js", "v.getUint32(0, true)").asLong());
+            assertEquals(1.875, context.eval("js", "v.getFloat32(9)").asDouble(), 0);
+            assertEquals(1.0, context.eval("js", "new DataView(new Float64Array([1]).buffer).getFloat64(0, " + isLittleEndian() + ")").asDouble(), 0);
+        }
+    }
+
+    @Test
+    public void testRoundTrip() {
+        try (Context context = createContext()) {
+            String[] types = {"Int16", "Uint16", "Int32", "Uint32", "Float32", "Float64"};
+            for (String type : types) {
+                for (boolean littleEndian : new boolean[]{false, true}) {
+                    String code = "(function() { var v = new DataView(new ArrayBuffer(16)); var values = [0, 1, -1, 255, 256, 0x7fff, -0x8000, 0x12345678, 1.5, -0.25];" +
+                                    "for (var i = 0; i < values.length; i++) { for (var offset = 0; offset < 8; offset++) {" +
+                                    "  v.set" + type + "(offset, values[i], " + littleEndian + ");" +
+                                    "  var expected = new " + type + "Array([values[i]])[0];" +
+                                    "  var actual = v.get" + type + "(offset, " + littleEndian + ");" +
+                                    "  if (!Object.is(actual, expected)) return values[i] + '@' + offset + ': ' + actual + ' != ' + expected;" +
+                                    "}} return 'ok'; })()";
+                    assertEquals(type + (littleEndian ? " LE" : " BE"), "ok", context.eval("js", code).asString());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testTypedArrayUsesNativeOrder() {
+        try (Context context = createContext()) {
+            String native16 = isLittleEndian() ? "true" : "false";
+            context.eval("js", "var b = new ArrayBuffer(16); var v = new DataView(b);" +
+                            "v.setUint16(2, 0xabcd, " + native16 + "); v.setInt32(4, -2, " + native16 + "); v.setFloat64(8, Math.PI, " + native16 + ");");
+            assertEquals(0xabcd, context.eval("js", "new Uint16Array(b)[1]").asInt());
+            assertEquals(-2, context.eval("js", "new Int32Array(b)[1]").asInt());
+            assertEquals(Math.PI, context.eval("js", "new Float64Array(b)[1]").asDouble(), 0);
+            context.eval("js", "new Uint32Array(b)[0] = 0xdeadbeef;");
+            assertEquals(0xdeadbeefL, context.eval("js", "v.getUint32(0, " + native16 + ")").asLong());
+            assertEquals(Integer.toUnsignedLong(Integer.reverseBytes(0xdeadbeef)), context.eval("js", "v.getUint32(0, " + !isLittleEndian() + ")").asLong());
+        }
+    }
+
+    @Test
+    public void testOutOfBounds() {
+        try (Context context = createContext()) {
+            String[] accesses = {"v.getInt16(7)", "v.getInt32(5, true)", "v.getFloat64(1)", "v.setUint16(7, 1)", "v.setFloat32(5, 1, true)", "v.setFloat64(1, 1)"};
+            for (String access : accesses) {
+                String code = "(function() { var v = new DataView(new ArrayBuffer(8)); try { " + access + "; return 'no error'; } catch (e) { return e.name; } })()";
+                assertEquals(access, "RangeError", context.eval("js", code).asString());
+            }
+            assertTrue(context.eval("js", "new DataView(new ArrayBuffer(8)).getFloat64(0) === 0").asBoolean());
+        }
+    }
+
+    private static boolean isLittleEndian() {
+        return ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN;
+    }
+}
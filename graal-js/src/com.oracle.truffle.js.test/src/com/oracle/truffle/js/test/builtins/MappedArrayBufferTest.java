@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.builtins;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
+import org.junit.Test;
+
+import com.oracle.truffle.js.runtime.JSContextOptions;
+
+/**
+ * Tests for {@code Graal.mapFile}.
+ */
+public class MappedArrayBufferTest {
+
+    private static Context createContext() {
+        return Context.newBuilder("js").option(JSContextOptions.MAPPED_ARRAY_BUFFER_NAME, "true").option(JSContextOptions.DEBUG_BUILTIN_NAME, "true").build();
+    }
+
+    private static String quote(Path path) {
+        return "'" + path.toAbsolutePath().toString().replace("\\", "\\\\").replace("'", "\\'") + "'";
+    }
+
+    @Test
+    public void testReadOnlyFile() throws IOException {
+        Path file = Files.createTempFile("mapped", ".bin");
+        try {
+            Files.write(file, new byte[]{1, 2, 3, 4});
+            assertTrue(file.toFile().setReadOnly());
+            try (Context context = createContext()) {
+                context.eval("js", "var buffer = Graal.mapFile(" + quote(file) + "); var bytes = new Uint8Array(buffer);");
+                assertEquals("4:1,2,3,4", context.eval("js", "buffer.byteLength + ':' + Array.from(bytes).join()").asString());
+                assertEquals("3,4", context.eval("js", "Array.from(new Uint8Array(buffer.slice(2))).join()").asString());
+                // every kind of store is rejected
+                String[] stores = {"bytes[0] = 9", "new Int32Array(buffer)[0] = 9", "new Float32Array(buffer)[0] = 1.5", "new DataView(buffer).setInt8(0, 9)",
+                                "bytes.set([9])", "bytes.set(new Uint8Array([9]))", "bytes.set(new Int8Array([9]))", "bytes.fill(9)"};
+                for (String store : stores) {
+                    Value result = context.eval("js", "(function() { try { " + store + "; return 'no error'; } catch (e) { return e.name; } })()");
+                    assertEquals(store, "TypeError", result.asString());
+                }
+                assertEquals("1,2,3,4", context.eval("js", "Array.from(bytes).join()").asString());
+            }
+        } finally {
+            file.toFile().setWritable(true);
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testWritableRoundTrip() throws IOException {
+        Path file = Files.createTempFile("mapped", ".bin");
+        try {
+            Files.write(file, new byte[8]);
+            try (Context context = createContext()) {
+                context.eval("js", "var buffer = Graal.mapFile(" + quote(file) + ", true);" +
+                                "var bytes = new Uint8Array(buffer);" +
+                                "for (var i = 0; i < bytes.length; i++) { bytes[i] = i * 3; }" +
+                                "new DataView(buffer).setUint8(7, 0xff);");
+                assertEquals("0,3,6,9,12,15,18,255", context.eval("js", "Array.from(new Uint8Array(buffer)).join()").asString());
+            }
+            assertArrayEquals(new byte[]{0, 3, 6, 9, 12, 15, 18, (byte) 0xff}, Files.readAllBytes(file));
+            try (Context context = createContext()) {
+                assertEquals("0,3,6,9,12,15,18,255", context.eval("js", "Array.from(new Uint8Array(Graal.mapFile(" + quote(file) + "))).join()").asString());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testReadOnlyLoads() throws IOException {
+        Path file = Files.createTempFile("mapped", ".bin");
+        try {
+            Files.write(file, new byte[]{0, 0, (byte) 0x80, 0x3f, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0, (byte) 0xf0, 0x3f});
+            assertTrue(file.toFile().setReadOnly());
+            try (Context context = createContext()) {
+                context.eval("js", "var buffer = Graal.mapFile(" + quote(file) + "); var le = new Uint8Array(new Uint16Array([1]).buffer)[0] === 1;");
+                // loads through every element type, with and without a byte offset
+                String loads = "[new Int8Array(buffer)[4], new Uint8Array(buffer, 4)[0], new Uint8ClampedArray(buffer)[3], new Int16Array(buffer, 2)[0] !== 0," +
+                                "new Uint16Array(buffer)[2] !== 0, new Int32Array(buffer, 4)[0] !== 0, new Uint32Array(buffer)[1] !== 0," +
+                                "le ? new Float32Array(buffer)[0] : 1, le ? new Float64Array(buffer, 8)[0] : 1].join()";
+                String expected = "1,1,63,true,true,true,true,1,1";
+                for (int i = 0; i < 3; i++) {
+                    assertEquals(expected, context.eval("js", loads).asString());
+                }
+                assertEquals("1,1", context.eval("js", "var view = new DataView(buffer); [view.getUint8(4), view.getFloat32(0, true)].join()").asString());
+                assertEquals("1", context.eval("js", "var copy = new Uint8Array(16); copy.set(new Uint8Array(buffer)); String(copy[4])").asString());
+            }
+        } finally {
+            file.toFile().setWritable(true);
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testWritableArraysUnaffected() {
+        // typed arrays over ordinary buffers do not share the array type of read-only views
+        try (Context context = createContext()) {
+            String code = "var a = new Int32Array(4); var b = new Int32Array(new ArrayBuffer(16), 4);" +
+                            "for (var i = 0; i < 3; i++) { a[i] = i + 1; b[i] = a[i] * 2; }" +
+                            "new DataView(b.buffer).setInt32(0, 7, true);" +
+                            "a.join() + ':' + b.join() + ':' + new Int32Array(b.buffer)[0]";
+            assertEquals("1,2,3,0:2,4,6:7", context.eval("js", code).asString());
+        }
+    }
+
+    @Test
+    public void testDetachReleasesMapping() throws IOException {
+        Path file = Files.createTempFile("mapped", ".bin");
+        try {
+            Files.write(file, new byte[]{1, 2, 3, 4});
+            try (Context context = createContext()) {
+                context.eval("js", "var buffer = Graal.mapFile(" + quote(file) + ", true); var bytes = new Uint8Array(buffer); var view = new DataView(buffer);" +
+                                "bytes[0] = 5; Debug.typedArrayDetachBuffer(buffer);");
+                // views of the detached (and unmapped) buffer must not touch the old mapping
+                String[] accesses = {"buffer.byteLength", "view.getUint8(0)", "view.setUint8(0, 1)", "new Uint8Array(buffer)", "bytes[0]"};
+                for (String access : accesses) {
+                    Value result = context.eval("js", "(function() { try { " + access + "; return 'no error'; } catch (e) { return e.name; } })()");
+                    assertEquals(access, "TypeError", result.asString());
+                }
+                assertEquals(0, context.eval("js", "bytes.length").asInt());
+            }
+            assertArrayEquals(new byte[]{5, 2, 3, 4}, Files.readAllBytes(file));
+            // the file can be mapped again after the mapping was released
+            Files.write(file, new byte[]{6, 7});
+            try (Context context = createContext()) {
+                assertEquals("6,7", context.eval("js", "Array.from(new Uint8Array(Graal.mapFile(" + quote(file) + "))).join()").asString());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
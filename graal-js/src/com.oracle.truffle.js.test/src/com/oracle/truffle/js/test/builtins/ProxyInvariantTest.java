@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.builtins;
+
+import static org.junit.Assert.assertEquals;
+
+import org.graalvm.polyglot.Context;
+import org.junit.Test;
+
+/**
+ * Tests that the proxy trap nodes still enforce the invariants of the proxy internal methods, also
+ * after they have cached the shape of a target for which the checks could be skipped.
+ */
+public class ProxyInvariantTest {
+
+    /** Calls each operation at a single call site, so the trap nodes are reused. */
+    private static final String HELPERS = "function attempt(f) { try { return String(f()); } catch (e) { return e.name; } }" +
+                    "function keys(p) { return attempt(function() { return Object.keys(p).join(); }); }" +
+                    "function gopd(p, k) { return attempt(function() { var d = Object.getOwnPropertyDescriptor(p, k); return d && d.value; }); }" +
+                    "function define(p, k, d) { return attempt(function() { return Object.defineProperty(p, k, d) === p; }); }" +
+                    "function del(p, k) { return attempt(function() { return delete p[k]; }); }" +
+                    "function proto(p) { return attempt(function() { return Object.getPrototypeOf(p) === Array.prototype; }); }" +
+                    "function names(p) { return attempt(function() { return Object.getOwnPropertyNames(p).join(); }); }" +
+                    "function symbols(p) { return attempt(function() { return Object.getOwnPropertySymbols(p).length; }); }" +
+                    "function has(p, k) { return attempt(function() { return k in p; }); }" +
+                    "function extensible(p) { return attempt(function() { return Object.isExtensible(p); }); }" +
+                    "function prevent(p) { return attempt(function() { return Object.preventExtensions(p) === p; }); }" +
+                    "function setProto(p, v) { return attempt(function() { return Object.setPrototypeOf(p, v) === p; }); }" +
+                    "function reflect(name, args) { return attempt(function() { var r = Reflect[name].apply(null, args); return Array.isArray(r) ? r.join() : r && typeof r === 'object' ? r.value : r; }); }";
+
+    private static String eval(Context context, String source) {
+        return context.eval("js", source).asString();
+    }
+
+    private static Context createContext() {
+        Context context = Context.create("js");
+        context.eval("js", HELPERS);
+        return context;
+    }
+
+    @Test
+    public void testOwnKeysOmitsNonConfigurableKey() {
+        try (Context context = createContext()) {
+            context.eval("js", "var target = {a: 1}; var p = new Proxy(target, {ownKeys: function() { return []; }});");
+            assertEquals("", eval(context, "keys(p)"));
+            context.eval("js", "Object.defineProperty(target, 'b', {value: 2, enumerable: true, configurable: false});");
+            assertEquals("TypeError", eval(context, "keys(p)"));
+        }
+    }
+
+    @Test
+    public void testGetOwnPropertyDescriptorHidesNonConfigurable() {
+        try (Context context = createContext()) {
+            context.eval("js", "var target = {a: 1}; var p = new Proxy(target, {getOwnPropertyDescriptor: function() { return undefined; }});");
+            assertEquals("undefined", eval(context, "gopd(p, 'a')"));
+            context.eval("js", "Object.defineProperty(target, 'b', {value: 2, configurable: false});");
+            assertEquals("TypeError", eval(context, "gopd(p, 'b')"));
+            // the configurable property may still be hidden
+            assertEquals("undefined", eval(context, "gopd(p, 'a')"));
+        }
+    }
+
+    @Test
+    public void testDefinePropertyConfigurableFalse() {
+        try (Context context = createContext()) {
+            context.eval("js", "var target = {a: 1}; var p = new Proxy(target, {defineProperty: function() { return true; }});");
+            assertEquals("true", eval(context, "define(p, 'x', {value: 1, configurable: true})"));
+            // the target has no such property
+            assertEquals("TypeError", eval(context, "define(p, 'x', {value: 1, configurable: false})"));
+            // the target property is configurable
+            assertEquals("TypeError", eval(context, "define(p, 'a', {value: 1, configurable: false})"));
+            assertEquals("1:true", eval(context, "target.a + ':' + Object.getOwnPropertyDescriptor(target, 'a').configurable"));
+        }
+    }
+
+    @Test
+    public void testDeletePropertyOnFrozenTarget() {
+        try (Context context = createContext()) {
+            context.eval("js", "var target = {a: 1}; var p = new Proxy(target, {deleteProperty: function() { return true; }});");
+            assertEquals("true", eval(context, "del(p, 'a')"));
+            assertEquals("true", eval(context, "del(p, 'a')"));
+            context.eval("js", "Object.freeze(target);");
+            assertEquals("TypeError", eval(context, "del(p, 'a')"));
+            assertEquals("TypeError", eval(context, "(function() { 'use strict'; return attempt(function() { return delete p.a; }); })()"));
+            // deleting a missing property is fine
+            assertEquals("true", eval(context, "del(p, 'missing')"));
+        }
+    }
+
+    @Test
+    public void testGetPrototypeOfNonExtensibleTarget() {
+        try (Context context = createContext()) {
+            context.eval("js", "var target = {}; var p = new Proxy(target, {getPrototypeOf: function() { return Array.prototype; }});");
+            assertEquals("true", eval(context, "proto(p)"));
+            context.eval("js", "var frozen = Object.preventExtensions({}); var q = new Proxy(frozen, {getPrototypeOf: function() { return Array.prototype; }});");
+            assertEquals("TypeError", eval(context, "proto(q)"));
+            context.eval("js", "var same = Object.preventExtensions([]); var r = new Proxy(same, {getPrototypeOf: function() { return Array.prototype; }});");
+            assertEquals("true", eval(context, "proto(r)"));
+        }
+    }
+
+    @Test
+    public void testTargetBecomesNonExtensibleAfterCaching() {
+        try (Context context = createContext()) {
+            context.eval("js", "var target = {a: 1}; var handler = {" +
+                            "  ownKeys: function() { return []; }," +
+                            "  getOwnPropertyDescriptor: function() { return undefined; }," +
+                            "  defineProperty: function() { return true; }," +
+                            "  getPrototypeOf: function() { return Array.prototype; }" +
+                            "}; var p = new Proxy(target, handler);");
+            // warm up the trap nodes with the extensible target shape
+            for (int i = 0; i < 5; i++) {
+                assertEquals("", eval(context, "keys(p)"));
+                assertEquals("undefined", eval(context, "gopd(p, 'a')"));
+                assertEquals("true", eval(context, "define(p, 'b', {value: 1})"));
+                assertEquals("true", eval(context, "proto(p)"));
+            }
+            context.eval("js", "Object.preventExtensions(target);");
+            assertEquals("TypeError", eval(context, "keys(p)"));
+            assertEquals("TypeError", eval(context, "gopd(p, 'a')"));
+            assertEquals("TypeError", eval(context, "define(p, 'b', {value: 1})"));
+            assertEquals("TypeError", eval(context, "proto(p)"));
+        }
+    }
+
+    @Test
+    public void testManyTargetShapes() {
+        try (Context context = createContext()) {
+            context.eval("js", "var handler = {getPrototypeOf: function() { return Array.prototype; }};" +
+                            "var targets = [{}, {x: 1}, {y: 1}, {z: 1}, Object.preventExtensions({w: 1})];");
+            assertEquals("true,true,true,true,TypeError", eval(context, "targets.map(function(t) { return proto(new Proxy(t, handler)); }).join()"));
+        }
+    }
+
+    @Test
+    public void testGetOwnPropertyNames() {
+        try (Context context = createContext()) {
+            context.eval("js", "var target = {a: 1}; var s = Symbol(); var p = new Proxy(target, {ownKeys: function() { return ['x', s, 'y']; }});");
+            assertEquals("x,y", eval(context, "names(p)"));
+            assertEquals("1", eval(context, "symbols(p)"));
+            context.eval("js", "Object.defineProperty(target, 'b', {value: 2, configurable: false});");
+            assertEquals("TypeError", eval(context, "names(p)"));
+            assertEquals("TypeError", eval(context, "symbols(p)"));
+        }
+    }
+
+    @Test
+    public void testHasHidesNonConfigurable() {
+        try (Context context = createContext()) {
+            context.eval("js", "var target = {a: 1}; var p = new Proxy(target, {has: function(t, k) { return k === 'y'; }});");
+            for (int i = 0; i < 5; i++) {
+                assertEquals("false", eval(context, "has(p, 'a')"));
+                assertEquals("true", eval(context, "has(p, 'y')"));
+                assertEquals("false", eval(context, "reflect('has', [p, 'a'])"));
+            }
+            context.eval("js", "Object.defineProperty(target, 'b', {value: 2, configurable: false});");
+            assertEquals("TypeError", eval(context, "has(p, 'b')"));
+            assertEquals("TypeError", eval(context, "reflect('has', [p, 'b'])"));
+            // the configurable property may still be hidden, unless the target is not extensible
+            assertEquals("false", eval(context, "has(p, 'a')"));
+            context.eval("js", "Object.preventExtensions(target);");
+            assertEquals("TypeError", eval(context, "has(p, 'a')"));
+            assertEquals("false", eval(context, "has(p, 'missing')"));
+        }
+    }
+
+    @Test
+    public void testIsExtensible() {
+        try (Context context = createContext()) {
+            context.eval("js", "var target = {}; var result = true; var p = new Proxy(target, {isExtensible: function() { return result; }});");
+            for (int i = 0; i < 5; i++) {
+                assertEquals("true", eval(context, "extensible(p)"));
+                assertEquals("true", eval(context, "reflect('isExtensible', [p])"));
+            }
+            context.eval("js", "result = false;");
+            assertEquals("TypeError", eval(context, "extensible(p)"));
+            context.eval("js", "Object.preventExtensions(target);");
+            assertEquals("false", eval(context, "extensible(p)"));
+            context.eval("js", "result = true;");
+            assertEquals("TypeError", eval(context, "extensible(p)"));
+            assertEquals("TypeError", eval(context, "reflect('isExtensible', [p])"));
+        }
+    }
+
+    @Test
+    public void testPreventExtensions() {
+        try (Context context = createContext()) {
+            context.eval("js", "var target = {}; var result = true; var p = new Proxy(target, {preventExtensions: function(t) { return result; }});");
+            assertEquals("TypeError", eval(context, "prevent(p)"));
+            assertEquals("TypeError", eval(context, "reflect('preventExtensions', [p])"));
+            context.eval("js", "result = false;");
+            assertEquals("false", eval(context, "reflect('preventExtensions', [p])"));
+            context.eval("js", "Object.preventExtensions(target); result = true;");
+            assertEquals("true", eval(context, "prevent(p)"));
+            assertEquals("true", eval(context, "reflect('preventExtensions', [p])"));
+        }
+    }
+
+    @Test
+    public void testSetPrototypeOf() {
+        try (Context context = createContext()) {
+            context.eval("js", "var target = {}; var result = true; var p = new Proxy(target, {setPrototypeOf: function() { return result; }});");
+            for (int i = 0; i < 5; i++) {
+                assertEquals("true", eval(context, "setProto(p, Array.prototype)"));
+                assertEquals("true", eval(context, "reflect('setPrototypeOf', [p, null])"));
+            }
+            // the trap does not actually change the prototype
+            assertEquals("true", eval(context, "Object.getPrototypeOf(target) === Object.prototype"));
+            context.eval("js", "Object.preventExtensions(target);");
+            assertEquals("TypeError", eval(context, "setProto(p, Array.prototype)"));
+            assertEquals("true", eval(context, "setProto(p, Object.prototype)"));
+            context.eval("js", "result = false;");
+            assertEquals("TypeError", eval(context, "setProto(p, Object.prototype)"));
+            assertEquals("false", eval(context, "reflect('setPrototypeOf', [p, Object.prototype])"));
+        }
+    }
+
+    @Test
+    public void testReflectTraps() {
+        try (Context context = createContext()) {
+            context.eval("js", "var target = {a: 1}; var p = new Proxy(target, {" +
+                            "  ownKeys: function() { return []; }," +
+                            "  getOwnPropertyDescriptor: function() { return undefined; }," +
+                            "  defineProperty: function(t, k) { return k !== 'no'; }," +
+                            "  deleteProperty: function() { return true; }," +
+                            "  getPrototypeOf: function() { return Array.prototype; }" +
+                            "});");
+            for (int i = 0; i < 5; i++) {
+                assertEquals("", eval(context, "reflect('ownKeys', [p])"));
+                assertEquals("undefined", eval(context, "reflect('getOwnPropertyDescriptor', [p, 'a'])"));
+                assertEquals("true", eval(context, "reflect('defineProperty', [p, 'x', {value: 1}])"));
+                assertEquals("false", eval(context, "reflect('defineProperty', [p, 'no', {value: 1}])"));
+                assertEquals("true", eval(context, "reflect('deleteProperty', [p, 'a'])"));
+                assertEquals("true", eval(context, "attempt(function() { return Reflect.getPrototypeOf(p) === Array.prototype; })"));
+            }
+            context.eval("js", "Object.freeze(target);");
+            assertEquals("TypeError", eval(context, "reflect('ownKeys', [p])"));
+            assertEquals("TypeError", eval(context, "reflect('getOwnPropertyDescriptor', [p, 'a'])"));
+            assertEquals("TypeError", eval(context, "reflect('defineProperty', [p, 'x', {value: 1}])"));
+            assertEquals("false", eval(context, "reflect('defineProperty', [p, 'no', {value: 1}])"));
+            assertEquals("TypeError", eval(context, "reflect('deleteProperty', [p, 'a'])"));
+            assertEquals("TypeError", eval(context, "attempt(function() { return Reflect.getPrototypeOf(p) === Array.prototype; })"));
+        }
+    }
+}
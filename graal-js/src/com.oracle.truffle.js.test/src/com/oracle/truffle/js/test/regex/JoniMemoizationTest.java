@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.regex;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+import com.oracle.truffle.regex.nashorn.regexp.joni.Matcher;
+import com.oracle.truffle.regex.nashorn.regexp.joni.Option;
+import com.oracle.truffle.regex.nashorn.regexp.joni.Regex;
+import com.oracle.truffle.regex.nashorn.regexp.joni.exception.MatchLimitException;
+
+/**
+ * Tests for the failure memo and the step limit of the Joni matcher.
+ */
+public class JoniMemoizationTest {
+
+    private static final String CATASTROPHIC = "(a+)+$";
+
+    private static String repeat(String s, int n) {
+        return String.join("", Collections.nCopies(n, s));
+    }
+
+    private static String search(Regex regex, String input, int start, boolean memoize) {
+        Matcher matcher = regex.matcher(input).setMatchLimits(0, memoize);
+        int result = matcher.search(start, input.length(), Option.NONE);
+        return result < 0 ? "-1" : matcher.getBegin() + ".." + matcher.getEnd();
+    }
+
+    @Test(timeout = 10000)
+    public void testRepeatedCatastrophicSearches() {
+        Regex regex = new Regex(CATASTROPHIC);
+        String input = repeat("a", 40);
+        // later searches reuse the memo table of earlier ones, which must not leak failures
+        for (int i = 0; i < 10; i++) {
+            assertEquals("-1", search(regex, input + "!", 0, true));
+            assertEquals("2..42", search(regex, "xx" + input, 0, true));
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testSearchFromOffset() {
+        Regex regex = new Regex(CATASTROPHIC);
+        String input = repeat("a", 40) + "!aa";
+        assertEquals("41..43", search(regex, input, 0, true));
+        assertEquals("41..43", search(regex, input, 20, true));
+        assertEquals("42..43", search(regex, input, 42, true));
+    }
+
+    @Test
+    public void testMemoizationDoesNotChangeResults() {
+        String[] patterns = {"(a|ab)(c|bcd)(d*)", "(a*)+?b", "((a)|b)+", "(x*)*y|x+", "(a|aa)*c"};
+        String[] inputs = {"abcd", "aab", "abab", "xxx", "xxy", "aaaac"};
+        for (String pattern : patterns) {
+            Regex regex = new Regex(pattern);
+            for (String input : inputs) {
+                for (int start = 0; start <= input.length(); start++) {
+                    assertEquals(pattern + " on " + input + " from " + start, search(regex, input, start, false), search(regex, input, start, true));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testStepLimit() {
+        Regex regex = new Regex(CATASTROPHIC);
+        String input = repeat("a", 40) + "!";
+        try {
+            regex.matcher(input).setMatchLimits(10000, false).search(0, input.length(), Option.NONE);
+            fail("expected the step limit to be exceeded");
+        } catch (MatchLimitException e) {
+            assertEquals(10001, e.getSteps());
+        }
+        // the memo is set up lazily once backtracking starts, and then keeps the search in budget
+        assertEquals(-1, regex.matcher(input).setMatchLimits(10000, true).search(0, input.length(), Option.NONE));
+    }
+}
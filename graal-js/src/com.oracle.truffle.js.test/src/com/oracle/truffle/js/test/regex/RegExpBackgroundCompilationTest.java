@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.regex;
+
+import static org.junit.Assert.assertEquals;
+
+import org.graalvm.polyglot.Context;
+import org.junit.Test;
+
+/**
+ * Tests for large expressions, which are matched by an interim engine while their DFAs are
+ * generated in the background.
+ */
+public class RegExpBackgroundCompilationTest {
+
+    private static final String LARGE_REGEX = "new RegExp(Array.from({length: 80}, (_, i) => 'w' + i + '(x|y)').join('|'))";
+
+    private static String execRepeatedly(Context context, String input) {
+        context.eval("js", "var re = " + LARGE_REGEX + ";");
+        String first = context.eval("js", "JSON.stringify(re.exec(" + input + "))").asString();
+        // executions while and after the DFAs are generated must agree
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(first, context.eval("js", "JSON.stringify(re.exec(" + input + "))").asString());
+        }
+        return first;
+    }
+
+    @Test
+    public void testLargeExpression() {
+        try (Context context = Context.create("js")) {
+            assertEquals("[\"w42y\",\"y\"]", execRepeatedly(context, "'abc w42y w7x'"));
+            assertEquals("null", execRepeatedly(context, "'w80x w81y'"));
+        }
+    }
+
+    @Test
+    public void testManyLargeExpressions() {
+        // more expressions than fit into the background compiler's queue
+        try (Context context = Context.create("js")) {
+            String result = context.eval("js", "var results = [];" +
+                            "for (var n = 0; n < 200; n++) {" +
+                            "  var re = new RegExp(Array.from({length: 60}, (_, i) => 'v' + n + '_' + i + '(a|b)').join('|'));" +
+                            "  results.push(re.exec('v' + n + '_59b')[1]);" +
+                            "}" +
+                            "results.join('')").asString();
+            assertEquals(new String(new char[200]).replace('\0', 'b'), result);
+        }
+    }
+
+    @Test
+    public void testDFABailout() {
+        // the DFA of "an 'a' 110 characters before the end" needs more states than allowed, the
+        // expression stays with the interim engine
+        try (Context context = Context.create("js")) {
+            context.eval("js", "var re = new RegExp('[ab]*a' + '[ab]'.repeat(110) + '$');" +
+                            "var match = 'b'.repeat(5) + 'a' + 'b'.repeat(110);" +
+                            "var noMatch = 'a'.repeat(5) + 'b'.repeat(111);");
+            for (int i = 0; i < 1000; i++) {
+                assertEquals("true,false", context.eval("js", "re.test(match) + ',' + re.test(noMatch)").asString());
+            }
+        }
+    }
+
+    @Test
+    public void testContextsAfterClose() {
+        // closing the last context shuts down the background compiler, the next one restarts it
+        for (int i = 0; i < 3; i++) {
+            try (Context context = Context.create("js")) {
+                assertEquals("[\"w3x\",\"x\"]", execRepeatedly(context, "'w3x'"));
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.regex;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
+import org.junit.Test;
+
+import com.oracle.truffle.regex.RegexFlags;
+import com.oracle.truffle.regex.RegexOptions;
+import com.oracle.truffle.regex.RegexSource;
+import com.oracle.truffle.regex.RegexStepLimitException;
+import com.oracle.truffle.regex.tregex.backtrack.BacktrackerCompiler;
+import com.oracle.truffle.regex.tregex.backtrack.TRegexBacktrackerNode;
+import com.oracle.truffle.regex.tregex.buffer.CompilationBuffer;
+import com.oracle.truffle.regex.tregex.parser.RegexParser;
+
+/**
+ * Conformance tests for expressions matched by {@link TRegexBacktrackerNode}, i.e. expressions with
+ * back-references, negative look-aheads or non-literal look-behinds.
+ */
+public class RegExpBacktrackerTest {
+
+    private static String exec(String regex, String input) {
+        try (Context context = Context.create("js")) {
+            Value result = context.eval("js", "JSON.stringify(" + regex + ".exec(" + input + "))");
+            return result.asString();
+        }
+    }
+
+    @Test
+    public void testQuotedBackReference() {
+        assertEquals("[\"'it\\\"s'\",\"'\",\"it\\\"s\"]", exec("/(['\"])(.*?)\\1/", "\"say 'it\\\"s' ok\""));
+        assertEquals("[\"\\\"a\\\"\",\"\\\"\",\"a\"]", exec("/(['\"])(.*?)\\1/", "\"'\\\"a\\\"\""));
+        assertEquals("null", exec("/(['\"])(.*?)\\1/", "\"'abc\\\"\""));
+    }
+
+    @Test
+    public void testIgnoreCaseBackReference() {
+        assertEquals("[\"ABCabc\",\"ABC\"]", exec("/(abc)\\1/i", "'xABCabc'"));
+        assertEquals("null", exec("/(abc)\\1/", "'xABCabc'"));
+        assertEquals("[\"ſs\",\"ſ\"]", exec("/(ſ)\\1/iu", "'ſs'"));
+    }
+
+    @Test
+    public void testLazyQuantifiers() {
+        assertEquals("[\"aa\",\"a\"]", exec("/(a+?)\\1/", "'aaaa'"));
+        assertEquals("[\"<b>x</b>\",\"b\"]", exec("/<(\\w+)>.*?<\\/\\1>/", "'<b>x</b><b>y</b>'"));
+        assertEquals("[\"aaaa\",\"aa\"]", exec("/(a+)\\1/", "'aaaa'"));
+    }
+
+    @Test
+    public void testLookBehindCaptures() {
+        assertEquals("[\"\",\"1\",\"053\"]", exec("/(?<=(\\d+)(\\d+))$/", "'1053'"));
+        assertEquals("[\"53\",\"10\"]", exec("/(?<=\\$(\\d+)\\.)\\d+/", "'$10.53'"));
+        // look-behinds are matched right to left, so the back-reference precedes its group
+        assertEquals("[\"c\",\"b\"]", exec("/(?<=([ab])\\1)c/", "'xbc'"));
+        assertEquals("[\"b\",null]", exec("/(?<!(\\d))b/", "'1bab'"));
+    }
+
+    @Test
+    public void testEmptyLoopTermination() {
+        assertEquals("[\"\",null]", exec("/(?!x)(a*)*/", "'b'"));
+        assertEquals("[\"\",\"\"]", exec("/(?!x)(a*)+/", "'b'"));
+        assertEquals("[\"aab\"]", exec("/(?!x)(?:a*)*b/", "'aab'"));
+    }
+
+    @Test(timeout = 10000)
+    public void testCatastrophicBacktrackingIsMemoized() {
+        assertEquals("null", exec("/(?!x)(a+)+b/", "'a'.repeat(40)"));
+        assertEquals("null", exec("/(?!x)(a|aa)*c/", "'a'.repeat(60)"));
+    }
+
+    @Test
+    public void testStepLimit() {
+        String input = String.join("", Collections.nCopies(40, "a"));
+        try {
+            search("(a+)+b", input, "StepLimit=10000,Memoization=false");
+            fail("expected the step limit to be exceeded");
+        } catch (RegexStepLimitException e) {
+            assertEquals(10000, e.getStepLimit());
+        }
+        // memoization keeps the search well within the same budget
+        assertFalse(search("(a+)+b", input, "StepLimit=10000"));
+        // a budget of 0 means unlimited
+        assertFalse(search("(a+)+b", input.substring(0, 16), "Memoization=false"));
+    }
+
+    @Test
+    public void testMemoizationDoesNotChangeResults() {
+        String[] patterns = {"(a|ab)(c|bcd)(d*)", "(a*)+?b", "((a)|b)+", "(x*)*y|x+", "(?!b)(a|ab)*(?=(b*))c?"};
+        String[] inputs = {"abcd", "aab", "abab", "xxx", "xxy"};
+        for (String pattern : patterns) {
+            for (String input : inputs) {
+                assertArrayEquals(pattern + " on " + input, match(pattern, input, "Memoization=false"), match(pattern, input, "Memoization=true"));
+            }
+        }
+    }
+
+    private static boolean search(String pattern, String input, String options) {
+        TRegexBacktrackerNode node = compile(pattern, options);
+        TRegexBacktrackerNode.SearchState state = node.createSearchState(0, input.length());
+        for (int start = 0; start <= input.length(); start++) {
+            if (node.execute(input, start, input.length(), state) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] match(String pattern, String input, String options) {
+        TRegexBacktrackerNode node = compile(pattern, options);
+        TRegexBacktrackerNode.SearchState state = node.createSearchState(0, input.length());
+        for (int start = 0; start <= input.length(); start++) {
+            int[] result = node.execute(input, start, input.length(), state);
+            if (result != null) {
+                return result;
+            }
+        }
+        return null;
+    }
+
+    private static TRegexBacktrackerNode compile(String pattern, String options) {
+        RegexOptions regexOptions = RegexOptions.parse(options);
+        return BacktrackerCompiler.compile(RegexParser.parse(new RegexSource(pattern, RegexFlags.DEFAULT), regexOptions), regexOptions, new CompilationBuffer());
+    }
+}
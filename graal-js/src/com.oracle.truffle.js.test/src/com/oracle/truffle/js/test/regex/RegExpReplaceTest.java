@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.regex;
+
+import static org.junit.Assert.assertEquals;
+
+import org.graalvm.polyglot.Context;
+import org.junit.Test;
+
+/**
+ * Tests that the global {@code RegExp.prototype[@@replace]} and {@code [@@match]} paths that
+ * iterate over raw TRegex results agree with the generic paths calling RegExpExec.
+ */
+public class RegExpReplaceTest {
+
+    /**
+     * Evaluates {@code expression} (using {@code rx} as the RegExp) once with a plain RegExp, which
+     * takes the raw result path, and once with an own {@code exec} property, which forces the
+     * generic path, and checks that both agree.
+     */
+    private static final String CODES = ".split('').map(function(c) { return c.charCodeAt(0); }).join()";
+
+    private static String both(Context context, String pattern, String expression) {
+        String fast = context.eval("js", "(function() { var rx = " + pattern + "; return JSON.stringify(" + expression + "); })()").asString();
+        String slow = context.eval("js", "(function() { var rx = " + pattern + "; rx.exec = RegExp.prototype.exec; return JSON.stringify(" + expression + "); })()").asString();
+        assertEquals(expression, slow, fast);
+        return fast;
+    }
+
+    @Test
+    public void testSubstitutionPatterns() {
+        try (Context context = Context.create("js")) {
+            assertEquals("\"a[b|a|cabc]ca[b|abca|c]c\"", both(context, "/b/g", "'abcabc'.replace(rx, \"[$&|$`|$']\")"));
+            assertEquals("\"x$y$$z\"", both(context, "/-/g", "'x-y-z'.replace(rx, function() { return '$'; }).replace(/z/g, '$$$$z')"));
+            assertEquals("\"$<$x\"", both(context, "/-/g", "'-x'.replace(rx, '$<$')"));
+            assertEquals("\"ba\"", both(context, "/(a)(b)/g", "'ab'.replace(rx, '$2$1')"));
+            assertEquals("\"$\"", both(context, "/a/g", "'a'.replace(rx, '$')"));
+        }
+    }
+
+    @Test
+    public void testCaptureNumbers() {
+        try (Context context = Context.create("js")) {
+            // $10 with a single capture is $1 followed by a literal 0
+            assertEquals("\"a0b\"", both(context, "/(a)/g", "'ab'.replace(rx, '$10')"));
+            assertEquals("\"$2b\"", both(context, "/(a)/g", "'ab'.replace(rx, '$2')"));
+            assertEquals("\"ab\"", both(context, "/(a)/g", "'ab'.replace(rx, '$01')"));
+            assertEquals("\"$0b\"", both(context, "/(a)/g", "'ab'.replace(rx, '$0')"));
+            assertEquals("\"$00b\"", both(context, "/(a)/g", "'ab'.replace(rx, '$00')"));
+            assertEquals("\"jb\"", both(context, "/(a)(b)?(c)?(d)?(e)?(f)?(g)?(h)?(i)?(j)/g", "'abcdefghijb'.replace(rx, '$10')"));
+            // unmatched captures expand to the empty string
+            assertEquals("\"[]c\"", both(context, "/(x)?ab/g", "'abc'.replace(rx, '[$1]')"));
+        }
+    }
+
+    @Test
+    public void testEmptyMatches() {
+        try (Context context = Context.create("js")) {
+            assertEquals("\"-a-b-c-\"", both(context, "/x*/g", "'abc'.replace(rx, '-')"));
+            assertEquals("\"[]a[]\"", both(context, "/(?:)/g", "'a'.replace(rx, \"[$&]\")"));
+            assertEquals("\"<>a<>\"", both(context, "/(?:)/g", "'a'.replace(rx, function(m) { return '<' + m + '>'; })"));
+            assertEquals("[\"\",\"\",\"\"]", both(context, "/x*/g", "'ab'.match(rx)"));
+            assertEquals("\"\"", both(context, "/x*/g", "''.replace(rx, '')"));
+        }
+    }
+
+    @Test
+    public void testUnicodeAdvance() {
+        try (Context context = Context.create("js")) {
+            // empty matches advance by code point with the u flag, and by code unit without it
+            assertEquals("\"45,55357,56832,45\"", both(context, "/(?:)/gu", "'\\ud83d\\ude00'.replace(rx, '-')" + CODES));
+            assertEquals("\"45,55357,45,56832,45\"", both(context, "/(?:)/g", "'\\ud83d\\ude00'.replace(rx, '-')" + CODES));
+            assertEquals("2", both(context, "/(?:)/gu", "'\\ud83d\\ude00'.match(rx).length"));
+            assertEquals("3", both(context, "/(?:)/g", "'\\ud83d\\ude00'.match(rx).length"));
+            assertEquals("\"91,55357,56832,93,120\"", both(context, "/./gu", "'\\ud83d\\ude00x'.replace(rx, function(m, i) { return i === 0 ? '[' + m + ']' : m; })" + CODES));
+        }
+    }
+
+    @Test
+    public void testFunctionalReplace() {
+        try (Context context = Context.create("js")) {
+            assertEquals("\"a[1114]b[2234]\"", both(context, "/(\\d)/g", "'a1b2'.replace(rx, function(m, p1, offset, str) { return '[' + m + p1 + offset + str.length + ']'; })"));
+            assertEquals("\"aundefined\"", both(context, "/(x)?b/g", "'ab'.replace(rx, function(m, p1) { return String(p1); })"));
+            // the replace function runs after all matches have been collected
+            assertEquals("\"bb:5\"", both(context, "/a/g", "'aa'.replace(rx, function() { rx.lastIndex = 5; return 'b'; }) + ':' + rx.lastIndex"));
+        }
+    }
+
+    @Test
+    public void testGlobalMatch() {
+        try (Context context = Context.create("js")) {
+            assertEquals("[\"1\",\"2\",\"2\"]", both(context, "/\\d/g", "'a1b22'.match(rx)"));
+            assertEquals("null", both(context, "/\\d/g", "'ab'.match(rx)"));
+            assertEquals("[\"ab\",\"ab\"]", both(context, "/(a)(b)/g", "'abxab'.match(rx)"));
+        }
+    }
+
+    @Test
+    public void testExecReadsAreCounted() {
+        try (Context context = Context.create("js")) {
+            // an exec accessor must be read once per RegExpExec call, i.e. per match plus once for
+            // the failing match
+            context.eval("js", "var reads = 0; var original = RegExp.prototype.exec;" +
+                            "Object.defineProperty(RegExp.prototype, 'exec', {get: function() { reads++; return original; }, configurable: true});");
+            assertEquals("x-x-x:4", context.eval("js", "'a-b-c'.replace(/[a-z]/g, 'x') + ':' + reads").asString());
+            assertEquals("3:4", context.eval("js", "reads = 0; 'a-b-c'.match(/[a-z]/g).length + ':' + reads").asString());
+        }
+    }
+}
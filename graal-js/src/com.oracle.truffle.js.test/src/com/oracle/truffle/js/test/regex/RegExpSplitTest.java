@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.regex;
+
+import static org.junit.Assert.assertEquals;
+
+import org.graalvm.polyglot.Context;
+import org.junit.Test;
+
+/**
+ * Tests that {@code RegExp.prototype[@@split]} only skips creating the splitter when doing so is
+ * not observable.
+ */
+public class RegExpSplitTest {
+
+    private static final String SPLIT = "function split(s, r) { return JSON.stringify(s.split(r)); }" +
+                    "var results = []; for (var i = 0; i < 10; i++) { results.push(split('a,b,,c', /,/)); }";
+
+    @Test
+    public void testOwnSymbolMatchGetter() {
+        try (Context context = Context.create("js")) {
+            context.eval("js", SPLIT + "var reads = 0; var rx = /,/;" +
+                            "Object.defineProperty(rx, Symbol.match, {get: function() { reads++; return true; }});");
+            // IsRegExp in the RegExp constructor reads @@match once per split
+            assertEquals("[\"a\",\"b\",\"\",\"c\"]:10", context.eval("js", "var r; for (var i = 0; i < 10; i++) { r = split('a,b,,c', rx); } r + ':' + reads").asString());
+            assertEquals("[\"a\",\"b\",\"\",\"c\"]", context.eval("js", "results[9]").asString());
+        }
+    }
+
+    @Test
+    public void testOwnSymbolMatchData() {
+        try (Context context = Context.create("js")) {
+            context.eval("js", SPLIT + "var rx = /(,)/; rx[Symbol.match] = false;");
+            assertEquals("[\"a\",\",\",\"b\"]", context.eval("js", "split('a,b', rx)").asString());
+        }
+    }
+
+    @Test
+    public void testPrototypeSymbolMatchGetter() {
+        try (Context context = Context.create("js")) {
+            context.eval("js", SPLIT + "var reads = 0; var original = RegExp.prototype[Symbol.match];" +
+                            "Object.defineProperty(RegExp.prototype, Symbol.match, {get: function() { reads++; return original; }, configurable: true});");
+            assertEquals("[\"a\",\"b\",\"\",\"c\"]:1", context.eval("js", "split('a,b,,c', /,/) + ':' + reads").asString());
+            assertEquals("[\"x\",\"y\"]:2", context.eval("js", "split('x;y', /;/) + ':' + reads").asString());
+        }
+    }
+
+    @Test
+    public void testDifferentPrototype() {
+        try (Context context = Context.create("js")) {
+            context.eval("js", SPLIT + "var reads = 0; var proto = Object.create(RegExp.prototype);" +
+                            "Object.defineProperty(proto, Symbol.match, {get: function() { reads++; return true; }});" +
+                            "var rx = /-/; Object.setPrototypeOf(rx, proto);");
+            assertEquals("[\"1\",\"2\",\"3\"]:1", context.eval("js", "split('1-2-3', rx) + ':' + reads").asString());
+        }
+    }
+
+    /**
+     * Splits {@code input} on the fast path and on the generic path, which is taken for a copy of
+     * the regex with an own {@code @@match}, and checks that both produce {@code expected}. The
+     * elements are {@code escape}d, so that lone surrogates can be compared.
+     */
+    private static void assertSplit(Context context, String expected, String input, String regex, String limit) {
+        String code = "(function() { var rx = " + regex + "; var slow = new RegExp(rx); slow[Symbol.match] = true;" +
+                        "function show(a) { return JSON.stringify(a.map(function(x) { return x === undefined ? x : escape(x); })); }" +
+                        "var fast = show(" + input + ".split(rx, " + limit + "));" +
+                        "var generic = show(" + input + ".split(slow, " + limit + "));" +
+                        "return fast === generic ? fast : fast + ' != ' + generic; })()";
+        String description = input + ".split(" + regex + ", " + limit + ")";
+        for (int i = 0; i < 10; i++) {
+            assertEquals(description, expected, context.eval("js", code).asString());
+        }
+    }
+
+    @Test
+    public void testCapturesSpliced() {
+        try (Context context = Context.create("js")) {
+            assertSplit(context, "[\"a\",\"1\",\"b\",\"2\",\"c\"]", "'a1b2c'", "/(\\d)/", "undefined");
+            assertSplit(context, "[\"a\",\"1\",\"x\",\"b\",\"2\",\"x\",\"c\"]", "'a1xb2xc'", "/(\\d)(x)/", "undefined");
+            // non-participating groups are spliced in as undefined
+            assertSplit(context, "[\"a\",null,\"b\",\"x\",\"c\"]", "'a,bx,c'", "/(x)?,/", "undefined");
+            assertSplit(context, "[\"\",\"-\",\"a\",\"-\",\"\"]", "'-a-'", "/(-)/", "undefined");
+        }
+    }
+
+    @Test
+    public void testLimit() {
+        try (Context context = Context.create("js")) {
+            assertSplit(context, "[]", "'a,b,c'", "/,/", "0");
+            assertSplit(context, "[\"a\"]", "'a,b,c'", "/,/", "1");
+            assertSplit(context, "[\"a\",\"b\"]", "'a,b,c'", "/,/", "2");
+            assertSplit(context, "[\"a\",\"b\",\"c\"]", "'a,b,c'", "/,/", "10");
+            // the limit also applies in the middle of the spliced captures
+            assertSplit(context, "[\"a\",\"1\"]", "'a1b2c'", "/(\\d)/", "2");
+            assertSplit(context, "[\"a\",\"1\",\"b\"]", "'a1b2c'", "/(\\d)/", "3");
+            assertSplit(context, "[\"a\",\"1\"]", "'a1xb'", "/(\\d)(x)/", "2");
+            // ToUint32 of the limit
+            assertSplit(context, "[\"a\",\"b\",\"c\"]", "'a,b,c'", "/,/", "-1");
+            assertSplit(context, "[]", "'a,b,c'", "/,/", "4294967296");
+        }
+    }
+
+    @Test
+    public void testEmptyMatches() {
+        try (Context context = Context.create("js")) {
+            assertSplit(context, "[\"a\",\"b\",\"c\"]", "'abc'", "/(?:)/", "undefined");
+            assertSplit(context, "[\"a\",\"b\",\"c\"]", "'abc'", "/x*/", "undefined");
+            assertSplit(context, "[\"a\",\"b\"]", "'ab'", "/(?=b)/", "undefined");
+            assertSplit(context, "[\"a\",\"\",\"b\"]", "'ab'", "/()/", "undefined");
+            assertSplit(context, "[\"ab\",\"\"]", "'ab,'", "/,/", "undefined");
+            assertSplit(context, "[\"\"]", "''", "/x/", "undefined");
+            assertSplit(context, "[]", "''", "/(?:)/", "undefined");
+            assertSplit(context, "[\"a\",\"c\"]", "'abc'", "/b*/", "undefined");
+        }
+    }
+
+    @Test
+    public void testUnicodeAdvance() {
+        try (Context context = Context.create("js")) {
+            // with the u flag, empty matches advance over whole surrogate pairs
+            assertSplit(context, "[\"%uD83D%uDE00\",\"%uD83D%uDE01\"]", "'\\u{1F600}\\u{1F601}'", "/(?:)/u", "undefined");
+            assertSplit(context, "[\"a\",\"%uD83D%uDE00\",\"b\"]", "'a\\u{1F600}b'", "/(?:)/u", "undefined");
+            assertSplit(context, "[\"%uD83D\",\"%uDE00\"]", "'\\u{1F600}'", "/(?:)/", "undefined");
+            // a lone surrogate is a single code point
+            assertSplit(context, "[\"%uD83D\",\"x\"]", "'\\ud83dx'", "/(?:)/u", "undefined");
+            assertSplit(context, "[\"a\",\"b\"]", "'a\\u{1F600}b'", "/\\u{1F600}/u", "undefined");
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static org.junit.Assert.assertEquals;
+
+import org.graalvm.polyglot.Context;
+import org.junit.Test;
+
+import com.oracle.truffle.js.runtime.JSContextOptions;
+
+/**
+ * Tests for the elements kind learned by array allocation sites.
+ */
+public class ArrayAllocationSiteTest {
+
+    private static String eval(Context context, String source) {
+        return context.eval("js", source).asString();
+    }
+
+    private static Context createContext() {
+        return Context.newBuilder("js").option(JSContextOptions.DEBUG_BUILTIN_NAME, "true").build();
+    }
+
+    @Test
+    public void testLearnsDoubleElements() {
+        try (Context context = createContext()) {
+            context.eval("js", "function make() { return []; }");
+            assertEquals("ConstantEmptyArray", eval(context, "Debug.arraytype(make())"));
+            context.eval("js", "for (var i = 0; i < 10; i++) { make().push(i + 0.5); }");
+            // a literal created after a double store starts as a double array
+            assertEquals("ZeroBasedDoubleArray:0", eval(context, "var a = make(); Debug.arraytype(a) + ':' + a.length"));
+            assertEquals("1.5,2.5:2", eval(context, "a.push(1.5, 2.5); a.join() + ':' + a.length"));
+        }
+    }
+
+    @Test
+    public void testGeneralizesElementsKind() {
+        try (Context context = createContext()) {
+            context.eval("js", "function make() { return []; }" +
+                            "for (var i = 0; i < 10; i++) { make().push(i); }");
+            assertEquals("ZeroBasedIntArray", eval(context, "Debug.arraytype(make())"));
+            context.eval("js", "for (var i = 0; i < 10; i++) { make().push(0.5); }");
+            assertEquals("ZeroBasedDoubleArray", eval(context, "Debug.arraytype(make())"));
+            // storing an object into a site-typed array still works
+            assertEquals("1,x,0.5:3", eval(context, "var a = make(); a.push(1, 'x', 0.5); a.join() + ':' + a.length"));
+        }
+    }
+
+    @Test
+    public void testHolesDetuneSite() {
+        try (Context context = createContext()) {
+            context.eval("js", "function make() { return []; }" +
+                            "for (var i = 0; i < 10; i++) { make().push(i + 0.5); }" +
+                            "var holes = make(); holes.push(0.5); holes[10] = 1.5;");
+            assertEquals("ConstantEmptyArray", eval(context, "Debug.arraytype(make())"));
+            context.eval("js", "for (var i = 0; i < 10; i++) { make().push(i + 0.5); }");
+            assertEquals("ConstantEmptyArray", eval(context, "Debug.arraytype(make())"));
+        }
+    }
+
+    @Test
+    public void testSitesAreIndependent() {
+        try (Context context = createContext()) {
+            context.eval("js", "function makeDoubles() { return []; } function makeInts() { return []; }" +
+                            "for (var i = 0; i < 10; i++) { makeDoubles().push(0.5); makeInts().push(i); }");
+            assertEquals("ZeroBasedDoubleArray:ZeroBasedIntArray", eval(context, "Debug.arraytype(makeDoubles()) + ':' + Debug.arraytype(makeInts())"));
+        }
+    }
+}
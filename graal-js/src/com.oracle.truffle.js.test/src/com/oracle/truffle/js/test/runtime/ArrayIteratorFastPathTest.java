@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.graalvm.polyglot.Context;
+import org.junit.Test;
+
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.js.parser.JSEngine;
+import com.oracle.truffle.js.runtime.AbstractJavaScriptLanguage;
+import com.oracle.truffle.js.runtime.JSRealm;
+
+/**
+ * Tests that for-of, spread and destructuring only step array iterators directly while
+ * %ArrayIteratorPrototype%.next is unmodified and the iterator has no own properties.
+ */
+public class ArrayIteratorFastPathTest {
+
+    private static final String LOOP = "function sum(a) { var s = 0; for (var x of a) { s += x; } return s; }" +
+                    "function spread(a) { return [...a].join(); }" +
+                    "function destructure(a) { var [x, y] = a; return x + ':' + y; }" +
+                    "var ArrayIteratorPrototype = Object.getPrototypeOf([][Symbol.iterator]());" +
+                    "var originalNext = ArrayIteratorPrototype.next;" +
+                    "for (var i = 0; i < 20; i++) { sum([1, 2, 3]); spread([1, 2]); destructure([1, 2]); }";
+
+    private static String eval(Context context, String code) {
+        return context.eval("js", code).toString();
+    }
+
+    private static Object eval(JSRealm realm, String code) {
+        Source source = Source.newBuilder(code).name("test").mimeType(AbstractJavaScriptLanguage.APPLICATION_MIME_TYPE).build();
+        return realm.getContext().getEvaluator().evaluate(realm, null, source);
+    }
+
+    @Test
+    public void testUnmodified() {
+        try (Context context = Context.create("js")) {
+            context.eval("js", LOOP);
+            assertEquals("6", eval(context, "sum([1, 2, 3])"));
+            assertEquals("1,2", eval(context, "spread([1, 2])"));
+            assertEquals("1:2", eval(context, "destructure([1, 2])"));
+            assertEquals("6", eval(context, "sum(new Int8Array([1, 2, 3]))"));
+        }
+    }
+
+    @Test
+    public void testReplacedNext() {
+        try (Context context = Context.create("js")) {
+            context.eval("js", LOOP);
+            context.eval("js", "var calls = 0;" +
+                            "ArrayIteratorPrototype.next = function() { calls++; return originalNext.call(this); };");
+            assertEquals("6", eval(context, "sum([1, 2, 3])"));
+            assertEquals("4", eval(context, "calls"));
+            assertEquals("1,2", eval(context, "spread([1, 2])"));
+            assertEquals("7", eval(context, "calls"));
+            assertEquals("1:2", eval(context, "destructure([1, 2])"));
+            assertEquals("9", eval(context, "calls"));
+        }
+    }
+
+    @Test
+    public void testRedefinedNext() {
+        try (Context context = Context.create("js")) {
+            context.eval("js", LOOP);
+            context.eval("js", "var gets = 0;" +
+                            "Object.defineProperty(ArrayIteratorPrototype, 'next', {get: function() { gets++; return originalNext; }, configurable: true});");
+            assertEquals("6", eval(context, "sum([1, 2, 3])"));
+            assertTrue(Integer.parseInt(eval(context, "gets")) > 0);
+        }
+    }
+
+    @Test
+    public void testDeletedNext() {
+        try (Context context = Context.create("js")) {
+            context.eval("js", LOOP);
+            assertEquals("TypeError", eval(context, "delete ArrayIteratorPrototype.next;" +
+                            "try { sum([1, 2, 3]); 'no error'; } catch (e) { e.constructor.name; }"));
+        }
+    }
+
+    @Test
+    public void testOwnNext() {
+        try (Context context = Context.create("js")) {
+            context.eval("js", LOOP);
+            // an iterator with an own property does not have the initial shape
+            assertEquals("10", eval(context, "var it = [1, 2, 3][Symbol.iterator]();" +
+                            "it.next = function() { var r = originalNext.call(this); if (!r.done) { r.value *= 2; } return r; };" +
+                            "sum({[Symbol.iterator]: function() { return it; }}) - 2"));
+            // other iterators are not affected
+            assertEquals("6", eval(context, "sum([1, 2, 3])"));
+        }
+    }
+
+    @Test
+    public void testChangedIteratorPrototype() {
+        try (Context context = Context.create("js")) {
+            context.eval("js", LOOP);
+            assertEquals("42", eval(context, "var it = [1, 2, 3][Symbol.iterator]();" +
+                            "var proto = Object.create(ArrayIteratorPrototype);" +
+                            "proto.next = function() { return this.done ? {done: true} : (this.done = true, {value: 42, done: false}); };" +
+                            "Object.setPrototypeOf(it, proto);" +
+                            "sum({[Symbol.iterator]: function() { return it; }})"));
+        }
+    }
+
+    @Test
+    public void testAssumption() {
+        JSRealm realm = JSEngine.createJSContext().getRealm();
+        assertTrue(realm.getArrayIteratorNextUnmodifiedAssumption().isValid());
+        eval(realm, "var it = [1][Symbol.iterator](); it.next = null; var o = Object.create(Object.getPrototypeOf(it)); o.next = 1;");
+        // own properties of other objects do not affect the prototype
+        assertTrue(realm.getArrayIteratorNextUnmodifiedAssumption().isValid());
+        eval(realm, "Object.getPrototypeOf([][Symbol.iterator]()).next = function() { return {done: true}; };");
+        assertFalse(realm.getArrayIteratorNextUnmodifiedAssumption().isValid());
+        assertEquals(0, eval(realm, "var n = 0; for (var x of [1, 2, 3]) { n++; } n"));
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.graalvm.polyglot.Context;
+import org.junit.Test;
+
+import com.oracle.truffle.js.runtime.array.ChunkedSparseMap;
+
+/**
+ * Tests for {@link ChunkedSparseMap}, checked against a {@link TreeMap}.
+ */
+public class ChunkedSparseMapTest {
+
+    private static void assertSameContents(TreeMap<Long, Object> expected, ChunkedSparseMap map) {
+        assertEquals(expected.size(), map.size());
+        assertEquals(expected.isEmpty(), map.isEmpty());
+        assertEquals(expected.isEmpty() ? -1 : expected.firstKey(), map.firstKey());
+        assertEquals(expected.isEmpty() ? -1 : expected.lastKey(), map.lastKey());
+        long index = map.higherKey(-1);
+        for (Map.Entry<Long, Object> entry : expected.entrySet()) {
+            assertEquals(entry.getKey().longValue(), index);
+            assertEquals(entry.getValue(), map.get(index));
+            assertTrue(map.containsKey(index));
+            index = map.higherKey(index);
+        }
+        assertEquals(-1, index);
+        index = map.lastKey();
+        for (Long key : expected.descendingKeySet()) {
+            assertEquals(key.longValue(), index);
+            index = map.lowerKey(index);
+        }
+        assertEquals(-1, index);
+    }
+
+    @Test
+    public void testReverseFill() {
+        ChunkedSparseMap map = new ChunkedSparseMap();
+        TreeMap<Long, Object> expected = new TreeMap<>();
+        // one element per chunk, so that every put inserts a chunk in front of all others
+        for (long i = 20000; i >= 0; i--) {
+            long index = i * 100;
+            assertTrue(map.put(index, index));
+            expected.put(index, index);
+        }
+        assertSameContents(expected, map);
+        assertFalse(map.put(0, "x"));
+        expected.put(0L, "x");
+        assertSameContents(expected, map);
+    }
+
+    @Test
+    public void testRandomFill() {
+        Random random = new Random(42);
+        ChunkedSparseMap map = new ChunkedSparseMap();
+        TreeMap<Long, Object> expected = new TreeMap<>();
+        for (int i = 0; i < 50000; i++) {
+            long index = random.nextInt(4) == 0 ? random.nextInt(1000) : random.nextInt(Integer.MAX_VALUE) * 31L;
+            Object value = i;
+            assertEquals(!expected.containsKey(index), map.put(index, value));
+            expected.put(index, value);
+            if (random.nextInt(5) == 0) {
+                long removed = random.nextInt(1000);
+                map.remove(removed);
+                expected.remove(removed);
+            }
+        }
+        assertSameContents(expected, map);
+        for (int i = 0; i < 1000; i++) {
+            long index = random.nextInt(Integer.MAX_VALUE) * 31L + random.nextInt(31);
+            assertEquals(expected.get(index), map.get(index));
+            Long higher = expected.higherKey(index);
+            Long lower = expected.lowerKey(index);
+            assertEquals(higher == null ? -1 : higher, map.higherKey(index));
+            assertEquals(lower == null ? -1 : lower, map.lowerKey(index));
+        }
+    }
+
+    @Test
+    public void testRemoveFrom() {
+        Random random = new Random(7);
+        ChunkedSparseMap map = new ChunkedSparseMap();
+        TreeMap<Long, Object> expected = new TreeMap<>();
+        for (int i = 0; i < 20000; i++) {
+            long index = random.nextInt(1000000);
+            map.put(index, i);
+            expected.put(index, i);
+        }
+        // in the middle of a chunk, at a chunk boundary, at an absent index, past the end
+        long[] cuts = {2000000, 900001, 640000, 500003, 123456, 64, 1, 0};
+        for (long cut : cuts) {
+            map.removeFrom(cut);
+            expected.tailMap(cut, true).clear();
+            assertSameContents(expected, map);
+        }
+        assertTrue(map.isEmpty());
+        map.put(5, "a");
+        map.put(70, "b");
+        expected.put(5L, "a");
+        expected.put(70L, "b");
+        assertSameContents(expected, map);
+    }
+
+    @Test
+    public void testNavigationAcrossChunks() {
+        ChunkedSparseMap map = new ChunkedSparseMap();
+        map.put(63, "a");
+        map.put(64, "b");
+        map.put(1000, "c");
+        assertEquals(64, map.higherKey(63));
+        assertEquals(1000, map.higherKey(64));
+        assertEquals(1000, map.higherKey(127));
+        assertEquals(1000, map.higherKey(128));
+        assertEquals(-1, map.higherKey(1000));
+        assertEquals(63, map.higherKey(0));
+        assertEquals(64, map.lowerKey(1000));
+        assertEquals(64, map.lowerKey(128));
+        assertEquals(63, map.lowerKey(64));
+        assertEquals(-1, map.lowerKey(63));
+        assertNull(map.get(65));
+        assertFalse(map.containsKey(0));
+        map.remove(64);
+        assertEquals(1000, map.higherKey(63));
+        assertEquals(63, map.lowerKey(1000));
+        map.remove(63);
+        assertEquals(1000, map.firstKey());
+        assertEquals(-1, map.lowerKey(1000));
+    }
+
+    @Test
+    public void testCopyTo() {
+        ChunkedSparseMap map = new ChunkedSparseMap();
+        for (int i = 299; i >= 100; i -= 3) {
+            map.put(i, i);
+        }
+        Object[] target = new Object[200];
+        map.copyTo(target, 100);
+        for (int i = 0; i < target.length; i++) {
+            assertEquals((i + 100) % 3 == 2 ? Integer.valueOf(i + 100) : null, target[i]);
+        }
+    }
+
+    @Test
+    public void testSparseToHoles() {
+        try (Context context = Context.create("js")) {
+            // reverse fill of a sparse array until it is dense enough to become a holes array
+            String fill = "var a = []; a[100000] = 100000;" +
+                            "for (var i = 100000; i >= 99000; i -= 2) { a[i] = i; }" +
+                            "var sum = 0; a.forEach(function(v) { sum += v; }); sum + ':' + Object.keys(a).length + ':' + a[99001] + ':' + a.length";
+            assertEquals((99000L + 100000L) * 501 / 2 + ":501:undefined:100001", context.eval("js", fill).asString());
+            String truncate = "a.length = 99500; Object.keys(a).length + ':' + a[99498] + ':' + a[99500] + ':' + a.lastIndexOf(99000)";
+            assertEquals("250:99498:undefined:99000", context.eval("js", truncate).asString());
+            String shift = "a.length = 100; a[1e9] = 1; a[50] = 2; a.length = 60; Object.keys(a).join() + ':' + a.length";
+            assertEquals("50:60", context.eval("js", shift).asString());
+        }
+    }
+}
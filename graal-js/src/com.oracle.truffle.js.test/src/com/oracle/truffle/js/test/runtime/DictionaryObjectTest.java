@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.graalvm.polyglot.Context;
+import org.junit.Test;
+
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.js.parser.JSEngine;
+import com.oracle.truffle.js.runtime.AbstractJavaScriptLanguage;
+import com.oracle.truffle.js.runtime.JSRealm;
+import com.oracle.truffle.js.runtime.JSTruffleOptions;
+import com.oracle.truffle.js.runtime.builtins.JSDictionaryObject;
+
+/**
+ * Tests for objects with many properties, which are stored as dictionary objects.
+ */
+public class DictionaryObjectTest {
+
+    /** Creates {@code o} with more properties than the dictionary object transition threshold. */
+    private static final String CREATE = "function create(n) { var o = {}; for (var i = 0; i < n; i++) { o['k' + i] = i; } return o; }" +
+                    "var o = create(500);";
+
+    private static String eval(Context context, String source) {
+        return context.eval("js", source).asString();
+    }
+
+    private static Object eval(JSRealm realm, String code) {
+        Source source = Source.newBuilder(code).name("test").mimeType(AbstractJavaScriptLanguage.APPLICATION_MIME_TYPE).build();
+        return realm.getContext().getEvaluator().evaluate(realm, null, source);
+    }
+
+    @Test
+    public void testDeleteAndReAddOrder() {
+        try (Context context = Context.create("js")) {
+            context.eval("js", CREATE);
+            assertEquals("k0,k1,k2", eval(context, "Object.keys(o).slice(0, 3).join()"));
+            assertEquals("true:undefined:499", eval(context, "delete o.k1 + ':' + o.k1 + ':' + Object.keys(o).length"));
+            assertEquals("k0,k2,k3:k498,k499,k1:42", eval(context, "o.k1 = 42; Object.keys(o).slice(0, 3).join() + ':' + Object.keys(o).slice(-3).join() + ':' + o.k1"));
+            // integer keys come first, in ascending order
+            assertEquals("2,10,k0", eval(context, "o[10] = 'a'; o[2] = 'b'; Object.keys(o).slice(0, 3).join()"));
+            assertEquals("k0,k2", eval(context, "delete o[10]; delete o[2]; Object.keys(o).slice(0, 2).join()"));
+        }
+    }
+
+    @Test
+    public void testAccessors() {
+        try (Context context = Context.create("js")) {
+            context.eval("js", CREATE + "var log = [];" +
+                            "Object.defineProperty(o, 'acc', {get: function() { log.push('get'); return this.k7; }, set: function(v) { log.push('set ' + v); }, configurable: true});" +
+                            "Object.defineProperty(o, 'getterOnly', {get: function() { return 'g'; }});" +
+                            "function read(obj) { return obj.acc; } function write(obj, v) { obj.acc = v; }");
+            assertEquals("7,7,7:get,get,get,set 1,set 2", eval(context, "var r = [read(o), read(o), read(o)]; write(o, 1); write(o, 2); r.join() + ':' + log.join()"));
+            assertEquals("7", eval(context, "'' + o.acc"));
+            assertEquals("g:g", eval(context, "o.getterOnly = 'x'; o.getterOnly + ':' + (function() { 'use strict'; return o.getterOnly; })()"));
+            assertEquals("TypeError", eval(context, "(function() { 'use strict'; try { o.getterOnly = 'x'; return 'no error'; } catch (e) { return e.name; } })()"));
+            // inherited accessor
+            assertEquals("get:p", eval(context, "var child = Object.create(o); child.k7 = 'p'; log = []; child.acc; log.join() + ':' + child.acc"));
+        }
+    }
+
+    @Test
+    public void testNonWritable() {
+        try (Context context = Context.create("js")) {
+            context.eval("js", CREATE + "Object.defineProperty(o, 'ro', {value: 1, writable: false, configurable: false});" +
+                            "function sloppyWrite(obj, v) { obj.ro = v; }" +
+                            "function strictWrite(obj, v) { 'use strict'; obj.ro = v; }");
+            assertEquals("1", eval(context, "for (var i = 0; i < 10; i++) { sloppyWrite(o, i + 10); } o.ro"));
+            assertEquals("TypeError:1", eval(context, "(function() { try { strictWrite(o, 2); return 'no error'; } catch (e) { return e.name + ':' + o.ro; } })()"));
+            assertEquals("false:1", eval(context, "delete o.ro + ':' + o.ro"));
+            assertEquals("false,false", eval(context, "var d = Object.getOwnPropertyDescriptor(o, 'ro'); [d.writable, d.configurable].join()"));
+            // a non-writable property on the prototype also prevents the assignment
+            assertEquals("1:false", eval(context, "var child = Object.create(o); sloppyWrite(child, 3); child.ro + ':' + child.hasOwnProperty('ro')"));
+        }
+    }
+
+    @Test
+    public void testNormalization() {
+        JSRealm realm = JSEngine.createJSContext().getRealm();
+        DynamicObject o = (DynamicObject) eval(realm, CREATE + "function sum(obj, n) { var s = 0; for (var i = 0; i < n; i++) { s += obj.k3 + obj.k4; } return s; }" +
+                        "function bump(obj, n) { for (var i = 0; i < n; i++) { obj.k3 = i; obj.k4 = i; } obj.k3 = 3; obj.k4 = 4; }" +
+                        "o;");
+        assertTrue(JSDictionaryObject.isJSDictionaryObject(o));
+        // reads do not count towards normalization
+        eval(realm, "for (var i = 100; i < 500; i++) { delete o['k' + i]; }");
+        assertEquals(140000, ((Number) eval(realm, "sum(o, 20000)")).intValue());
+        assertTrue(JSDictionaryObject.isJSDictionaryObject(o));
+        // neither do writes to a large object
+        DynamicObject large = (DynamicObject) eval(realm, "var large = create(500); bump(large, 20000); large;");
+        assertTrue(JSDictionaryObject.isJSDictionaryObject(large));
+        // writes to a small object with a stable key set do
+        eval(realm, "bump(o, 20000);");
+        assertFalse(JSDictionaryObject.isJSDictionaryObject(o));
+        assertEquals("k0,k1,k2:k97,k98,k99:100", eval(realm, "Object.keys(o).slice(0, 3).join() + ':' + Object.keys(o).slice(-3).join() + ':' + Object.keys(o).length"));
+        // the object still behaves the same after normalization
+        eval(realm, "o.k3 = 10; o.extra = 'e'; Object.defineProperty(o, 'ro', {value: 1, writable: false});");
+        assertEquals("10:e:1:101", eval(realm, "(function() { o.ro = 2; return o.k3 + ':' + o.extra + ':' + o.ro + ':' + Object.keys(o).length; })()"));
+    }
+
+    @Test
+    public void testMaxNormalizations() {
+        JSRealm realm = JSEngine.createJSContext().getRealm();
+        eval(realm, CREATE + "function bump(obj, n) { for (var i = 0; i < n; i++) { obj.k3 = i; obj.k4 = i; } obj.k3 = 3; obj.k4 = 4; }" +
+                        "var p = create(10);" +
+                        "function grow() { for (var i = 10; i < 450; i++) { p['k' + i] = i; } }" +
+                        "function shrink() { for (var i = 10; i < 450; i++) { delete p['k' + i]; } }");
+        // repeatedly growing and shrinking an object only normalizes it a limited number of times
+        for (int round = 0; round < JSTruffleOptions.DictionaryObjectMaxNormalizations + 2; round++) {
+            DynamicObject p = (DynamicObject) eval(realm, "grow(); p;");
+            assertTrue(JSDictionaryObject.isJSDictionaryObject(p));
+            eval(realm, "shrink(); bump(p, 12000);");
+            boolean normalized = round < JSTruffleOptions.DictionaryObjectMaxNormalizations;
+            assertEquals("round " + round, normalized, !JSDictionaryObject.isJSDictionaryObject((DynamicObject) eval(realm, "p")));
+            assertEquals("10:k0,k9:3,4", eval(realm, "Object.keys(p).length + ':' + [Object.keys(p)[0], Object.keys(p)[9]].join() + ':' + p.k3 + ',' + p.k4"));
+        }
+    }
+
+    @Test
+    public void testManyDictionaryObjectsAtOneSite() {
+        try (Context context = Context.create("js")) {
+            context.eval("js", CREATE + "var objects = [];" +
+                            "for (var j = 0; j < 10; j++) { var x = create(410 + j); x.k5 = j; objects.push(x); }" +
+                            "objects[3].extra = 1;" +
+                            "function read(obj) { return obj.k5; } function write(obj, v) { obj.k5 = v; }");
+            assertEquals("0,1,2,3,4,5,6,7,8,9", eval(context, "objects.map(read).join()"));
+            assertEquals("10,11,12,13,14,15,16,17,18,19", eval(context, "objects.forEach(function(x, j) { write(x, j + 10); }); objects.map(read).join()"));
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static org.junit.Assert.assertEquals;
+
+import org.graalvm.polyglot.Context;
+import org.junit.Test;
+
+/**
+ * Tests that for-in over cached keys (see {@code JSShape.getEnumCache}) skips keys that are
+ * removed from the object or its prototype chain during the loop.
+ */
+public class ForInEnumCacheTest {
+
+    /** Collects the keys of a for-in loop, calling {@code during} after the first key. */
+    private static final String KEYS = "function keys(o, during) { var r = []; for (var k in o) { r.push(k); if (r.length === 1 && during) { during(o); } } return r.join(); }";
+
+    private static String eval(Context context, String code) {
+        return context.eval("js", code).asString();
+    }
+
+    private static Context createContext() {
+        Context context = Context.create("js");
+        context.eval("js", KEYS);
+        return context;
+    }
+
+    @Test
+    public void testStableShape() {
+        try (Context context = createContext()) {
+            context.eval("js", "var proto = {p: 1, q: 2}; function make() { var o = Object.create(proto); o.a = 1; o.b = 2; o.p = 3; return o; }");
+            for (int i = 0; i < 5; i++) {
+                assertEquals("a,b,p,q", eval(context, "keys(make())"));
+            }
+            // non-enumerable own properties shadow enumerable prototype properties
+            assertEquals("a,b,p", eval(context, "var o = make(); Object.defineProperty(o, 'q', {value: 0, enumerable: false}); keys(o)"));
+        }
+    }
+
+    @Test
+    public void testDeleteOwnKey() {
+        try (Context context = createContext()) {
+            context.eval("js", "function make() { return {a: 1, b: 2, c: 3}; }");
+            for (int i = 0; i < 5; i++) {
+                assertEquals("a,b,c", eval(context, "keys(make())"));
+                assertEquals("a,c", eval(context, "keys(make(), function(o) { delete o.b; })"));
+            }
+        }
+    }
+
+    @Test
+    public void testDeletePrototypeKey() {
+        try (Context context = createContext()) {
+            context.eval("js", "function make() { var proto = {p: 1, q: 2}; var o = Object.create(proto); o.a = 1; return o; }");
+            for (int i = 0; i < 5; i++) {
+                assertEquals("a,p,q", eval(context, "keys(make())"));
+                // the receiver keeps its shape, only the prototype changes
+                assertEquals("a,q", eval(context, "keys(make(), function(o) { delete Object.getPrototypeOf(o).p; })"));
+                assertEquals("a,p", eval(context, "keys(make(), function(o) { Object.defineProperty(Object.getPrototypeOf(o), 'q', {enumerable: false}); })"));
+            }
+        }
+    }
+
+    @Test
+    public void testShadowingDuringLoop() {
+        try (Context context = createContext()) {
+            context.eval("js", "var proto = {p: 1, q: 2}; function make() { var o = Object.create(proto); o.a = 1; return o; }");
+            for (int i = 0; i < 5; i++) {
+                // a non-enumerable own property added during the loop hides the prototype key
+                assertEquals("a,p", eval(context, "keys(make(), function(o) { Object.defineProperty(o, 'q', {value: 0, enumerable: false}); })"));
+            }
+            assertEquals("a,p,q", eval(context, "keys(make())"));
+        }
+    }
+
+    @Test
+    public void testPrototypeReplaced() {
+        try (Context context = createContext()) {
+            context.eval("js", "var proto = {p: 1, q: 2}; function make() { var o = Object.create(proto); o.a = 1; return o; }");
+            for (int i = 0; i < 5; i++) {
+                assertEquals("a", eval(context, "keys(make(), function(o) { Object.setPrototypeOf(o, null); })"));
+                assertEquals("a,q", eval(context, "keys(make(), function(o) { Object.setPrototypeOf(o, {q: 3}); })"));
+            }
+        }
+    }
+
+    @Test
+    public void testPrototypeChangedBetweenLoops() {
+        try (Context context = createContext()) {
+            context.eval("js", "var proto = {p: 1}; var o = Object.create(proto); o.a = 1;");
+            assertEquals("a,p", eval(context, "keys(o)"));
+            assertEquals("a,p,r", eval(context, "proto.r = 2; keys(o)"));
+            assertEquals("a,r", eval(context, "delete proto.p; keys(o)"));
+            assertEquals("a,b,r", eval(context, "o.b = 3; keys(o)"));
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+import org.graalvm.polyglot.Context;
+import org.junit.Test;
+
+import com.oracle.truffle.js.parser.JSEngine;
+import com.oracle.truffle.js.runtime.JSContextOptions;
+import com.oracle.truffle.js.runtime.util.JSMetrics;
+
+/**
+ * Tests the per-context {@link JSMetrics} registry.
+ */
+public class JSMetricsTest {
+
+    private static final String ARRAY_TRANSITIONS = "var a = [1, 2, 3]; a[0] = 1.5; a[1] = 'x'; a[100] = 0;";
+
+    private static long counter(Context context, String key) {
+        return context.eval("js", "Graal.metrics()." + key).asLong();
+    }
+
+    private static int registeredBeans() throws MalformedObjectNameException {
+        return ManagementFactory.getPlatformMBeanServer().queryNames(new ObjectName("com.oracle.truffle.js:type=Metrics,*"), null).size();
+    }
+
+    @Test
+    public void testArrayTransitions() {
+        try (Context context = Context.create("js")) {
+            long before = counter(context, "arrayTransition");
+            context.eval("js", ARRAY_TRANSITIONS);
+            assertTrue(counter(context, "arrayTransition") >= before + 3);
+        }
+    }
+
+    @Test
+    public void testDisabled() {
+        try (Context context = Context.newBuilder("js").option(JSContextOptions.METRICS_NAME, "false").build()) {
+            context.eval("js", ARRAY_TRANSITIONS + "eval('1 + 1');");
+            assertEquals(0, counter(context, "arrayTransition"));
+            assertEquals(0, counter(context, "evalCompilation"));
+        }
+    }
+
+    @Test
+    public void testEvalCompilation() {
+        JSMetrics metrics = JSEngine.createJSContext().getRealm().getContext().getMetrics();
+        assertTrue(metrics.isEnabled());
+        long before = metrics.get(JSMetrics.Counter.EvalCompilation);
+        metrics.increment(JSMetrics.Counter.EvalCompilation);
+        metrics.record(JSMetrics.Histogram.EvalCompilationNanos, 1000);
+        assertEquals(before + 1, metrics.get(JSMetrics.Counter.EvalCompilation));
+        metrics.reset();
+        assertEquals(0, metrics.get(JSMetrics.Counter.EvalCompilation));
+        assertEquals(0, metrics.get(JSMetrics.Histogram.EvalCompilationNanos).getCount());
+    }
+
+    @Test
+    public void testHistogram() {
+        JSMetrics metrics = new JSMetrics(true);
+        JSMetrics.LongHistogram histogram = metrics.get(JSMetrics.Histogram.PromiseJobsPerDrain);
+        for (int i = 1; i <= 100; i++) {
+            metrics.record(JSMetrics.Histogram.PromiseJobsPerDrain, i);
+        }
+        assertEquals(100, histogram.getCount());
+        assertEquals(5050, histogram.getSum());
+        assertEquals(100, histogram.getMax());
+        // percentiles are the upper bound of the power-of-two bucket they fall into
+        assertEquals(63, histogram.getPercentile(50));
+        assertEquals(100, histogram.getPercentile(99));
+    }
+
+    @Test
+    public void testMBeanRegisteredOnce() throws MalformedObjectNameException {
+        int before = registeredBeans();
+        try (Context context = Context.newBuilder("js").option(JSContextOptions.METRICS_JMX_NAME, "true").build()) {
+            context.eval("js", ARRAY_TRANSITIONS);
+            assertEquals(before + 1, registeredBeans());
+        }
+        assertEquals(before, registeredBeans());
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.Test;
+
+import com.oracle.truffle.js.runtime.JSException;
+import com.oracle.truffle.js.runtime.JSTruffleOptions;
+import com.oracle.truffle.js.runtime.interop.DefaultJavaInteropWorker;
+import com.oracle.truffle.js.runtime.interop.DefaultJavaInteropWorker.DefaultMainWorker;
+
+/**
+ * Tests the task hand-off between {@link DefaultJavaInteropWorker} and {@link DefaultMainWorker}.
+ */
+public class JavaInteropWorkerTest {
+
+    private static final long TIMEOUT_MILLIS = 10000;
+
+    /**
+     * Submits a task to {@code worker} that posts {@code callback} back to {@code main}.
+     */
+    private static void submit(DefaultMainWorker main, DefaultJavaInteropWorker worker, Runnable task, Runnable callback) {
+        worker.execute(main, new Runnable() {
+            @Override
+            public void run() {
+                task.run();
+                main.execute(worker, callback);
+            }
+        });
+    }
+
+    private static void processUntil(DefaultMainWorker main, AtomicInteger counter, int expected) {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (counter.get() < expected) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("only " + counter.get() + " of " + expected + " callbacks ran");
+            }
+            main.processPendingTasks();
+        }
+    }
+
+    @Test
+    public void testConcurrentSubmits() throws InterruptedException {
+        final int threadCount = 4;
+        final int tasksPerThread = 200;
+        final int taskCount = threadCount * tasksPerThread;
+        DefaultMainWorker main = new DefaultMainWorker(null);
+        DefaultJavaInteropWorker worker = new DefaultJavaInteropWorker(main);
+        AtomicIntegerArray runs = new AtomicIntegerArray(taskCount);
+        AtomicIntegerArray callbacks = new AtomicIntegerArray(taskCount);
+        AtomicInteger callbackCount = new AtomicInteger();
+        Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            final int first = t * tasksPerThread;
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = first; i < first + tasksPerThread; i++) {
+                        final int id = i;
+                        submit(main, worker, () -> runs.incrementAndGet(id), () -> {
+                            callbacks.incrementAndGet(id);
+                            callbackCount.incrementAndGet();
+                        });
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join(TIMEOUT_MILLIS);
+        }
+        processUntil(main, callbackCount, taskCount);
+        assertFalse(main.processPendingTasks());
+        for (int i = 0; i < taskCount; i++) {
+            assertEquals(1, runs.get(i));
+            assertEquals(1, callbacks.get(i));
+        }
+        worker.terminate((int) TIMEOUT_MILLIS);
+        assertTrue(worker.isTerminated());
+    }
+
+    @Test
+    public void testQueueOverflow() throws InterruptedException {
+        DefaultMainWorker main = new DefaultMainWorker(null);
+        DefaultJavaInteropWorker worker = new DefaultJavaInteropWorker(main);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger callbackCount = new AtomicInteger();
+        Runnable callback = () -> callbackCount.incrementAndGet();
+
+        // occupy the worker thread, then fill its queue
+        submit(main, worker, () -> {
+            started.countDown();
+            try {
+                release.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        }, callback);
+        assertTrue(started.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+        final int queueSize = JSTruffleOptions.JavaInteropWorkerQueueSize;
+        for (int i = 0; i < queueSize; i++) {
+            submit(main, worker, () -> {
+            }, callback);
+        }
+        try {
+            submit(main, worker, () -> fail("rejected task must not run"), callback);
+            fail("expected the full queue to be reported");
+        } catch (JSException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("queue is full"));
+        }
+
+        // every accepted task still completes and the worker keeps accepting work
+        release.countDown();
+        processUntil(main, callbackCount, queueSize + 1);
+        submit(main, worker, () -> {
+        }, callback);
+        processUntil(main, callbackCount, queueSize + 2);
+        assertFalse(main.processPendingTasks());
+        assertEquals(queueSize + 2, callbackCount.get());
+        worker.terminate((int) TIMEOUT_MILLIS);
+    }
+
+    @Test
+    public void testWakeUpWithoutPolling() {
+        final int rounds = 10;
+        DefaultMainWorker main = new DefaultMainWorker(null);
+        DefaultJavaInteropWorker worker = new DefaultJavaInteropWorker(main);
+        AtomicInteger runs = new AtomicInteger();
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            // the task does not post a callback, so only the completion can wake up the main loop
+            worker.execute(main, () -> {
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+                runs.incrementAndGet();
+            });
+            assertFalse(main.processPendingTasks());
+            assertEquals(i + 1, runs.get());
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        // waiting out the 100 ms poll timeout in every round would take at least a second
+        assertTrue("main loop took " + elapsedMillis + " ms", elapsedMillis < rounds * 100 / 2);
+        worker.terminate((int) TIMEOUT_MILLIS);
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.js.parser.JSEngine;
+import com.oracle.truffle.js.runtime.AbstractJavaScriptLanguage;
+import com.oracle.truffle.js.runtime.JSRealm;
+import com.oracle.truffle.js.runtime.UserScriptException;
+import com.oracle.truffle.js.runtime.interop.JavaClass;
+import com.oracle.truffle.js.runtime.interop.JavaMethod;
+
+/**
+ * Tests for overload resolution of {@link JavaMethod}, in particular for resolutions reused from
+ * its cache.
+ */
+public class JavaMethodTest {
+
+    public static class Overloads {
+        public static String take(Runnable value) {
+            return "Runnable";
+        }
+
+        public static String take(String value) {
+            return "String:" + value;
+        }
+
+        public static String number(int value) {
+            return "int:" + value;
+        }
+
+        public static String number(String value) {
+            return "String:" + value;
+        }
+
+        public static String fail(boolean error) {
+            if (error) {
+                throw new AssertionError("error");
+            }
+            throw new IllegalStateException("exception");
+        }
+    }
+
+    private static Object eval(JSRealm realm, String code) {
+        Source source = Source.newBuilder(code).name("test").mimeType(AbstractJavaScriptLanguage.APPLICATION_MIME_TYPE).build();
+        return realm.getContext().getEvaluator().evaluate(realm, null, source);
+    }
+
+    private static JavaMethod method(String name) {
+        return (JavaMethod) JavaClass.forClass(Overloads.class).getMember(name, true, JavaClass.METHOD, false);
+    }
+
+    @Test
+    public void testObjectAndFunctionArguments() {
+        JSRealm realm = JSEngine.createJSContext().getRealm();
+        Object object = eval(realm, "({toString: function() { return 'object'; }})");
+        Object function = eval(realm, "(function() {})");
+        Object arrow = eval(realm, "() => 42");
+        Object proxy = eval(realm, "new Proxy({toString: function() { return 'proxy'; }}, {})");
+        Object callableProxy = eval(realm, "new Proxy(function() {}, {})");
+        JavaMethod take = method("take");
+        // the same call site sees objects and functions in turn
+        for (int i = 0; i < 3; i++) {
+            assertEquals("String:object", take.invoke(null, new Object[]{object}));
+            assertEquals("Runnable", take.invoke(null, new Object[]{function}));
+            assertEquals("Runnable", take.invoke(null, new Object[]{arrow}));
+            assertEquals("String:proxy", take.invoke(null, new Object[]{proxy}));
+            assertEquals("String:object", take.invoke(null, new Object[]{object}));
+        }
+        // callable and non-callable proxies share their object type, but not their resolutions
+        assertNotSame(take.resolve(new Object[]{proxy}), take.resolve(new Object[]{callableProxy}));
+        assertSame(take.resolve(new Object[]{object}), take.resolve(new Object[]{eval(realm, "({})")}));
+    }
+
+    @Test
+    public void testPrimitiveArguments() {
+        JavaMethod number = method("number");
+        for (int i = 0; i < 3; i++) {
+            assertEquals("int:" + i, number.invoke(null, new Object[]{i}));
+            assertEquals("String:s" + i, number.invoke(null, new Object[]{"s" + i}));
+        }
+        assertSame(number.resolve(new Object[]{1}), number.resolve(new Object[]{2}));
+    }
+
+    @Test
+    public void testExceptions() {
+        JavaMethod thrower = method("fail");
+        try {
+            thrower.invoke(null, new Object[]{false});
+            fail("expected an exception");
+        } catch (UserScriptException e) {
+            // Java exceptions are passed to JS
+        }
+        try {
+            thrower.invoke(null, new Object[]{true});
+            fail("expected an error");
+        } catch (AssertionError e) {
+            // errors are rethrown as they are
+            assertEquals("error", e.getMessage());
+        }
+    }
+}
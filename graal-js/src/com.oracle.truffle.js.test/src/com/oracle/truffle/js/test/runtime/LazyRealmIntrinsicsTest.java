@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.js.parser.JSEngine;
+import com.oracle.truffle.js.runtime.AbstractJavaScriptLanguage;
+import com.oracle.truffle.js.runtime.JSRealm;
+import com.oracle.truffle.js.runtime.objects.JSObject;
+
+/**
+ * Tests for globals and intrinsics that the realm only creates on first use.
+ */
+public class LazyRealmIntrinsicsTest {
+
+    private static Object eval(JSRealm realm, String code) {
+        Source source = Source.newBuilder(code).name("test").mimeType(AbstractJavaScriptLanguage.APPLICATION_MIME_TYPE).build();
+        return realm.getContext().getEvaluator().evaluate(realm, null, source);
+    }
+
+    private static JSRealm createRealm() {
+        return JSEngine.createJSContext().getRealm();
+    }
+
+    private static final String DESCRIBE = "function describe(name) {" +
+                    "  var d = Object.getOwnPropertyDescriptor(this, name);" +
+                    "  return d === undefined ? 'absent' : [typeof d.value, d.writable, d.enumerable, d.configurable].join();" +
+                    "}";
+
+    @Test
+    public void testCreatedOnFirstAccess() {
+        // the intrinsic is the same whether JS or the runtime asks for it first
+        JSRealm realm = createRealm();
+        assertSame(realm.getProxyConstructor().getFunctionObject(), eval(realm, "Proxy"));
+        realm = createRealm();
+        assertSame(eval(realm, "Proxy"), realm.getProxyConstructor().getFunctionObject());
+
+        realm = createRealm();
+        assertSame(realm.getGeneratorFunctionConstructor().getFunctionObject(), eval(realm, "Object.getPrototypeOf(function*() {}).constructor"));
+        realm = createRealm();
+        assertSame(eval(realm, "Object.getPrototypeOf(function*() {}).constructor"), realm.getGeneratorFunctionConstructor().getFunctionObject());
+
+        realm = createRealm();
+        assertSame(eval(realm, "Object.getPrototypeOf(async function() {}).constructor"), realm.getAsyncFunctionConstructor().getFunctionObject());
+        assertSame(eval(realm, "Object.getPrototypeOf(async function*() {}).constructor"), realm.getAsyncGeneratorFunctionConstructor().getFunctionObject());
+        assertSame(eval(realm, "Object.getPrototypeOf(Object.getPrototypeOf(async function*() {}).prototype)"), realm.getAsyncIteratorPrototype());
+        assertSame(eval(realm, "Polyglot"), eval(realm, "Interop"));
+    }
+
+    @Test
+    public void testIntrinsicsWork() {
+        JSRealm realm = createRealm();
+        assertEquals("GeneratorFunction,1,2", eval(realm, "function* g() { yield 1; yield 2; }" +
+                        "[Object.getPrototypeOf(g).constructor.name].concat(Array.from(g())).join()"));
+        assertEquals(true, eval(realm, "var gen = (function*() {})(); Object.getPrototypeOf(Object.getPrototypeOf(Object.getPrototypeOf(gen)))[Symbol.iterator]() === gen"));
+        assertEquals("AsyncFunction,AsyncGeneratorFunction", eval(realm, "[Object.getPrototypeOf(async () => 1).constructor.name, Object.getPrototypeOf(async function*() {}).constructor.name].join()"));
+        assertEquals("get:x", eval(realm, "var log = []; var p = new Proxy({x: 1}, {get: function(t, k) { log.push('get:' + k); return t[k]; }}); p.x; log.join()"));
+        assertEquals(true, eval(realm, "var r = Proxy.revocable({}, {}); r.revoke(); try { r.proxy.x; false; } catch (e) { e instanceof TypeError; }"));
+    }
+
+    @Test
+    public void testPropertyAttributes() {
+        JSRealm realm = createRealm();
+        eval(realm, DESCRIBE);
+        assertEquals("function,true,false,true", eval(realm, "describe('Proxy')"));
+        assertEquals("object,true,false,true", eval(realm, "describe('Polyglot')"));
+        assertEquals(false, eval(realm, "Object.keys(this).indexOf('Proxy') >= 0"));
+        // the lazy globals keep their position among the other globals
+        assertEquals(true, eval(realm, "var names = Object.getOwnPropertyNames(this); names.indexOf('Reflect') + 1 === names.indexOf('Proxy')"));
+        assertEquals("function,true,false,true", eval(realm, "describe('Proxy')"));
+    }
+
+    @Test
+    public void testDeleteAndRedefine() {
+        JSRealm realm = createRealm();
+        eval(realm, DESCRIBE);
+        // deleted before first access
+        assertEquals("true:absent:undefined", eval(realm, "delete this.Proxy + ':' + describe('Proxy') + ':' + typeof Proxy"));
+        // the runtime can still create the intrinsic
+        assertEquals("Proxy", JSObject.get(realm.getProxyConstructor().getFunctionObject(), "name"));
+
+        realm = createRealm();
+        eval(realm, DESCRIBE);
+        // replaced before first access
+        assertEquals("number:42", eval(realm, "Proxy = 42; describe('Proxy').split(',')[0] + ':' + Proxy"));
+        assertEquals("string,false,false,false", eval(realm, "Object.defineProperty(this, 'Polyglot', {value: 'p', writable: false, configurable: false}); describe('Polyglot')"));
+        assertEquals("p", eval(realm, "Polyglot"));
+        assertEquals(false, eval(realm, "delete this.Polyglot"));
+        assertEquals("object", eval(realm, "typeof Interop"));
+
+        realm = createRealm();
+        eval(realm, DESCRIBE);
+        // deleted and redefined after first access
+        assertEquals("function:absent:string", eval(realm, "var P = Proxy; delete this.Proxy; var r = typeof P + ':' + describe('Proxy'); this.Proxy = 'x'; r + ':' + typeof Proxy"));
+        assertEquals("string,true,true,true", eval(realm, "describe('Proxy')"));
+    }
+}
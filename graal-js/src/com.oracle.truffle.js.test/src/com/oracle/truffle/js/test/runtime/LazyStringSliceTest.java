@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.oracle.truffle.js.runtime.JSTruffleOptions;
+import com.oracle.truffle.js.runtime.objects.JSLazyString;
+
+/**
+ * Tests sliced substrings and indexed access of {@link JSLazyString}.
+ */
+public class LazyStringSliceTest {
+
+    private static String chars(int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('a' + i % 26));
+        }
+        return sb.toString();
+    }
+
+    @Before
+    public void checkLazyStrings() {
+        assumeTrue(JSTruffleOptions.LazyStrings);
+    }
+
+    @Test
+    public void testMinLazySubstringLength() {
+        int min = JSTruffleOptions.MinLazySubstringLength;
+        String parent = chars(min * 2);
+        CharSequence tooShort = JSLazyString.substring(parent, 1, min);
+        assertTrue(tooShort instanceof String);
+        assertEquals(parent.substring(1, min), tooShort.toString());
+
+        CharSequence slice = JSLazyString.substring(parent, 1, min + 1);
+        assertTrue(slice instanceof JSLazyString);
+        assertEquals(min, slice.length());
+        assertEquals(parent.substring(1, min + 1), slice.toString());
+    }
+
+    @Test
+    public void testWasteFactor() {
+        int min = JSTruffleOptions.MinLazySubstringLength;
+        String parent = chars(min * 4);
+        // a quarter of the parent is still shared
+        CharSequence shared = JSLazyString.substring(parent, 3, 3 + min);
+        assertTrue(shared instanceof JSLazyString);
+        assertEquals(parent.substring(3, 3 + min), shared.toString());
+
+        // a smaller part would keep too much of the parent alive
+        String longParent = chars(min * 4 + 1);
+        CharSequence copied = JSLazyString.substring(longParent, 3, 3 + min);
+        assertTrue(copied instanceof String);
+        assertEquals(longParent.substring(3, 3 + min), copied.toString());
+    }
+
+    @Test
+    public void testSliceOfSlice() {
+        int min = JSTruffleOptions.MinLazySubstringLength;
+        String parent = chars(min * 5);
+        CharSequence outer = JSLazyString.substring(parent, 7, min * 5 - 5);
+        assertTrue(outer instanceof JSLazyString);
+        CharSequence inner = JSLazyString.substring(outer, 11, outer.length() - 13);
+        assertTrue(inner instanceof JSLazyString);
+        String expected = parent.substring(18, min * 5 - 18);
+        assertEquals(expected.length(), inner.length());
+        for (int i = 0; i < expected.length(); i++) {
+            assertEquals(expected.charAt(i), inner.charAt(i));
+        }
+        assertEquals(expected, inner.toString());
+        // slicing the whole string returns it as is
+        assertSame(inner, JSLazyString.substring(inner, 0, inner.length()));
+
+        // small slices of slices are measured against the root parent and copied
+        CharSequence small = JSLazyString.substring(outer, 2, 2 + min);
+        assertTrue(small instanceof String);
+        assertEquals(parent.substring(9, 9 + min), small.toString());
+        // the outer slice is not affected by slicing it
+        assertEquals(parent.substring(7, min * 5 - 5), outer.toString());
+    }
+
+    @Test
+    public void testRopeCharAt() {
+        int leafLength = JSTruffleOptions.MinLazyStringLength;
+        String a = chars(leafLength);
+        String b = a.toUpperCase();
+        CharSequence rope = JSLazyString.create(JSLazyString.create(a, b), JSLazyString.create(b, a));
+        String expected = a + b + b + a;
+        assertEquals(expected.length(), rope.length());
+        // indexing more often than a rope is kept unflattened for
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < expected.length(); i++) {
+                assertEquals(expected.charAt(i), rope.charAt(i));
+            }
+        }
+        assertEquals(expected, rope.toString());
+    }
+}
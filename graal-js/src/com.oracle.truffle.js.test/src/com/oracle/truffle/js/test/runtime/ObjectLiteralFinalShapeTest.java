@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static org.junit.Assert.assertEquals;
+
+import org.graalvm.polyglot.Context;
+import org.junit.Test;
+
+/**
+ * Tests that object literals allocated directly in their learned final shape keep the semantics
+ * of the member-by-member definition when the shape or the value types change.
+ */
+public class ObjectLiteralFinalShapeTest {
+
+    private static String eval(Context context, String code) {
+        return context.eval("js", code).asString();
+    }
+
+    @Test
+    public void testValueTypeChanges() {
+        try (Context context = Context.create("js")) {
+            context.eval("js", "function f(x, y) { return {a: x, b: y, c: 'c'}; }" +
+                            "function show(o) { return Object.keys(o).join() + '=' + [typeof o.a, o.a, typeof o.b, o.b, o.c].join(); }");
+            String code = "var out = [];" +
+                            "for (var i = 0; i < 10; i++) { out.push(show(f(i, i + 1))); }" +
+                            "out.push(show(f(1.5, 2))); out.push(show(f(3, 'x'))); out.push(show(f({}, null))); out.push(show(f(4, 5)));" +
+                            "out.slice(9).join(';')";
+            assertEquals("a,b,c=number,9,number,10,c;a,b,c=number,1.5,number,2,c;a,b,c=number,3,string,x,c;a,b,c=object,[object Object],object,,c;a,b,c=number,4,number,5,c",
+                            eval(context, code));
+        }
+    }
+
+    @Test
+    public void testObsoleteShape() {
+        try (Context context = Context.create("js")) {
+            context.eval("js", "function f(x) { return {a: x, b: x + 1}; }");
+            // generalizing a location of the learned shape through another object invalidates it
+            String code = "var first = f(1); f(2); f(3);" +
+                            "first.a = 'str'; first.b = {};" +
+                            "var out = []; for (var i = 0; i < 5; i++) { var o = f(i); out.push(o.a + o.b); }" +
+                            "out.join() + ':' + first.a + ':' + Object.keys(f(0)).join()";
+            assertEquals("1,3,5,7,9:str:a,b", eval(context, code));
+        }
+    }
+
+    @Test
+    public void testRepeatedRelearning() {
+        try (Context context = Context.create("js")) {
+            context.eval("js", "function f(x) { return {a: x, b: 'b'}; }");
+            // alternate value types more often than the site relearns, so it ends up generic
+            String code = "var values = [1, 'two', 3.5, {}, true, null, undefined, 7, 'eight', 9.5, [], 11];" +
+                            "var out = []; for (var r = 0; r < 3; r++) { for (var i = 0; i < values.length; i++) {" +
+                            "var o = f(values[i]); out.push(o.a === values[i] && o.b === 'b' && Object.keys(o).join() === 'a,b'); } }" +
+                            "out.indexOf(false)";
+            assertEquals(-1, context.eval("js", code).asInt());
+        }
+    }
+
+    @Test
+    public void testPrototypeMember() {
+        try (Context context = Context.create("js")) {
+            context.eval("js", "function f(p, x) { return {__proto__: p, a: x, b: 2}; }");
+            String code = "var p1 = {q: 1}, p2 = {q: 2}; var out = [];" +
+                            "for (var i = 0; i < 6; i++) { var o = f(i % 2 ? p1 : p2, i); out.push(o.q + ':' + o.a + ':' + o.b); }" +
+                            "var n = f(null, 'n'); out.push(Object.getPrototypeOf(n) === null && n.a === 'n');" +
+                            "out.join()";
+            assertEquals("2:0:2,1:1:2,2:2:2,1:3:2,2:4:2,1:5:2,true", eval(context, code));
+        }
+    }
+
+    @Test
+    public void testPropertyAttributes() {
+        try (Context context = Context.create("js")) {
+            context.eval("js", "function f(x) { return {a: x, b: x}; }");
+            String code = "for (var i = 0; i < 5; i++) { f(i); }" +
+                            "var d = Object.getOwnPropertyDescriptor(f(1), 'b'); [d.value, d.writable, d.enumerable, d.configurable].join()";
+            assertEquals("1,true,true,true", eval(context, code));
+        }
+    }
+}
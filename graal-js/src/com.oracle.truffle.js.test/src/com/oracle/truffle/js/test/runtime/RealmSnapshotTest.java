@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.js.parser.JSEngine;
+import com.oracle.truffle.js.runtime.AbstractJavaScriptLanguage;
+import com.oracle.truffle.js.runtime.JSRealm;
+import com.oracle.truffle.js.runtime.util.JSMetrics;
+import com.oracle.truffle.js.runtime.util.RealmSnapshot;
+
+/**
+ * Round-trip tests for {@link RealmSnapshot}: a prelude is evaluated in one realm, the resulting
+ * snapshot is restored into a fresh realm, and the restored environment is checked there.
+ */
+public class RealmSnapshotTest {
+
+    private static Object eval(JSRealm realm, String code) {
+        Source source = Source.newBuilder(code).name("test").mimeType(AbstractJavaScriptLanguage.APPLICATION_MIME_TYPE).build();
+        return realm.getContext().getEvaluator().evaluate(realm, null, source);
+    }
+
+    private static RealmSnapshot.Image snapshot(String prelude) throws IOException {
+        JSRealm preludeRealm = JSEngine.createJSContext().getRealm();
+        RealmSnapshot snapshot = RealmSnapshot.prepare(preludeRealm);
+        eval(preludeRealm, prelude);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        snapshot.write(out);
+        return RealmSnapshot.Image.read(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    private static JSRealm restore(String prelude) throws IOException {
+        RealmSnapshot.Image image = snapshot(prelude);
+        JSRealm realm = JSEngine.createJSContext().getRealm();
+        RealmSnapshot.restore(realm, image);
+        return realm;
+    }
+
+    private static void assertTrueIn(JSRealm realm, String condition) {
+        assertEquals(condition, true, eval(realm, condition));
+    }
+
+    @Test
+    public void testProperties() throws IOException {
+        JSRealm realm = restore("var config = {name: 'x', list: [1, 2, 3], nested: {deep: null}};" +
+                        "Object.defineProperty(config, 'ro', {value: 42, writable: false, enumerable: false, configurable: false});" +
+                        "Object.defineProperty(config, 'computed', {get: function() { return this.list.length; }, enumerable: true, configurable: true});");
+        assertTrueIn(realm, "config.name === 'x' && config.list.length === 3 && config.list[2] === 3 && config.nested.deep === null");
+        assertTrueIn(realm, "config.ro === 42");
+        assertTrueIn(realm, "var d = Object.getOwnPropertyDescriptor(config, 'ro'); !d.writable && !d.enumerable && !d.configurable");
+        assertTrueIn(realm, "config.computed === 3");
+        assertTrueIn(realm, "JSON.stringify(Object.keys(config)) === '[\"name\",\"list\",\"nested\",\"computed\"]'");
+    }
+
+    @Test
+    public void testIntrinsicChanges() throws IOException {
+        JSRealm realm = restore("delete Array.prototype.includes;" +
+                        "Object.defineProperty(Object.prototype, 'extra', {value: 'e', writable: true, configurable: true});" +
+                        "Object.preventExtensions(Math);");
+        assertTrueIn(realm, "!('includes' in [])");
+        assertTrueIn(realm, "({}).extra === 'e'");
+        assertTrueIn(realm, "!Object.isExtensible(Math)");
+    }
+
+    @Test
+    public void testPrototypes() throws IOException {
+        JSRealm realm = restore("function Point(x, y) { this.x = x; this.y = y; }" +
+                        "Point.prototype.norm = function() { return Math.sqrt(this.x * this.x + this.y * this.y); };" +
+                        "var origin = new Point(3, 4);" +
+                        "var derived = Object.create(origin);");
+        assertTrueIn(realm, "Object.getPrototypeOf(origin) === Point.prototype");
+        assertTrueIn(realm, "Object.getPrototypeOf(derived) === origin");
+        assertTrueIn(realm, "Point.prototype.constructor === Point");
+        assertTrueIn(realm, "origin.norm() === 5 && derived.norm() === 5");
+        assertTrueIn(realm, "var p = new Point(1, 0); p instanceof Point && p.norm() === 1");
+    }
+
+    @Test
+    public void testFunctionIdentity() throws IOException {
+        JSRealm realm = restore("function f(a, b) { return a + b; }" +
+                        "var g = f; var holder = {f: f, list: [f]};" +
+                        "Array.prototype.first = function first() { return this[0]; };");
+        assertTrueIn(realm, "g === f && holder.f === f && holder.list[0] === f");
+        assertTrueIn(realm, "f.name === 'f' && f.length === 2 && f(1, 2) === 3");
+        assertTrueIn(realm, "[7].first() === 7 && [].first === Array.prototype.first && Array.prototype.first.name === 'first'");
+        assertTrueIn(realm, "Object.getPrototypeOf(f) === Function.prototype");
+    }
+
+    @Test
+    public void testClosures() throws IOException {
+        JSRealm realm = restore("(function() {" +
+                        "  var counter = 0;" +
+                        "  function increment() { return ++counter; }" +
+                        "  String.prototype.tick = function() { return increment(); };" +
+                        "  this.peek = function() { return counter; };" +
+                        "})();" +
+                        "''.tick();");
+        assertTrueIn(realm, "peek() === 1");
+        // closures of the same scope keep sharing their variables
+        assertTrueIn(realm, "''.tick() === 2 && ''.tick() === 3 && peek() === 3");
+    }
+
+    @Test
+    public void testConstAndLetScopes() throws IOException {
+        JSRealm realm = restore("(function() {" +
+                        "  const limit = 3;" +
+                        "  let count = 0;" +
+                        "  this.next = function() { return count < limit ? ++count : count; };" +
+                        "  this.raise = function(value) { limit = value; };" +
+                        "})();" +
+                        "{ let hidden = 'h'; var getHidden = function() { return hidden; }; }");
+        assertTrueIn(realm, "next() === 1 && next() === 2");
+        assertTrueIn(realm, "try { raise(10); false; } catch (e) { e instanceof TypeError; }");
+        assertTrueIn(realm, "next() === 3 && next() === 3");
+        assertTrueIn(realm, "getHidden() === 'h' && typeof hidden === 'undefined'");
+    }
+
+    @Test
+    public void testArrowFunctionThis() throws IOException {
+        JSRealm realm = restore("var holder = {name: 'holder', factor: 10};" +
+                        "(function() {" +
+                        "  var k = 2;" +
+                        "  this.getName = () => this.name;" +
+                        "  this.scale = (x) => x * k * this.factor;" +
+                        "  this.makeArrow = () => () => this;" +
+                        "}).call(holder);");
+        assertTrueIn(realm, "holder.getName() === 'holder'");
+        assertTrueIn(realm, "var detached = holder.getName; detached() === 'holder'");
+        assertTrueIn(realm, "holder.scale(3) === 60");
+        assertTrueIn(realm, "holder.makeArrow()() === holder");
+    }
+
+    @Test
+    public void testRestoreDoesNotParseClosures() throws IOException {
+        RealmSnapshot.Image image = snapshot("(function() {" +
+                        "  var a = 1, b = 'two', c = [3];" +
+                        "  this.sum = function() { return a + b + c[0]; };" +
+                        "  this.setA = function(value) { a = value; };" +
+                        "})();");
+        JSRealm realm = JSEngine.createJSContext().getRealm();
+        JSMetrics metrics = realm.getContext().getMetrics();
+        long evalCompilations = metrics.get(JSMetrics.Counter.EvalCompilation);
+        RealmSnapshot.restore(realm, image);
+        // captured variables are restored into frame slots, without evaluating any code
+        assertEquals(evalCompilations, metrics.get(JSMetrics.Counter.EvalCompilation));
+        assertTrueIn(realm, "sum() === '1two3'");
+        assertTrueIn(realm, "setA(5), sum() === '5two3'");
+    }
+
+    @Test
+    public void testUnsupportedValues() throws IOException {
+        JSRealm preludeRealm = JSEngine.createJSContext().getRealm();
+        RealmSnapshot snapshot = RealmSnapshot.prepare(preludeRealm);
+        eval(preludeRealm, "var bound = function() {}.bind(null);");
+        try {
+            snapshot.write(new ByteArrayOutputStream());
+            fail("bound functions cannot be snapshotted");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("cannot snapshot function"));
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Source;
+import org.junit.Test;
+
+import com.oracle.truffle.js.parser.JSEngine;
+import com.oracle.truffle.js.runtime.AbstractJavaScriptLanguage;
+import com.oracle.truffle.js.runtime.GraalJSException;
+import com.oracle.truffle.js.runtime.GraalJSException.JSStackTraceElement;
+import com.oracle.truffle.js.runtime.JSRealm;
+
+/**
+ * Tests that stack traces captured eagerly but resolved on first access (see
+ * {@link GraalJSException#getJSStackTrace()}) describe the frames as they were at capture time.
+ */
+public class StackTraceResolutionTest {
+
+    private static final String SITES = "Error.prepareStackTrace = function(e, sites) { return sites; };";
+
+    private static void eval(Context context, String name, String code) {
+        context.eval(Source.newBuilder("js", code, name).buildLiteral());
+    }
+
+    @Test
+    public void testResolvedAfterFramesReturned() {
+        try (Context context = Context.create("js")) {
+            eval(context, "capture.js", "function inner() { return new Error('x'); }\n" +
+                            "function middle() { return inner(); }\n" +
+                            "var e = (function outer() { return middle(); })();\n");
+            // the frames are gone when the stack is accessed
+            eval(context, "access.js", SITES + "var sites = e.stack;");
+            assertEquals("inner,middle,outer", context.eval("js", "sites.slice(0, 3).map(function(s) { return s.getFunctionName(); }).join()").asString());
+            assertEquals("1,2,3", context.eval("js", "sites.slice(0, 3).map(function(s) { return s.getLineNumber(); }).join()").asString());
+            assertEquals("capture.js", context.eval("js", "sites[0].getFileName()").asString());
+        }
+    }
+
+    @Test
+    public void testFormattedStack() {
+        try (Context context = Context.create("js")) {
+            eval(context, "format.js", "function thrower() { throw new TypeError('boom'); }\n" +
+                            "var e; try { thrower(); } catch (ex) { e = ex; }\n");
+            String stack = context.eval("js", "e.stack").asString();
+            assertTrue(stack, stack.startsWith("TypeError: boom\n"));
+            assertTrue(stack, stack.contains("at thrower (format.js:1:"));
+            assertEquals(stack, context.eval("js", "e.stack").asString());
+        }
+    }
+
+    @Test
+    public void testReceiverAndFunctionCaptured() {
+        try (Context context = Context.create("js")) {
+            eval(context, "receiver.js", "var receiver = { m: function method() { return new Error(); } };\n" +
+                            "var m = receiver.m;\n" +
+                            "var e = receiver.m();\n" +
+                            "receiver.m = null;\n");
+            eval(context, "access.js", SITES + "var sites = e.stack;");
+            assertTrue(context.eval("js", "sites[0].getThis() === receiver").asBoolean());
+            assertTrue(context.eval("js", "sites[0].getFunction() === m").asBoolean());
+            assertEquals("Object", context.eval("js", "sites[0].getTypeName()").asString());
+        }
+    }
+
+    @Test
+    public void testStrictFrames() {
+        try (Context context = Context.create("js")) {
+            eval(context, "strict.js", "function strictCallee() { 'use strict'; return new Error(); }\n" +
+                            "function sloppyCallee() { return new Error(); }\n" +
+                            "function sloppyCaller() { return strictCallee(); }\n" +
+                            "function strictCaller() { 'use strict'; return sloppyCallee(); }\n" +
+                            "var fromStrict = sloppyCaller();\n" +
+                            "var fromSloppy = strictCaller();\n");
+            eval(context, "access.js", SITES + "var a = fromStrict.stack; var b = fromSloppy.stack;");
+            // frames above a strict frame are treated as strict, too
+            assertTrue(context.eval("js", "a[0].getFunction() === undefined && a[1].getFunction() === undefined").asBoolean());
+            assertTrue(context.eval("js", "b[0].getFunction() === sloppyCallee && b[1].getFunction() === undefined").asBoolean());
+            assertEquals("strictCallee,sloppyCaller", context.eval("js", "a.slice(0, 2).map(function(s) { return s.getFunctionName(); }).join()").asString());
+        }
+    }
+
+    @Test
+    public void testLimitAndSkippedFrames() {
+        try (Context context = Context.create("js")) {
+            eval(context, "limit.js", "function f1() { return f2(); }\n" +
+                            "function capture() { var o = {}; Error.captureStackTrace(o, f2); return o; }\n" +
+                            "function c2() { return capture(); }\n" +
+                            "function f2() { return c2(); }\n" +
+                            "Error.stackTraceLimit = 2;\n" +
+                            "var limited = (function() { function g3() { return new Error(); } function g2() { return g3(); } return g2(); })();\n" +
+                            "Error.stackTraceLimit = 10;\n" +
+                            "var skipped = f1();\n");
+            eval(context, "access.js", SITES + "var a = limited.stack; var b = skipped.stack;");
+            assertEquals("g3,g2", context.eval("js", "a.map(function(s) { return s.getFunctionName(); }).join()").asString());
+            assertEquals("f1", context.eval("js", "b[0].getFunctionName()").asString());
+        }
+    }
+
+    @Test
+    public void testResolvedOnce() {
+        JSRealm realm = JSEngine.createJSContext().getRealm();
+        com.oracle.truffle.api.source.Source source = com.oracle.truffle.api.source.Source.newBuilder("function thrower() { throw new Error('x'); }\nthrower();").name("once.js").mimeType(
+                        AbstractJavaScriptLanguage.APPLICATION_MIME_TYPE).build();
+        try {
+            realm.getContext().getEvaluator().evaluate(realm, null, source);
+            fail("expected an exception");
+        } catch (GraalJSException e) {
+            JSStackTraceElement[] stackTrace = e.getJSStackTrace();
+            assertSame(stackTrace, e.getJSStackTrace());
+            assertEquals("thrower", stackTrace[0].getFunctionName());
+            assertEquals("once.js", stackTrace[0].getFileName());
+            assertEquals(1, stackTrace[0].getLineNumber());
+            assertEquals(2, stackTrace[1].getLineNumber());
+        }
+    }
+}
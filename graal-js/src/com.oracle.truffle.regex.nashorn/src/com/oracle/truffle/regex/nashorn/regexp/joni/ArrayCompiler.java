@@ -98,6 +98,7 @@ final class ArrayCompiler extends Compiler {
         final int codeSize = Config.USE_STRING_TEMPLATES ? 8 : ((analyser.getEnd() - analyser.getBegin()) * 2 + 2);
         code = new int[codeSize];
         codeLength = 0;
+        regex.memoizable = true;
     }
 
     @Override
@@ -985,6 +986,30 @@ final class ArrayCompiler extends Compiler {
         default:
             break;
         }
+
+        switch(opcode) {
+        // the outcome of these depends on more than the instruction and string position
+        case OPCode.BACKREF1:
+        case OPCode.BACKREF2:
+        case OPCode.BACKREFN:
+        case OPCode.BACKREFN_IC:
+        case OPCode.BACKREF_MULTI:
+        case OPCode.BACKREF_MULTI_IC:
+        case OPCode.BACKREF_WITH_LEVEL:
+        case OPCode.NULL_CHECK_START:
+        case OPCode.REPEAT:
+        case OPCode.REPEAT_NG:
+        case OPCode.PUSH_POS:
+        case OPCode.PUSH_POS_NOT:
+        case OPCode.PUSH_STOP_BT:
+        case OPCode.LOOK_BEHIND:
+        case OPCode.PUSH_LOOK_BEHIND_NOT:
+        case OPCode.CALL:
+            regex.memoizable = false;
+            break;
+        default:
+            break;
+        }
     }
 
     @SuppressWarnings("unused")
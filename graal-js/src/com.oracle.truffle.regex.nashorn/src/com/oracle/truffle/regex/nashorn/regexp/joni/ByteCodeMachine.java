@@ -75,6 +75,7 @@ import com.oracle.truffle.regex.nashorn.regexp.joni.constants.OPCode;
 import com.oracle.truffle.regex.nashorn.regexp.joni.encoding.IntHolder;
 import com.oracle.truffle.regex.nashorn.regexp.joni.exception.ErrorMessages;
 import com.oracle.truffle.regex.nashorn.regexp.joni.exception.InternalException;
+import com.oracle.truffle.regex.nashorn.regexp.joni.exception.MatchLimitException;
 
 class ByteCodeMachine extends StackMachine {
     private int bestLen;          // return value
@@ -88,6 +89,22 @@ class ByteCodeMachine extends StackMachine {
     private final int[] code;       // byte code
     private int ip;                 // instruction pointer
 
+    /*
+     * Failure memo: one bit per (push instruction, string position). For memoizable patterns the
+     * outcome of continuing at a given instruction and position depends on nothing else, so once
+     * such a state has been entered, any later attempt to enter it again is bound to fail. This
+     * turns exponential backtracking (e.g. (a|a)*b, (a+)+b) into O(code * input) work.
+     *
+     * The table only covers the positions from the lowest start of the current search to the end
+     * of the string, and it is only set up once a search has taken as many backtracking steps as
+     * the table has words, so that searches that never backtrack much do not pay for it. Tables
+     * are handed back to the regex at the end of a search and reused by the next one.
+     */
+    private long[] memo;
+    private boolean memoValid;
+    private int memoBase;
+    private long memoWords;
+
     ByteCodeMachine(final Regex regex, final String chars, final int p, final int end) {
         super(regex, chars, p, end);
         this.code = regex.code;
@@ -264,6 +281,44 @@ class ByteCodeMachine extends StackMachine {
         } // main while
     }
 
+    @Override
+    protected void beginMatch(final int lowest) {
+        super.beginMatch(lowest);
+        memo = null;
+        memoBase = lowest;
+        final long bits = (long) regex.codeLength * (end - lowest + 1);
+        memoWords = (bits + 63) >>> 6;
+        // nothing to set up if memoization is off or impossible for this search
+        memoValid = !memoize || !regex.memoizable || isFindCondition(regex.options) || bits > Config.MAX_MEMO_BITS;
+    }
+
+    @Override
+    protected void endMatch() {
+        if (memo != null) {
+            regex.releaseMemo(memo);
+            memo = null;
+        }
+    }
+
+    private void setupMemo() {
+        memoValid = true;
+        if (stack != null) {
+            memo = regex.acquireMemo((int) memoWords);
+        }
+    }
+
+    /* marks the state (pc, s) as entered, returns true if it had been entered before */
+    private boolean memoized(final int pc) {
+        final long bit = (long) (s - memoBase) * regex.codeLength + pc;
+        final int word = (int) (bit >>> 6);
+        final long mask = 1L << bit;
+        if ((memo[word] & mask) != 0) {
+            return true;
+        }
+        memo[word] |= mask;
+        return false;
+    }
+
     private boolean opEnd() {
         final int n = s - sstart;
 
@@ -1058,6 +1113,7 @@ class ByteCodeMachine extends StackMachine {
     }
 
     private void opPush() {
+        if (memo != null && memoized(ip - 1)) {opFail(); return;}
         final int addr = code[ip++];
         pushAlt(ip + addr, s, sprev);
     }
@@ -1067,6 +1123,7 @@ class ByteCodeMachine extends StackMachine {
     }
 
     private void opPushOrJumpExact1() {
+        if (memo != null && memoized(ip - 1)) {opFail(); return;}
         final int addr = code[ip++];
         // beyond string check
         if (s < range && code[ip] == charAt(s)) {
@@ -1078,6 +1135,7 @@ class ByteCodeMachine extends StackMachine {
     }
 
     private void opPushIfPeekNext() {
+        if (memo != null && memoized(ip - 1)) {opFail(); return;}
         final int addr = code[ip++];
         // beyond string check
         if (s < range && code[ip] == charAt(s)) {
@@ -1237,6 +1295,13 @@ class ByteCodeMachine extends StackMachine {
         }
 
 
+        if (++steps > stepLimit && stepLimit != 0) {
+            throw new MatchLimitException(ErrorMessages.ERR_MATCH_STEP_LIMIT_EXCEEDED, steps);
+        }
+        if (!memoValid && steps >= memoWords) {
+            setupMemo();
+        }
+
         final StackEntry e = pop();
         ip    = e.getStatePCode();
         s     = e.getStatePStr();
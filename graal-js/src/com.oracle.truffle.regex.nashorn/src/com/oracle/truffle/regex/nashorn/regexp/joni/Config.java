@@ -95,6 +95,7 @@ public interface Config {
 
     final int INIT_MATCH_STACK_SIZE                 = 64;
     final int DEFAULT_MATCH_STACK_LIMIT_SIZE        = 0;        /* unlimited */
+    final long MAX_MEMO_BITS                        = 1L << 25; /* 4MB per search */
     final int NUMBER_OF_POOLED_STACKS               = 4;
 
 
@@ -83,6 +83,10 @@ public abstract class Matcher extends IntHolder {
     protected int msaBegin;
     protected int msaEnd;
 
+    protected long stepLimit;       /* max. backtracking steps per match, 0 = unlimited */
+    protected long steps;           /* backtracking steps taken so far */
+    protected boolean memoize;      /* memoize failed (ip, s) states if the pattern allows it */
+
     public Matcher(final Regex regex, final String chars, final int p, final int end) {
         this.regex = regex;
 
@@ -96,6 +100,40 @@ public abstract class Matcher extends IntHolder {
     // main matching method
     protected abstract int matchAt(int range, int sstart, int sprev);
 
+    /**
+     * Configures the limits of this matcher: {@code stepLimit} bounds the number of backtracking
+     * steps of a single {@link #match} or {@link #search} call (0 means unlimited), exceeding it
+     * throws a {@link com.oracle.truffle.regex.nashorn.regexp.joni.exception.MatchLimitException}.
+     * If {@code memoize} is set, failed states are recorded for patterns without back-references,
+     * look-arounds and counted repetitions, which bounds matching to polynomial time.
+     */
+    public final Matcher setMatchLimits(final long limit, final boolean memo) {
+        this.stepLimit = limit;
+        this.memoize = memo;
+        return this;
+    }
+
+    /**
+     * Called at the start of every {@link #match} and {@link #search}; {@code lowest} is the lowest
+     * string position the match or search can start at.
+     */
+    protected void beginMatch(@SuppressWarnings("unused") final int lowest) {
+        steps = 0;
+    }
+
+    /**
+     * Called at the end of every {@link #match} and {@link #search}, including abrupt ones.
+     */
+    protected void endMatch() {
+    }
+
+    /**
+     * Returns the number of backtracking steps taken by the last {@link #match} or {@link #search}.
+     */
+    public final long getSteps() {
+        return steps;
+    }
+
     public final Region getRegion() {
         return msaRegion;
     }
@@ -121,6 +159,15 @@ public abstract class Matcher extends IntHolder {
     }
 
     public final int match(final int at, final int range, final int option) {
+        beginMatch(at);
+        try {
+            return matchImpl(at, range, option);
+        } finally {
+            endMatch();
+        }
+    }
+
+    private int matchImpl(final int at, final int range, final int option) {
         msaInit(option, at);
 
         final int prev = EncodingHelper.prevCharHead(str, at);
@@ -351,6 +398,15 @@ public abstract class Matcher extends IntHolder {
     }
 
     public final int search(final int startp, final int rangep, final int option) {
+        beginMatch(Math.max(str, Math.min(startp, rangep)));
+        try {
+            return searchImpl(startp, rangep, option);
+        } finally {
+            endMatch();
+        }
+    }
+
+    private int searchImpl(final int startp, final int rangep, final int option) {
         int start = startp, range = rangep;
         int s, prev;
         int origStart = start;
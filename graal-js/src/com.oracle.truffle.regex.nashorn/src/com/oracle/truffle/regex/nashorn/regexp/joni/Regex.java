@@ -61,6 +61,8 @@ package com.oracle.truffle.regex.nashorn.regexp.joni;
 
 // @formatter:off
 
+import java.util.Arrays;
+
 import com.oracle.truffle.regex.nashorn.regexp.joni.constants.AnchorType;
 import com.oracle.truffle.regex.nashorn.regexp.joni.constants.RegexState;
 import com.oracle.truffle.regex.nashorn.regexp.joni.exception.ErrorMessages;
@@ -71,6 +73,8 @@ public class Regex implements RegexState {
     int[] code;             /* compiled pattern */
     int codeLength;
     boolean stackNeeded;
+    boolean memoizable;     /* failure of (ip, s) is independent of the match stack, see ByteCodeMachine */
+    private long[] memoCache; /* memo table of the last finished search, reused by the next one */
     Object[] operands;       /* e.g. shared CClassNode */
     int operandLength;
 
@@ -340,4 +344,24 @@ public class Regex implements RegexState {
         return new ByteCodePrinter(this).byteCodeListToString();
     }
 
+
+    /**
+     * Returns a cleared memo table with at least {@code words} entries, reusing the table of an
+     * earlier search if it is large enough.
+     */
+    synchronized long[] acquireMemo(final int words) {
+        final long[] memo = memoCache;
+        if (memo != null && memo.length >= words) {
+            memoCache = null;
+            Arrays.fill(memo, 0, words, 0L);
+            return memo;
+        }
+        return new long[words];
+    }
+
+    synchronized void releaseMemo(final long[] memo) {
+        if (memoCache == null || memoCache.length < memo.length) {
+            memoCache = memo;
+        }
+    }
 }
@@ -111,4 +111,7 @@ public interface ErrorMessages {
     final String ERR_GROUP_NUMBER_OVER_FOR_CAPTURE_HISTORY = "group number is too big for capture history";
     final String ERR_INVALID_COMBINATION_OF_OPTIONS = "invalid combination of options";
 
+    /* matcher */
+    final String ERR_MATCH_STEP_LIMIT_EXCEEDED = "backtracking step limit exceeded";
+
 }
@@ -67,7 +67,8 @@ import com.oracle.truffle.regex.tregex.TRegexCompiler;
  * to be used when compilation by {@link TRegexCompiler}, the native compiler of
  * {@link RegexLanguage}, fails with an {@link UnsupportedRegexException}; {@code fallbackCompiler}
  * does not have to be an instance of {@link RegexCompiler}, it can also be a {@link TruffleObject}
- * with the same interop semantics as {@link RegexCompiler}</li>
+ * with the same interop semantics as {@link RegexCompiler}. It is also used for matching large
+ * expressions while {@link TRegexCompiler} generates their DFAs in the background.</li>
  * </ol>
  */
 public class RegexEngineBuilder implements RegexLanguageObject {
@@ -114,7 +115,9 @@ public class RegexEngineBuilder implements RegexLanguageObject {
                     fallbackCompiler = (TruffleObject) args[1];
                 }
                 if (fallbackCompiler != null) {
-                    return new RegexEngine(new CachingRegexCompiler(new RegexCompilerWithFallback(new TRegexCompiler(receiver.language, options), fallbackCompiler)), options.isRegressionTestMode());
+                    RegexCompiler importedFallbackCompiler = ForeignRegexCompiler.importRegexCompiler(fallbackCompiler);
+                    TRegexCompiler tRegexCompiler = new TRegexCompiler(receiver.language, options, importedFallbackCompiler);
+                    return new RegexEngine(new CachingRegexCompiler(new RegexCompilerWithFallback(tRegexCompiler, importedFallbackCompiler)), options.isRegressionTestMode());
                 } else {
                     return new RegexEngine(new CachingRegexCompiler(new TRegexCompiler(receiver.language, options)), options.isRegressionTestMode());
                 }
@@ -47,6 +47,7 @@ import com.oracle.truffle.api.TruffleLanguage;
 import com.oracle.truffle.api.instrumentation.ProvidedTags;
 import com.oracle.truffle.api.instrumentation.StandardTags;
 import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.regex.tregex.TRegexBackgroundCompiler;
 import com.oracle.truffle.regex.tregex.parser.RegexParser;
 
 import java.util.Collections;
@@ -98,6 +99,9 @@ public final class RegexLanguage extends TruffleLanguage<Void> {
 
     private final CallTarget getEngineBuilderCT = Truffle.getRuntime().createCallTarget(RootNode.createConstantNode(engineBuilder));
 
+    private TRegexBackgroundCompiler backgroundCompiler;
+    private int activeContexts;
+
     public static void validateRegex(String pattern, String flags) throws RegexSyntaxException {
         RegexParser.validate(new RegexSource(pattern, RegexFlags.parseFlags(flags)));
     }
@@ -107,11 +111,30 @@ public final class RegexLanguage extends TruffleLanguage<Void> {
         return getEngineBuilderCT;
     }
 
+    /**
+     * Returns the background DFA compiler shared by all contexts of this language instance.
+     */
+    public synchronized TRegexBackgroundCompiler getBackgroundCompiler() {
+        if (backgroundCompiler == null) {
+            backgroundCompiler = new TRegexBackgroundCompiler();
+        }
+        return backgroundCompiler;
+    }
+
     @Override
-    protected Void createContext(Env env) {
+    protected synchronized Void createContext(Env env) {
+        activeContexts++;
         return null;
     }
 
+    @Override
+    protected synchronized void disposeContext(Void context) {
+        if (--activeContexts == 0 && backgroundCompiler != null) {
+            backgroundCompiler.shutdown();
+            backgroundCompiler = null;
+        }
+    }
+
     @Override
     protected Iterable<Scope> findTopScopes(Void context) {
         return Collections.emptySet();
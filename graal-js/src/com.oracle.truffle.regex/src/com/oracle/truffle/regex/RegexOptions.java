@@ -48,18 +48,22 @@ public final class RegexOptions {
 
     private static final int U180E_WHITESPACE = 1;
     private static final int REGRESSION_TEST_MODE = 1 << 1;
+    private static final int MEMOIZATION = 1 << 2;
 
-    public static final RegexOptions DEFAULT = new RegexOptions(0);
+    public static final RegexOptions DEFAULT = new RegexOptions(MEMOIZATION, 0);
 
     private final int options;
+    private final int stepLimit;
 
-    private RegexOptions(int options) {
+    private RegexOptions(int options, int stepLimit) {
         this.options = options;
+        this.stepLimit = stepLimit;
     }
 
     @CompilerDirectives.TruffleBoundary
     public static RegexOptions parse(String optionsString) throws RegexSyntaxException {
-        int options = 0;
+        int options = MEMOIZATION;
+        int stepLimit = 0;
         for (String propValue : optionsString.split(",")) {
             if (propValue.isEmpty()) {
                 continue;
@@ -77,20 +81,38 @@ public final class RegexOptions {
                 case "RegressionTestMode":
                     options = parseBooleanOption(optionsString, options, key, value, REGRESSION_TEST_MODE);
                     break;
+                case "Memoization":
+                    options = parseBooleanOption(optionsString, options, key, value, MEMOIZATION);
+                    break;
+                case "StepLimit":
+                    stepLimit = parseIntOption(optionsString, key, value);
+                    break;
                 default:
                     throw optionsSyntaxError(optionsString, "unexpected option " + key);
             }
         }
-        return new RegexOptions(options);
+        return new RegexOptions(options, stepLimit);
     }
 
     private static int parseBooleanOption(String optionsString, int options, String key, String value, int flag) throws RegexSyntaxException {
         if (value.equals("true")) {
             return options | flag;
-        } else if (!value.equals("false")) {
-            throw optionsSyntaxErrorUnexpectedValue(optionsString, key, value, "true", "false");
+        } else if (value.equals("false")) {
+            return options & ~flag;
+        }
+        throw optionsSyntaxErrorUnexpectedValue(optionsString, key, value, "true", "false");
+    }
+
+    private static int parseIntOption(String optionsString, String key, String value) throws RegexSyntaxException {
+        try {
+            int result = Integer.parseInt(value);
+            if (result >= 0) {
+                return result;
+            }
+        } catch (NumberFormatException e) {
+            // fall through
         }
-        return options;
+        throw optionsSyntaxError(optionsString, String.format("unexpected value '%s' for option '%s', expected a non-negative integer", value, key));
     }
 
     private static RegexSyntaxException optionsSyntaxErrorUnexpectedValue(String optionsString, String key, String value, String... expectedValues) {
@@ -113,14 +135,28 @@ public final class RegexOptions {
         return isBitSet(REGRESSION_TEST_MODE);
     }
 
+    /**
+     * Whether backtracking matchers may remember states that are known to fail.
+     */
+    public boolean isMemoization() {
+        return isBitSet(MEMOIZATION);
+    }
+
+    /**
+     * Maximum number of backtracking steps of a single search, {@code 0} means unlimited.
+     */
+    public int getStepLimit() {
+        return stepLimit;
+    }
+
     @Override
     public int hashCode() {
-        return options;
+        return options * 31 + stepLimit;
     }
 
     @Override
     public boolean equals(Object obj) {
-        return obj == this || obj instanceof RegexOptions && options == ((RegexOptions) obj).options;
+        return obj == this || obj instanceof RegexOptions && options == ((RegexOptions) obj).options && stepLimit == ((RegexOptions) obj).stepLimit;
     }
 
     @Override
@@ -135,6 +171,18 @@ public final class RegexOptions {
             }
             sb.append("RegressionTestMode");
         }
+        if (!isMemoization()) {
+            if (sb.length() > 0) {
+                sb.append(",");
+            }
+            sb.append("Memoization=false");
+        }
+        if (stepLimit != 0) {
+            if (sb.length() > 0) {
+                sb.append(",");
+            }
+            sb.append("StepLimit=").append(stepLimit);
+        }
         return sb.toString();
     }
 }
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex.tregex;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.oracle.truffle.regex.tregex.nodes.TRegexTieredExecRootNode;
+
+/**
+ * Generates the DFAs of {@link TRegexTieredExecRootNode}s on background threads. The queue of
+ * pending requests is bounded: when it is full, the oldest request is dropped and its node asks
+ * again the next time it is executed. Requests of nodes that have been garbage collected in the
+ * meantime are skipped. There is one background compiler per {@link com.oracle.truffle.regex.RegexLanguage}
+ * instance, it is shut down when the last context of the language is disposed.
+ */
+public final class TRegexBackgroundCompiler {
+
+    private final ThreadPoolExecutor executor;
+
+    public TRegexBackgroundCompiler() {
+        executor = new ThreadPoolExecutor(TRegexOptions.TRegexBackgroundCompilerThreads, TRegexOptions.TRegexBackgroundCompilerThreads, 0L, TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<>(TRegexOptions.TRegexBackgroundCompilerQueueSize), runnable -> {
+                            Thread thread = new Thread(runnable, "TRegex Background Compiler");
+                            thread.setDaemon(true);
+                            return thread;
+                        }, TRegexBackgroundCompiler::reject);
+    }
+
+    /**
+     * Enqueues the DFA generation of {@code node}. Returns {@code false} if this compiler has been
+     * shut down.
+     */
+    public boolean submit(TRegexCompiler compiler, TRegexTieredExecRootNode node) {
+        try {
+            executor.execute(new Request(compiler, node));
+            return true;
+        } catch (RejectedExecutionException e) {
+            // shut down concurrently
+            return false;
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static void reject(Runnable runnable, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException();
+        }
+        Runnable oldest = executor.getQueue().poll();
+        if (oldest != null) {
+            ((Request) oldest).drop();
+        }
+        if (!executor.getQueue().offer(runnable)) {
+            ((Request) runnable).drop();
+        }
+    }
+
+    private static final class Request implements Runnable {
+
+        private final TRegexCompiler compiler;
+        private final WeakReference<TRegexTieredExecRootNode> node;
+
+        Request(TRegexCompiler compiler, TRegexTieredExecRootNode node) {
+            this.compiler = compiler;
+            this.node = new WeakReference<>(node);
+        }
+
+        @Override
+        public void run() {
+            TRegexTieredExecRootNode tieredExecRootNode = node.get();
+            if (tieredExecRootNode != null) {
+                compiler.compileDFAInBackground(tieredExecRootNode);
+            }
+        }
+
+        void drop() {
+            TRegexTieredExecRootNode tieredExecRootNode = node.get();
+            if (tieredExecRootNode != null) {
+                tieredExecRootNode.dfaRequestDropped();
+            }
+        }
+    }
+}
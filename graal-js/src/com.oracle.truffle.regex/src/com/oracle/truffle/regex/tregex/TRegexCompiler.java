@@ -56,6 +56,11 @@ package com.oracle.truffle.regex.tregex;
  * The NFA is compiled to a DFA (deterministic finite automaton) during pattern matching. Each DFA stateSet is a
  * set of NFA states, which is stored as a BitSet where each bit corresponds to a slot in the NFA array.
  *
+ * Expressions containing back-references, negative look-aheads or non-literal look-behinds, as well as expressions
+ * whose automata grow too large, are compiled from the parse tree to a backtracking matcher (see tregex.backtrack).
+ * Large expressions are matched by the fallback compiler's engine (or the backtracking matcher) while their DFAs are
+ * generated on a background thread.
+ *
  */
 
 import com.oracle.truffle.api.CompilerDirectives;
@@ -74,6 +79,9 @@ import com.oracle.truffle.regex.dead.DeadRegexExecRootNode;
 import com.oracle.truffle.regex.literal.LiteralRegexEngine;
 import com.oracle.truffle.regex.literal.LiteralRegexExecRootNode;
 import com.oracle.truffle.regex.result.PreCalculatedResultFactory;
+import com.oracle.truffle.regex.tregex.backtrack.BacktrackerCompiler;
+import com.oracle.truffle.regex.tregex.backtrack.TRegexBacktrackerNode;
+import com.oracle.truffle.regex.tregex.backtrack.TRegexBacktrackingExecRootNode;
 import com.oracle.truffle.regex.tregex.buffer.CompilationBuffer;
 import com.oracle.truffle.regex.tregex.dfa.DFAGenerator;
 import com.oracle.truffle.regex.tregex.nfa.NFA;
@@ -82,6 +90,7 @@ import com.oracle.truffle.regex.tregex.nfa.NFATraceFinderGenerator;
 import com.oracle.truffle.regex.tregex.nodes.TRegexDFAExecutorNode;
 import com.oracle.truffle.regex.tregex.nodes.TRegexDFAExecutorProperties;
 import com.oracle.truffle.regex.tregex.nodes.TRegexExecRootNode;
+import com.oracle.truffle.regex.tregex.nodes.TRegexTieredExecRootNode;
 import com.oracle.truffle.regex.tregex.parser.RegexParser;
 import com.oracle.truffle.regex.tregex.parser.RegexProperties;
 import com.oracle.truffle.regex.tregex.parser.ast.RegexAST;
@@ -99,10 +108,20 @@ public final class TRegexCompiler extends RegexCompiler {
 
     private final RegexLanguage language;
     private final RegexOptions options;
+    private final RegexCompiler fallbackCompiler;
 
     public TRegexCompiler(RegexLanguage language, RegexOptions options) {
+        this(language, options, null);
+    }
+
+    /**
+     * @param fallbackCompiler if not {@code null}, used for matching large expressions while their
+     *            DFAs are generated in the background
+     */
+    public TRegexCompiler(RegexLanguage language, RegexOptions options, RegexCompiler fallbackCompiler) {
         this.language = language;
         this.options = options;
+        this.fallbackCompiler = fallbackCompiler;
     }
 
     @CompilerDirectives.TruffleBoundary
@@ -117,18 +136,85 @@ public final class TRegexCompiler extends RegexCompiler {
         phaseEnd("Parser");
         debugAST(ast);
         RegexProperties properties = ast.getProperties();
-        if (!isSupported(properties)) {
-            // features not supported by DFA
+        if (!isSupported(properties) && !isSupportedByBacktracker(properties)) {
+            // features not supported by DFA or backtracker
             throw new UnsupportedRegexException("unsupported feature: " + source);
         }
         if (ast.getRoot().isDead()) {
             return new CompiledRegexObject(new DeadRegexExecRootNode(language, source));
         }
+        if (!isSupported(properties)) {
+            return compileBacktracker(source, ast, compilationBuffer);
+        }
         LiteralRegexExecRootNode literal = LiteralRegexEngine.createNode(language, ast);
         if (literal != null) {
             logSizes.log(String.format("\"/%s/\", \"%s\", %d, %d, %d, %d, %d, \"literal\"", source.getPattern(), source.getFlags(), 0, 0, 0, 0, 0));
             return new CompiledRegexObject(literal);
         }
+        if (compileInBackground(ast)) {
+            TRegexTieredExecRootNode tieredExecRootNode = createTieredExecRootNode(source, ast, compilationBuffer);
+            tieredExecRootNode.requestDFA();
+            return new CompiledRegexObject(tieredExecRootNode);
+        }
+        try {
+            return new CompiledRegexObject(compileDFA(source, ast, compilationBuffer));
+        } catch (UnsupportedRegexException e) {
+            if (!isSupportedByBacktracker(properties)) {
+                throw e;
+            }
+            logBailout.log(e.getMessage() + ", using backtracker");
+            // the NFA generator may have modified the AST, start over with a fresh parse tree
+            return compileBacktracker(source, new RegexParser(source, options).parse(), new CompilationBuffer());
+        }
+    }
+
+    private boolean compileInBackground(RegexAST ast) {
+        return TRegexOptions.TRegexEnableBackgroundCompilation && !options.isRegressionTestMode() && isSupportedByBacktracker(ast.getProperties()) &&
+                        ast.getNumberOfNodes() >= TRegexOptions.TRegexBackgroundCompilationThreshold;
+    }
+
+    private TRegexTieredExecRootNode createTieredExecRootNode(RegexSource source, RegexAST ast, CompilationBuffer compilationBuffer) {
+        if (fallbackCompiler != null && !source.getFlags().isUnicode() && !source.getFlags().isDotAll()) {
+            try {
+                TruffleObject fallbackRegex = fallbackCompiler.compile(source);
+                if (fallbackRegex instanceof CompiledRegexObject) {
+                    return new TRegexTieredExecRootNode(language, this, source, (CompiledRegexObject) fallbackRegex);
+                }
+            } catch (UnsupportedRegexException | RegexSyntaxException e) {
+                logBailout.log("interim fallback: " + e.getMessage() + ", using backtracker");
+            }
+        }
+        TRegexBacktrackingExecRootNode backtracker = new TRegexBacktrackingExecRootNode(language, source, BacktrackerCompiler.compile(ast, options, compilationBuffer),
+                        ast.getRoot().startsWithCaret());
+        return new TRegexTieredExecRootNode(language, this, source, backtracker);
+    }
+
+    public boolean submitBackgroundDFA(TRegexTieredExecRootNode tieredExecRootNode) {
+        return language.getBackgroundCompiler().submit(this, tieredExecRootNode);
+    }
+
+    void compileDFAInBackground(TRegexTieredExecRootNode tieredExecRootNode) {
+        RegexSource source = tieredExecRootNode.getSource();
+        try {
+            phaseStart("Background DFA");
+            // the backtracker was created from the original parse tree, the NFA generator needs a
+            // fresh one
+            RegexAST ast = new RegexParser(source, options).parse();
+            TRegexExecRootNode dfaExecRootNode = compileDFA(source, ast, new CompilationBuffer());
+            phaseEnd("Background DFA");
+            tieredExecRootNode.setDFAExecRootNode(dfaExecRootNode);
+        } catch (UnsupportedRegexException e) {
+            phaseEnd("Background DFA Bailout");
+            logBailout.log(e.getMessage() + ", keeping the interim engine");
+            tieredExecRootNode.dfaBailout();
+        } catch (RegexSyntaxException e) {
+            // already parsed successfully on the calling thread
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private TRegexExecRootNode compileDFA(RegexSource source, RegexAST ast, CompilationBuffer compilationBuffer) {
+        RegexProperties properties = ast.getProperties();
         PreCalculatedResultFactory[] preCalculatedResults = null;
         if (!(properties.hasAlternations() || properties.hasLookAroundAssertions())) {
             preCalculatedResults = new PreCalculatedResultFactory[]{PreCalcResultVisitor.createResultFactory(ast)};
@@ -180,7 +266,14 @@ public final class TRegexCompiler extends RegexCompiler {
             logAutomatonSizes(source, ast, nfa, traceFinder, captureGroupExecutor, executorNode, executorNodeB);
             logAutomatonSizesCSV(source, ast, nfa, traceFinder, captureGroupExecutor, executorNode, executorNodeB);
         }
-        return new CompiledRegexObject(tRegexRootNode);
+        return tRegexRootNode;
+    }
+
+    private TruffleObject compileBacktracker(RegexSource source, RegexAST ast, CompilationBuffer compilationBuffer) {
+        phaseStart("Backtracker");
+        TRegexBacktrackerNode backtrackerNode = BacktrackerCompiler.compile(ast, options, compilationBuffer);
+        phaseEnd("Backtracker");
+        return new CompiledRegexObject(new TRegexBacktrackingExecRootNode(language, source, backtrackerNode, ast.getRoot().startsWithCaret()));
     }
 
     @CompilerDirectives.TruffleBoundary
@@ -207,7 +300,12 @@ public final class TRegexCompiler extends RegexCompiler {
         return !(properties.hasBackReferences() ||
                         properties.hasLargeCountedRepetitions() ||
                         properties.hasNegativeLookAheadAssertions() ||
-                        properties.hasComplexLookBehindAssertions());
+                        properties.hasComplexLookBehindAssertions() ||
+                        properties.hasNestedLookBehindAssertions());
+    }
+
+    private static boolean isSupportedByBacktracker(RegexProperties properties) {
+        return TRegexOptions.TRegexEnableBacktracker && !properties.hasLargeCountedRepetitions();
     }
 
     private static TRegexDFAExecutorProperties createExecutorProperties(boolean forward, boolean searching, boolean trackCaptureGroups, int numberOfCaptureGroups) {
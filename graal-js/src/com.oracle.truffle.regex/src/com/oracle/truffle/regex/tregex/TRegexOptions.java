@@ -40,6 +40,7 @@
  */
 package com.oracle.truffle.regex.tregex;
 
+import com.oracle.truffle.regex.tregex.backtrack.TRegexBacktrackerNode;
 import com.oracle.truffle.regex.tregex.dfa.DFAGenerator;
 import com.oracle.truffle.regex.tregex.nfa.ASTStep;
 import com.oracle.truffle.regex.tregex.nfa.NFA;
@@ -47,6 +48,7 @@ import com.oracle.truffle.regex.tregex.nfa.NFAGenerator;
 import com.oracle.truffle.regex.tregex.nfa.NFATraceFinderGenerator;
 import com.oracle.truffle.regex.tregex.nodes.DFACaptureGroupPartialTransitionNode;
 import com.oracle.truffle.regex.tregex.nodes.TRegexDFAExecutorNode;
+import com.oracle.truffle.regex.tregex.nodes.TRegexTieredExecRootNode;
 import com.oracle.truffle.regex.tregex.nodes.TraceFinderDFAStateNode;
 import com.oracle.truffle.regex.tregex.parser.RegexParser;
 import com.oracle.truffle.regex.tregex.parser.ast.RegexAST;
@@ -74,6 +76,38 @@ public class TRegexOptions {
      */
     public static final boolean TRegexEnableNodeSplitter = false;
 
+    /**
+     * Match expressions the DFA-based engine cannot handle (back-references, negative look-ahead
+     * assertions, non-literal look-behind assertions) or bails out on with
+     * {@link TRegexBacktrackerNode} instead of falling back to a different regex engine.
+     */
+    public static final boolean TRegexEnableBacktracker = true;
+
+    /**
+     * Generate the DFAs of large expressions on a background thread and match with the fallback
+     * compiler's engine (or {@link TRegexBacktrackerNode} if there is none or it cannot handle the
+     * expression) until they are ready (see {@link TRegexTieredExecRootNode}).
+     */
+    public static final boolean TRegexEnableBackgroundCompilation = true;
+
+    /**
+     * Minimum number of nodes in the parser tree for an expression to be compiled in the
+     * background. Smaller expressions are compiled on the calling thread, since their DFAs are
+     * cheap to generate.
+     */
+    public static final int TRegexBackgroundCompilationThreshold = 100;
+
+    /**
+     * Number of threads generating DFAs in the background.
+     */
+    public static final int TRegexBackgroundCompilerThreads = 1;
+
+    /**
+     * Maximum number of expressions waiting for background DFA generation (see
+     * {@link TRegexBackgroundCompiler}). When the queue is full, the oldest request is dropped.
+     */
+    public static final int TRegexBackgroundCompilerQueueSize = 64;
+
     /**
      * Maximum size of a DFA after being altered by {@link DFANodeSplit}.
      */
@@ -0,0 +1,323 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex.tregex.backtrack;
+
+import java.util.Arrays;
+
+import com.oracle.truffle.regex.RegexOptions;
+import com.oracle.truffle.regex.UnsupportedRegexException;
+import com.oracle.truffle.regex.tregex.buffer.CompilationBuffer;
+import com.oracle.truffle.regex.tregex.matchers.CharMatcher;
+import com.oracle.truffle.regex.tregex.matchers.MatcherBuilder;
+import com.oracle.truffle.regex.tregex.parser.ast.BackReference;
+import com.oracle.truffle.regex.tregex.parser.ast.CharacterClass;
+import com.oracle.truffle.regex.tregex.parser.ast.Group;
+import com.oracle.truffle.regex.tregex.parser.ast.LookAheadAssertion;
+import com.oracle.truffle.regex.tregex.parser.ast.LookBehindAssertion;
+import com.oracle.truffle.regex.tregex.parser.ast.PositionAssertion;
+import com.oracle.truffle.regex.tregex.parser.ast.RegexAST;
+import com.oracle.truffle.regex.tregex.parser.ast.Sequence;
+import com.oracle.truffle.regex.tregex.parser.ast.Term;
+
+import static com.oracle.truffle.regex.tregex.backtrack.TRegexBacktrackerNode.BACKREF;
+import static com.oracle.truffle.regex.tregex.backtrack.TRegexBacktrackerNode.BACKREF_BACKWARD;
+import static com.oracle.truffle.regex.tregex.backtrack.TRegexBacktrackerNode.CARET;
+import static com.oracle.truffle.regex.tregex.backtrack.TRegexBacktrackerNode.CHAR;
+import static com.oracle.truffle.regex.tregex.backtrack.TRegexBacktrackerNode.CHAR_BACKWARD;
+import static com.oracle.truffle.regex.tregex.backtrack.TRegexBacktrackerNode.CLEAR;
+import static com.oracle.truffle.regex.tregex.backtrack.TRegexBacktrackerNode.DOLLAR;
+import static com.oracle.truffle.regex.tregex.backtrack.TRegexBacktrackerNode.FAIL;
+import static com.oracle.truffle.regex.tregex.backtrack.TRegexBacktrackerNode.GUARD_BEGIN;
+import static com.oracle.truffle.regex.tregex.backtrack.TRegexBacktrackerNode.GUARD_END;
+import static com.oracle.truffle.regex.tregex.backtrack.TRegexBacktrackerNode.JUMP;
+import static com.oracle.truffle.regex.tregex.backtrack.TRegexBacktrackerNode.LOOK_BEGIN;
+import static com.oracle.truffle.regex.tregex.backtrack.TRegexBacktrackerNode.LOOK_END;
+import static com.oracle.truffle.regex.tregex.backtrack.TRegexBacktrackerNode.MATCH;
+import static com.oracle.truffle.regex.tregex.backtrack.TRegexBacktrackerNode.NEG_LOOK_BEGIN;
+import static com.oracle.truffle.regex.tregex.backtrack.TRegexBacktrackerNode.NEG_LOOK_END;
+import static com.oracle.truffle.regex.tregex.backtrack.TRegexBacktrackerNode.SAVE;
+import static com.oracle.truffle.regex.tregex.backtrack.TRegexBacktrackerNode.SPLIT;
+
+/**
+ * Translates a {@link RegexAST} into the instruction sequence executed by
+ * {@link TRegexBacktrackerNode}. Unlike the NFA/DFA pipeline, this supports back-references,
+ * negative look-ahead and arbitrary (including nested) look-behind assertions, which are matched
+ * right-to-left as specified by ECMAScript 2018.
+ * <p>
+ * Register layout: {@code 2 * n} and {@code 2 * n + 1} hold the start and end of capture group
+ * {@code n}, followed by one register per empty-guarded term and two registers (backtrack stack
+ * height and input index) per look-around assertion.
+ * <p>
+ * Every {@code SPLIT} gets a memoization slot. Outside of look-around assertions, the matcher only
+ * ever moves forward through the input, so a choice point that is reached a second time at the same
+ * index must have failed before, unless the outcome of an enclosing empty-guard check differs; the
+ * guard registers that are live at each {@code SPLIT} are recorded so the matcher can tell these
+ * cases apart. Choice points inside look-around assertions are never memoized, and neither is
+ * anything in expressions containing back-references, whose outcome depends on the capture groups.
+ */
+public final class BacktrackerCompiler {
+
+    private final RegexAST ast;
+    private final RegexOptions options;
+    private final CompilationBuffer compilationBuffer;
+    private final int numberOfCaptureGroups;
+
+    private int[] code = new int[64];
+    private int codeLength = 0;
+    private CharMatcher[] matchers = new CharMatcher[8];
+    private int numberOfMatchers = 0;
+    private int[] backtrackTargets = new int[8];
+    private int numberOfBacktrackTargets = 0;
+    private int numberOfRegisters;
+    private int[][] memoGuards = new int[8][];
+    private int numberOfMemoSlots = 0;
+    private int[] openGuards = new int[8];
+    private int numberOfOpenGuards = 0;
+    private int lookAroundDepth = 0;
+    private boolean memoizable = true;
+
+    private BacktrackerCompiler(RegexAST ast, RegexOptions options, CompilationBuffer compilationBuffer) {
+        this.ast = ast;
+        this.options = options;
+        this.compilationBuffer = compilationBuffer;
+        this.numberOfCaptureGroups = ast.getNumberOfCaptureGroups();
+        this.numberOfRegisters = numberOfCaptureGroups * 2;
+    }
+
+    public static TRegexBacktrackerNode compile(RegexAST ast, RegexOptions options, CompilationBuffer compilationBuffer) {
+        if (ast.getProperties().hasLargeCountedRepetitions()) {
+            // the parser does not build a correct tree for these
+            throw new UnsupportedRegexException("backtracker: large counted repetitions");
+        }
+        return new BacktrackerCompiler(ast, options, compilationBuffer).compile();
+    }
+
+    private TRegexBacktrackerNode compile() {
+        Group root = ast.getRoot();
+        assert root.isCapturing() && root.getGroupNumber() == 0;
+        compileGroup(root, true);
+        emit(MATCH);
+        int[] targets = Arrays.copyOf(backtrackTargets, numberOfBacktrackTargets);
+        Arrays.sort(targets);
+        int[][] guards = memoizable && options.isMemoization() && numberOfMemoSlots > 0 ? Arrays.copyOf(memoGuards, numberOfMemoSlots) : null;
+        return new TRegexBacktrackerNode(Arrays.copyOf(code, codeLength), Arrays.copyOf(matchers, numberOfMatchers), targets,
+                        numberOfCaptureGroups, numberOfRegisters, ast.getSource().getFlags().isIgnoreCase(), ast.getSource().getFlags().isUnicode(),
+                        guards, options.getStepLimit());
+    }
+
+    private void compileGroup(Group group, boolean forward) {
+        if (group.isDead()) {
+            emit(FAIL);
+            return;
+        }
+        final int clearLo = group.getEnclosedCaptureGroupsLow();
+        final int clearHi = group.getEnclosedCaptureGroupsHigh();
+        final boolean clear = (group.isLoop() || group.isExpandedQuantifier()) && clearLo < clearHi;
+        final int loopStart = codeLength;
+        if (group.isCapturing()) {
+            // when matching backwards, the group is entered at its end
+            emit(SAVE, captureRegister(group, !forward));
+        }
+        final int nAlternatives = group.getAlternatives().size();
+        int[] jumpsToEnd = new int[nAlternatives];
+        int nJumpsToEnd = 0;
+        for (int i = 0; i < nAlternatives; i++) {
+            Sequence alternative = group.getAlternatives().get(i);
+            int split = -1;
+            if (i < nAlternatives - 1) {
+                split = emitSplit();
+            }
+            if (clear && !alternative.isEmpty()) {
+                // every new iteration of a quantifier resets the capture groups it contains
+                emit(CLEAR, clearLo, clearHi);
+            }
+            if (group.isLoop() && !alternative.isEmpty()) {
+                // iterations of a loop must not match the empty string
+                final int guard = alternative.hasEmptyGuard() ? -1 : emitGuardBegin();
+                compileSequence(alternative, forward);
+                if (guard >= 0) {
+                    emitGuardEnd(guard);
+                }
+                emit(JUMP, loopStart);
+            } else {
+                compileSequence(alternative, forward);
+                if (i < nAlternatives - 1) {
+                    jumpsToEnd[nJumpsToEnd++] = emit(JUMP, 0);
+                }
+            }
+            if (split >= 0) {
+                patch(split, codeLength);
+                addBacktrackTarget(codeLength);
+            }
+        }
+        for (int i = 0; i < nJumpsToEnd; i++) {
+            patch(jumpsToEnd[i], codeLength);
+        }
+        if (group.isCapturing()) {
+            emit(SAVE, captureRegister(group, forward));
+        }
+    }
+
+    private void compileSequence(Sequence sequence, boolean forward) {
+        if (sequence.isDead()) {
+            emit(FAIL);
+            return;
+        }
+        final int guard = sequence.hasEmptyGuard() ? emitGuardBegin() : -1;
+        final int nTerms = sequence.getTerms().size();
+        for (int i = 0; i < nTerms; i++) {
+            compileTerm(sequence.getTerms().get(forward ? i : nTerms - 1 - i), forward);
+        }
+        if (guard >= 0) {
+            emitGuardEnd(guard);
+        }
+    }
+
+    private void compileTerm(Term term, boolean forward) {
+        if (term.isDead()) {
+            emit(FAIL);
+            return;
+        }
+        final int guard = term.hasEmptyGuard() ? emitGuardBegin() : -1;
+        if (term instanceof CharacterClass) {
+            emit(forward ? CHAR : CHAR_BACKWARD, addMatcher(((CharacterClass) term).getMatcherBuilder()));
+        } else if (term instanceof Group) {
+            compileGroup((Group) term, forward);
+        } else if (term instanceof PositionAssertion) {
+            emit(((PositionAssertion) term).type == PositionAssertion.Type.CARET ? CARET : DOLLAR);
+        } else if (term instanceof BackReference) {
+            memoizable = false;
+            emit(forward ? BACKREF : BACKREF_BACKWARD, ((BackReference) term).getGroupNr());
+        } else if (term instanceof LookAheadAssertion) {
+            LookAheadAssertion lookAhead = (LookAheadAssertion) term;
+            int registers = allocateRegisters(2);
+            lookAroundDepth++;
+            if (lookAhead.isNegated()) {
+                int begin = emit(NEG_LOOK_BEGIN, registers, 0);
+                compileGroup(lookAhead.getGroup(), true);
+                emit(NEG_LOOK_END, registers);
+                code[begin + 2] = codeLength;
+                addBacktrackTarget(codeLength);
+            } else {
+                emit(LOOK_BEGIN, registers);
+                compileGroup(lookAhead.getGroup(), true);
+                emit(LOOK_END, registers);
+            }
+            lookAroundDepth--;
+        } else if (term instanceof LookBehindAssertion) {
+            int registers = allocateRegisters(2);
+            lookAroundDepth++;
+            emit(LOOK_BEGIN, registers);
+            compileGroup(((LookBehindAssertion) term).getGroup(), false);
+            emit(LOOK_END, registers);
+            lookAroundDepth--;
+        } else {
+            throw new UnsupportedRegexException("backtracker: unexpected AST node " + term);
+        }
+        if (guard >= 0) {
+            emitGuardEnd(guard);
+        }
+    }
+
+    private static int captureRegister(Group group, boolean end) {
+        return group.getGroupNumber() * 2 + (end ? 1 : 0);
+    }
+
+    private int emitGuardBegin() {
+        int register = allocateRegisters(1);
+        emit(GUARD_BEGIN, register);
+        if (numberOfOpenGuards == openGuards.length) {
+            openGuards = Arrays.copyOf(openGuards, openGuards.length * 2);
+        }
+        openGuards[numberOfOpenGuards++] = register;
+        return register;
+    }
+
+    private void emitGuardEnd(int register) {
+        assert numberOfOpenGuards > 0 && openGuards[numberOfOpenGuards - 1] == register;
+        numberOfOpenGuards--;
+        emit(GUARD_END, register);
+    }
+
+    private int emitSplit() {
+        if (numberOfMemoSlots == memoGuards.length) {
+            memoGuards = Arrays.copyOf(memoGuards, memoGuards.length * 2);
+        }
+        memoGuards[numberOfMemoSlots] = lookAroundDepth == 0 ? Arrays.copyOf(openGuards, numberOfOpenGuards) : null;
+        return emit(SPLIT, 0, numberOfMemoSlots++);
+    }
+
+    private int allocateRegisters(int n) {
+        int first = numberOfRegisters;
+        numberOfRegisters += n;
+        return first;
+    }
+
+    private int addMatcher(MatcherBuilder matcherBuilder) {
+        if (numberOfMatchers == matchers.length) {
+            matchers = Arrays.copyOf(matchers, matchers.length * 2);
+        }
+        matchers[numberOfMatchers] = matcherBuilder.createMatcher(compilationBuffer);
+        return numberOfMatchers++;
+    }
+
+    private void addBacktrackTarget(int target) {
+        if (numberOfBacktrackTargets == backtrackTargets.length) {
+            backtrackTargets = Arrays.copyOf(backtrackTargets, backtrackTargets.length * 2);
+        }
+        backtrackTargets[numberOfBacktrackTargets++] = target;
+    }
+
+    private void patch(int instruction, int target) {
+        assert code[instruction] == SPLIT || code[instruction] == JUMP;
+        code[instruction + 1] = target;
+    }
+
+    private int emit(int... instruction) {
+        int start = codeLength;
+        if (codeLength + instruction.length > code.length) {
+            code = Arrays.copyOf(code, Math.max(code.length * 2, codeLength + instruction.length));
+        }
+        System.arraycopy(instruction, 0, code, codeLength, instruction.length);
+        codeLength += instruction.length;
+        return start;
+    }
+}
@@ -0,0 +1,416 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex.tregex.backtrack;
+
+import java.util.Arrays;
+
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.regex.RegexStepLimitException;
+import com.oracle.truffle.regex.tregex.matchers.CharMatcher;
+import com.oracle.truffle.regex.tregex.nodes.input.InputCharAtNode;
+import com.oracle.truffle.regex.tregex.parser.CaseFoldTable;
+import com.oracle.truffle.regex.tregex.parser.CodePointSet;
+
+/**
+ * Backtracking matcher for regular expressions the DFA-based executors cannot handle, i.e.
+ * expressions containing back-references, negative look-ahead assertions or non-literal
+ * look-behind assertions. The node interprets an instruction sequence produced by
+ * {@link BacktrackerCompiler}; since the instruction array is a compilation constant, the
+ * interpreter loop is exploded with {@link ExplodeLoop.LoopExplosionKind#MERGE_EXPLODE}, which turns
+ * every instruction into its own block of compiled code.
+ * <p>
+ * Choice points are kept on an explicit stack of frames {@code [pc, index, registers...]}. When an
+ * instruction fails, the topmost frame is popped and execution resumes at its program counter,
+ * which is resolved against the (constant) list of all possible backtrack targets so that the
+ * program counter stays a partial evaluation constant.
+ * <p>
+ * Every backtrack counts as one step of the current search (see {@link SearchState}); searches
+ * exceeding the step limit throw a {@link RegexStepLimitException}. If the compiler determined the
+ * expression to be memoizable, choice points that are known to fail are remembered in a bit set
+ * over {@code (SPLIT, index)} pairs, which bounds the work of a search by the product of the number
+ * of choice points and the length of the searched range. The bit set is only allocated once a
+ * search has taken as many steps as the bit set has words, so that cheap searches never pay for it.
+ */
+public final class TRegexBacktrackerNode extends Node {
+
+    /**
+     * {@code CHAR m}: match the next character against matcher {@code m}.
+     */
+    static final int CHAR = 0;
+    /**
+     * {@code CHAR_BACKWARD m}: match the previous character against matcher {@code m}.
+     */
+    static final int CHAR_BACKWARD = 1;
+    /**
+     * {@code SPLIT t m}: continue with the next instruction, try {@code t} on failure; {@code m} is
+     * the choice point's memoization slot.
+     */
+    static final int SPLIT = 2;
+    /**
+     * {@code JUMP t}: continue at {@code t}.
+     */
+    static final int JUMP = 3;
+    /**
+     * {@code SAVE r}: store the current index in register {@code r}.
+     */
+    static final int SAVE = 4;
+    /**
+     * {@code CLEAR lo hi}: reset capture groups {@code lo} (inclusive) to {@code hi} (exclusive).
+     */
+    static final int CLEAR = 5;
+    /**
+     * {@code GUARD_BEGIN r}: store the current index in register {@code r}.
+     */
+    static final int GUARD_BEGIN = 6;
+    /**
+     * {@code GUARD_END r}: fail if the current index equals register {@code r}.
+     */
+    static final int GUARD_END = 7;
+    static final int CARET = 8;
+    static final int DOLLAR = 9;
+    /**
+     * {@code BACKREF g}: match the contents of capture group {@code g}.
+     */
+    static final int BACKREF = 10;
+    /**
+     * {@code BACKREF_BACKWARD g}: match the contents of capture group {@code g}, right to left.
+     */
+    static final int BACKREF_BACKWARD = 11;
+    /**
+     * {@code LOOK_BEGIN r}: save stack height and index in registers {@code r} and {@code r + 1}.
+     */
+    static final int LOOK_BEGIN = 12;
+    /**
+     * {@code LOOK_END r}: discard all choice points created inside the look-around assertion and
+     * restore the index saved by the corresponding {@link #LOOK_BEGIN}.
+     */
+    static final int LOOK_END = 13;
+    /**
+     * {@code NEG_LOOK_BEGIN r t}: save the stack height in register {@code r} and push a choice
+     * point for {@code t}, which is where execution continues if the assertion's body fails.
+     */
+    static final int NEG_LOOK_BEGIN = 14;
+    /**
+     * {@code NEG_LOOK_END r}: the body of a negative look-ahead matched; discard all choice points
+     * back to and including the one pushed by {@link #NEG_LOOK_BEGIN} and fail.
+     */
+    static final int NEG_LOOK_END = 15;
+    static final int FAIL = 16;
+    static final int MATCH = 17;
+
+    private static final int INITIAL_STACK_FRAMES = 16;
+
+    @CompilationFinal(dimensions = 1) private final int[] code;
+    @CompilationFinal(dimensions = 1) private final CharMatcher[] matchers;
+    @CompilationFinal(dimensions = 1) private final int[] backtrackTargets;
+    private final int numberOfCaptureGroups;
+    private final int numberOfRegisters;
+    private final boolean ignoreCase;
+    private final boolean unicode;
+    /**
+     * Live empty-guard registers per memoization slot, {@code null} if memoization is disabled. A
+     * {@code null} entry marks a choice point that must not be memoized.
+     */
+    @CompilationFinal(dimensions = 2) private final int[][] memoGuards;
+    private final int stepLimit;
+
+    @Child private InputCharAtNode charAtNode = InputCharAtNode.create();
+
+    TRegexBacktrackerNode(int[] code, CharMatcher[] matchers, int[] backtrackTargets, int numberOfCaptureGroups, int numberOfRegisters, boolean ignoreCase, boolean unicode,
+                    int[][] memoGuards, int stepLimit) {
+        this.code = code;
+        this.matchers = matchers;
+        this.backtrackTargets = backtrackTargets;
+        this.numberOfCaptureGroups = numberOfCaptureGroups;
+        this.numberOfRegisters = numberOfRegisters;
+        this.ignoreCase = ignoreCase;
+        this.unicode = unicode;
+        this.memoGuards = memoGuards;
+        this.stepLimit = stepLimit;
+    }
+
+    public int getNumberOfCaptureGroups() {
+        return numberOfCaptureGroups;
+    }
+
+    /**
+     * Step counter and memoization table shared by all {@link #execute} calls of one search over
+     * the input range {@code [fromIndex, maxIndex]}.
+     */
+    public static final class SearchState {
+
+        private final int fromIndex;
+        private final int rangeLength;
+        private long steps;
+        private long[] memo;
+
+        SearchState(int fromIndex, int maxIndex) {
+            this.fromIndex = fromIndex;
+            this.rangeLength = maxIndex - fromIndex + 1;
+        }
+
+        public long getSteps() {
+            return steps;
+        }
+    }
+
+    public SearchState createSearchState(int fromIndex, int maxIndex) {
+        return new SearchState(fromIndex, maxIndex);
+    }
+
+    /**
+     * Tries to match the expression at {@code fromIndex}, which must lie within the range of
+     * {@code state}.
+     *
+     * @return the capture group registers of the match ({@code 2 * n} is the start and
+     *         {@code 2 * n + 1} the end of group {@code n}, {@code -1} if unset), or {@code null}
+     *         if there is no match starting at {@code fromIndex}.
+     */
+    @ExplodeLoop(kind = ExplodeLoop.LoopExplosionKind.MERGE_EXPLODE)
+    public int[] execute(Object input, int fromIndex, int maxIndex, SearchState state) {
+        CompilerAsserts.compilationConstant(code);
+        CompilerAsserts.compilationConstant(numberOfRegisters);
+        final int frameSize = numberOfRegisters + 2;
+        final int[] registers = new int[numberOfRegisters];
+        Arrays.fill(registers, -1);
+        int[] stack = new int[frameSize * INITIAL_STACK_FRAMES];
+        int sp = 0;
+        int index = fromIndex;
+        int pc = 0;
+        outer: while (true) {
+            CompilerAsserts.partialEvaluationConstant(pc);
+            final int opcode = code[pc];
+            CompilerAsserts.partialEvaluationConstant(opcode);
+            switch (opcode) {
+                case CHAR:
+                    if (index < maxIndex && matchers[code[pc + 1]].match(charAtNode.execute(input, index))) {
+                        index++;
+                        pc += 2;
+                        continue outer;
+                    }
+                    break;
+                case CHAR_BACKWARD:
+                    if (index > 0 && matchers[code[pc + 1]].match(charAtNode.execute(input, index - 1))) {
+                        index--;
+                        pc += 2;
+                        continue outer;
+                    }
+                    break;
+                case SPLIT:
+                    if (memoGuards != null && memoGuards[code[pc + 2]] != null && state.memo != null && isKnownFailure(state, code[pc + 2], registers, index)) {
+                        break;
+                    }
+                    if (sp + frameSize > stack.length) {
+                        stack = Arrays.copyOf(stack, stack.length * 2);
+                    }
+                    stack[sp] = code[pc + 1];
+                    stack[sp + 1] = index;
+                    System.arraycopy(registers, 0, stack, sp + 2, numberOfRegisters);
+                    sp += frameSize;
+                    pc += 3;
+                    continue outer;
+                case JUMP:
+                    pc = code[pc + 1];
+                    continue outer;
+                case SAVE:
+                case GUARD_BEGIN:
+                    registers[code[pc + 1]] = index;
+                    pc += 2;
+                    continue outer;
+                case CLEAR:
+                    for (int i = code[pc + 1] * 2; i < code[pc + 2] * 2; i++) {
+                        registers[i] = -1;
+                    }
+                    pc += 3;
+                    continue outer;
+                case GUARD_END:
+                    if (registers[code[pc + 1]] != index) {
+                        pc += 2;
+                        continue outer;
+                    }
+                    break;
+                case CARET:
+                    if (index == 0) {
+                        pc++;
+                        continue outer;
+                    }
+                    break;
+                case DOLLAR:
+                    if (index == maxIndex) {
+                        pc++;
+                        continue outer;
+                    }
+                    break;
+                case BACKREF:
+                case BACKREF_BACKWARD: {
+                    final int groupStart = registers[code[pc + 1] * 2];
+                    final int groupEnd = registers[code[pc + 1] * 2 + 1];
+                    if (groupStart < 0 || groupEnd < 0) {
+                        // back-references to groups that did not participate in the match succeed
+                        pc += 2;
+                        continue outer;
+                    }
+                    final int length = groupEnd - groupStart;
+                    final int matchStart = opcode == BACKREF ? index : index - length;
+                    if (matchStart >= 0 && matchStart + length <= maxIndex && regionMatches(input, groupStart, matchStart, length)) {
+                        index = opcode == BACKREF ? index + length : matchStart;
+                        pc += 2;
+                        continue outer;
+                    }
+                    break;
+                }
+                case LOOK_BEGIN:
+                    registers[code[pc + 1]] = sp;
+                    registers[code[pc + 1] + 1] = index;
+                    pc += 2;
+                    continue outer;
+                case LOOK_END:
+                    sp = registers[code[pc + 1]];
+                    index = registers[code[pc + 1] + 1];
+                    pc += 2;
+                    continue outer;
+                case NEG_LOOK_BEGIN:
+                    registers[code[pc + 1]] = sp;
+                    if (sp + frameSize > stack.length) {
+                        stack = Arrays.copyOf(stack, stack.length * 2);
+                    }
+                    stack[sp] = code[pc + 2];
+                    stack[sp + 1] = index;
+                    System.arraycopy(registers, 0, stack, sp + 2, numberOfRegisters);
+                    sp += frameSize;
+                    pc += 3;
+                    continue outer;
+                case NEG_LOOK_END:
+                    sp = registers[code[pc + 1]];
+                    break;
+                case FAIL:
+                    break;
+                case MATCH:
+                    return Arrays.copyOf(registers, numberOfCaptureGroups * 2);
+                default:
+                    CompilerDirectives.transferToInterpreter();
+                    throw new IllegalStateException();
+            }
+            // backtrack
+            if (sp == 0) {
+                return null;
+            }
+            state.steps++;
+            if (stepLimit != 0 && state.steps > stepLimit) {
+                CompilerDirectives.transferToInterpreter();
+                throw new RegexStepLimitException(stepLimit);
+            }
+            if (memoGuards != null && state.memo == null && state.steps >= memoWords(state)) {
+                allocateMemo(state);
+            }
+            sp -= frameSize;
+            index = stack[sp + 1];
+            System.arraycopy(stack, sp + 2, registers, 0, numberOfRegisters);
+            final int target = stack[sp];
+            for (int i = 0; i < backtrackTargets.length; i++) {
+                if (backtrackTargets[i] == target) {
+                    pc = backtrackTargets[i];
+                    continue outer;
+                }
+            }
+            CompilerDirectives.transferToInterpreter();
+            throw new IllegalStateException();
+        }
+    }
+
+    /**
+     * Checks whether the choice point {@code slot} was already visited at {@code index} and marks
+     * it as visited otherwise. Since the matcher never moves backwards outside of look-around
+     * assertions and every loop iteration must consume input, a second visit can only happen after
+     * the first one failed. The outcome of an
+     * enclosing empty-guard check only depends on whether its register equals the current index,
+     * states where that is the case are therefore not memoized.
+     */
+    @ExplodeLoop
+    private boolean isKnownFailure(SearchState state, int slot, int[] registers, int index) {
+        final int[] guards = memoGuards[slot];
+        for (int i = 0; i < guards.length; i++) {
+            if (registers[guards[i]] == index) {
+                return false;
+            }
+        }
+        final long bit = (long) slot * state.rangeLength + (index - state.fromIndex);
+        final int word = (int) (bit >>> 6);
+        final long mask = 1L << bit;
+        if ((state.memo[word] & mask) != 0) {
+            return true;
+        }
+        state.memo[word] |= mask;
+        return false;
+    }
+
+    private long memoWords(SearchState state) {
+        return (((long) memoGuards.length * state.rangeLength) >>> 6) + 1;
+    }
+
+    @CompilerDirectives.TruffleBoundary
+    private void allocateMemo(SearchState state) {
+        final long words = memoWords(state);
+        if (words <= Integer.MAX_VALUE - 8) {
+            state.memo = new long[(int) words];
+        }
+    }
+
+    private boolean regionMatches(Object input, int groupStart, int matchStart, int length) {
+        for (int i = 0; i < length; i++) {
+            final char c1 = charAtNode.execute(input, groupStart + i);
+            final char c2 = charAtNode.execute(input, matchStart + i);
+            if (c1 != c2 && !(ignoreCase && equalsIgnoreCase(c1, c2, unicode))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @CompilerDirectives.TruffleBoundary
+    private static boolean equalsIgnoreCase(char c1, char c2, boolean unicode) {
+        return CaseFoldTable.applyCaseFold(CodePointSet.create(c1), unicode).createIntersection(CodePointSet.create(c2)).matchesSomething();
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex.tregex.backtrack;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.regex.CompiledRegex;
+import com.oracle.truffle.regex.RegexExecRootNode;
+import com.oracle.truffle.regex.RegexLanguage;
+import com.oracle.truffle.regex.RegexObject;
+import com.oracle.truffle.regex.RegexRootNode;
+import com.oracle.truffle.regex.RegexSource;
+import com.oracle.truffle.regex.result.RegexResult;
+import com.oracle.truffle.regex.result.StartsEndsIndexArrayResult;
+import com.oracle.truffle.regex.tregex.nodes.input.InputCharAtNode;
+import com.oracle.truffle.regex.tregex.nodes.input.InputLengthNode;
+
+/**
+ * Searches for matches of a {@link TRegexBacktrackerNode} by trying every start position from
+ * {@code fromIndex} onwards. All start positions of one search share a single step budget and
+ * memoization table.
+ */
+public final class TRegexBacktrackingExecRootNode extends RegexExecRootNode implements CompiledRegex {
+
+    private final CallTarget regexCallTarget;
+    private final boolean anchored;
+
+    @Child private TRegexBacktrackerNode backtrackerNode;
+    @Child private InputLengthNode lengthNode = InputLengthNode.create();
+    @Child private InputCharAtNode charAtNode = InputCharAtNode.create();
+
+    public TRegexBacktrackingExecRootNode(RegexLanguage language, RegexSource source, TRegexBacktrackerNode backtrackerNode, boolean startsWithCaret) {
+        super(language, source);
+        this.backtrackerNode = backtrackerNode;
+        this.anchored = startsWithCaret || source.getFlags().isSticky();
+        regexCallTarget = Truffle.getRuntime().createCallTarget(new RegexRootNode(language, this));
+    }
+
+    @Override
+    protected RegexResult execute(VirtualFrame frame, RegexObject regex, Object input, int fromIndex) {
+        final int length = lengthNode.execute(input);
+        final TRegexBacktrackerNode.SearchState state = backtrackerNode.createSearchState(fromIndex, length);
+        for (int start = fromIndex; start <= length; start++) {
+            final int[] registers = backtrackerNode.execute(input, start, length, state);
+            if (registers != null) {
+                return createResult(regex, input, registers);
+            }
+            if (anchored) {
+                break;
+            }
+            if (getSource().getFlags().isUnicode() && start + 1 < length && Character.isHighSurrogate(charAtNode.execute(input, start)) &&
+                            Character.isLowSurrogate(charAtNode.execute(input, start + 1))) {
+                start++;
+            }
+        }
+        return RegexResult.NO_MATCH;
+    }
+
+    private RegexResult createResult(RegexObject regex, Object input, int[] registers) {
+        final int numberOfCaptureGroups = backtrackerNode.getNumberOfCaptureGroups();
+        final int[] starts = new int[numberOfCaptureGroups];
+        final int[] ends = new int[numberOfCaptureGroups];
+        for (int i = 0; i < numberOfCaptureGroups; i++) {
+            starts[i] = registers[i * 2];
+            ends[i] = registers[i * 2 + 1];
+        }
+        return new StartsEndsIndexArrayResult(regex, input, starts, ends);
+    }
+
+    @Override
+    protected String getEngineLabel() {
+        return "TRegex bck";
+    }
+
+    @Override
+    public CallTarget getRegexCallTarget() {
+        return regexCallTarget;
+    }
+}
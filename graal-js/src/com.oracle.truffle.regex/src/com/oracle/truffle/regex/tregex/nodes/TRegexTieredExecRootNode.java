@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex.tregex.nodes;
+
+import com.oracle.truffle.api.Assumption;
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.interop.TruffleObject;
+import com.oracle.truffle.api.nodes.DirectCallNode;
+import com.oracle.truffle.regex.CompiledRegex;
+import com.oracle.truffle.regex.CompiledRegexObject;
+import com.oracle.truffle.regex.RegexExecRootNode;
+import com.oracle.truffle.regex.RegexLanguage;
+import com.oracle.truffle.regex.RegexObject;
+import com.oracle.truffle.regex.RegexRootNode;
+import com.oracle.truffle.regex.RegexSource;
+import com.oracle.truffle.regex.result.RegexResult;
+import com.oracle.truffle.regex.tregex.TRegexCompiler;
+import com.oracle.truffle.regex.tregex.backtrack.TRegexBacktrackingExecRootNode;
+
+/**
+ * Matches with an interim engine that is cheap to create while the DFAs of the expression are
+ * generated on a background thread. Once {@link #setDFAExecRootNode(CompiledRegex)} is called, all
+ * subsequent executions switch to the DFA-based engine.
+ * <p>
+ * The interim engine is the one of the fallback compiler (see
+ * {@link #TRegexTieredExecRootNode(RegexLanguage, TRegexCompiler, RegexSource, CompiledRegexObject)}),
+ * which is bounded by its own step limit. Since the fallback engine's call target expects the
+ * {@link RegexObject} of its own compilation result, it is called with a private
+ * {@link RegexObject} carrying that result. If there is no usable fallback compiler, a
+ * {@link TRegexBacktrackingExecRootNode backtracker} is used instead.
+ */
+public final class TRegexTieredExecRootNode extends RegexExecRootNode implements CompiledRegex {
+
+    private final TRegexCompiler compiler;
+    private final CallTarget regexCallTarget;
+    private final Assumption dfaPending;
+    private final RegexObject interimRegexObject;
+    private final String interimEngineLabel;
+    private volatile CompiledRegex dfaExecRootNode;
+    private volatile boolean dfaRequested;
+    private volatile boolean dfaBailout;
+
+    @Child private DirectCallNode interimCallNode;
+    @Child private DirectCallNode dfaCallNode;
+
+    public TRegexTieredExecRootNode(RegexLanguage language, TRegexCompiler compiler, RegexSource source, CompiledRegexObject fallbackRegex) {
+        this(language, compiler, source, fallbackRegex.getCompiledRegex(), createInterimRegexObject(compiler, source, fallbackRegex), "fallback");
+    }
+
+    public TRegexTieredExecRootNode(RegexLanguage language, TRegexCompiler compiler, RegexSource source, TRegexBacktrackingExecRootNode backtracker) {
+        this(language, compiler, source, backtracker, null, "TRegex bck");
+    }
+
+    private TRegexTieredExecRootNode(RegexLanguage language, TRegexCompiler compiler, RegexSource source, CompiledRegex interim, RegexObject interimRegexObject, String interimEngineLabel) {
+        super(language, source);
+        this.compiler = compiler;
+        this.dfaPending = Truffle.getRuntime().createAssumption("TRegex DFA pending");
+        this.interimRegexObject = interimRegexObject;
+        this.interimEngineLabel = interimEngineLabel;
+        this.interimCallNode = DirectCallNode.create(interim.getRegexCallTarget());
+        this.regexCallTarget = Truffle.getRuntime().createCallTarget(new RegexRootNode(language, this));
+    }
+
+    private static RegexObject createInterimRegexObject(TRegexCompiler compiler, RegexSource source, TruffleObject fallbackRegex) {
+        RegexObject regexObject = new RegexObject(compiler, source);
+        regexObject.setCompiledRegexObject(fallbackRegex);
+        return regexObject;
+    }
+
+    /**
+     * Asks the background compiler to generate the DFAs of this expression.
+     */
+    @TruffleBoundary
+    public void requestDFA() {
+        dfaRequested = true;
+        if (!compiler.submitBackgroundDFA(this)) {
+            // the background compiler has been shut down, stay with the interim engine
+            dfaPending.invalidate();
+        }
+    }
+
+    /**
+     * Called by the background compiler when it drops the request of this node because its queue
+     * is full. The request is repeated on the next execution.
+     */
+    public void dfaRequestDropped() {
+        dfaRequested = false;
+    }
+
+    /**
+     * Called by the background compiler thread if the DFA generation bailed out. The interim engine
+     * is kept for good and the DFAs are not requested again.
+     */
+    public void dfaBailout() {
+        dfaBailout = true;
+        dfaPending.invalidate();
+    }
+
+    /**
+     * Called by the background compiler thread once the DFAs are ready.
+     */
+    public void setDFAExecRootNode(CompiledRegex dfaExecRootNode) {
+        this.dfaExecRootNode = dfaExecRootNode;
+        dfaPending.invalidate();
+    }
+
+    @Override
+    protected RegexResult execute(VirtualFrame frame, RegexObject regex, Object input, int fromIndex) {
+        if (dfaPending.isValid() || dfaExecRootNode == null) {
+            if (!dfaRequested && dfaPending.isValid()) {
+                requestDFA();
+            }
+            return (RegexResult) interimCallNode.call(new Object[]{interimRegexObject == null ? regex : interimRegexObject, input, fromIndex});
+        }
+        if (dfaCallNode == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            dfaCallNode = insert(DirectCallNode.create(dfaExecRootNode.getRegexCallTarget()));
+        }
+        return (RegexResult) dfaCallNode.call(new Object[]{regex, input, fromIndex});
+    }
+
+    @Override
+    protected String getEngineLabel() {
+        if (dfaExecRootNode != null) {
+            return "TRegex fwd";
+        }
+        return interimEngineLabel + (dfaBailout ? " (DFA bailout)" : " (DFA pending)");
+    }
+
+    @Override
+    public CallTarget getRegexCallTarget() {
+        return regexCallTarget;
+    }
+}
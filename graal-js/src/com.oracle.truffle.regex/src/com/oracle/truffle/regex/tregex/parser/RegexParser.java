@@ -160,7 +160,7 @@ public final class RegexParser {
         ast.removeUnreachablePositionAssertions();
         ast.createPrefix();
         InitIDVisitor.init(ast);
-        if (!ast.getProperties().hasBackReferences()) {
+        if (!(ast.getProperties().hasBackReferences() || ast.getProperties().hasNestedLookBehindAssertions())) {
             new MarkLookBehindEntriesVisitor(ast).run();
         }
         return ast;
@@ -53,6 +53,7 @@ public class RegexProperties {
     private boolean complexLookAheadAssertions = false;
     private boolean lookBehindAssertions = false;
     private boolean complexLookBehindAssertions = false;
+    private boolean nestedLookBehindAssertions = false;
     private boolean negativeLookAheadAssertions = false;
     private boolean loops = false;
     private boolean largeCountedRepetitions = false;
@@ -125,6 +126,14 @@ public class RegexProperties {
         complexLookBehindAssertions = true;
     }
 
+    public boolean hasNestedLookBehindAssertions() {
+        return nestedLookBehindAssertions;
+    }
+
+    public void setNestedLookBehindAssertions() {
+        nestedLookBehindAssertions = true;
+    }
+
     public boolean hasNegativeLookAheadAssertions() {
         return negativeLookAheadAssertions;
     }
@@ -160,6 +169,7 @@ public class RegexProperties {
                         new DebugUtil.Value("ComplexLookAheadAssertions", complexLookAheadAssertions),
                         new DebugUtil.Value("LookBehindAssertions", lookBehindAssertions),
                         new DebugUtil.Value("ComplexLookBehindAssertions", complexLookBehindAssertions),
+                        new DebugUtil.Value("NestedLookBehindAssertions", nestedLookBehindAssertions),
                         new DebugUtil.Value("NegativeLookAheadAssertions", negativeLookAheadAssertions),
                         new DebugUtil.Value("Loops", loops),
                         new DebugUtil.Value("LargeCountedRepetitions", largeCountedRepetitions));
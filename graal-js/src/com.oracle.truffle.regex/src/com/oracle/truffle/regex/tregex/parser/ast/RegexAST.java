@@ -42,7 +42,6 @@ package com.oracle.truffle.regex.tregex.parser.ast;
 
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.regex.RegexSource;
-import com.oracle.truffle.regex.UnsupportedRegexException;
 import com.oracle.truffle.regex.tregex.TRegexOptions;
 import com.oracle.truffle.regex.tregex.automaton.StateIndex;
 import com.oracle.truffle.regex.tregex.matchers.MatcherBuilder;
@@ -357,7 +356,9 @@ public class RegexAST implements StateIndex<RegexASTNode> {
      * }
      */
     public void createPrefix() {
-        if (root.startsWithCaret()) {
+        if (root.startsWithCaret() || properties.hasComplexLookBehindAssertions()) {
+            // complex look-behind assertions are matched by the backtracker, which does not need a
+            // prefix
             wrappedRoot = root;
             return;
         }
@@ -367,7 +368,9 @@ public class RegexAST implements StateIndex<RegexASTNode> {
             RegexASTSubtreeRootNode laParent = lb.getSubTreeParent();
             while (!(laParent instanceof RegexASTRootNode)) {
                 if (laParent instanceof LookBehindAssertion) {
-                    throw new UnsupportedRegexException("nested look-behind assertions");
+                    properties.setNestedLookBehindAssertions();
+                    wrappedRoot = root;
+                    return;
                 }
                 minPath += laParent.getMinPath();
                 laParent = laParent.getSubTreeParent();
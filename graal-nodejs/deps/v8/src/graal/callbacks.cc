@@ -55,6 +55,7 @@
 #include "jni.h"
 #include "../../../uv/include/uv.h"
 #include "../../../../mxbuild/trufflenode/coremodules/node_snapshots.h"
+#include <assert.h>
 #include <vector>
 #include <stdlib.h>
 #include <string.h>
@@ -71,6 +72,7 @@ static const JNINativeMethod callbacks[] = {
     CALLBACK("executeFunction4", "(ILjava/lang/Object;ILjava/lang/Object;Ljava/lang/Object;ILjava/lang/Object;ILjava/lang/Object;ILjava/lang/Object;ILjava/lang/Object;)Ljava/lang/Object;", &GraalExecuteFunction4),
     CALLBACK("executeFunction5", "(ILjava/lang/Object;ILjava/lang/Object;Ljava/lang/Object;ILjava/lang/Object;ILjava/lang/Object;ILjava/lang/Object;ILjava/lang/Object;ILjava/lang/Object;)Ljava/lang/Object;", &GraalExecuteFunction5),
     CALLBACK("executeFunction6", "(ILjava/lang/Object;ILjava/lang/Object;Ljava/lang/Object;ILjava/lang/Object;ILjava/lang/Object;ILjava/lang/Object;ILjava/lang/Object;ILjava/lang/Object;ILjava/lang/Object;)Ljava/lang/Object;", &GraalExecuteFunction6),
+    CALLBACK("executeFunctionN", "(ILjava/lang/Object;ILjava/lang/Object;[Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;", &GraalExecuteFunctionN),
     CALLBACK("executeAccessorGetter", "(JLjava/lang/Object;Ljava/lang/String;[Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;", &GraalExecuteAccessorGetter),
     CALLBACK("executeAccessorSetter", "(JLjava/lang/Object;Ljava/lang/String;[Ljava/lang/Object;Ljava/lang/Object;)V", &GraalExecuteAccessorSetter),
     CALLBACK("executePropertyHandlerGetter", "(JLjava/lang/Object;[Ljava/lang/Object;Ljava/lang/Object;Z)Ljava/lang/Object;", &GraalExecutePropertyHandlerGetter),
@@ -326,6 +328,44 @@ jobject GraalExecuteFunction6(JNIEnv* env, jclass nativeAccess, jint id,
     return GraalExecuteFunction(env, isolate, id, callbackArgs, java_context);
 }
 
+// The type of every argument followed by its primitive payload (if any)
+// is passed in the shared buffer, i.e., no valueType() up-call is needed.
+jobject GraalExecuteFunctionN(JNIEnv* env, jclass nativeAccess, jint id,
+        jobject this_object, jint this_type, jobject new_target,
+        jobjectArray arguments,
+        jobject java_context) {
+    GraalIsolate* isolate = CurrentIsolateChecked();
+    isolate->ResetSharedBuffer();
+    int argc = env->GetArrayLength(arguments);
+    // The types of all arguments come first, followed by their 8-byte aligned
+    // payloads (see GraalJSAccess.marshalledPayloadOffset)
+    std::vector<int> types(argc);
+    for (int i = 0; i < argc; i++) {
+        types[i] = isolate->ReadInt32FromSharedBuffer();
+    }
+    if (argc & 1) {
+        isolate->SkipSharedBuffer(sizeof(int32_t));
+    }
+    std::vector<GraalValue*> values(argc + 1);
+    for (int i = 0; i < argc; i++) {
+        jobject java_value = env->GetObjectArrayElement(arguments, i);
+        // FromJavaObject may call back into Java (valueFlatten, valueExternal,
+        // dateValueOf, valueUnknown) before the remaining payloads are read,
+        // none of these calls must write into the shared buffer
+        int pos = isolate->SharedBufferPosition();
+        values[argc - 1 - i] = GraalValue::FromJavaObject(isolate, java_value, types[i], true);
+        int payload_size = isolate->SharedBufferPosition() - pos;
+        assert((pos & 7) == 0 && (payload_size == 0 || payload_size == 8));
+        (void) payload_size;
+    }
+    GraalValue* graal_this = GraalValue::FromJavaObject(isolate, this_object, this_type, false);
+    GraalValue* graal_callee = isolate->GetFunctionTemplateFunction(id);
+    GraalValue* graal_new_target = (new_target == NULL) ? isolate->GetUndefined() : new GraalObject(isolate, new_target);
+    GraalValue* graal_data = isolate->GetFunctionTemplateData(id);
+    GraalFunctionCallbackArguments callbackArgs(isolate, graal_this, graal_callee, graal_new_target, graal_data, values.data(), argc, new_target != NULL, true);
+    return GraalExecuteFunction(env, isolate, id, callbackArgs, java_context);
+}
+
 jobject GraalExecuteAccessorGetter(JNIEnv* env, jclass nativeAccess, jlong pointer, jobject holder, jstring name, jobjectArray arguments, jobject data) {
     GraalIsolate* isolate = CurrentIsolateChecked();
 
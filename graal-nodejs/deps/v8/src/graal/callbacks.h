@@ -98,6 +98,11 @@ jobject GraalExecuteFunction6(JNIEnv* env, jclass nativeAccess, jint id,
         jobject argument6, jint argument6_type,
         jobject java_context);
 
+jobject GraalExecuteFunctionN(JNIEnv* env, jclass nativeAccess, jint id,
+        jobject this_object, jint this_type, jobject new_target,
+        jobjectArray arguments,
+        jobject java_context);
+
 jobject GraalExecuteAccessorGetter(JNIEnv* env, jclass nativeAccess, jlong pointer, jobject holder, jstring name, jobjectArray arguments, jobject data);
 
 void GraalExecuteAccessorSetter(JNIEnv* env, jclass nativeAccess, jlong pointer, jobject holder, jstring name, jobjectArray arguments, jobject data);
@@ -433,6 +433,14 @@ public:
         shared_buffer_pos_ = 0;
     }
 
+    inline int SharedBufferPosition() {
+        return shared_buffer_pos_;
+    }
+
+    inline void SkipSharedBuffer(int bytes) {
+        shared_buffer_pos_ += bytes;
+    }
+
     inline bool StackOverflowCheckEnabled() {
         return stack_check_enabled_;
     }
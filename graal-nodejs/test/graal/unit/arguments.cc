@@ -69,4 +69,26 @@ EXPORT_TO_JS(Identity) {
     args.GetReturnValue().Set(args[0]);
 }
 
+// returns the arguments, array buffer views are described by [byteLength, byteOffset]
+
+EXPORT_TO_JS(Describe) {
+    Isolate* isolate = args.GetIsolate();
+    Local<Array> result = Array::New(isolate, args.Length());
+    for (int i = 0; i < args.Length(); i++) {
+        Local<Value> arg = args[i];
+        if (arg->IsNumber()) {
+            result->Set(i, Number::New(isolate, arg.As<Number>()->Value()));
+        } else if (arg->IsArrayBufferView()) {
+            Local<ArrayBufferView> view = arg.As<ArrayBufferView>();
+            Local<Array> description = Array::New(isolate, 2);
+            description->Set(0, Integer::New(isolate, (int) view->ByteLength()));
+            description->Set(1, Integer::New(isolate, (int) view->ByteOffset()));
+            result->Set(i, description);
+        } else {
+            result->Set(i, arg);
+        }
+    }
+    args.GetReturnValue().Set(result);
+}
+
 #undef SUITE
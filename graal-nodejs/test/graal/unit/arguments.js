@@ -105,4 +105,47 @@ describe('Arguments', function () {
             });
         });
     });
+    describe('more than six arguments', function () {
+        var buffer = new ArrayBuffer(64);
+        var values = [
+            Math.PI,
+            new Float64Array(buffer, 8, 3),
+            { foo: 'bar' },
+            -0.5,
+            new Uint8Array(buffer, 3, 5),
+            'string',
+            new DataView(buffer, 16, 24),
+            function () {},
+            NaN,
+            [1, 2, 3],
+            new Int16Array(buffer, 2),
+            -0,
+            true,
+            Number.MAX_VALUE
+        ];
+        function check(args) {
+            var result = module.Arguments_Describe.apply(null, args);
+            assert.strictEqual(result.length, args.length);
+            args.forEach(function (arg, i) {
+                if (ArrayBuffer.isView(arg)) {
+                    assert.deepStrictEqual(result[i], [arg.byteLength, arg.byteOffset]);
+                } else if (typeof arg === 'number') {
+                    assert.ok(Object.is(result[i], arg), 'argument ' + i + ': ' + result[i] + ' !== ' + arg);
+                } else {
+                    assert.strictEqual(result[i], arg);
+                }
+            });
+        }
+        it('should pass mixed numbers, array buffer views and objects', function () {
+            for (var i = 0; i < 100; i++) {
+                check(values);
+            }
+        });
+        it('should pass odd and even argument counts', function () {
+            for (var count = 7; count <= values.length; count++) {
+                check(values.slice(0, count));
+                check(values.slice(values.length - count));
+            }
+        });
+    });
 });
@@ -236,7 +236,16 @@ public final class GraalJSAccess {
      * data in the same order as you write them and perform the reading as soon as possible (as the
      * buffer may be used by any subsequent transition from Java to C).
      */
-    private final ByteBuffer sharedBuffer = ByteBuffer.allocateDirect(128).order(ByteOrder.nativeOrder());
+    private final ByteBuffer sharedBuffer = ByteBuffer.allocateDirect(SHARED_BUFFER_SIZE).order(ByteOrder.nativeOrder());
+
+    public static final int SHARED_BUFFER_SIZE = 1024;
+
+    /**
+     * Maximum size of the data marshalled into the {@link #sharedBuffer} for one argument: its
+     * type and an 8-byte payload, i.e. a {@code double} or the byte length and offset of an array
+     * buffer view (see {@link #marshalledPayloadOffset}).
+     */
+    public static final int MAX_MARSHALLED_ARGUMENT_SIZE = 12;
 
     /**
      * Caching file content, as used by e.g. the require function. While Node.js currently caches
@@ -387,6 +396,11 @@ public final class GraalJSAccess {
         } else if (JSArrayBuffer.isJSDirectArrayBuffer(obj)) {
             return ARRAY_BUFFER_OBJECT;
         } else if (JSDataView.isJSDataView(obj)) {
+            if (useSharedBuffer) {
+                JSContext context = JSObject.getJSContext(obj);
+                sharedBuffer.putInt(arrayBufferViewByteLength(context, obj));
+                sharedBuffer.putInt(arrayBufferViewByteOffset(context, obj));
+            }
             return DATA_VIEW_OBJECT;
         } else if (JSMap.isJSMap(obj)) {
             return MAP_OBJECT;
@@ -659,6 +673,39 @@ public final class GraalJSAccess {
         return flatten;
     }
 
+    /**
+     * Offset of the payloads of {@code count} arguments marshalled into the {@link #sharedBuffer}.
+     * The types of all arguments come first, followed by the 8-byte payloads (see
+     * {@link #valueType(Object, boolean)}) of the arguments that have one, in argument order. The
+     * payloads start at an 8-byte aligned offset, so that the native side reads aligned doubles.
+     * <p>
+     * The native side reads the types before it converts any argument. Converting an argument may
+     * call back into Java ({@link #valueFlatten}, {@link #valueExternal}, {@link #dateValueOf} and
+     * {@link #valueUnknown}) before all payloads have been read, so none of these must use the
+     * shared buffer.
+     */
+    public static int marshalledPayloadOffset(int count) {
+        return (count * Integer.BYTES + Double.BYTES - 1) & -Double.BYTES;
+    }
+
+    /**
+     * Marshals the arguments of a native function call into the {@link #sharedBuffer}, see
+     * {@link #marshalledPayloadOffset}. Returns the (flattened) arguments. Used by call sites that
+     * see varying numbers of arguments, others marshal their arguments with cached nodes.
+     */
+    @TruffleBoundary
+    public Object[] marshalArguments(Object[] arguments, int from) {
+        Object[] result = new Object[arguments.length - from];
+        resetSharedBuffer();
+        sharedBuffer.position(marshalledPayloadOffset(result.length));
+        for (int i = 0; i < result.length; i++) {
+            Object value = valueFlatten(arguments[from + i]);
+            sharedBuffer.putInt(i * Integer.BYTES, valueType(value, true));
+            result[i] = value;
+        }
+        return result;
+    }
+
     public Object objectGetIndex(Object object, int index) {
         Object value = valueFlatten(JSObject.get((DynamicObject) object, index));
         resetSharedBuffer();
@@ -904,8 +951,8 @@ public final class GraalJSAccess {
     }
 
     private Object typedArrayNew(Object arrayBuffer, int offset, int length, TypedArrayFactory factory) {
-        TypedArray arrayType = factory.createArrayType(true, offset != 0);
         DynamicObject dynamicObject = (DynamicObject) arrayBuffer;
+        TypedArray arrayType = factory.createArrayType(true, offset != 0, JSArrayBuffer.isReadOnlyBuffer(dynamicObject));
         JSContext context = JSObject.getJSContext(dynamicObject);
         return JSArrayBufferView.createArrayBufferView(context, dynamicObject, arrayType, offset, length);
     }
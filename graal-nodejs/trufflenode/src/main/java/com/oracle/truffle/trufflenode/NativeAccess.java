@@ -53,6 +53,16 @@ public final class NativeAccess {
 
     public static native Object executeFunction(int id, Object[] arguments, boolean isNew, boolean isNewTarget, Object context);
 
+    /**
+     * Variant of {@link #executeFunction} that passes the types (and primitive values) of the
+     * arguments in the shared buffer, see {@link GraalJSAccess#marshalledPayloadOffset}.
+     */
+    public static native Object executeFunctionN(
+                    int id,
+                    Object thisObject, int thisType, Object newTarget,
+                    Object[] arguments,
+                    Object context);
+
     public static native Object executeFunction0(
                     int id,
                     Object thisObject, int thisType, Object newTarget,
@@ -41,6 +41,7 @@
 package com.oracle.truffle.trufflenode.node;
 
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.instrumentation.StandardTags;
 import com.oracle.truffle.api.instrumentation.Tag;
@@ -82,13 +83,21 @@ public class ExecuteNativeFunctionNode extends JavaScriptNode {
     private final ConditionProfile isTemplate = ConditionProfile.createBinaryProfile();
     private final ConditionProfile eightOrLessArgs = ConditionProfile.createBinaryProfile();
     private final ConditionProfile argumentLengthTwo = ConditionProfile.createBinaryProfile();
+    private final ConditionProfile marshalledArgs = ConditionProfile.createBinaryProfile();
     private final int templateID;
     private final long functionPointer;
 
     private static final int IMPLICIT_ARG_COUNT = 2;
     private static final int EXPLICIT_ARG_COUNT = 6;
+    /**
+     * Maximum number of arguments whose types and values fit into the shared buffer (including
+     * the padding in front of the payloads, see {@link GraalJSAccess#marshalledPayloadOffset}).
+     */
+    private static final int MAX_MARSHALLED_ARG_COUNT = (GraalJSAccess.SHARED_BUFFER_SIZE - Integer.BYTES) / GraalJSAccess.MAX_MARSHALLED_ARGUMENT_SIZE;
     @Children private final ValueTypeNode[] valueTypeNodes;
     @Children private final FlattenNode[] flattenNodes;
+    @Child private MarshalArgumentsNode marshalArgumentsNode;
+    @CompilationFinal private boolean marshalArgumentsGeneric;
     @Child private GetPrototypeNode getPrototypeNode;
     @Child private PropertyGetNode prototypePropertyGetNode;
 
@@ -199,6 +208,10 @@ public class ExecuteNativeFunctionNode extends JavaScriptNode {
                     }
                 }
             }
+        } else if (marshalledArgs.profile(arguments.length <= IMPLICIT_ARG_COUNT + MAX_MARSHALLED_ARG_COUNT + offset)) {
+            int thisType = getValueType(0, thisObject);
+            Object[] nativeArguments = marshalArguments(arguments, IMPLICIT_ARG_COUNT + offset);
+            result = executeFunctionN(thisObject, thisType, newTarget, nativeArguments);
         } else {
             result = executeFunction(arguments);
         }
@@ -227,11 +240,33 @@ public class ExecuteNativeFunctionNode extends JavaScriptNode {
         return flattenNodes[index].execute(argument);
     }
 
+    private Object[] marshalArguments(Object[] arguments, int from) {
+        int count = arguments.length - from;
+        if (!marshalArgumentsGeneric) {
+            if (marshalArgumentsNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                marshalArgumentsNode = insert(new MarshalArgumentsNode(graalAccess, context, count));
+            }
+            if (marshalArgumentsNode.getCount() == count) {
+                return marshalArgumentsNode.execute(arguments, from);
+            }
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            marshalArgumentsGeneric = true;
+            marshalArgumentsNode = null;
+        }
+        return graalAccess.marshalArguments(arguments, from);
+    }
+
     @CompilerDirectives.TruffleBoundary
     private Object executeFunction(Object[] arguments) {
         return NativeAccess.executeFunction(templateID, arguments, isNew, isNewTarget, context);
     }
 
+    @CompilerDirectives.TruffleBoundary
+    private Object executeFunctionN(Object thisObject, int thisType, Object newTarget, Object[] nativeArguments) {
+        return NativeAccess.executeFunctionN(templateID, thisObject, thisType, newTarget, nativeArguments, context);
+    }
+
     @CompilerDirectives.TruffleBoundary
     private Object executeFunction0(Object thisObject, int thisType, @SuppressWarnings("unused") Object calleeObject, Object newTarget) {
         return NativeAccess.executeFunction0(templateID, thisObject, thisType, newTarget, context);
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.trufflenode.node;
+
+import java.nio.ByteBuffer;
+
+import com.oracle.truffle.api.nodes.ExplodeLoop;
+import com.oracle.truffle.js.nodes.JavaScriptBaseNode;
+import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.trufflenode.GraalJSAccess;
+
+/**
+ * Marshals a fixed number of arguments of a native function call into the shared buffer, using
+ * the same layout as {@link GraalJSAccess#marshalArguments}.
+ */
+final class MarshalArgumentsNode extends JavaScriptBaseNode {
+    private final GraalJSAccess graalAccess;
+    private final int count;
+    @Children private final ValueTypeNode[] valueTypeNodes;
+    @Children private final FlattenNode[] flattenNodes;
+
+    MarshalArgumentsNode(GraalJSAccess graalAccess, JSContext context, int count) {
+        this.graalAccess = graalAccess;
+        this.count = count;
+        this.valueTypeNodes = new ValueTypeNode[count];
+        this.flattenNodes = new FlattenNode[count];
+        for (int i = 0; i < count; i++) {
+            valueTypeNodes[i] = ValueTypeNode.create(graalAccess, context, true);
+            flattenNodes[i] = FlattenNodeGen.create();
+        }
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    @ExplodeLoop
+    Object[] execute(Object[] arguments, int from) {
+        assert arguments.length - from == count;
+        Object[] result = new Object[count];
+        ByteBuffer sharedBuffer = graalAccess.getSharedBuffer();
+        graalAccess.resetSharedBuffer();
+        sharedBuffer.position(GraalJSAccess.marshalledPayloadOffset(count));
+        for (int i = 0; i < count; i++) {
+            Object value = flattenNodes[i].execute(arguments[from + i]);
+            sharedBuffer.putInt(i * Integer.BYTES, valueTypeNodes[i].executeInt(value));
+            result[i] = value;
+        }
+        return result;
+    }
+}